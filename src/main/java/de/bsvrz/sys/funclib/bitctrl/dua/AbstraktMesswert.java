@@ -40,6 +40,11 @@ public abstract class AbstraktMesswert extends MesswertMarkierung implements Com
 	 */
 	private final String attName;
 
+	/**
+	 * der Zugriff auf das Attribut innerhalb eines Datums.
+	 */
+	private final MesswertZugriff zugriff;
+
 	/**
 	 * der Messwert als <code>double</code>.
 	 */
@@ -51,9 +56,16 @@ public abstract class AbstraktMesswert extends MesswertMarkierung implements Com
 	private long wertUnskaliert = -4;
 
 	/**
-	 * der Guete-Index.
+	 * der (unskalierte) Guete-Index, solange kein <code>GanzZahl</code>-Objekt
+	 * angefordert bzw. gesetzt wurde.
+	 */
+	private long gueteWert = GanzZahl.GUETE_EINS;
+
+	/**
+	 * der Guete-Index als Objekt. Wird erst bei Bedarf angelegt und ist danach
+	 * maßgeblich.
 	 */
-	private GanzZahl guete = GanzZahl.getGueteIndex();
+	private GanzZahl guete;
 
 	/**
 	 * das Guete-Verfahren.
@@ -76,30 +88,8 @@ public abstract class AbstraktMesswert extends MesswertMarkierung implements Com
 			throw new NullPointerException("Das Datum ist <<null>>");
 		}
 		this.attName = attName;
-
-		if (!isSkaliert()) {
-			wertUnskaliert = datum.getItem(attName).getUnscaledValue("Wert").longValue();
-		}
-
-		setNichtErfasst(datum.getItem(attName).getItem("Status").getItem("Erfassung").getUnscaledValue("NichtErfasst")
-				.intValue() == DUAKonstanten.JA);
-		setFormalMax(datum.getItem(attName).getItem("Status").getItem("PlFormal").getUnscaledValue("WertMax")
-				.intValue() == DUAKonstanten.JA);
-		setFormalMin(datum.getItem(attName).getItem("Status").getItem("PlFormal").getUnscaledValue("WertMin")
-				.intValue() == DUAKonstanten.JA);
-
-		setLogischMax(datum.getItem(attName).getItem("Status").getItem("PlLogisch").getUnscaledValue("WertMaxLogisch")
-				.intValue() == DUAKonstanten.JA);
-		setLogischMin(datum.getItem(attName).getItem("Status").getItem("PlLogisch").getUnscaledValue("WertMinLogisch")
-				.intValue() == DUAKonstanten.JA);
-
-		setImplausibel(datum.getItem(attName).getItem("Status").getItem("MessWertErsetzung")
-				.getUnscaledValue("Implausibel").intValue() == DUAKonstanten.JA);
-		setInterpoliert(datum.getItem(attName).getItem("Status").getItem("MessWertErsetzung")
-				.getUnscaledValue("Interpoliert").intValue() == DUAKonstanten.JA);
-
-		guete.setWert(datum.getItem(attName).getItem("Güte").getUnscaledValue("Index").longValue());
-		verfahren = datum.getItem(attName).getItem("Güte").getUnscaledValue("Verfahren").intValue();
+		zugriff = MesswertZugriff.getZugriff(attName);
+		zugriff.lese(datum, this);
 	}
 
 	/**
@@ -110,6 +100,7 @@ public abstract class AbstraktMesswert extends MesswertMarkierung implements Com
 	 */
 	public AbstraktMesswert(final String attName) {
 		this.attName = attName;
+		zugriff = attName != null ? MesswertZugriff.getZugriff(attName) : null;
 	}
 
 	/**
@@ -122,11 +113,15 @@ public abstract class AbstraktMesswert extends MesswertMarkierung implements Com
 	public abstract boolean isSkaliert();
 
 	/**
-	 * Erfragt die Guete dieses Attributwertes.
+	 * Erfragt die Guete dieses Attributwertes. Das Objekt wird beim ersten
+	 * Aufruf angelegt, Änderungen daran wirken auf diesen Messwert.
 	 *
 	 * @return die Guete dieses Attributwertes
 	 */
 	public final GanzZahl getGueteIndex() {
+		if (guete == null) {
+			guete = GanzZahl.getGueteIndex(gueteWert);
+		}
 		return guete;
 	}
 
@@ -138,6 +133,34 @@ public abstract class AbstraktMesswert extends MesswertMarkierung implements Com
 	 */
 	public final void setGueteIndex(final GanzZahl guete1) {
 		guete = guete1;
+		if (guete1 != null) {
+			gueteWert = guete1.getWert();
+		}
+	}
+
+	/**
+	 * Erfragt den unskalierten Wert der Guete dieses Attributwertes, ohne ein
+	 * <code>GanzZahl</code>-Objekt anzulegen.
+	 *
+	 * @return der unskalierte Wert der Guete
+	 */
+	public final long getGueteIndexWert() {
+		return guete != null ? guete.getWert() : gueteWert;
+	}
+
+	/**
+	 * Setzt den unskalierten Wert der Guete dieses Attributwertes, ohne ein
+	 * <code>GanzZahl</code>-Objekt anzulegen.
+	 *
+	 * @param wert
+	 *            der unskalierte Wert der Guete
+	 */
+	public final void setGueteIndexWert(final long wert) {
+		if (guete != null) {
+			guete.setWert(wert);
+		} else {
+			gueteWert = wert;
+		}
 	}
 
 	/**
@@ -224,36 +247,7 @@ public abstract class AbstraktMesswert extends MesswertMarkierung implements Com
 	 *            ein veränderbares Datum
 	 */
 	public final void kopiereInhaltNach(final Data datum) {
-		if (isSkaliert()) {
-			datum.getItem(attName).getScaledValue("Wert").set(wertSkaliert);
-		} else {
-			if (DUAUtensilien.isWertInWerteBereich(datum.getItem(attName).getItem("Wert"), wertUnskaliert)) {
-				datum.getItem(attName).getUnscaledValue("Wert").set(wertUnskaliert);
-			} else {
-				datum.getItem(attName).getUnscaledValue("Wert").set(DUAKonstanten.NICHT_ERMITTELBAR_BZW_FEHLERHAFT);
-			}
-		}
-
-		datum.getItem(attName).getItem("Status").getItem("Erfassung").getUnscaledValue("NichtErfasst")
-		.set(isNichtErfasst() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-
-		datum.getItem(attName).getItem("Status").getItem("PlFormal").getUnscaledValue("WertMax")
-		.set(isFormalMax() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-		datum.getItem(attName).getItem("Status").getItem("PlFormal").getUnscaledValue("WertMin")
-		.set(isFormalMin() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-
-		datum.getItem(attName).getItem("Status").getItem("PlLogisch").getUnscaledValue("WertMaxLogisch")
-		.set(isLogischMax() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-		datum.getItem(attName).getItem("Status").getItem("PlLogisch").getUnscaledValue("WertMinLogisch")
-		.set(isLogischMin() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-
-		datum.getItem(attName).getItem("Status").getItem("MessWertErsetzung").getUnscaledValue("Implausibel")
-		.set(isImplausibel() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-		datum.getItem(attName).getItem("Status").getItem("MessWertErsetzung").getUnscaledValue("Interpoliert")
-		.set(isInterpoliert() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-
-		datum.getItem(attName).getItem("Güte").getUnscaledValue("Index").set(guete.getWert());
-		datum.getItem(attName).getItem("Güte").getUnscaledValue("Verfahren").set(verfahren);
+		zugriff.schreibe(this, datum, false);
 	}
 
 	/**
@@ -263,52 +257,36 @@ public abstract class AbstraktMesswert extends MesswertMarkierung implements Com
 	 *            ein veränderbares Datum
 	 */
 	public final void kopiereInhaltNachModifiziereIndex(final Data datum) {
-		if (isSkaliert()) {
-			datum.getItem(attName).getScaledValue("Wert").set(wertSkaliert);
-		} else {
-			if (DUAUtensilien.isWertInWerteBereich(datum.getItem(attName).getItem("Wert"), wertUnskaliert)) {
-				datum.getItem(attName).getUnscaledValue("Wert").set(wertUnskaliert);
-			} else {
-				datum.getItem(attName).getUnscaledValue("Wert").set(DUAKonstanten.NICHT_ERMITTELBAR_BZW_FEHLERHAFT);
-			}
-		}
-
-		datum.getItem(attName).getItem("Status").getItem("Erfassung").getUnscaledValue("NichtErfasst")
-		.set(isNichtErfasst() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-
-		datum.getItem(attName).getItem("Status").getItem("PlFormal").getUnscaledValue("WertMax")
-		.set(isFormalMax() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-		datum.getItem(attName).getItem("Status").getItem("PlFormal").getUnscaledValue("WertMin")
-		.set(isFormalMin() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-
-		datum.getItem(attName).getItem("Status").getItem("PlLogisch").getUnscaledValue("WertMaxLogisch")
-		.set(isLogischMax() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-		datum.getItem(attName).getItem("Status").getItem("PlLogisch").getUnscaledValue("WertMinLogisch")
-		.set(isLogischMin() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-
-		datum.getItem(attName).getItem("Status").getItem("MessWertErsetzung").getUnscaledValue("Implausibel")
-		.set(isImplausibel() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-		datum.getItem(attName).getItem("Status").getItem("MessWertErsetzung").getUnscaledValue("Interpoliert")
-		.set(isInterpoliert() ? DUAKonstanten.JA : DUAKonstanten.NEIN);
-
-		if (datum.getItem(attName).getUnscaledValue("Wert").longValue() < 0) {
-			datum.getItem(attName).getItem("Güte").getUnscaledValue("Index").set(0);
-		} else {
-			datum.getItem(attName).getItem("Güte").getUnscaledValue("Index").set(guete.getWert());
-		}
-		datum.getItem(attName).getItem("Güte").getUnscaledValue("Verfahren").set(verfahren);
+		zugriff.schreibe(this, datum, true);
 	}
 
-	/* FIXME equals und hashCode verletzt den API-Kontrakt und sollte
-	 * hier entfernt bzw. überdacht werden. */
+	/**
+	 * Zwei Messwerte derselben Klasse sind gleich, wenn ihre Markierungen, ihr
+	 * Wert (bei skalierten Messwerten der skalierte, sonst der unskalierte
+	 * Wert) und ihr Güte-Index übereinstimmen.<br>
+	 * <b>Geändertes Verhalten:</b> Da <code>MesswertMarkierung.equals(..)</code>
+	 * bisher die Identität verglich, waren zwei verschiedene Messwerte bisher
+	 * nie gleich. Der geerbte <code>hashCode()</code> (die Markierungen) ist
+	 * mit diesem Vergleich verträglich, ändert sich aber mit den Markierungen,
+	 * veränderliche Messwerte sollten daher nicht als Schlüssel in
+	 * Hash-Strukturen verwendet werden.
+	 */
 	@Override
 	public boolean equals(final Object obj) {
 		boolean gleich = false;
 
-		if (obj instanceof AbstraktMesswert) {
+		if (super.equals(obj)) {
 			final AbstraktMesswert that = (AbstraktMesswert) obj;
 
-			gleich = super.equals(obj) && (getWertUnskaliert() == that.getWertUnskaliert()) && guete.equals(that.guete);
+			if (isSkaliert() != that.isSkaliert()) {
+				gleich = false;
+			} else if (isSkaliert()) {
+				gleich = (Double.compare(getWertSkaliert(), that.getWertSkaliert()) == 0)
+						&& (getGueteIndexWert() == that.getGueteIndexWert());
+			} else {
+				gleich = (getWertUnskaliert() == that.getWertUnskaliert())
+						&& (getGueteIndexWert() == that.getGueteIndexWert());
+			}
 		}
 
 		return gleich;
@@ -317,7 +295,8 @@ public abstract class AbstraktMesswert extends MesswertMarkierung implements Com
 	@Override
 	public String toString() {
 		return (isSkaliert() ? getWertSkaliert() : getWertUnskaliert()) + " " + super.toString() + " "
-				+ guete.getSkaliertenWert() + " (" + verfahren + ")";
+				+ (guete != null ? guete.getSkaliertenWert() : GanzZahl.getSkaliertenGueteIndex(gueteWert)) + " ("
+				+ verfahren + ")";
 	}
 
 	/**
@@ -0,0 +1,112 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Strategien zur Ausführung der Beobachteraufrufe von
+ * <code>KontrollProzess</code> und <code>ObjektWecker</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public final class AlarmAusfuehrung {
+
+	/**
+	 * Führt alle Aufrufe direkt im auslösenden Thread aus (Standard).
+	 */
+	public static final Executor GLEICHER_THREAD = new Executor() {
+
+		@Override
+		public void execute(final Runnable aufruf) {
+			aufruf.run();
+		}
+
+		@Override
+		public String toString() {
+			return "gleicher Thread";
+		}
+	};
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	private AlarmAusfuehrung() {
+		// es werden keine Instanzen benötigt
+	}
+
+	/**
+	 * Erzeugt eine Ausführung über einen Thread-Pool fester Größe mit einer
+	 * begrenzten Warteschlange. Ist die Warteschlange voll, so wird der
+	 * Aufruf im auslösenden Thread ausgeführt (Rückstau).
+	 *
+	 * @param anzahlThreads
+	 *            die Anzahl der Threads
+	 * @param kapazitaet
+	 *            die Kapazität der Warteschlange
+	 * @return die Ausführung
+	 */
+	public static ExecutorService begrenzt(final int anzahlThreads, final int kapazitaet) {
+		final AtomicInteger nummer = new AtomicInteger();
+		final ThreadPoolExecutor ausfuehrung = new ThreadPoolExecutor(anzahlThreads, anzahlThreads, 60,
+				TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(kapazitaet), new ThreadFactory() {
+
+					@Override
+					public Thread newThread(final Runnable r) {
+						final Thread thread = new Thread(r, "Alarm-" + nummer.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				}, new ThreadPoolExecutor.CallerRunsPolicy());
+		ausfuehrung.allowCoreThreadTimeOut(true);
+		return ausfuehrung;
+	}
+
+	/**
+	 * Erzeugt eine Ausführung, die für jeden Aufruf einen eigenen virtuellen
+	 * Thread startet. Virtuelle Threads stehen erst ab Java 21 zur Verfügung.
+	 *
+	 * @return die Ausführung
+	 * @throws UnsupportedOperationException
+	 *             wenn die JVM keine virtuellen Threads unterstützt
+	 */
+	public static ExecutorService virtuellerThreadProAlarm() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (final NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			throw new UnsupportedOperationException("Die JVM unterstützt keine virtuellen Threads", e);
+		}
+	}
+}
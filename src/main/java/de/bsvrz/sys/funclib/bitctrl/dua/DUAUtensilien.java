@@ -150,33 +150,55 @@ public final class DUAUtensilien {
 		final Collection<SystemObject> finObjekte = DUAUtensilien.getBasisInstanzen(obj, dav);
 
 		for (final SystemObject finObj : finObjekte) {
-			if ((datenBeschreibung == null)
-					|| ((datenBeschreibung.getAttributeGroup() == null) && (datenBeschreibung.getAspect() == null))) {
-				for (final AttributeGroup atg : finObj.getType().getAttributeGroups()) {
-					for (final Aspect asp : atg.getAspects()) {
-						anmeldungen.add(new DAVObjektAnmeldung(finObj, new DataDescription(atg, asp)));
-					}
-				}
-			} else if (datenBeschreibung.getAttributeGroup() == null) {
-				for (final AttributeGroup atg : finObj.getType().getAttributeGroups()) {
-					try {
-						anmeldungen.add(new DAVObjektAnmeldung(finObj,
-								new DataDescription(atg, datenBeschreibung.getAspect())));
-					} catch (final IllegalArgumentException ex) {
-						DUAUtensilien.LOGGER.fine(Constants.EMPTY_STRING, ex);
-					}
+			DUAUtensilien.sammleObjektAnmeldungen(finObj, datenBeschreibung, anmeldungen);
+		}
+
+		return anmeldungen;
+	}
+
+	/**
+	 * Fügt alle Anmeldungen unter der übergebenen Datenbeschreibung für ein
+	 * finales Objekt in die übergebene Sammlung ein. <code>null</code> steht
+	 * für die Datenbeschreibung bzw. deren Elemente jeweils für alle
+	 * Attributgruppen bzw. Aspekte. Ist nur der Aspekt angegeben, so werden
+	 * Attributgruppen, für die die Kombination ungültig ist, übergangen.
+	 *
+	 * @param finObj
+	 *            ein finales Systemobjekt
+	 * @param datenBeschreibung
+	 *            eine Datenbeschreibung
+	 * @param anmeldungen
+	 *            Sammlung, in die die Objektanmeldungen eingefügt werden
+	 * @throws IllegalArgumentException
+	 *             wenn die Kombination aus Objekt und explizit angegebener
+	 *             Attributgruppe ungültig ist
+	 */
+	public static void sammleObjektAnmeldungen(final SystemObject finObj, final DataDescription datenBeschreibung,
+			final Collection<DAVObjektAnmeldung> anmeldungen) {
+		if ((datenBeschreibung == null)
+				|| ((datenBeschreibung.getAttributeGroup() == null) && (datenBeschreibung.getAspect() == null))) {
+			for (final AttributeGroup atg : finObj.getType().getAttributeGroups()) {
+				for (final Aspect asp : atg.getAspects()) {
+					anmeldungen.add(new DAVObjektAnmeldung(finObj, new DataDescription(atg, asp)));
 				}
-			} else if (datenBeschreibung.getAspect() == null) {
-				for (final Aspect asp : datenBeschreibung.getAttributeGroup().getAspects()) {
+			}
+		} else if (datenBeschreibung.getAttributeGroup() == null) {
+			for (final AttributeGroup atg : finObj.getType().getAttributeGroups()) {
+				try {
 					anmeldungen.add(new DAVObjektAnmeldung(finObj,
-							new DataDescription(datenBeschreibung.getAttributeGroup(), asp)));
+							new DataDescription(atg, datenBeschreibung.getAspect())));
+				} catch (final IllegalArgumentException ex) {
+					DUAUtensilien.LOGGER.fine(Constants.EMPTY_STRING, ex);
 				}
-			} else {
-				anmeldungen.add(new DAVObjektAnmeldung(finObj, datenBeschreibung));
 			}
+		} else if (datenBeschreibung.getAspect() == null) {
+			for (final Aspect asp : datenBeschreibung.getAttributeGroup().getAspects()) {
+				anmeldungen.add(new DAVObjektAnmeldung(finObj,
+						new DataDescription(datenBeschreibung.getAttributeGroup(), asp)));
+			}
+		} else {
+			anmeldungen.add(new DAVObjektAnmeldung(finObj, datenBeschreibung));
 		}
-
-		return anmeldungen;
 	}
 
 	/**
@@ -38,6 +38,24 @@ import de.bsvrz.sys.funclib.bitctrl.daf.AbstractDavZustand;
  */
 public class GanzZahl implements Comparable<GanzZahl> {
 
+	/**
+	 * Skalierungsfaktor eines Gueteindizes.
+	 */
+	public static final double GUETE_SKALIERUNG = 0.0001;
+
+	/**
+	 * unskalierter Wert eines Gueteindizes von 1.0.
+	 */
+	public static final long GUETE_EINS = 10000;
+
+	/**
+	 * die (gemeinsam genutzten) Zustaende einer Messwertzahl bzw. eines
+	 * Gueteindizes.
+	 */
+	private static final ZustandsTabelle MESSWERT_ZUSTAENDE = new ZustandsTabelle(
+			new AbstractDavZustand[] { MesswertZustand.FEHLERHAFT, MesswertZustand.NICHT_ERMITTELBAR,
+					MesswertZustand.FEHLERHAFT_BZW_NICHT_ERMITTELBAR });
+
 	/**
 	 * der Wert an sich.
 	 */
@@ -49,9 +67,9 @@ public class GanzZahl implements Comparable<GanzZahl> {
 	private double skalierungsFaktor = 1.0;
 
 	/**
-	 * Menge der Zustaende dieser Ganzzahl.
+	 * Menge der Zustaende dieser Ganzzahl (<code>null</code> = keine).
 	 */
-	private AbstractDavZustand[] zustaende;
+	private ZustandsTabelle zustaende;
 
 	/**
 	 * der aktuelle Zustand.
@@ -70,8 +88,7 @@ public class GanzZahl implements Comparable<GanzZahl> {
 	 * @return eine Instanz einer normalen Messwertzahl
 	 */
 	public static final GanzZahl getMWZahl() {
-		return new GanzZahl(new AbstractDavZustand[] { MesswertZustand.FEHLERHAFT, MesswertZustand.NICHT_ERMITTELBAR,
-				MesswertZustand.FEHLERHAFT_BZW_NICHT_ERMITTELBAR });
+		return new GanzZahl(1.0, GanzZahl.MESSWERT_ZUSTAENDE, 0);
 	}
 
 	/**
@@ -83,10 +100,44 @@ public class GanzZahl implements Comparable<GanzZahl> {
 	 * @return eine Instanz eines Gueteindizes
 	 */
 	public static final GanzZahl getGueteIndex() {
-		final GanzZahl gueteIndex = new GanzZahl(0.0001, new AbstractDavZustand[] { MesswertZustand.FEHLERHAFT,
-				MesswertZustand.NICHT_ERMITTELBAR, MesswertZustand.FEHLERHAFT_BZW_NICHT_ERMITTELBAR });
-		gueteIndex.setWert(10000);
-		return gueteIndex;
+		return GanzZahl.getGueteIndex(GanzZahl.GUETE_EINS);
+	}
+
+	/**
+	 * Erfragt eine Instanz eines Gueteindizes (wie <code>getGueteIndex()</code>)
+	 * mit einem vorgegebenen Wert.
+	 *
+	 * @param wert
+	 *            der unskalierte Wert
+	 * @return eine Instanz eines Gueteindizes
+	 */
+	public static final GanzZahl getGueteIndex(final long wert) {
+		return new GanzZahl(GanzZahl.GUETE_SKALIERUNG, GanzZahl.MESSWERT_ZUSTAENDE, wert);
+	}
+
+	/**
+	 * Erfragt den Zustand einer Messwertzahl bzw. eines Gueteindizes ohne eine
+	 * Instanz anzulegen.
+	 *
+	 * @param wert
+	 *            der unskalierte Wert
+	 * @return der Zustand oder <code>null</code>, wenn der Wert keinen Zustand
+	 *         darstellt
+	 */
+	public static final AbstractDavZustand getMesswertZustand(final long wert) {
+		return GanzZahl.MESSWERT_ZUSTAENDE.getZustand(wert);
+	}
+
+	/**
+	 * Erfragt den skalierten Wert eines Gueteindizes ohne eine Instanz
+	 * anzulegen.
+	 *
+	 * @param wert
+	 *            der unskalierte Wert
+	 * @return der skalierte Wert
+	 */
+	public static final double getSkaliertenGueteIndex(final long wert) {
+		return wert * GanzZahl.GUETE_SKALIERUNG;
 	}
 
 	/**
@@ -113,8 +164,7 @@ public class GanzZahl implements Comparable<GanzZahl> {
 	 *            Menge von Zustaenden
 	 */
 	public GanzZahl(final AbstractDavZustand[] zustaende) {
-		this.zustaende = zustaende;
-		setWert(0);
+		this(1.0, zustaende);
 	}
 
 	/**
@@ -126,13 +176,29 @@ public class GanzZahl implements Comparable<GanzZahl> {
 	 *            Menge von Zustaenden
 	 */
 	public GanzZahl(final double skalierungsFaktor, final AbstractDavZustand[] zustaende) {
+		this(skalierungsFaktor, zustaende != null ? new ZustandsTabelle(zustaende) : null, 0);
+	}
+
+	/**
+	 * Konstruktor mit Skalierungsfaktor, (ggf. gemeinsam genutzter)
+	 * Zustandstabelle und Wert.
+	 *
+	 * @param skalierungsFaktor
+	 *            der Skalierungsfaktor
+	 * @param zustaende
+	 *            die Zustandstabelle
+	 * @param wert
+	 *            der Wert
+	 */
+	private GanzZahl(final double skalierungsFaktor, final ZustandsTabelle zustaende, final long wert) {
 		this.skalierungsFaktor = skalierungsFaktor;
 		this.zustaende = zustaende;
-		setWert(0);
+		setWert(wert);
 	}
 
 	/**
-	 * Kopierkonstruktor.
+	 * Kopierkonstruktor. Die (unveränderliche) Zustandsmenge wird mit der
+	 * Vorlage gemeinsam genutzt.
 	 *
 	 * @param vorlage
 	 *            das zu kopierende <code>GanzZahl</code>-Objekt
@@ -140,10 +206,7 @@ public class GanzZahl implements Comparable<GanzZahl> {
 	public GanzZahl(final GanzZahl vorlage) {
 		wert = vorlage.wert;
 		skalierungsFaktor = vorlage.skalierungsFaktor;
-		zustaende = new AbstractDavZustand[vorlage.zustaende.length];
-		for (int i = 0; i < vorlage.zustaende.length; i++) {
-			zustaende[i] = vorlage.zustaende[i];
-		}
+		zustaende = vorlage.zustaende;
 		aktuellerZustand = vorlage.aktuellerZustand;
 	}
 
@@ -166,13 +229,7 @@ public class GanzZahl implements Comparable<GanzZahl> {
 		this.wert = wert;
 
 		if (zustaende != null) {
-			aktuellerZustand = null;
-			for (final AbstractDavZustand zustand : zustaende) {
-				if (zustand.getCode() == this.wert) {
-					aktuellerZustand = zustand;
-					break;
-				}
-			}
+			aktuellerZustand = zustaende.getZustand(wert);
 		}
 	}
 
@@ -233,10 +290,10 @@ public class GanzZahl implements Comparable<GanzZahl> {
 		s += "Wert (unskaliert): " + getWert();
 		s += "\nWert (skaliert): " + getSkaliertenWert() + ", (F: " + skalierungsFaktor + ")";
 		s += "\nZustaende: ";
-		if ((zustaende == null) || (zustaende.length == 0)) {
+		if ((zustaende == null) || (zustaende.zustaende.length == 0)) {
 			s += "keine";
 		} else {
-			for (final AbstractDavZustand zustand : zustaende) {
+			for (final AbstractDavZustand zustand : zustaende.zustaende) {
 				s += "\n" + zustand.toString() + " (" + zustand.getCode() + ")";
 			}
 
@@ -259,4 +316,84 @@ public class GanzZahl implements Comparable<GanzZahl> {
 		return new Long(getWert()).compareTo(that.getWert());
 	}
 
+	/**
+	 * Unveränderliche Menge von Zustaenden mit einer vorberechneten Zuordnung
+	 * Code -&gt; Zustand. Liegen die Codes in einem kleinen Bereich, so erfolgt
+	 * die Zuordnung über ein Feld, sonst über die Liste der Zustaende.
+	 */
+	private static final class ZustandsTabelle {
+
+		/**
+		 * maximale Größe des Feldes für die direkte Zuordnung.
+		 */
+		private static final int MAX_BEREICH = 64;
+
+		/**
+		 * die Zustaende.
+		 */
+		private final AbstractDavZustand[] zustaende;
+
+		/**
+		 * der kleinste Code.
+		 */
+		private final long minCode;
+
+		/**
+		 * Zustaende nach Code (Index = Code - <code>minCode</code>) oder
+		 * <code>null</code>, wenn die Codes keinen kleinen Bereich bilden.
+		 */
+		private final AbstractDavZustand[] nachCode;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param zustaende
+		 *            die Zustaende (werden kopiert)
+		 */
+		private ZustandsTabelle(final AbstractDavZustand[] zustaende) {
+			this.zustaende = zustaende.clone();
+
+			long min = Long.MAX_VALUE;
+			long max = Long.MIN_VALUE;
+			for (final AbstractDavZustand zustand : this.zustaende) {
+				min = Math.min(min, zustand.getCode());
+				max = Math.max(max, zustand.getCode());
+			}
+
+			if ((this.zustaende.length > 0) && ((max - min) < ZustandsTabelle.MAX_BEREICH)) {
+				minCode = min;
+				nachCode = new AbstractDavZustand[(int) (max - min) + 1];
+				for (int i = this.zustaende.length - 1; i >= 0; i--) {
+					nachCode[(int) (this.zustaende[i].getCode() - min)] = this.zustaende[i];
+				}
+			} else {
+				minCode = 0;
+				nachCode = null;
+			}
+		}
+
+		/**
+		 * Erfragt den Zustand zu einem Wert.
+		 *
+		 * @param wert
+		 *            der Wert
+		 * @return der (erste) Zustand mit diesem Code oder <code>null</code>
+		 */
+		private AbstractDavZustand getZustand(final long wert) {
+			if (nachCode != null) {
+				final long index = wert - minCode;
+				if ((index >= 0) && (index < nachCode.length)) {
+					return nachCode[(int) index];
+				}
+				return null;
+			}
+			for (final AbstractDavZustand zustand : zustaende) {
+				if (zustand.getCode() == wert) {
+					return zustand;
+				}
+			}
+			return null;
+		}
+	}
+
 }
@@ -0,0 +1,102 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Ermöglicht das Austauschen einer gemeinsam genutzten Konfiguration, ohne dass
+ * die lesenden Threads eine Sperre benötigen (Prinzip <i>read-copy-update</i>).
+ * <br>
+ * Ein Leser meldet sich vor dem Lesen der Konfiguration mit
+ * <code>betrete()</code> an und nach dem Ende der Benutzung mit
+ * <code>verlasse(..)</code> wieder ab. Der Schreiber tauscht die Konfiguration
+ * aus (z.B. über ein <code>volatile</code>-Feld) und wartet danach mit
+ * <code>abwarten()</code>, bis alle Leser, die eventuell noch die alte
+ * Konfiguration benutzen, fertig sind. Danach kann er die von der alten
+ * Konfiguration belegten Ressourcen (z.B. Datenanmeldungen) freigeben.<br>
+ * Die Leser werden dazu auf zwei Epochen verteilt. <code>abwarten()</code>
+ * schaltet die Epoche weiter und wartet nur auf die Leser der vorherigen
+ * Epoche, d.h. auch unter Dauerlast terminiert das Warten.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public class GnadenFrist {
+
+	/**
+	 * die aktuelle Epoche.
+	 */
+	private final AtomicInteger epoche = new AtomicInteger();
+
+	/**
+	 * die Anzahl der aktiven Leser pro Epoche (gerade/ungerade).
+	 */
+	private final AtomicIntegerArray leser = new AtomicIntegerArray(2);
+
+	/**
+	 * Meldet einen Leser an.
+	 *
+	 * @return die Epoche des Lesers (ist an <code>verlasse(..)</code> zu
+	 *         übergeben)
+	 */
+	public final int betrete() {
+		while (true) {
+			final int e = epoche.get();
+			leser.incrementAndGet(e & 1);
+			if (epoche.get() == e) {
+				return e;
+			}
+			/* die Epoche wurde inzwischen weitergeschaltet */
+			leser.decrementAndGet(e & 1);
+		}
+	}
+
+	/**
+	 * Meldet einen Leser ab.
+	 *
+	 * @param e
+	 *            die von <code>betrete()</code> gelieferte Epoche
+	 */
+	public final void verlasse(final int e) {
+		leser.decrementAndGet(e & 1);
+	}
+
+	/**
+	 * Wartet, bis alle Leser, die vor dem Aufruf dieser Methode angemeldet
+	 * waren, wieder abgemeldet sind.
+	 *
+	 * @throws InterruptedException
+	 *             wenn der Thread beim Warten unterbrochen wurde
+	 */
+	public final synchronized void abwarten() throws InterruptedException {
+		final int alt = epoche.getAndIncrement();
+		while (leser.get(alt & 1) != 0) {
+			Thread.sleep(1);
+		}
+	}
+}
@@ -28,11 +28,16 @@ package de.bsvrz.sys.funclib.bitctrl.dua;
 
 import java.text.SimpleDateFormat;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Date;
-import java.util.HashSet;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
 
 import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IKontrollProzessListener;
 import de.bsvrz.sys.funclib.debug.Debug;
@@ -41,24 +46,85 @@ import de.bsvrz.sys.funclib.debug.Debug;
  * Instanzen dieser Klasse rufen zu bestimmten Zeitpunkten all ihre Beobachter
  * auf und teilen diesen dann eine bestimmte Information des generischen Typs
  * <code>T</code> mit. Der Zeitpunkt sowie die Information können dabei während
- * der Laufzeit verändert werden
+ * der Laufzeit verändert werden.<br>
+ * Alle Instanzen teilen sich einen gemeinsamen Thread-Pool, dessen Größe über
+ * die System-Property <code>PROPERTY_ANZAHL_THREADS</code> bzw. die Methode
+ * <code>setAnzahlThreads(..)</code> festgelegt wird.<br>
+ * Standardmäßig werden die Beobachter direkt im Thread des Thread-Pools und
+ * damit nie parallel aufgerufen. Über <code>setAlarmAusfuehrung(..)</code>
+ * kann eine andere Ausführung (z.B. aus <code>AlarmAusfuehrung</code>)
+ * eingestellt werden, die die Beobachter ggf. parallel aufruft. Der Verzug
+ * der Beobachteraufrufe gegenüber dem eingeplanten Zeitpunkt wird in einer
+ * <code>VerzugsStatistik</code> erfasst.
  *
  * @author BitCtrl Systems GmbH, Thierfelder
  *
  * @param <T>
  *            Information
  */
-public class KontrollProzess<T> {
+public class KontrollProzess<T> implements AutoCloseable {
 
 	/**
-	 * der Timer, der den Prozess steuert.
+	 * Name der System-Property, über die die Anzahl der Threads des
+	 * gemeinsamen Thread-Pools aller Kontrollprozesse festgelegt werden kann.
 	 */
-	private final Timer timer;
+	public static final String PROPERTY_ANZAHL_THREADS = "de.bsvrz.sys.funclib.bitctrl.dua.kontrollprozess.threads";
 
 	/**
-	 * aktueller Prozess.
+	 * Standardanzahl der Threads des gemeinsamen Thread-Pools.
 	 */
-	private Prozess prozess;
+	public static final int STANDARD_ANZAHL_THREADS = 2;
+
+	private static final Debug LOGGER = Debug.getLogger();
+
+	/**
+	 * der gemeinsame Thread-Pool aller Kontrollprozesse.
+	 */
+	private static ScheduledThreadPoolExecutor ausfuehrer;
+
+	/**
+	 * die aktuell eingestellte Anzahl der Threads des gemeinsamen
+	 * Thread-Pools.
+	 */
+	private static int anzahlThreads = Integer.getInteger(KontrollProzess.PROPERTY_ANZAHL_THREADS,
+			KontrollProzess.STANDARD_ANZAHL_THREADS);
+
+	/**
+	 * zeigt an, ob der Shutdown-Hook bereits registriert wurde.
+	 */
+	private static boolean shutdownHookRegistriert;
+
+	/**
+	 * der Prozess, der zum nächsten Aufrufzeitpunkt ausgeführt wird.
+	 */
+	private final Prozess prozess = new Prozess();
+
+	/**
+	 * die Planung des Prozesses im gemeinsamen Thread-Pool.
+	 */
+	private ScheduledFuture<?> planung;
+
+	/**
+	 * der Zeitpunkt, für den der Prozess momentan im Thread-Pool eingeplant
+	 * ist, bzw. <code>-1</code>, wenn er nicht eingeplant ist.
+	 */
+	private long geplanterZeitpunkt = -1;
+
+	/**
+	 * zeigt an, ob dieser Kontrollprozess beendet wurde.
+	 */
+	private boolean beendet;
+
+	/**
+	 * zeigt an, ob der Prozess gerade seine Beobachter aufruft.
+	 */
+	private boolean laeuft;
+
+	/**
+	 * zeigt an, ob eine Ausführung des Prozesses während eines laufenden
+	 * Beobachteraufrufs fällig wurde und danach nachgeholt werden muss.
+	 */
+	private boolean nachholen;
 
 	/**
 	 * nächster Zeitpunkt, zu dem dieser Prozess seine Beobachter informiert.
@@ -74,42 +140,132 @@ public class KontrollProzess<T> {
 	/**
 	 * Menge von Beobachtern, die auf diesen Prozess hören.
 	 */
-	private final Collection<IKontrollProzessListener<T>> listenerMenge = Collections
-			.synchronizedSet(new HashSet<IKontrollProzessListener<T>>());
+	private final Collection<IKontrollProzessListener<T>> listenerMenge = new CopyOnWriteArraySet<>();
+
+	/**
+	 * die Ausführung der Beobachteraufrufe.
+	 */
+	private volatile Executor alarmAusfuehrung = AlarmAusfuehrung.GLEICHER_THREAD;
+
+	/**
+	 * Statistik über den Verzug der Beobachteraufrufe.
+	 */
+	private final VerzugsStatistik verzugsStatistik = new VerzugsStatistik();
 
 	/**
 	 * Standardkonstruktor.
 	 */
 	public KontrollProzess() {
-		this.timer = new Timer();
-		this.prozess = new Prozess();
+		//
+	}
+
+	/**
+	 * Erfragt den gemeinsamen Thread-Pool aller Kontrollprozesse. Dieser wird
+	 * bei Bedarf (erneut) angelegt.
+	 *
+	 * @return der gemeinsame Thread-Pool
+	 */
+	private static synchronized ScheduledThreadPoolExecutor getAusfuehrer() {
+		if ((KontrollProzess.ausfuehrer == null) || KontrollProzess.ausfuehrer.isShutdown()) {
+			final ScheduledThreadPoolExecutor neuerAusfuehrer = new ScheduledThreadPoolExecutor(
+					KontrollProzess.anzahlThreads, new KontrollProzessThreadFactory());
+			neuerAusfuehrer.setRemoveOnCancelPolicy(true);
+			neuerAusfuehrer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+			KontrollProzess.ausfuehrer = neuerAusfuehrer;
+
+			if (!KontrollProzess.shutdownHookRegistriert) {
+				Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+
+					@Override
+					public void run() {
+						KontrollProzess.beendeAlle();
+					}
+				}, "KontrollProzess-Shutdown"));
+				KontrollProzess.shutdownHookRegistriert = true;
+			}
+		}
+		return KontrollProzess.ausfuehrer;
+	}
+
+	/**
+	 * Setzt die Anzahl der Threads des gemeinsamen Thread-Pools aller
+	 * Kontrollprozesse.
+	 *
+	 * @param anzahl
+	 *            die Anzahl der Threads (&gt; 0)
+	 */
+	public static synchronized void setAnzahlThreads(final int anzahl) {
+		if (anzahl <= 0) {
+			throw new IllegalArgumentException("Anzahl der Threads muss positiv sein: " + anzahl);
+		}
+		KontrollProzess.anzahlThreads = anzahl;
+		if (KontrollProzess.ausfuehrer != null) {
+			KontrollProzess.ausfuehrer.setCorePoolSize(anzahl);
+		}
+	}
+
+	/**
+	 * Beendet den gemeinsamen Thread-Pool aller Kontrollprozesse. Alle
+	 * eingeplanten Aufrufe verfallen. Eine danach vorgenommene Einplanung
+	 * eines Kontrollprozesses legt den Thread-Pool neu an.
+	 */
+	public static synchronized void beendeAlle() {
+		if (KontrollProzess.ausfuehrer != null) {
+			KontrollProzess.ausfuehrer.shutdownNow();
+			KontrollProzess.ausfuehrer = null;
+		}
 	}
 
 	/**
 	 * Setzt den nächsten Zeitpunkt, zu dem dieser Prozess seine Beobachter
 	 * informiert<br>
 	 * <b>Achtung:</b> Wenn der nächste Aufrufzeitpunkt in der Vergangenheit
-	 * liegt, wird er sofort ausgeführt.
+	 * liegt, wird er sofort ausgeführt.<br>
+	 * Wird der Aufrufzeitpunkt nach hinten verschoben, so bleibt die bisherige
+	 * Einplanung bestehen und der Prozess plant sich bei seiner Ausführung
+	 * selbst für die Restzeit neu ein. Das Verschieben nach hinten erfolgt
+	 * damit ohne Speicheranforderung.
 	 *
 	 * @param zeitpunktInMillis
 	 *            nächster Zeitpunkt, zu dem dieser Prozess seine Beobachter
 	 *            informiert
+	 * @throws IllegalStateException
+	 *             wenn der Kontrollprozess bereits beendet wurde
 	 */
 	public final synchronized void setNaechstenAufrufZeitpunkt(final long zeitpunktInMillis) {
+		if (beendet) {
+			throw new IllegalStateException("Der Kontrollprozess wurde bereits beendet");
+		}
 		if (this.naechsterAufrufZeitpunkt != zeitpunktInMillis) {
-			final SimpleDateFormat dateFormat = new SimpleDateFormat(DUAKonstanten.ZEIT_FORMAT_GENAU_STR);
-			Debug.getLogger()
-			.info("Der eingeplante Kontrollzeitpunkt wird verändert" + "\nAlt: "
-					+ dateFormat.format(new Date(this.naechsterAufrufZeitpunkt)) + "\nNeu: "
-					+ dateFormat.format(new Date(zeitpunktInMillis)));
+			if (KontrollProzess.LOGGER.isLoggable(Level.INFO)) {
+				final SimpleDateFormat dateFormat = new SimpleDateFormat(DUAKonstanten.ZEIT_FORMAT_GENAU_STR);
+				KontrollProzess.LOGGER.info("Der eingeplante Kontrollzeitpunkt wird verändert" + "\nAlt: "
+						+ dateFormat.format(new Date(this.naechsterAufrufZeitpunkt)) + "\nNeu: "
+						+ dateFormat.format(new Date(zeitpunktInMillis)));
+			}
 			this.naechsterAufrufZeitpunkt = zeitpunktInMillis;
-			this.prozess.cancel();
-			this.timer.purge();
-			this.prozess = new Prozess();
-			timer.schedule(this.prozess, new Date(this.naechsterAufrufZeitpunkt));
+			if ((geplanterZeitpunkt < 0) || (zeitpunktInMillis < geplanterZeitpunkt)) {
+				if (planung != null) {
+					planung.cancel(false);
+				}
+				plane(zeitpunktInMillis);
+			}
 		}
 	}
 
+	/**
+	 * Plant den Prozess im gemeinsamen Thread-Pool für einen absoluten
+	 * Zeitpunkt ein.
+	 *
+	 * @param zeitpunktInMillis
+	 *            der Zeitpunkt
+	 */
+	private void plane(final long zeitpunktInMillis) {
+		final long verzoegerung = Math.max(0, zeitpunktInMillis - System.currentTimeMillis());
+		geplanterZeitpunkt = zeitpunktInMillis;
+		planung = KontrollProzess.getAusfuehrer().schedule(prozess, verzoegerung, TimeUnit.MILLISECONDS);
+	}
+
 	/**
 	 * Setzt den nächsten Zeitpunkt, zu dem dieser Prozess seine Beobachter
 	 * informiert und übergibt eine Information, die zu diesem Zeitpunkt an alle
@@ -171,9 +327,7 @@ public class KontrollProzess<T> {
 	 */
 	public final void addListener(final IKontrollProzessListener<T> listener) {
 		if (listener != null) {
-			synchronized (this.listenerMenge) {
-				this.listenerMenge.add(listener);
-			}
+			this.listenerMenge.add(listener);
 		}
 	}
 
@@ -185,29 +339,210 @@ public class KontrollProzess<T> {
 	 */
 	public final void removeListener(final IKontrollProzessListener<T> listener) {
 		if (listener != null) {
-			synchronized (this.listenerMenge) {
-				this.listenerMenge.remove(listener);
+			this.listenerMenge.remove(listener);
+		}
+	}
+
+	/**
+	 * Setzt die Ausführung der Beobachteraufrufe. Weist die Ausführung einen
+	 * Aufruf zurück, so wird er direkt im Thread des Thread-Pools ausgeführt.
+	 *
+	 * @param ausfuehrung
+	 *            die Ausführung oder <code>null</code> für den Aufruf im
+	 *            Thread des Thread-Pools
+	 */
+	public final void setAlarmAusfuehrung(final Executor ausfuehrung) {
+		this.alarmAusfuehrung = ausfuehrung != null ? ausfuehrung : AlarmAusfuehrung.GLEICHER_THREAD;
+	}
+
+	/**
+	 * Erfragt die Ausführung der Beobachteraufrufe.
+	 *
+	 * @return die Ausführung der Beobachteraufrufe
+	 */
+	public final Executor getAlarmAusfuehrung() {
+		return this.alarmAusfuehrung;
+	}
+
+	/**
+	 * Erfragt die Statistik über den Verzug der Beobachteraufrufe gegenüber
+	 * dem jeweils eingeplanten Aufrufzeitpunkt.
+	 *
+	 * @return die Verzugsstatistik
+	 */
+	public final VerzugsStatistik getVerzugsStatistik() {
+		return this.verzugsStatistik;
+	}
+
+	/**
+	 * Beendet diesen Kontrollprozess. Ein noch eingeplanter Aufruf verfällt,
+	 * alle Beobachter werden entfernt. Der gemeinsame Thread-Pool bleibt davon
+	 * unberührt.
+	 */
+	@Override
+	public final void close() {
+		synchronized (this) {
+			beendet = true;
+			if (planung != null) {
+				planung.cancel(false);
+				planung = null;
 			}
+			geplanterZeitpunkt = -1;
 		}
+		listenerMenge.clear();
 	}
 
 	/**
 	 * Prozess, der zu einem bestimmten Zeitpunkt alle Beobachter informiert.
+	 * Die Ausführungen eines Kontrollprozesses erfolgen nacheinander: wird der
+	 * Prozess fällig, während er noch seine Beobachter aufruft, so wird die
+	 * Ausführung im Anschluss nachgeholt.
 	 *
 	 * @author BitCtrl Systems GmbH, Thierfelder
 	 *
 	 */
-	protected class Prozess extends TimerTask {
+	protected class Prozess implements Runnable {
 
 		@Override
 		public void run() {
-			synchronized (KontrollProzess.this.listenerMenge) {
-				for (final IKontrollProzessListener<T> listener : KontrollProzess.this.listenerMenge) {
-					listener.trigger(KontrollProzess.this.aktuelleInformation);
+			final T information;
+			final long aufrufZeitpunkt;
+			synchronized (KontrollProzess.this) {
+				if (beendet) {
+					return;
+				}
+
+				if ((planung != null) && (planung.getDelay(TimeUnit.NANOSECONDS) > 0)) {
+					/* veraltete Ausführung, es liegt eine neuere Einplanung vor */
+					return;
+				}
+
+				if (laeuft) {
+					/* die Beobachter werden noch aufgerufen: danach nachholen */
+					nachholen = true;
+					return;
+				}
+				final long jetzt = System.currentTimeMillis();
+
+				/*
+				 * Der Aufrufzeitpunkt wurde zwischenzeitlich nach hinten
+				 * verschoben oder der Thread-Pool (der mit einer monotonen Uhr
+				 * plant) hat den Prozess etwas zu früh ausgeführt: Einplanung
+				 * für die Restzeit.
+				 */
+				if (jetzt < naechsterAufrufZeitpunkt) {
+					plane(naechsterAufrufZeitpunkt);
+					return;
+				}
+				geplanterZeitpunkt = -1;
+				information = aktuelleInformation;
+				aufrufZeitpunkt = naechsterAufrufZeitpunkt;
+				laeuft = true;
+			}
+
+			try {
+				informiereBeobachter(information, aufrufZeitpunkt);
+			} finally {
+				synchronized (KontrollProzess.this) {
+					laeuft = false;
+					if (nachholen) {
+						nachholen = false;
+						if (!beendet) {
+							plane(naechsterAufrufZeitpunkt);
+						}
+					}
 				}
 			}
 		}
 
+		/**
+		 * Ruft alle Beobachter auf.
+		 *
+		 * @param information
+		 *            die weiterzuleitende Information
+		 * @param aufrufZeitpunkt
+		 *            der eingeplante Aufrufzeitpunkt
+		 */
+		private void informiereBeobachter(final T information, final long aufrufZeitpunkt) {
+			final Executor ausfuehrung = alarmAusfuehrung;
+			for (final IKontrollProzessListener<T> listener : listenerMenge) {
+				if (ausfuehrung == AlarmAusfuehrung.GLEICHER_THREAD) {
+					verzugsStatistik.erfasse(aufrufZeitpunkt, System.currentTimeMillis());
+					listener.trigger(information);
+				} else {
+					final Aufruf aufruf = new Aufruf(listener, information, aufrufZeitpunkt);
+					try {
+						ausfuehrung.execute(aufruf);
+					} catch (final RejectedExecutionException e) {
+						KontrollProzess.LOGGER
+								.warning("Beobachteraufruf wurde abgewiesen und wird direkt ausgeführt", e);
+						aufruf.run();
+					}
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Aufruf eines Beobachters über eine separate Ausführung.
+	 */
+	private final class Aufruf implements Runnable {
+
+		/**
+		 * der aufzurufende Beobachter.
+		 */
+		private final IKontrollProzessListener<T> listener;
+
+		/**
+		 * die weiterzuleitende Information.
+		 */
+		private final T information;
+
+		/**
+		 * der eingeplante Aufrufzeitpunkt.
+		 */
+		private final long aufrufZeitpunkt;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param listener
+		 *            der aufzurufende Beobachter
+		 * @param information
+		 *            die weiterzuleitende Information
+		 * @param aufrufZeitpunkt
+		 *            der eingeplante Aufrufzeitpunkt
+		 */
+		private Aufruf(final IKontrollProzessListener<T> listener, final T information, final long aufrufZeitpunkt) {
+			this.listener = listener;
+			this.information = information;
+			this.aufrufZeitpunkt = aufrufZeitpunkt;
+		}
+
+		@Override
+		public void run() {
+			verzugsStatistik.erfasse(aufrufZeitpunkt, System.currentTimeMillis());
+			listener.trigger(information);
+		}
+	}
+
+	/**
+	 * Erzeugt die (Daemon-)Threads des gemeinsamen Thread-Pools.
+	 */
+	private static final class KontrollProzessThreadFactory implements ThreadFactory {
+
+		/**
+		 * laufende Nummer der Threads.
+		 */
+		private final AtomicInteger nummer = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable r) {
+			final Thread thread = new Thread(r, "KontrollProzess-" + nummer.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
 	}
 
 }
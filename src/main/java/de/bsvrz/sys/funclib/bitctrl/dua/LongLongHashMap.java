@@ -0,0 +1,314 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.Arrays;
+
+/**
+ * Hash-Map mit primitiven <code>long</code>-Schlüsseln und -Werten (offene
+ * Adressierung mit linearer Sondierung). Im Gegensatz zu einer
+ * <code>Map&lt;Long, Long&gt;</code> erfolgen Abfragen und das Überschreiben
+ * vorhandener Einträge ohne Boxing und ohne Speicheranforderung. Die Map ist
+ * für Zustände pro Systemobjekt gedacht, die über die Objekt-ID adressiert
+ * werden.<br>
+ * <b>Achtung:</b> Die Klasse ist nicht threadsicher. Die Synchronisation muss
+ * durch den Aufrufer erfolgen.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public class LongLongHashMap {
+
+	/**
+	 * Standardwert für die Anfangskapazität.
+	 */
+	private static final int STANDARD_KAPAZITAET = 16;
+
+	/**
+	 * die Schlüssel.
+	 */
+	private long[] schluessel;
+
+	/**
+	 * die Werte.
+	 */
+	private long[] werte;
+
+	/**
+	 * zeigt pro Platz an, ob dieser belegt ist.
+	 */
+	private boolean[] belegt;
+
+	/**
+	 * Bitmaske zur Bestimmung eines Platzes.
+	 */
+	private int maske;
+
+	/**
+	 * die Anzahl der Einträge.
+	 */
+	private int anzahl;
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	public LongLongHashMap() {
+		this(LongLongHashMap.STANDARD_KAPAZITAET);
+	}
+
+	/**
+	 * Konstruktor.
+	 *
+	 * @param erwarteteAnzahl
+	 *            die erwartete Anzahl von Einträgen
+	 */
+	public LongLongHashMap(final int erwarteteAnzahl) {
+		if (erwarteteAnzahl < 0) {
+			throw new IllegalArgumentException("Ungültige Anzahl: " + erwarteteAnzahl);
+		}
+		int kapazitaet = LongLongHashMap.STANDARD_KAPAZITAET;
+		while (kapazitaet < (2L * erwarteteAnzahl)) {
+			kapazitaet <<= 1;
+		}
+		initialisiere(kapazitaet);
+	}
+
+	/**
+	 * Mischt die Bits eines Schlüssels (multiplikatives Hashing). Die oberen
+	 * Bits des Ergebnisses hängen von allen Bits des Schlüssels ab, die
+	 * unteren nur von den unteren Bits des Schlüssels. Für Hash-Tabellen und
+	 * Partitionen sind daher die oberen Bits zu verwenden (bzw. einzufalten).
+	 *
+	 * @param wert
+	 *            der Schlüssel (z.B. eine Objekt-ID)
+	 * @return der gemischte Wert
+	 */
+	public static long mische(final long wert) {
+		return wert * 0x9E3779B97F4A7C15L;
+	}
+
+	/**
+	 * Mischt die Bits eines aus zwei Teilen zusammengesetzten Schlüssels
+	 * (z.B. Objekt-ID und Attributgruppen-ID), siehe <code>mische(long)</code>.
+	 *
+	 * @param wert1
+	 *            der erste Teil des Schlüssels
+	 * @param wert2
+	 *            der zweite Teil des Schlüssels
+	 * @return der gemischte Wert
+	 */
+	public static long mische(final long wert1, final long wert2) {
+		return LongLongHashMap.mische(LongLongHashMap.mische(wert1) ^ wert2);
+	}
+
+	/**
+	 * Erfragt den Wert zu einem Schlüssel.
+	 *
+	 * @param key
+	 *            der Schlüssel
+	 * @param standardWert
+	 *            der Wert, der geliefert wird, wenn der Schlüssel nicht
+	 *            enthalten ist
+	 * @return der Wert oder <code>standardWert</code>
+	 */
+	public final long get(final long key, final long standardWert) {
+		final int platz = suche(key);
+		return platz >= 0 ? werte[platz] : standardWert;
+	}
+
+	/**
+	 * Erfragt, ob ein Schlüssel enthalten ist.
+	 *
+	 * @param key
+	 *            der Schlüssel
+	 * @return ob der Schlüssel enthalten ist
+	 */
+	public final boolean containsKey(final long key) {
+		return suche(key) >= 0;
+	}
+
+	/**
+	 * Setzt den Wert zu einem Schlüssel.
+	 *
+	 * @param key
+	 *            der Schlüssel
+	 * @param wert
+	 *            der neue Wert
+	 * @param standardWert
+	 *            der Wert, der geliefert wird, wenn der Schlüssel bisher
+	 *            nicht enthalten war
+	 * @return der bisherige Wert oder <code>standardWert</code>
+	 */
+	public final long put(final long key, final long wert, final long standardWert) {
+		int platz = platzVon(key);
+		while (belegt[platz]) {
+			if (schluessel[platz] == key) {
+				final long alterWert = werte[platz];
+				werte[platz] = wert;
+				return alterWert;
+			}
+			platz = (platz + 1) & maske;
+		}
+
+		belegt[platz] = true;
+		schluessel[platz] = key;
+		werte[platz] = wert;
+		anzahl++;
+		if ((2 * anzahl) > belegt.length) {
+			vergroessere();
+		}
+		return standardWert;
+	}
+
+	/**
+	 * Entfernt einen Schlüssel.
+	 *
+	 * @param key
+	 *            der Schlüssel
+	 * @return ob der Schlüssel enthalten war
+	 */
+	public final boolean remove(final long key) {
+		int frei = suche(key);
+		if (frei < 0) {
+			return false;
+		}
+
+		/* nachfolgende Einträge derselben Sondierungskette nachrücken lassen */
+		int platz = (frei + 1) & maske;
+		while (belegt[platz]) {
+			final int ziel = platzVon(schluessel[platz]);
+			if (((platz - ziel) & maske) >= ((platz - frei) & maske)) {
+				schluessel[frei] = schluessel[platz];
+				werte[frei] = werte[platz];
+				frei = platz;
+			}
+			platz = (platz + 1) & maske;
+		}
+		belegt[frei] = false;
+		anzahl--;
+		return true;
+	}
+
+	/**
+	 * Erfragt die Anzahl der Einträge.
+	 *
+	 * @return die Anzahl der Einträge
+	 */
+	public final int size() {
+		return anzahl;
+	}
+
+	/**
+	 * Erfragt, ob die Map leer ist.
+	 *
+	 * @return ob die Map leer ist
+	 */
+	public final boolean isEmpty() {
+		return anzahl == 0;
+	}
+
+	/**
+	 * Entfernt alle Einträge.
+	 */
+	public final void clear() {
+		Arrays.fill(belegt, false);
+		anzahl = 0;
+	}
+
+	/**
+	 * Sucht den Platz eines Schlüssels.
+	 *
+	 * @param key
+	 *            der Schlüssel
+	 * @return der Platz oder <code>-1</code>, wenn der Schlüssel nicht
+	 *         enthalten ist
+	 */
+	private int suche(final long key) {
+		int platz = platzVon(key);
+		while (belegt[platz]) {
+			if (schluessel[platz] == key) {
+				return platz;
+			}
+			platz = (platz + 1) & maske;
+		}
+		return -1;
+	}
+
+	/**
+	 * Bestimmt den bevorzugten Platz eines Schlüssels.
+	 *
+	 * @param key
+	 *            der Schlüssel
+	 * @return der Platz
+	 */
+	private int platzVon(final long key) {
+		final long h = LongLongHashMap.mische(key);
+		return (int) (h ^ (h >>> 32)) & maske;
+	}
+
+	/**
+	 * Legt die Felder für eine Kapazität an.
+	 *
+	 * @param kapazitaet
+	 *            die Kapazität (Zweierpotenz)
+	 */
+	private void initialisiere(final int kapazitaet) {
+		schluessel = new long[kapazitaet];
+		werte = new long[kapazitaet];
+		belegt = new boolean[kapazitaet];
+		maske = kapazitaet - 1;
+	}
+
+	/**
+	 * Verdoppelt die Kapazität.
+	 */
+	private void vergroessere() {
+		final long[] alteSchluessel = schluessel;
+		final long[] alteWerte = werte;
+		final boolean[] altBelegt = belegt;
+		initialisiere(alteSchluessel.length * 2);
+		anzahl = 0;
+		for (int i = 0; i < altBelegt.length; i++) {
+			if (altBelegt[i]) {
+				put(alteSchluessel[i], alteWerte[i], 0);
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder buffer = new StringBuilder("{");
+		for (int i = 0; i < belegt.length; i++) {
+			if (belegt[i]) {
+				if (buffer.length() > 1) {
+					buffer.append(", ");
+				}
+				buffer.append(schluessel[i]).append('=').append(werte[i]);
+			}
+		}
+		return buffer.append('}').toString();
+	}
+}
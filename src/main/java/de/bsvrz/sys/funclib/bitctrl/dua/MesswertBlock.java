@@ -0,0 +1,493 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.Arrays;
+
+import de.bsvrz.dav.daf.main.Data;
+import de.bsvrz.dav.daf.main.ResultData;
+
+/**
+ * Spaltenweise Darstellung der (unskalierten) Messwerte eines Attributs für
+ * eine Menge von Datensätzen, z.B. aller Fahrstreifen eines Intervalls. Statt
+ * eines <code>AbstraktMesswert</code>-Objektes (mit Markierungen und
+ * Güte-Objekt) pro Datensatz werden Wert, Markierungen (als Bitmaske, siehe
+ * <code>MesswertMarkierung</code>), Güte-Index und Güte-Verfahren in parallelen
+ * Feldern gehalten, die über den Platz des Datensatzes indiziert werden.<br>
+ * Die Felder werden bei erneutem Füllen wiederverwendet und nur bei Bedarf
+ * vergrößert. Für Schleifen über alle Plätze können sie direkt abgefragt
+ * werden (gültig sind jeweils die ersten <code>getAnzahl()</code> Einträge).
+ * <br>
+ * <b>Achtung:</b> Die Klasse ist nicht threadsicher.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public final class MesswertBlock {
+
+	/**
+	 * der Zugriff auf das Attribut innerhalb eines Datums.
+	 */
+	private final MesswertZugriff zugriff;
+
+	/**
+	 * die Datensätze der belegten Plätze.
+	 */
+	private ResultData[] resultate;
+
+	/**
+	 * die unskalierten Werte.
+	 */
+	private long[] werte;
+
+	/**
+	 * die Markierungen als Bitmaske.
+	 */
+	private int[] markierungen;
+
+	/**
+	 * die unskalierten Güte-Indizes.
+	 */
+	private long[] gueteIndizes;
+
+	/**
+	 * die Güte-Verfahren.
+	 */
+	private int[] verfahren;
+
+	/**
+	 * die Anzahl der belegten Plätze.
+	 */
+	private int anzahl;
+
+	/**
+	 * Standardkonstruktor.
+	 *
+	 * @param attName
+	 *            der Attributname der Messwerte
+	 * @param kapazitaet
+	 *            die anfängliche Anzahl der Plätze
+	 */
+	public MesswertBlock(final String attName, final int kapazitaet) {
+		if (attName == null) {
+			throw new NullPointerException("Der Attributname ist <<null>>");
+		}
+		if (kapazitaet < 0) {
+			throw new IllegalArgumentException("Negative Kapazität: " + kapazitaet);
+		}
+		zugriff = MesswertZugriff.getZugriff(attName);
+		resultate = new ResultData[kapazitaet];
+		werte = new long[kapazitaet];
+		markierungen = new int[kapazitaet];
+		gueteIndizes = new long[kapazitaet];
+		verfahren = new int[kapazitaet];
+	}
+
+	/**
+	 * Füllt den Block mit den Messwerten der übergebenen Datensätze. Der
+	 * bisherige Inhalt wird verworfen. Datensätze ohne Daten
+	 * (<code>keine Daten</code>) und <code>null</code>-Einträge werden
+	 * übergangen.
+	 *
+	 * @param daten
+	 *            die Datensätze
+	 * @return die Anzahl der belegten Plätze
+	 */
+	public int fuelle(final ResultData[] daten) {
+		leere();
+		if (daten != null) {
+			sichereKapazitaet(daten.length);
+			for (final ResultData resultat : daten) {
+				if ((resultat != null) && (resultat.getData() != null)) {
+					zugriff.lese(resultat.getData(), this, anzahl);
+					resultate[anzahl++] = resultat;
+				}
+			}
+		}
+		return anzahl;
+	}
+
+	/**
+	 * Fügt die Messwerte eines Datensatzes auf dem nächsten freien Platz hinzu.
+	 *
+	 * @param resultat
+	 *            ein Datensatz mit Daten
+	 * @return der Platz
+	 */
+	public int fuegeHinzu(final ResultData resultat) {
+		sichereKapazitaet(anzahl + 1);
+		zugriff.lese(resultat.getData(), this, anzahl);
+		resultate[anzahl] = resultat;
+		return anzahl++;
+	}
+
+	/**
+	 * Verwirft den Inhalt des Blocks (die Felder bleiben erhalten).
+	 */
+	public void leere() {
+		Arrays.fill(resultate, 0, anzahl, null);
+		anzahl = 0;
+	}
+
+	/**
+	 * Schreibt die Messwerte aller Plätze jeweils in eine veränderbare Kopie
+	 * der Daten des zugehörigen Datensatzes.
+	 *
+	 * @param gueteNullBeiFehler
+	 *            ob bei einem negativen (fehlerhaften) Wert im Datum der
+	 *            Güte-Index 0 geschrieben werden soll
+	 * @return die Kopien (in der Reihenfolge der Plätze)
+	 */
+	public Data[] schreibeKopien(final boolean gueteNullBeiFehler) {
+		final Data[] kopien = new Data[anzahl];
+		for (int platz = 0; platz < anzahl; platz++) {
+			kopien[platz] = resultate[platz].getData().createModifiableCopy();
+			zugriff.schreibe(this, platz, kopien[platz], gueteNullBeiFehler);
+		}
+		return kopien;
+	}
+
+	/**
+	 * Schreibt die Messwerte eines Platzes in ein Datum.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @param datum
+	 *            ein veränderbares Datum
+	 * @param gueteNullBeiFehler
+	 *            ob bei einem negativen (fehlerhaften) Wert im Datum der
+	 *            Güte-Index 0 geschrieben werden soll
+	 */
+	public void schreibe(final int platz, final Data datum, final boolean gueteNullBeiFehler) {
+		pruefePlatz(platz);
+		zugriff.schreibe(this, platz, datum, gueteNullBeiFehler);
+	}
+
+	/**
+	 * Übernimmt Wert, Markierungen und Güte eines Platzes in einen
+	 * (unskalierten) Messwert.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @param messwert
+	 *            der zu füllende Messwert
+	 * @throws IllegalArgumentException
+	 *             wenn der Messwert skaliert ist
+	 */
+	public void kopiereNach(final int platz, final AbstraktMesswert messwert) {
+		pruefePlatz(platz);
+		MesswertBlock.pruefeUnskaliert(messwert);
+		messwert.setWertUnskaliert(werte[platz]);
+		messwert.setMarkierungen(markierungen[platz]);
+		messwert.setGueteIndexWert(gueteIndizes[platz]);
+		messwert.setVerfahren(verfahren[platz]);
+	}
+
+	/**
+	 * Übernimmt Wert, Markierungen und Güte eines (unskalierten) Messwertes in
+	 * einen Platz.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @param messwert
+	 *            der Messwert
+	 * @throws IllegalArgumentException
+	 *             wenn der Messwert skaliert ist
+	 */
+	public void uebernimm(final int platz, final AbstraktMesswert messwert) {
+		pruefePlatz(platz);
+		MesswertBlock.pruefeUnskaliert(messwert);
+		setze(platz, messwert.getWertUnskaliert(), messwert.getMarkierungen(), messwert.getGueteIndexWert(),
+				messwert.getVerfahren());
+	}
+
+	/**
+	 * Erfragt die Anzahl der belegten Plätze.
+	 *
+	 * @return die Anzahl der belegten Plätze
+	 */
+	public int getAnzahl() {
+		return anzahl;
+	}
+
+	/**
+	 * Erfragt den Attributnamen der Messwerte.
+	 *
+	 * @return der Attributname
+	 */
+	public String getAttName() {
+		return zugriff.getAttName();
+	}
+
+	/**
+	 * Erfragt den Datensatz eines Platzes.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @return der Datensatz
+	 */
+	public ResultData getResultat(final int platz) {
+		pruefePlatz(platz);
+		return resultate[platz];
+	}
+
+	/**
+	 * Erfragt den unskalierten Wert eines Platzes.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @return der unskalierte Wert
+	 */
+	public long getWert(final int platz) {
+		pruefePlatz(platz);
+		return werte[platz];
+	}
+
+	/**
+	 * Setzt den unskalierten Wert eines Platzes.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @param wert
+	 *            der unskalierte Wert
+	 */
+	public void setWert(final int platz, final long wert) {
+		pruefePlatz(platz);
+		werte[platz] = wert;
+	}
+
+	/**
+	 * Erfragt die Markierungen eines Platzes.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @return die Markierungen als Bitmaske (siehe
+	 *         <code>MesswertMarkierung</code>)
+	 */
+	public int getMarkierungen(final int platz) {
+		pruefePlatz(platz);
+		return markierungen[platz];
+	}
+
+	/**
+	 * Setzt die Markierungen eines Platzes.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @param markierungen1
+	 *            die Markierungen als Bitmaske (siehe
+	 *            <code>MesswertMarkierung</code>)
+	 */
+	public void setMarkierungen(final int platz, final int markierungen1) {
+		pruefePlatz(platz);
+		markierungen[platz] = markierungen1 & MesswertMarkierung.ALLE;
+	}
+
+	/**
+	 * Erfragt den unskalierten Güte-Index eines Platzes.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @return der unskalierte Güte-Index
+	 */
+	public long getGueteIndex(final int platz) {
+		pruefePlatz(platz);
+		return gueteIndizes[platz];
+	}
+
+	/**
+	 * Setzt den unskalierten Güte-Index eines Platzes.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @param gueteIndex
+	 *            der unskalierte Güte-Index
+	 */
+	public void setGueteIndex(final int platz, final long gueteIndex) {
+		pruefePlatz(platz);
+		gueteIndizes[platz] = gueteIndex;
+	}
+
+	/**
+	 * Erfragt das Güte-Verfahren eines Platzes.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @return das Güte-Verfahren
+	 */
+	public int getVerfahren(final int platz) {
+		pruefePlatz(platz);
+		return verfahren[platz];
+	}
+
+	/**
+	 * Setzt das Güte-Verfahren eines Platzes.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @param verfahren1
+	 *            das Güte-Verfahren
+	 */
+	public void setVerfahren(final int platz, final int verfahren1) {
+		pruefePlatz(platz);
+		verfahren[platz] = verfahren1;
+	}
+
+	/**
+	 * Erfragt, ob der Messwert eines Platzes entweder <code>fehlerhaft</code>,
+	 * <code>nicht ermittelbar/fehlerhaft</code> oder <code>implausibel</code>
+	 * ist (wie <code>AbstraktMesswert.isFehlerhaftBzwImplausibel()</code>).
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @return ob der Messwert fehlerhaft bzw. implausibel ist
+	 */
+	public boolean isFehlerhaftBzwImplausibel(final int platz) {
+		pruefePlatz(platz);
+		final long wert = werte[platz];
+		return (wert == DUAKonstanten.FEHLERHAFT) || (wert == DUAKonstanten.NICHT_ERMITTELBAR_BZW_FEHLERHAFT)
+				|| ((markierungen[platz] & MesswertMarkierung.IMPLAUSIBEL) != 0);
+	}
+
+	/**
+	 * Erfragt die Vereinigung der Markierungen aller Plätze.
+	 *
+	 * @return die vereinigten Markierungen als Bitmaske
+	 */
+	public int getMarkierungenVereinigt() {
+		int ergebnis = 0;
+		for (int platz = 0; platz < anzahl; platz++) {
+			ergebnis |= markierungen[platz];
+		}
+		return ergebnis;
+	}
+
+	/**
+	 * Erfragt das Feld der unskalierten Werte (direkter Zugriff, gültig sind
+	 * die ersten <code>getAnzahl()</code> Einträge bis zum nächsten Füllen).
+	 *
+	 * @return das Feld der Werte
+	 */
+	public long[] getWerte() {
+		return werte;
+	}
+
+	/**
+	 * Erfragt das Feld der Markierungen (direkter Zugriff, gültig sind die
+	 * ersten <code>getAnzahl()</code> Einträge bis zum nächsten Füllen).
+	 *
+	 * @return das Feld der Markierungen
+	 */
+	public int[] getMarkierungenFeld() {
+		return markierungen;
+	}
+
+	/**
+	 * Erfragt das Feld der unskalierten Güte-Indizes (direkter Zugriff, gültig
+	 * sind die ersten <code>getAnzahl()</code> Einträge bis zum nächsten
+	 * Füllen).
+	 *
+	 * @return das Feld der Güte-Indizes
+	 */
+	public long[] getGueteIndizes() {
+		return gueteIndizes;
+	}
+
+	/**
+	 * Setzt alle Bestandteile eines Platzes.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @param wert
+	 *            der unskalierte Wert
+	 * @param markierungen1
+	 *            die Markierungen als Bitmaske
+	 * @param gueteIndex
+	 *            der unskalierte Güte-Index
+	 * @param verfahren1
+	 *            das Güte-Verfahren
+	 */
+	void setze(final int platz, final long wert, final int markierungen1, final long gueteIndex,
+			final int verfahren1) {
+		werte[platz] = wert;
+		markierungen[platz] = markierungen1;
+		gueteIndizes[platz] = gueteIndex;
+		verfahren[platz] = verfahren1;
+	}
+
+	/**
+	 * Stellt sicher, dass mindestens die übergebene Anzahl von Plätzen
+	 * vorhanden ist.
+	 *
+	 * @param minKapazitaet
+	 *            die benötigte Anzahl von Plätzen
+	 */
+	private void sichereKapazitaet(final int minKapazitaet) {
+		if (minKapazitaet > werte.length) {
+			final int kapazitaet = Math.max(minKapazitaet, werte.length * 2);
+			resultate = Arrays.copyOf(resultate, kapazitaet);
+			werte = Arrays.copyOf(werte, kapazitaet);
+			markierungen = Arrays.copyOf(markierungen, kapazitaet);
+			gueteIndizes = Arrays.copyOf(gueteIndizes, kapazitaet);
+			verfahren = Arrays.copyOf(verfahren, kapazitaet);
+		}
+	}
+
+	/**
+	 * Prüft, ob ein Platz belegt ist.
+	 *
+	 * @param platz
+	 *            der Platz
+	 * @throws IndexOutOfBoundsException
+	 *             wenn der Platz nicht belegt ist
+	 */
+	private void pruefePlatz(final int platz) {
+		if ((platz < 0) || (platz >= anzahl)) {
+			throw new IndexOutOfBoundsException("Platz " + platz + " (belegt: " + anzahl + ")");
+		}
+	}
+
+	/**
+	 * Prüft, ob ein Messwert unskaliert ist. Der Block hält nur unskalierte
+	 * Werte, der unskalierte Wert eines skalierten Messwertes ist nicht
+	 * belegt.
+	 *
+	 * @param messwert
+	 *            der Messwert
+	 * @throws IllegalArgumentException
+	 *             wenn der Messwert skaliert ist
+	 */
+	private static void pruefeUnskaliert(final AbstraktMesswert messwert) {
+		if (messwert.isSkaliert()) {
+			throw new IllegalArgumentException("Skalierter Messwert wird nicht unterstützt: " + messwert.getName());
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MesswertBlock " + zugriff.getAttName() + " (" + anzahl + " Plätze)";
+	}
+}
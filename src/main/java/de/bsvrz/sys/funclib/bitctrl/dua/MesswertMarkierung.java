@@ -29,52 +29,147 @@ package de.bsvrz.sys.funclib.bitctrl.dua;
 import com.bitctrl.Constants;
 
 /**
- * Klasse, die alle Markierungen eines Messwertes speichert.
+ * Klasse, die alle Markierungen eines Messwertes speichert. Die Markierungen
+ * werden als Bitmaske in einem <code>int</code> gehalten (siehe Konstanten
+ * <code>NICHT_ERFASST</code> bis <code>INTERPOLIERT</code>), so dass
+ * Markierungen mehrerer Messwerte mit Bitoperationen kombiniert werden
+ * können.<br>
+ * <b>Inkompatible Änderung:</b> Die früheren geschützten Felder
+ * <code>nichtErfasst</code>, <code>implausibel</code>,
+ * <code>interpoliert</code>, <code>formalMax</code>, <code>formalMin</code>,
+ * <code>logischMax</code> und <code>logischMin</code> existieren nicht mehr.
+ * Unterklassen verwenden stattdessen die Getter und Setter (bzw.
+ * <code>getMarkierungen()</code> und <code>setMarkierungen(..)</code>).
  *
  * @author BitCtrl Systems GmbH, Thierfelder
  */
 public class MesswertMarkierung implements Cloneable {
 
 	/**
-	 * der Wert von <code>*.Status.Erfassung.NichtErfasst</code>.
+	 * Bit für <code>*.Status.Erfassung.NichtErfasst</code>.
 	 */
-	protected boolean nichtErfasst;
+	public static final int NICHT_ERFASST = 1;
 
 	/**
-	 * der Wert von <code>*.Status.MessWertErsetzung.Implausibel</code>.
+	 * Bit für <code>*.Status.PlFormal.WertMax</code>.
 	 */
-	protected boolean implausibel;
+	public static final int FORMAL_MAX = 1 << 1;
 
 	/**
-	 * der Wert von <code>*.Status.MessWertErsetzung.Interpoliert</code>.
+	 * Bit für <code>*.Status.PlFormal.WertMin</code>.
 	 */
-	protected boolean interpoliert;
+	public static final int FORMAL_MIN = 1 << 2;
 
 	/**
-	 * der Wert von <code>*.Status.PlFormal.WertMax</code>.
+	 * Bit für <code>*.Status.PlLogisch.WertMaxLogisch</code>.
 	 */
-	protected boolean formalMax;
+	public static final int LOGISCH_MAX = 1 << 3;
 
 	/**
-	 * der Wert von <code>*.Status.PlFormal.WertMin</code>.
+	 * Bit für <code>*.Status.PlLogisch.WertMinLogisch</code>.
 	 */
-	protected boolean formalMin;
+	public static final int LOGISCH_MIN = 1 << 4;
 
 	/**
-	 * der Wert von <code>*.Status.PlLogisch.WertMaxLogisch</code>.
+	 * Bit für <code>*.Status.MessWertErsetzung.Implausibel</code>.
 	 */
-	protected boolean logischMax;
+	public static final int IMPLAUSIBEL = 1 << 5;
 
 	/**
-	 * der Wert von <code>*.Status.PlLogisch.WertMinLogisch</code>.
+	 * Bit für <code>*.Status.MessWertErsetzung.Interpoliert</code>.
 	 */
-	protected boolean logischMin;
+	public static final int INTERPOLIERT = 1 << 6;
+
+	/**
+	 * alle Bits.
+	 */
+	public static final int ALLE = (1 << 7) - 1;
+
+	/**
+	 * die Markierungen als Bitmaske.
+	 */
+	private int markierungen;
 
 	/**
 	 * zeigt an, ob eine der Setter-Methoden benutzt wurde.
 	 */
 	protected boolean veraendert;
 
+	/**
+	 * Erfragt alle Markierungen als Bitmaske.
+	 *
+	 * @return die Markierungen
+	 */
+	public final int getMarkierungen() {
+		return markierungen;
+	}
+
+	/**
+	 * Setzt alle Markierungen.
+	 *
+	 * @param markierungen
+	 *            die Markierungen als Bitmaske (nur die Bits aus
+	 *            <code>ALLE</code> werden übernommen)
+	 */
+	public final void setMarkierungen(final int markierungen) {
+		veraendert = true;
+		this.markierungen = markierungen & MesswertMarkierung.ALLE;
+	}
+
+	/**
+	 * Erfragt, ob mindestens eine der übergebenen Markierungen gesetzt ist.
+	 *
+	 * @param maske
+	 *            die zu prüfenden Markierungen als Bitmaske
+	 * @return ob mindestens eine der Markierungen gesetzt ist
+	 */
+	public final boolean isEineGesetzt(final int maske) {
+		return (markierungen & maske) != 0;
+	}
+
+	/**
+	 * Setzt zusätzlich die übergebenen Markierungen (Vereinigung).
+	 *
+	 * @param maske
+	 *            die zu setzenden Markierungen als Bitmaske
+	 */
+	public final void vereinige(final int maske) {
+		setMarkierungen(markierungen | maske);
+	}
+
+	/**
+	 * Setzt zusätzlich die Markierungen eines anderen Messwertes (z.B. bei der
+	 * Aggregation mehrerer Messwerte).
+	 *
+	 * @param that
+	 *            die andere Markierung
+	 */
+	public final void vereinige(final MesswertMarkierung that) {
+		vereinige(that.markierungen);
+	}
+
+	/**
+	 * Behält nur die übergebenen Markierungen bei (Schnitt).
+	 *
+	 * @param maske
+	 *            die beizubehaltenden Markierungen als Bitmaske
+	 */
+	public final void maskiere(final int maske) {
+		setMarkierungen(markierungen & maske);
+	}
+
+	/**
+	 * Setzt oder löscht eine Markierung.
+	 *
+	 * @param bit
+	 *            die Markierung
+	 * @param gesetzt
+	 *            ob die Markierung gesetzt werden soll
+	 */
+	private void setze(final int bit, final boolean gesetzt) {
+		setMarkierungen(gesetzt ? markierungen | bit : markierungen & ~bit);
+	}
+
 	/**
 	 * Erfragt den Wert von <code>*.Status.MessWertErsetzung.Interpoliert</code>
 	 * .
@@ -82,7 +177,7 @@ public class MesswertMarkierung implements Cloneable {
 	 * @return der Wert von <code>*.Status.MessWertErsetzung.Interpoliert</code>
 	 */
 	public final boolean isInterpoliert() {
-		return interpoliert;
+		return isEineGesetzt(MesswertMarkierung.INTERPOLIERT);
 	}
 
 	/**
@@ -93,8 +188,7 @@ public class MesswertMarkierung implements Cloneable {
 	 *            <code>*.Status.MessWertErsetzung.Interpoliert</code>
 	 */
 	public final void setInterpoliert(final boolean interpoliert) {
-		veraendert = true;
-		this.interpoliert = interpoliert;
+		setze(MesswertMarkierung.INTERPOLIERT, interpoliert);
 	}
 
 	/**
@@ -103,7 +197,7 @@ public class MesswertMarkierung implements Cloneable {
 	 * @return der Wert von <code>*.Status.MessWertErsetzung.Implausibel</code>
 	 */
 	public final boolean isImplausibel() {
-		return implausibel;
+		return isEineGesetzt(MesswertMarkierung.IMPLAUSIBEL);
 	}
 
 	/**
@@ -114,8 +208,7 @@ public class MesswertMarkierung implements Cloneable {
 	 *            <code>*.Status.MessWertErsetzung.Implausibel</code>
 	 */
 	public final void setImplausibel(final boolean implausibel) {
-		veraendert = true;
-		this.implausibel = implausibel;
+		setze(MesswertMarkierung.IMPLAUSIBEL, implausibel);
 	}
 
 	/**
@@ -124,7 +217,7 @@ public class MesswertMarkierung implements Cloneable {
 	 * @return der Wert von <code>*.Status.Erfassung.NichtErfasst</code>
 	 */
 	public final boolean isNichtErfasst() {
-		return nichtErfasst;
+		return isEineGesetzt(MesswertMarkierung.NICHT_ERFASST);
 	}
 
 	/**
@@ -134,8 +227,7 @@ public class MesswertMarkierung implements Cloneable {
 	 *            der Wert von <code>*.Status.Erfassung.NichtErfasst</code>
 	 */
 	public final void setNichtErfasst(final boolean nichtErfasst) {
-		veraendert = true;
-		this.nichtErfasst = nichtErfasst;
+		setze(MesswertMarkierung.NICHT_ERFASST, nichtErfasst);
 	}
 
 	/**
@@ -144,7 +236,7 @@ public class MesswertMarkierung implements Cloneable {
 	 * @return den Wert von <code>*.Status.PlFormal.WertMax</code>
 	 */
 	public final boolean isFormalMax() {
-		return formalMax;
+		return isEineGesetzt(MesswertMarkierung.FORMAL_MAX);
 	}
 
 	/**
@@ -154,8 +246,7 @@ public class MesswertMarkierung implements Cloneable {
 	 *            der Wert von <code>*.Status.PlFormal.WertMax</code>
 	 */
 	public final void setFormalMax(final boolean formalMax) {
-		veraendert = true;
-		this.formalMax = formalMax;
+		setze(MesswertMarkierung.FORMAL_MAX, formalMax);
 	}
 
 	/**
@@ -164,7 +255,7 @@ public class MesswertMarkierung implements Cloneable {
 	 * @return den Wert von <code>*.Status.PlFormal.WertMin</code>
 	 */
 	public final boolean isFormalMin() {
-		return formalMin;
+		return isEineGesetzt(MesswertMarkierung.FORMAL_MIN);
 	}
 
 	/**
@@ -174,8 +265,7 @@ public class MesswertMarkierung implements Cloneable {
 	 *            der Wert von <code>*.Status.PlFormal.WertMin</code>
 	 */
 	public final void setFormalMin(final boolean formalMin) {
-		veraendert = true;
-		this.formalMin = formalMin;
+		setze(MesswertMarkierung.FORMAL_MIN, formalMin);
 	}
 
 	/**
@@ -184,7 +274,7 @@ public class MesswertMarkierung implements Cloneable {
 	 * @return den Wert von <code>*.Status.PlLogisch.WertMaxLogisch</code>
 	 */
 	public final boolean isLogischMax() {
-		return logischMax;
+		return isEineGesetzt(MesswertMarkierung.LOGISCH_MAX);
 	}
 
 	/**
@@ -194,8 +284,7 @@ public class MesswertMarkierung implements Cloneable {
 	 *            der Wert von <code>*.Status.PlLogisch.WertMaxLogisch</code>
 	 */
 	public final void setLogischMax(final boolean logischMax) {
-		veraendert = true;
-		this.logischMax = logischMax;
+		setze(MesswertMarkierung.LOGISCH_MAX, logischMax);
 	}
 
 	/**
@@ -204,7 +293,7 @@ public class MesswertMarkierung implements Cloneable {
 	 * @return der Wert von <code>*.Status.PlLogisch.WertMinLogisch</code>
 	 */
 	public final boolean isLogischMin() {
-		return logischMin;
+		return isEineGesetzt(MesswertMarkierung.LOGISCH_MIN);
 	}
 
 	/**
@@ -214,8 +303,7 @@ public class MesswertMarkierung implements Cloneable {
 	 *            der Wert von <code>*.Status.PlLogisch.WertMinLogisch</code>
 	 */
 	public final void setLogischMin(final boolean logischMin) {
-		veraendert = true;
-		this.logischMin = logischMin;
+		setze(MesswertMarkierung.LOGISCH_MIN, logischMin);
 	}
 
 	/**
@@ -235,12 +323,38 @@ public class MesswertMarkierung implements Cloneable {
 		this.veraendert = veraendert;
 	}
 
+	/**
+	 * Zwei Markierungen derselben Klasse sind gleich, wenn alle Markierungen
+	 * übereinstimmen (der Änderungszustand wird nicht verglichen). Objekte
+	 * verschiedener Klassen (z.B. eine Markierung und ein Messwert) sind nie
+	 * gleich, damit der Vergleich symmetrisch bleibt.<br>
+	 * <b>Geändertes Verhalten:</b> Bisher wurde die Identität der Objekte
+	 * verglichen. Da sich <code>hashCode()</code> mit den Markierungen ändert,
+	 * sollten veränderliche Instanzen nicht als Schlüssel in Hash-Strukturen
+	 * verwendet werden.
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if ((obj != null) && (getClass() == obj.getClass())) {
+			return markierungen == ((MesswertMarkierung) obj).markierungen;
+		}
+		return false;
+	}
+
+	@Override
+	public int hashCode() {
+		return markierungen;
+	}
+
 	@Override
 	public String toString() {
-		return (nichtErfasst ? "nErf " : Constants.EMPTY_STRING) + (formalMax ? "fMax " : Constants.EMPTY_STRING)
-				+ (formalMin ? "fMin " : Constants.EMPTY_STRING) + (logischMax ? "lMax " : Constants.EMPTY_STRING)
-				+ (logischMin ? "lMin " : Constants.EMPTY_STRING) + (implausibel ? "Impl " : Constants.EMPTY_STRING)
-				+ (interpoliert ? "Intp " : Constants.EMPTY_STRING);
+		return (isNichtErfasst() ? "nErf " : Constants.EMPTY_STRING)
+				+ (isFormalMax() ? "fMax " : Constants.EMPTY_STRING)
+				+ (isFormalMin() ? "fMin " : Constants.EMPTY_STRING)
+				+ (isLogischMax() ? "lMax " : Constants.EMPTY_STRING)
+				+ (isLogischMin() ? "lMin " : Constants.EMPTY_STRING)
+				+ (isImplausibel() ? "Impl " : Constants.EMPTY_STRING)
+				+ (isInterpoliert() ? "Intp " : Constants.EMPTY_STRING);
 	}
 
 }
@@ -0,0 +1,329 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import de.bsvrz.dav.daf.main.Data;
+
+/**
+ * Zugriff auf die Bestandteile (Wert, Status und Güte) eines Messwert-Attributs
+ * innerhalb eines Datums. Die Teilstrukturen des Attributs werden pro Lese-
+ * bzw. Schreibvorgang nur einmal über ihren Namen aufgelöst und danach direkt
+ * verwendet, statt für jede Markierung den vollständigen Pfad (z.B.
+ * <code>attName.Status.PlFormal.WertMax</code>) erneut aufzulösen.<br>
+ * Der Zugriff hängt nur vom Attributnamen ab und wird pro Attributname einmal
+ * angelegt (siehe <code>getZugriff(..)</code>).
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public final class MesswertZugriff {
+
+	/**
+	 * die bisher angelegten Zugriffe (pro Attributname).
+	 */
+	private static final ConcurrentMap<String, MesswertZugriff> ZUGRIFFE = new ConcurrentHashMap<>();
+
+	/**
+	 * der Attributname.
+	 */
+	private final String attName;
+
+	/**
+	 * Konstruktor.
+	 *
+	 * @param attName
+	 *            der Attributname
+	 */
+	private MesswertZugriff(final String attName) {
+		this.attName = attName;
+	}
+
+	/**
+	 * Erfragt den Zugriff für einen Attributnamen.
+	 *
+	 * @param attName
+	 *            der Attributname
+	 * @return der Zugriff
+	 */
+	public static MesswertZugriff getZugriff(final String attName) {
+		MesswertZugriff zugriff = MesswertZugriff.ZUGRIFFE.get(attName);
+		if (zugriff == null) {
+			zugriff = new MesswertZugriff(attName);
+			final MesswertZugriff vorhanden = MesswertZugriff.ZUGRIFFE.putIfAbsent(attName, zugriff);
+			if (vorhanden != null) {
+				zugriff = vorhanden;
+			}
+		}
+		return zugriff;
+	}
+
+	/**
+	 * Erfragt den Attributnamen.
+	 *
+	 * @return der Attributname
+	 */
+	public String getAttName() {
+		return attName;
+	}
+
+	/**
+	 * Liest Wert (nur bei unskalierten Messwerten), Markierungen und Güte aus
+	 * einem Datum in einen Messwert.
+	 *
+	 * @param datum
+	 *            das Datum
+	 * @param messwert
+	 *            der zu füllende Messwert
+	 */
+	public void lese(final Data datum, final AbstraktMesswert messwert) {
+		final Data attribut = datum.getItem(attName);
+
+		if (!messwert.isSkaliert()) {
+			messwert.setWertUnskaliert(attribut.getUnscaledValue("Wert").longValue());
+		}
+
+		messwert.setMarkierungen(MesswertZugriff.leseMarkierungen(attribut.getItem("Status")));
+
+		final Data guete = attribut.getItem("Güte");
+		messwert.setGueteIndexWert(guete.getUnscaledValue("Index").longValue());
+		messwert.setVerfahren(guete.getUnscaledValue("Verfahren").intValue());
+	}
+
+	/**
+	 * Liest Wert (unskaliert), Markierungen und Güte aus einem Datum in einen
+	 * Platz eines Messwertblocks.
+	 *
+	 * @param datum
+	 *            das Datum
+	 * @param block
+	 *            der Messwertblock
+	 * @param platz
+	 *            der zu füllende Platz
+	 */
+	void lese(final Data datum, final MesswertBlock block, final int platz) {
+		final Data attribut = datum.getItem(attName);
+		final Data guete = attribut.getItem("Güte");
+
+		block.setze(platz, attribut.getUnscaledValue("Wert").longValue(),
+				MesswertZugriff.leseMarkierungen(attribut.getItem("Status")),
+				guete.getUnscaledValue("Index").longValue(), guete.getUnscaledValue("Verfahren").intValue());
+	}
+
+	/**
+	 * Schreibt Wert, Markierungen und Güte eines Messwertes in ein Datum. Liegt
+	 * ein unskalierter Wert außerhalb des Wertebereichs, so wird
+	 * <code>nicht ermittelbar/fehlerhaft</code> geschrieben.
+	 *
+	 * @param messwert
+	 *            der Messwert
+	 * @param datum
+	 *            ein veränderbares Datum
+	 * @param gueteNullBeiFehler
+	 *            ob bei einem negativen (fehlerhaften) Wert im Datum der
+	 *            Güte-Index 0 geschrieben werden soll
+	 */
+	public void schreibe(final AbstraktMesswert messwert, final Data datum, final boolean gueteNullBeiFehler) {
+		final Data attribut = datum.getItem(attName);
+
+		if (messwert.isSkaliert()) {
+			attribut.getScaledValue("Wert").set(messwert.getWertSkaliert());
+		} else {
+			MesswertZugriff.schreibeWert(attribut, messwert.getWertUnskaliert());
+		}
+
+		MesswertZugriff.schreibeMarkierungen(attribut.getItem("Status"), messwert.getMarkierungen());
+		MesswertZugriff.schreibeGuete(attribut, messwert.getGueteIndexWert(), messwert.getVerfahren(),
+				gueteNullBeiFehler);
+	}
+
+	/**
+	 * Schreibt einen Platz eines Messwertblocks in ein Datum (wie
+	 * <code>schreibe(AbstraktMesswert, ..)</code> für unskalierte Messwerte).
+	 *
+	 * @param block
+	 *            der Messwertblock
+	 * @param platz
+	 *            der Platz
+	 * @param datum
+	 *            ein veränderbares Datum
+	 * @param gueteNullBeiFehler
+	 *            ob bei einem negativen (fehlerhaften) Wert im Datum der
+	 *            Güte-Index 0 geschrieben werden soll
+	 */
+	void schreibe(final MesswertBlock block, final int platz, final Data datum, final boolean gueteNullBeiFehler) {
+		final Data attribut = datum.getItem(attName);
+
+		MesswertZugriff.schreibeWert(attribut, block.getWert(platz));
+		MesswertZugriff.schreibeMarkierungen(attribut.getItem("Status"), block.getMarkierungen(platz));
+		MesswertZugriff.schreibeGuete(attribut, block.getGueteIndex(platz), block.getVerfahren(platz),
+				gueteNullBeiFehler);
+	}
+
+	/**
+	 * Schreibt einen unskalierten Wert. Liegt er außerhalb des Wertebereichs,
+	 * so wird <code>nicht ermittelbar/fehlerhaft</code> geschrieben.
+	 *
+	 * @param attribut
+	 *            das Messwert-Attribut eines veränderbaren Datums
+	 * @param wertUnskaliert
+	 *            der unskalierte Wert
+	 */
+	private static void schreibeWert(final Data attribut, final long wertUnskaliert) {
+		final Data.NumberValue wert = attribut.getUnscaledValue("Wert");
+		if (DUAUtensilien.isWertInWerteBereich(attribut.getItem("Wert"), wertUnskaliert)) {
+			wert.set(wertUnskaliert);
+		} else {
+			wert.set(DUAKonstanten.NICHT_ERMITTELBAR_BZW_FEHLERHAFT);
+		}
+	}
+
+	/**
+	 * Schreibt die Güte.
+	 *
+	 * @param attribut
+	 *            das Messwert-Attribut eines veränderbaren Datums (mit bereits
+	 *            geschriebenem Wert)
+	 * @param index
+	 *            der unskalierte Güte-Index
+	 * @param verfahren
+	 *            das Güte-Verfahren
+	 * @param gueteNullBeiFehler
+	 *            ob bei einem negativen (fehlerhaften) Wert im Datum der
+	 *            Güte-Index 0 geschrieben werden soll
+	 */
+	private static void schreibeGuete(final Data attribut, final long index, final int verfahren,
+			final boolean gueteNullBeiFehler) {
+		final Data guete = attribut.getItem("Güte");
+		if (gueteNullBeiFehler && (attribut.getUnscaledValue("Wert").longValue() < 0)) {
+			guete.getUnscaledValue("Index").set(0);
+		} else {
+			guete.getUnscaledValue("Index").set(index);
+		}
+		guete.getUnscaledValue("Verfahren").set(verfahren);
+	}
+
+	/**
+	 * Liest alle Markierungen aus der Status-Struktur eines Messwert-Attributs.
+	 *
+	 * @param status
+	 *            die Status-Struktur (<code>*.Status</code>)
+	 * @return die Markierungen als Bitmaske (siehe
+	 *         <code>MesswertMarkierung</code>)
+	 */
+	public static int leseMarkierungen(final Data status) {
+		final Data erfassung = status.getItem("Erfassung");
+		final Data plFormal = status.getItem("PlFormal");
+		final Data plLogisch = status.getItem("PlLogisch");
+		final Data ersetzung = status.getItem("MessWertErsetzung");
+
+		int markierungen = 0;
+		if (MesswertZugriff.isJa(erfassung, "NichtErfasst")) {
+			markierungen |= MesswertMarkierung.NICHT_ERFASST;
+		}
+		if (MesswertZugriff.isJa(plFormal, "WertMax")) {
+			markierungen |= MesswertMarkierung.FORMAL_MAX;
+		}
+		if (MesswertZugriff.isJa(plFormal, "WertMin")) {
+			markierungen |= MesswertMarkierung.FORMAL_MIN;
+		}
+		if (MesswertZugriff.isJa(plLogisch, "WertMaxLogisch")) {
+			markierungen |= MesswertMarkierung.LOGISCH_MAX;
+		}
+		if (MesswertZugriff.isJa(plLogisch, "WertMinLogisch")) {
+			markierungen |= MesswertMarkierung.LOGISCH_MIN;
+		}
+		if (MesswertZugriff.isJa(ersetzung, "Implausibel")) {
+			markierungen |= MesswertMarkierung.IMPLAUSIBEL;
+		}
+		if (MesswertZugriff.isJa(ersetzung, "Interpoliert")) {
+			markierungen |= MesswertMarkierung.INTERPOLIERT;
+		}
+		return markierungen;
+	}
+
+	/**
+	 * Schreibt alle Markierungen in die Status-Struktur eines
+	 * Messwert-Attributs.
+	 *
+	 * @param status
+	 *            die Status-Struktur (<code>*.Status</code>) eines
+	 *            veränderbaren Datums
+	 * @param markierungen
+	 *            die Markierungen als Bitmaske (siehe
+	 *            <code>MesswertMarkierung</code>)
+	 */
+	public static void schreibeMarkierungen(final Data status, final int markierungen) {
+		final Data erfassung = status.getItem("Erfassung");
+		final Data plFormal = status.getItem("PlFormal");
+		final Data plLogisch = status.getItem("PlLogisch");
+		final Data ersetzung = status.getItem("MessWertErsetzung");
+
+		MesswertZugriff.setze(erfassung, "NichtErfasst", markierungen, MesswertMarkierung.NICHT_ERFASST);
+		MesswertZugriff.setze(plFormal, "WertMax", markierungen, MesswertMarkierung.FORMAL_MAX);
+		MesswertZugriff.setze(plFormal, "WertMin", markierungen, MesswertMarkierung.FORMAL_MIN);
+		MesswertZugriff.setze(plLogisch, "WertMaxLogisch", markierungen, MesswertMarkierung.LOGISCH_MAX);
+		MesswertZugriff.setze(plLogisch, "WertMinLogisch", markierungen, MesswertMarkierung.LOGISCH_MIN);
+		MesswertZugriff.setze(ersetzung, "Implausibel", markierungen, MesswertMarkierung.IMPLAUSIBEL);
+		MesswertZugriff.setze(ersetzung, "Interpoliert", markierungen, MesswertMarkierung.INTERPOLIERT);
+	}
+
+	/**
+	 * Liest eine Ja/Nein-Markierung.
+	 *
+	 * @param struktur
+	 *            die Teilstruktur des Status
+	 * @param name
+	 *            der Name der Markierung
+	 * @return ob die Markierung gesetzt ist
+	 */
+	private static boolean isJa(final Data struktur, final String name) {
+		return struktur.getUnscaledValue(name).intValue() == DUAKonstanten.JA;
+	}
+
+	/**
+	 * Schreibt eine Ja/Nein-Markierung.
+	 *
+	 * @param struktur
+	 *            die Teilstruktur des Status
+	 * @param name
+	 *            der Name der Markierung
+	 * @param markierungen
+	 *            alle Markierungen als Bitmaske
+	 * @param bit
+	 *            das Bit der Markierung
+	 */
+	private static void setze(final Data struktur, final String name, final int markierungen, final int bit) {
+		struktur.getUnscaledValue(name).set((markierungen & bit) != 0 ? DUAKonstanten.JA : DUAKonstanten.NEIN);
+	}
+
+	@Override
+	public String toString() {
+		return "Zugriff auf " + attName;
+	}
+}
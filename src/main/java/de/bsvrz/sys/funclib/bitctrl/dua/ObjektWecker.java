@@ -26,50 +26,73 @@
 
 package de.bsvrz.sys.funclib.bitctrl.dua;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IKontrollProzessListener;
 import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IObjektWeckerListener;
+import de.bsvrz.sys.funclib.debug.Debug;
 
 /**
  * Eine Instanz dieser Klasse kann eine Menge von Objekten zu bestimmten
  * Zeitpunkten über die Schnittstelle <code>IObjektWeckerListener</code>
  * alarmieren.<br>
  * <b>Achtung</b>: Für jedes Objekt kann nur ein Weckzeitpunkt eingestellt
- * werden.
+ * werden.<br>
+ * Die Weckzeitpunkte werden in einem <code>ZeitRad</code> verwaltet, d.h. das
+ * Stellen, Umstellen und Abstellen eines Weckers erfolgt in konstanter Zeit.
+ * Ein Objekt wird frühestens zu seinem Weckzeitpunkt und spätestens eine
+ * Tickdauer (<code>ZeitRad.STANDARD_TICK_DAUER</code>) danach geweckt. Alle
+ * im selben Tick fälligen Objekte werden gemeinsam alarmiert.<br>
+ * Die Alarmierung erfolgt standardmäßig im Thread des internen
+ * Kontrollprozesses. Über <code>setAlarmAusfuehrung(..)</code> kann eine
+ * andere Ausführung (z.B. aus <code>AlarmAusfuehrung</code>) eingestellt
+ * werden. Der Verzug der Alarme gegenüber dem Beginn ihres Ticks wird in einer
+ * <code>VerzugsStatistik</code> erfasst.
  *
  * @author BitCtrl Systems GmbH, Thierfelder
  */
-public class ObjektWecker implements IKontrollProzessListener<Long> {
+public class ObjektWecker implements IKontrollProzessListener<Long>, AutoCloseable {
 
 	/**
 	 * Weckzeitpunkt <code><b>AUS</b></code>.
 	 */
 	public static final long AUS = -1;
 
+	private static final Debug LOGGER = Debug.getLogger();
+
 	/**
 	 * Interner Kontrollprozess.
 	 */
 	private final KontrollProzess<Long> kontrollProzess = new KontrollProzess<>();
 
 	/**
-	 * Mapt alle Weckzeitpunkte auf die Liste der Objekte, die geweckt werden
-	 * sollen.
+	 * Zeitrad mit allen zu weckenden Objekten.
+	 */
+	private final ZeitRad<IObjektWeckerListener> zeitRad = new ZeitRad<>();
+
+	/**
+	 * der Zeitpunkt, zu dem der interne Kontrollprozess momentan eingeplant
+	 * ist, bzw. <code>AUS</code>.
+	 */
+	private long eingeplanterTick = ObjektWecker.AUS;
+
+	/**
+	 * die Ausführung der Alarme.
+	 */
+	private volatile Executor alarmAusfuehrung = AlarmAusfuehrung.GLEICHER_THREAD;
+
+	/**
+	 * Statistik über den Verzug der Alarme.
 	 */
-	private final SortedMap<Long, Set<IObjektWeckerListener>> weckZeitpunktAufObjekte = Collections
-			.synchronizedSortedMap(new TreeMap<Long, Set<IObjektWeckerListener>>());
+	private final VerzugsStatistik verzugsStatistik = new VerzugsStatistik();
 
 	/**
-	 * Mapt alle zu weckenden Objekte auf den Weckzeitpunkt.
+	 * ob der Wecker beendet wurde.
 	 */
-	private final Map<IObjektWeckerListener, Long> objektAufWeckZeitpunkt = Collections
-			.synchronizedMap(new HashMap<IObjektWeckerListener, Long>());
+	private boolean beendet;
 
 	/**
 	 * Standardkonstruktor.
@@ -85,99 +108,155 @@ public class ObjektWecker implements IKontrollProzessListener<Long> {
 	 *            ein Objekt
 	 * @return ob der Wecker für das übergebene Objekt gestellt ist
 	 */
-	public final boolean isWeckerGestelltFuer(final IObjektWeckerListener zuWeckendesObjekt) {
-		boolean weckerGestellt = false;
-
-		synchronized (this) {
-			weckerGestellt = objektAufWeckZeitpunkt.get(zuWeckendesObjekt) != null;
-		}
-
-		return weckerGestellt;
+	public final synchronized boolean isWeckerGestelltFuer(final IObjektWeckerListener zuWeckendesObjekt) {
+		return zeitRad.isEingeplant(zuWeckendesObjekt);
 	}
 
 	/**
 	 * Stellt den Wecker für ein Objekt auf einen absoluten Weckzeitpunkt.
+	 * Nach <code>close()</code> bleibt der Aufruf ohne Wirkung, d.h. das Objekt
+	 * wird nicht mehr eingeplant.
 	 *
 	 * @param zuWeckendesObjekt
 	 *            das zu weckende Objekt
 	 * @param weckZeitpunkt
 	 *            der Weckzeitpunkt (in ms), bzw. <code>AUS</code>
 	 */
-	public final void setWecker(final IObjektWeckerListener zuWeckendesObjekt, final long weckZeitpunkt) {
-		synchronized (this) {
-			if (weckZeitpunkt == ObjektWecker.AUS) {
-				final Long eingeplanterWeckZeitPunkt = objektAufWeckZeitpunkt.get(zuWeckendesObjekt);
-
-				if (eingeplanterWeckZeitPunkt != null) {
-					objektAufWeckZeitpunkt.remove(zuWeckendesObjekt);
-					final Set<IObjektWeckerListener> objekte = weckZeitpunktAufObjekte.get(eingeplanterWeckZeitPunkt);
-					if (objekte != null) {
-						objekte.remove(zuWeckendesObjekt);
-						if (objekte.isEmpty()) {
-							weckZeitpunktAufObjekte.remove(eingeplanterWeckZeitPunkt);
-						}
-					}
-				}
-			} else {
-				final Long bisherEingeplanterWeckZeitPunkt = objektAufWeckZeitpunkt.get(zuWeckendesObjekt);
-
-				if (bisherEingeplanterWeckZeitPunkt != null) {
-					final Set<IObjektWeckerListener> objekte = weckZeitpunktAufObjekte
-							.get(bisherEingeplanterWeckZeitPunkt);
-					if (objekte != null) {
-						objekte.remove(zuWeckendesObjekt);
-						if (objekte.isEmpty()) {
-							weckZeitpunktAufObjekte.remove(bisherEingeplanterWeckZeitPunkt);
-						}
-					}
-				}
-
-				Set<IObjektWeckerListener> weckObjekteZumZeitpunkt = weckZeitpunktAufObjekte.get(weckZeitpunkt);
-
-				if (weckObjekteZumZeitpunkt == null) {
-					weckObjekteZumZeitpunkt = new HashSet<>();
-					weckZeitpunktAufObjekte.put(weckZeitpunkt, weckObjekteZumZeitpunkt);
-				}
-				weckObjekteZumZeitpunkt.add(zuWeckendesObjekt);
-				objektAufWeckZeitpunkt.put(zuWeckendesObjekt, weckZeitpunkt);
+	public final synchronized void setWecker(final IObjektWeckerListener zuWeckendesObjekt,
+			final long weckZeitpunkt) {
+		if (beendet) {
+			ObjektWecker.LOGGER.fine("Wecker ist beendet, " + zuWeckendesObjekt + " wird nicht eingeplant");
+		} else if (weckZeitpunkt == ObjektWecker.AUS) {
+			zeitRad.entferne(zuWeckendesObjekt);
+		} else {
+			final long tick = zeitRad.setze(zuWeckendesObjekt, weckZeitpunkt);
+			if ((eingeplanterTick == ObjektWecker.AUS) || (tick < eingeplanterTick)) {
+				planeKontrollProzess(tick);
 			}
-
-			aktualisiereKontrollProzess();
 		}
 	}
 
 	/**
-	 * Aktualisiert den internen Kontrollprozess.
+	 * Setzt die Ausführung der Alarme. Weist die Ausführung einen Alarm
+	 * zurück, so wird er direkt im Thread des internen Kontrollprozesses
+	 * ausgeführt.
+	 *
+	 * @param ausfuehrung
+	 *            die Ausführung oder <code>null</code> für die Alarmierung im
+	 *            Thread des internen Kontrollprozesses
+	 */
+	public final void setAlarmAusfuehrung(final Executor ausfuehrung) {
+		this.alarmAusfuehrung = ausfuehrung != null ? ausfuehrung : AlarmAusfuehrung.GLEICHER_THREAD;
+	}
+
+	/**
+	 * Erfragt die Statistik über den Verzug der Alarme gegenüber dem Beginn des
+	 * Ticks, in dem sie fällig wurden.
+	 *
+	 * @return die Verzugsstatistik
+	 */
+	public final VerzugsStatistik getVerzugsStatistik() {
+		return this.verzugsStatistik;
+	}
+
+	/**
+	 * Aktualisiert den internen Kontrollprozess, d.h. plant ihn für den
+	 * nächsten belegten Tick des Zeitrades ein.
 	 */
 	protected synchronized void aktualisiereKontrollProzess() {
-		if (!weckZeitpunktAufObjekte.isEmpty()) {
-			final Long naechsterWeckZeitPunkt = weckZeitpunktAufObjekte.firstKey();
-			if (naechsterWeckZeitPunkt != null) {
-				kontrollProzess.setNaechstenAufrufZeitpunkt(naechsterWeckZeitPunkt, naechsterWeckZeitPunkt);
-			}
+		final long naechsterTick = zeitRad.getNaechsterBelegterTickZeitpunkt();
+		if (naechsterTick >= 0) {
+			planeKontrollProzess(naechsterTick);
+		} else {
+			eingeplanterTick = ObjektWecker.AUS;
 		}
 	}
 
+	/**
+	 * Plant den internen Kontrollprozess für einen Tick ein.
+	 *
+	 * @param tick
+	 *            der Beginn des Ticks in ms
+	 */
+	private void planeKontrollProzess(final long tick) {
+		eingeplanterTick = tick;
+		kontrollProzess.setNaechstenAufrufZeitpunkt(tick, tick);
+	}
+
 	@Override
 	public void trigger(final Long weckZeitpunkt) {
-		final Set<IObjektWeckerListener> zuWeckendeObjekte = new HashSet<>();
+		final List<IObjektWeckerListener> zuWeckendeObjekte = new ArrayList<>();
 
 		synchronized (this) {
-			final Set<IObjektWeckerListener> menge = weckZeitpunktAufObjekte.get(weckZeitpunkt);
-			weckZeitpunktAufObjekte.remove(weckZeitpunkt);
-			if (menge == null) {
-				return;
-			}
-			zuWeckendeObjekte.addAll(menge);
+			final long jetzt = Math.max(System.currentTimeMillis(), weckZeitpunkt);
+			zeitRad.ziehe(jetzt, zuWeckendeObjekte);
+			aktualisiereKontrollProzess();
 		}
 
+		final Executor ausfuehrung = alarmAusfuehrung;
 		for (final IObjektWeckerListener objekt : zuWeckendeObjekte) {
-			synchronized (objektAufWeckZeitpunkt) {
-				objektAufWeckZeitpunkt.remove(objekt);
+			if (ausfuehrung == AlarmAusfuehrung.GLEICHER_THREAD) {
+				verzugsStatistik.erfasse(weckZeitpunkt, System.currentTimeMillis());
+				objekt.alarm();
+			} else {
+				final Alarm alarm = new Alarm(objekt, weckZeitpunkt);
+				try {
+					ausfuehrung.execute(alarm);
+				} catch (final RejectedExecutionException e) {
+					ObjektWecker.LOGGER.warning("Alarm wurde abgewiesen und wird direkt ausgeführt", e);
+					alarm.run();
+				}
 			}
-			objekt.alarm();
 		}
+	}
+
+	/**
+	 * Beendet diesen Wecker. Alle Weckzeitpunkte werden verworfen, es werden
+	 * danach keine Objekte mehr alarmiert und keine neuen Weckzeitpunkte mehr
+	 * angenommen.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			beendet = true;
+			zeitRad.leere();
+			eingeplanterTick = ObjektWecker.AUS;
+		}
+		kontrollProzess.close();
+	}
 
-		aktualisiereKontrollProzess();
+	/**
+	 * Alarmierung eines Objektes über eine separate Ausführung.
+	 */
+	private final class Alarm implements Runnable {
+
+		/**
+		 * das zu weckende Objekt.
+		 */
+		private final IObjektWeckerListener objekt;
+
+		/**
+		 * der Beginn des Ticks, in dem das Objekt fällig wurde.
+		 */
+		private final long weckZeitpunkt;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param objekt
+		 *            das zu weckende Objekt
+		 * @param weckZeitpunkt
+		 *            der Beginn des Ticks, in dem das Objekt fällig wurde
+		 */
+		private Alarm(final IObjektWeckerListener objekt, final long weckZeitpunkt) {
+			this.objekt = objekt;
+			this.weckZeitpunkt = weckZeitpunkt;
+		}
+
+		@Override
+		public void run() {
+			verzugsStatistik.erfasse(weckZeitpunkt, System.currentTimeMillis());
+			objekt.alarm();
+		}
 	}
 }
@@ -27,21 +27,23 @@
 package de.bsvrz.sys.funclib.bitctrl.dua;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
 
-import de.bsvrz.dav.daf.main.DataDescription;
 import de.bsvrz.dav.daf.main.ResultData;
 import de.bsvrz.dav.daf.main.config.SystemObject;
 import de.bsvrz.sys.funclib.bitctrl.dua.adapter.AbstraktBearbeitungsKnotenAdapter;
 import de.bsvrz.sys.funclib.bitctrl.dua.av.DAVObjektAnmeldung;
 import de.bsvrz.sys.funclib.bitctrl.dua.dfs.DFSKonstanten;
+import de.bsvrz.sys.funclib.bitctrl.dua.dfs.DatenBeschreibungsCache;
 import de.bsvrz.sys.funclib.bitctrl.dua.dfs.schnittstellen.IDatenFlussSteuerung;
 import de.bsvrz.sys.funclib.bitctrl.dua.dfs.schnittstellen.IDatenFlussSteuerungFuerModul;
 import de.bsvrz.sys.funclib.bitctrl.dua.dfs.typen.ModulTyp;
 import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IStandardAspekte;
 import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IVerwaltung;
+import de.bsvrz.sys.funclib.debug.Debug;
 
 /**
  * Dieses Modul funktioniert wie ein normaler Bearbeitungsknoten mit folgenden
@@ -56,6 +58,22 @@ import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IVerwaltung;
  */
 public class PublikationsModul extends AbstraktBearbeitungsKnotenAdapter {
 
+	/**
+	 * Zustand eines Objektes: es wurden zuletzt Daten publiziert.
+	 */
+	private static final long DATEN = 0;
+
+	/**
+	 * Zustand eines Objektes: es wurde zuletzt <code>keine Daten</code>
+	 * publiziert.
+	 */
+	private static final long KEINE_DATEN = 1;
+
+	/**
+	 * Zustand eines unbekannten Objektes.
+	 */
+	private static final long UNBEKANNT = -1;
+
 	/**
 	 * der Typ des Moduls, für den dieser Bearbeitungsknoten publizieren soll.
 	 */
@@ -64,12 +82,30 @@ public class PublikationsModul extends AbstraktBearbeitungsKnotenAdapter {
 	/**
 	 * Parameter zur Datenflusssteuerung für diese SWE und dieses Modul.
 	 */
-	private IDatenFlussSteuerungFuerModul iDfsMod = DFSKonstanten.STANDARD;
+	private volatile IDatenFlussSteuerungFuerModul iDfsMod = DFSKonstanten.STANDARD;
+
+	/**
+	 * Zwischenspeicher für die Datenbeschreibungen der Publikationsdaten.
+	 */
+	private final DatenBeschreibungsCache datenBeschreibungen = new DatenBeschreibungsCache();
 
 	/**
-	 * Zustand <code>keine Daten</code> jedes Objektes.
+	 * Schützt die von <code>aktualisiereDaten(..)</code> benutzte
+	 * Datenflusssteuerung beim Austausch.
 	 */
-	private final Map<SystemObject, Boolean> keineDaten = new HashMap<>();
+	private final GnadenFrist gnadenFrist = new GnadenFrist();
+
+	/**
+	 * die zuletzt durchgeführten Publikationsanmeldungen.
+	 */
+	private Collection<DAVObjektAnmeldung> aktuelleAnmeldungen = new ArrayList<>();
+
+	/**
+	 * Zustand <code>keine Daten</code> jedes Objektes (über die Objekt-ID).
+	 * Zugriffe erfolgen unter der Sperre dieser Tabelle, da
+	 * <code>aktualisiereDaten(..)</code> parallel aufgerufen werden kann.
+	 */
+	private final LongLongHashMap keineDaten = new LongLongHashMap();
 
 	/**
 	 * Standardkonstruktor.
@@ -91,50 +127,82 @@ public class PublikationsModul extends AbstraktBearbeitungsKnotenAdapter {
 	@Override
 	public void initialisiere(final IVerwaltung dieVerwaltung) throws DUAInitialisierungsException {
 		super.initialisiere(dieVerwaltung);
-		getPublikationsAnmeldungen()
-		.modifiziereObjektAnmeldung(getStandardAspekte().getStandardAnmeldungen(getVerwaltung().getSystemObjekte()));
-		for (final SystemObject objekt : getVerwaltung().getSystemObjekte()) {
-			keineDaten.put(objekt, true);
+		synchronized (this) {
+			aktuelleAnmeldungen = getStandardAspekte().getStandardAnmeldungen(getVerwaltung().getSystemObjekte());
+			getPublikationsAnmeldungen().modifiziereObjektAnmeldung(aktuelleAnmeldungen);
+		}
+		synchronized (keineDaten) {
+			for (final SystemObject objekt : getVerwaltung().getSystemObjekte()) {
+				keineDaten.put(objekt.getId(), PublikationsModul.KEINE_DATEN, PublikationsModul.UNBEKANNT);
+			}
 		}
 	}
 
 	@Override
 	public void aktualisiereDaten(final ResultData[] resultate) {
 		if (resultate != null) {
-			for (final ResultData resultat : resultate) {
-				if (resultat != null) {
-					ResultData publikationsDatum = null;
-
-					if (modulTyp != null) {
-						publikationsDatum = iDfsMod.getPublikationsDatum(resultat, resultat.getData(),
-								getStandardAspekte().getStandardAspekt(resultat));
-					} else {
-						publikationsDatum = new ResultData(resultat.getObject(),
-								new DataDescription(resultat.getDataDescription().getAttributeGroup(),
-										getStandardAspekte().getStandardAspekt(resultat)),
-								resultat.getDataTime(), resultat.getData());
+			final int epoche = gnadenFrist.betrete();
+			try {
+				publiziere(resultate, iDfsMod);
+			} finally {
+				gnadenFrist.verlasse(epoche);
+			}
 
-					}
+			if (getKnoten() != null) {
+				getKnoten().aktualisiereDaten(resultate);
+			}
+		}
+	}
+
+	/**
+	 * Publiziert die übergebenen Daten gemäß einer Datenflusssteuerung. Die
+	 * Publikationsdaten werden in einem Durchgang bestimmt und als ein Feld an
+	 * die Sendeanmeldungsverwaltung übergeben.
+	 *
+	 * @param resultate
+	 *            die Daten
+	 * @param dfsMod
+	 *            die für alle Daten zu verwendende Datenflusssteuerung
+	 */
+	private void publiziere(final ResultData[] resultate, final IDatenFlussSteuerungFuerModul dfsMod) {
+		final ResultData[] publikationsDaten = new ResultData[resultate.length];
+		int anzahl = 0;
+
+		for (final ResultData resultat : resultate) {
+			if (resultat != null) {
+				ResultData publikationsDatum = null;
+
+				if (modulTyp != null) {
+					publikationsDatum = dfsMod.getPublikationsDatum(resultat, resultat.getData(),
+							getStandardAspekte().getStandardAspekt(resultat));
+				} else {
+					publikationsDatum = new ResultData(resultat.getObject(),
+							datenBeschreibungen.get(resultat.getDataDescription().getAttributeGroup(),
+									getStandardAspekte().getStandardAspekt(resultat)),
+							resultat.getDataTime(), resultat.getData());
+
+				}
 
-					if (publikationsDatum != null) {
-						if (publikationsDatum.getData() == null) {
-							final Boolean objektStehtAktuellAufKeineDaten = keineDaten
-									.get(publikationsDatum.getObject());
-							if ((objektStehtAktuellAufKeineDaten != null) && !objektStehtAktuellAufKeineDaten) {
-								getPublikationsAnmeldungen().sende(publikationsDatum);
-							}
-						} else {
-							getPublikationsAnmeldungen().sende(publikationsDatum);
-						}
-
-						keineDaten.put(publikationsDatum.getObject(), publikationsDatum.getData() == null);
+				if (publikationsDatum != null) {
+					final boolean ohneDaten = publikationsDatum.getData() == null;
+					final long bisherigerZustand;
+					synchronized (keineDaten) {
+						bisherigerZustand = keineDaten.put(publikationsDatum.getObject().getId(),
+								ohneDaten ? PublikationsModul.KEINE_DATEN : PublikationsModul.DATEN,
+								PublikationsModul.UNBEKANNT);
+					}
+					if (!ohneDaten || (bisherigerZustand == PublikationsModul.DATEN)) {
+						publikationsDaten[anzahl++] = publikationsDatum;
 					}
 				}
 			}
+		}
 
-			if (getKnoten() != null) {
-				getKnoten().aktualisiereDaten(resultate);
-			}
+		if (anzahl == 1) {
+			getPublikationsAnmeldungen().sende(publikationsDaten[0]);
+		} else if (anzahl > 1) {
+			getPublikationsAnmeldungen().sende(anzahl == publikationsDaten.length ? publikationsDaten
+					: Arrays.copyOf(publikationsDaten, anzahl));
 		}
 	}
 
@@ -143,10 +211,24 @@ public class PublikationsModul extends AbstraktBearbeitungsKnotenAdapter {
 		return modulTyp;
 	}
 
+	/**
+	 * {@inheritDoc}<br>
+	 * Der Austausch erfolgt ohne Sperre auf dem Datenpfad: zuerst werden die
+	 * zusätzlich benötigten Datenanmeldungen durchgeführt, dann wird die neue
+	 * Datenflusssteuerung aktiviert und nach dem Ende aller noch mit der alten
+	 * Datenflusssteuerung laufenden Publikationen und dem Senden aller dabei
+	 * (ggf. blockweise gepufferten) Daten werden die nicht mehr benötigten
+	 * Datenanmeldungen zurückgenommen. Jeder Aufruf von
+	 * <code>aktualisiereDaten(..)</code> publiziert damit vollständig nach der
+	 * alten oder vollständig nach der neuen Datenflusssteuerung. Wird das
+	 * Warten unterbrochen, so bleiben die alten Anmeldungen bis zum nächsten
+	 * Austausch bestehen.
+	 */
 	@Override
 	public void aktualisierePublikation(final IDatenFlussSteuerung iDfs) {
 		if (modulTyp != null) {
-			iDfsMod = iDfs.getDFSFuerModul(getVerwaltung().getSWETyp(), getModulTyp());
+			final IDatenFlussSteuerungFuerModul neuesDfsMod = iDfs.getDFSFuerModul(getVerwaltung().getSWETyp(),
+					getModulTyp());
 
 			Collection<DAVObjektAnmeldung> anmeldungenStd = new ArrayList<>();
 
@@ -154,11 +236,37 @@ public class PublikationsModul extends AbstraktBearbeitungsKnotenAdapter {
 				anmeldungenStd = getStandardAspekte().getStandardAnmeldungen(getVerwaltung().getSystemObjekte());
 			}
 
-			final Collection<DAVObjektAnmeldung> anmeldungen = iDfsMod
+			final Collection<DAVObjektAnmeldung> anmeldungen = neuesDfsMod
 					.getDatenAnmeldungen(getVerwaltung().getSystemObjekte(), anmeldungenStd);
 
 			synchronized (this) {
-				getPublikationsAnmeldungen().modifiziereObjektAnmeldung(anmeldungen);
+				final Set<DAVObjektAnmeldung> alleAnmeldungen = new HashSet<>(aktuelleAnmeldungen);
+				alleAnmeldungen.addAll(anmeldungen);
+				getPublikationsAnmeldungen().modifiziereObjektAnmeldung(alleAnmeldungen);
+
+				iDfsMod = neuesDfsMod;
+				boolean abgeschlossen = false;
+				try {
+					gnadenFrist.abwarten();
+					getPublikationsAnmeldungen().warteAufGesendet();
+					abgeschlossen = true;
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+
+				if (abgeschlossen) {
+					getPublikationsAnmeldungen().modifiziereObjektAnmeldung(anmeldungen);
+					aktuelleAnmeldungen = anmeldungen;
+				} else {
+					/*
+					 * es können noch Publikationen nach der alten
+					 * Datenflusssteuerung laufen bzw. gepuffert sein: die alten
+					 * Anmeldungen bleiben bis zum nächsten Austausch bestehen
+					 */
+					Debug.getLogger().warning("Austausch der Datenflusssteuerung unterbrochen, nicht mehr benötigte"
+							+ " Anmeldungen werden erst beim nächsten Austausch zurückgenommen");
+					aktuelleAnmeldungen = alleAnmeldungen;
+				}
 			}
 		}
 	}
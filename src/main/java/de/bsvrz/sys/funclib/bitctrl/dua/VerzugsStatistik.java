@@ -0,0 +1,135 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistik über den Verzug von zeitgesteuerten Aufrufen, d.h. über die
+ * Differenz zwischen dem tatsächlichen und dem eingeplanten Aufrufzeitpunkt.
+ * Die Klasse ist threadsicher und kann ohne Sperren aus mehreren Threads
+ * aktualisiert werden.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public class VerzugsStatistik {
+
+	/**
+	 * Anzahl der erfassten Aufrufe.
+	 */
+	private final LongAdder anzahl = new LongAdder();
+
+	/**
+	 * Summe aller erfassten Verzüge in ms.
+	 */
+	private final LongAdder summe = new LongAdder();
+
+	/**
+	 * der größte erfasste Verzug in ms.
+	 */
+	private final AtomicLong maximum = new AtomicLong();
+
+	/**
+	 * der zuletzt erfasste Verzug in ms.
+	 */
+	private volatile long letzter;
+
+	/**
+	 * Erfasst einen Aufruf.
+	 *
+	 * @param eingeplanterZeitpunkt
+	 *            der eingeplante Aufrufzeitpunkt in ms
+	 * @param tatsaechlicherZeitpunkt
+	 *            der tatsächliche Aufrufzeitpunkt in ms
+	 */
+	public final void erfasse(final long eingeplanterZeitpunkt, final long tatsaechlicherZeitpunkt) {
+		final long verzug = Math.max(0, tatsaechlicherZeitpunkt - eingeplanterZeitpunkt);
+		anzahl.increment();
+		summe.add(verzug);
+		letzter = verzug;
+
+		long bisher = maximum.get();
+		while ((verzug > bisher) && !maximum.compareAndSet(bisher, verzug)) {
+			bisher = maximum.get();
+		}
+	}
+
+	/**
+	 * Erfragt die Anzahl der erfassten Aufrufe.
+	 *
+	 * @return die Anzahl der erfassten Aufrufe
+	 */
+	public final long getAnzahl() {
+		return anzahl.sum();
+	}
+
+	/**
+	 * Erfragt den mittleren Verzug.
+	 *
+	 * @return der mittlere Verzug in ms oder <code>0</code>, wenn noch keine
+	 *         Aufrufe erfasst wurden
+	 */
+	public final double getMittlererVerzug() {
+		final long n = anzahl.sum();
+		return n > 0 ? (double) summe.sum() / n : 0;
+	}
+
+	/**
+	 * Erfragt den größten erfassten Verzug.
+	 *
+	 * @return der größte erfasste Verzug in ms
+	 */
+	public final long getMaximalerVerzug() {
+		return maximum.get();
+	}
+
+	/**
+	 * Erfragt den zuletzt erfassten Verzug.
+	 *
+	 * @return der zuletzt erfasste Verzug in ms
+	 */
+	public final long getLetzterVerzug() {
+		return letzter;
+	}
+
+	/**
+	 * Setzt die Statistik zurück.
+	 */
+	public final void reset() {
+		anzahl.reset();
+		summe.reset();
+		maximum.set(0);
+		letzter = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "Aufrufe: " + getAnzahl() + ", Verzug (ms) mittel: " + getMittlererVerzug() + ", max: "
+				+ getMaximalerVerzug() + ", zuletzt: " + getLetzterVerzug();
+	}
+}
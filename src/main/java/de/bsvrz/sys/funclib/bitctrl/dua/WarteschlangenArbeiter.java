@@ -0,0 +1,242 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Arbeits-Thread mit einer begrenzten Warteschlange. Eingereihte Elemente
+ * werden im Thread des Arbeiters in der Reihenfolge des Einreihens an
+ * <code>bearbeite(..)</code> übergeben. Ist die Warteschlange voll, so
+ * blockiert das Einreihen, bis wieder Platz ist (Rückstau).<br>
+ * Nach <code>close()</code> werden keine Elemente mehr angenommen, jedes
+ * zuvor erfolgreich eingereihte Element wird aber noch bearbeitet.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ * @param <T>
+ *            Art der Elemente
+ */
+public abstract class WarteschlangenArbeiter<T> implements AutoCloseable {
+
+	/**
+	 * die Warteschlange.
+	 */
+	private final BlockingQueue<T> warteschlange;
+
+	/**
+	 * der Thread des Arbeiters.
+	 */
+	private final Thread thread;
+
+	/**
+	 * Anzahl der Threads, die sich gerade in <code>einreihen(..)</code>
+	 * befinden. Der Thread des Arbeiters endet erst, wenn keiner mehr ein
+	 * Element einreihen kann.
+	 */
+	private final AtomicInteger aktiveEinreiher = new AtomicInteger();
+
+	/**
+	 * zeigt an, ob der Arbeiter beendet wurde.
+	 */
+	private volatile boolean beendet;
+
+	/**
+	 * Konstruktor. Der Thread wird erst mit <code>starte()</code> gestartet.
+	 *
+	 * @param name
+	 *            der Name des Threads
+	 * @param kapazitaet
+	 *            die Kapazität der Warteschlange
+	 */
+	protected WarteschlangenArbeiter(final String name, final int kapazitaet) {
+		this.warteschlange = new ArrayBlockingQueue<>(kapazitaet);
+		this.thread = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				arbeite();
+			}
+		}, name);
+		this.thread.setDaemon(true);
+	}
+
+	/**
+	 * Startet den Thread des Arbeiters.
+	 */
+	public final void starte() {
+		thread.start();
+	}
+
+	/**
+	 * Reiht ein Element ein. Ist die Warteschlange voll, so wird gewartet, bis
+	 * wieder Platz ist. Eine Unterbrechung des aufrufenden Threads beendet das
+	 * Warten nicht, sie wird nach dem Einreihen wiederhergestellt.
+	 *
+	 * @param element
+	 *            das Element
+	 * @return ob das Element eingereiht wurde (<code>false</code>, wenn der
+	 *         Arbeiter beendet wurde). Ein eingereihtes Element wird in jedem
+	 *         Fall bearbeitet
+	 */
+	public final boolean einreihen(final T element) {
+		aktiveEinreiher.incrementAndGet();
+		try {
+			if (beendet) {
+				return false;
+			}
+			boolean unterbrochen = false;
+			while (true) {
+				try {
+					warteschlange.put(element);
+					break;
+				} catch (final InterruptedException e) {
+					unterbrochen = true;
+				}
+			}
+			if (unterbrochen) {
+				Thread.currentThread().interrupt();
+			}
+			return true;
+		} finally {
+			aktiveEinreiher.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Erfragt die Anzahl der momentan eingereihten Elemente.
+	 *
+	 * @return die Anzahl der eingereihten Elemente
+	 */
+	public final int getAnzahlWartend() {
+		return warteschlange.size();
+	}
+
+	/**
+	 * Erfragt, ob der Thread des Arbeiters noch läuft.
+	 *
+	 * @return <code>true</code>, wenn der Thread noch läuft
+	 */
+	public final boolean isAktiv() {
+		return thread.isAlive();
+	}
+
+	/**
+	 * Bearbeitet ein Element im Thread des Arbeiters. Weitere bereits
+	 * eingereihte Elemente können über <code>entnimm(..)</code> gemeinsam mit
+	 * diesem bearbeitet werden. Die Methode soll keine Ausnahmen werfen.
+	 *
+	 * @param element
+	 *            das (erste) zu bearbeitende Element
+	 */
+	protected abstract void bearbeite(T element);
+
+	/**
+	 * Entnimmt das nächste Element und wartet dabei höchstens die angegebene
+	 * Zeit. Darf nur in <code>bearbeite(..)</code> aufgerufen werden.
+	 *
+	 * @param wartezeit
+	 *            die maximale Wartezeit
+	 * @param einheit
+	 *            die Einheit der Wartezeit
+	 * @return das Element oder <code>null</code>, wenn innerhalb der Wartezeit
+	 *         keines eingereiht wurde
+	 * @throws InterruptedException
+	 *             wenn der Thread beim Warten unterbrochen wurde
+	 */
+	protected final T entnimm(final long wartezeit, final TimeUnit einheit) throws InterruptedException {
+		return warteschlange.poll(wartezeit, einheit);
+	}
+
+	/**
+	 * Entnimmt die bereits eingereihten Elemente ohne zu warten. Darf nur in
+	 * <code>bearbeite(..)</code> aufgerufen werden.
+	 *
+	 * @param ziel
+	 *            die Sammlung, in die die Elemente übernommen werden
+	 * @param maxAnzahl
+	 *            die maximale Anzahl zu entnehmender Elemente
+	 * @return die Anzahl der entnommenen Elemente
+	 */
+	protected final int entnimm(final Collection<? super T> ziel, final int maxAnzahl) {
+		return warteschlange.drainTo(ziel, maxAnzahl);
+	}
+
+	/**
+	 * Übergibt die eingereihten Elemente an <code>bearbeite(..)</code>, bis
+	 * der Arbeiter beendet und die Warteschlange leer ist. Eine Unterbrechung
+	 * des Threads beendet den Arbeiter.
+	 */
+	private void arbeite() {
+		/*
+		 * Reihenfolge der Prüfung: ein Thread in einreihen(..) ist gezählt,
+		 * bevor er "beendet" liest, und legt sein Element ab, bevor er sich
+		 * austrägt.
+		 */
+		while (!beendet || (aktiveEinreiher.get() > 0) || !warteschlange.isEmpty()) {
+			final T element;
+			try {
+				element = warteschlange.poll(100, TimeUnit.MILLISECONDS);
+			} catch (final InterruptedException e) {
+				beendet = true;
+				continue;
+			}
+			if (element != null) {
+				bearbeite(element);
+			}
+		}
+	}
+
+	/**
+	 * Beendet den Arbeiter. Danach eingereihte Elemente werden abgewiesen. Der
+	 * Aufruf kehrt erst zurück, wenn alle eingereihten Elemente bearbeitet
+	 * wurden (auch wenn der Arbeiter bereits von einem anderen Thread beendet
+	 * wird). Wird er im Thread des Arbeiters aufgerufen, so kehrt er sofort
+	 * zurück.
+	 */
+	@Override
+	public final void close() {
+		beendet = true;
+		if (Thread.currentThread() != thread) {
+			boolean unterbrochen = false;
+			while (thread.isAlive()) {
+				try {
+					thread.join();
+				} catch (final InterruptedException e) {
+					unterbrochen = true;
+				}
+			}
+			if (unterbrochen) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
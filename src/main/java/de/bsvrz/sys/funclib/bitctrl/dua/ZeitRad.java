@@ -0,0 +1,400 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Zeitrad (<i>hashed timing wheel</i>) zur Verwaltung einer großen Anzahl von
+ * Weckzeitpunkten. Jedes Objekt kann höchstens einmal eingeplant sein. Das
+ * Einplanen, Umplanen und Ausplanen eines Objektes erfolgt in konstanter Zeit
+ * (unabhängig von der Anzahl der eingeplanten Objekte). Alle bis zu einem
+ * bestimmten Zeitpunkt fälligen Objekte werden über die Methode
+ * <code>ziehe(..)</code> gesammelt entnommen.<br>
+ * Die Zeitachse ist in Ticks der Länge <code>tickDauer</code> eingeteilt. Ein
+ * Objekt wird dem ersten Tick zugeordnet, der nicht vor seinem Weckzeitpunkt
+ * beginnt, d.h. es wird frühestens zu seinem Weckzeitpunkt und höchstens eine
+ * Tickdauer danach als fällig gemeldet.<br>
+ * <b>Achtung:</b> Die Klasse ist nicht threadsicher. Die Synchronisation muss
+ * durch den Aufrufer erfolgen.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ * @param <T>
+ *            Art der einzuplanenden Objekte
+ */
+public class ZeitRad<T> {
+
+	/**
+	 * Standardwert für die Dauer eines Ticks in ms.
+	 */
+	public static final long STANDARD_TICK_DAUER = 10;
+
+	/**
+	 * Standardwert für die Anzahl der Fächer des Rades.
+	 */
+	public static final int STANDARD_ANZAHL_FAECHER = 1024;
+
+	/**
+	 * Kennzeichnet, dass noch nie Ticks entnommen wurden.
+	 */
+	private static final long NICHT_GESTARTET = Long.MIN_VALUE;
+
+	/**
+	 * die Dauer eines Ticks in ms.
+	 */
+	private final long tickDauer;
+
+	/**
+	 * die Fächer des Rades (jeweils der Kopf einer doppelt verketteten Liste).
+	 */
+	private final Eintrag<T>[] faecher;
+
+	/**
+	 * Bitmaske zur Bestimmung des Faches eines Ticks.
+	 */
+	private final int maske;
+
+	/**
+	 * alle eingeplanten Objekte mit ihrem jeweiligen Eintrag.
+	 */
+	private final Map<T, Eintrag<T>> eintraege = new HashMap<>();
+
+	/**
+	 * der nächste noch nicht abgearbeitete Tick.
+	 */
+	private long aktuellerTick = ZeitRad.NICHT_GESTARTET;
+
+	/**
+	 * Standardkonstruktor mit einer Tickdauer von
+	 * <code>STANDARD_TICK_DAUER</code> und
+	 * <code>STANDARD_ANZAHL_FAECHER</code> Fächern.
+	 */
+	public ZeitRad() {
+		this(ZeitRad.STANDARD_TICK_DAUER, ZeitRad.STANDARD_ANZAHL_FAECHER);
+	}
+
+	/**
+	 * Konstruktor.
+	 *
+	 * @param tickDauer
+	 *            die Dauer eines Ticks in ms (&gt; 0)
+	 * @param anzahlFaecher
+	 *            die gewünschte Anzahl der Fächer (&gt; 0). Der Wert wird auf
+	 *            die nächste Zweierpotenz aufgerundet
+	 */
+	@SuppressWarnings("unchecked")
+	public ZeitRad(final long tickDauer, final int anzahlFaecher) {
+		if (tickDauer <= 0) {
+			throw new IllegalArgumentException("Tickdauer muss positiv sein: " + tickDauer);
+		}
+		if ((anzahlFaecher <= 0) || (anzahlFaecher > (1 << 30))) {
+			throw new IllegalArgumentException("Ungültige Anzahl von Fächern: " + anzahlFaecher);
+		}
+		int anzahl = 1;
+		while (anzahl < anzahlFaecher) {
+			anzahl <<= 1;
+		}
+		this.tickDauer = tickDauer;
+		this.faecher = new Eintrag[anzahl];
+		this.maske = anzahl - 1;
+	}
+
+	/**
+	 * Plant ein Objekt für einen absoluten Weckzeitpunkt ein. War das Objekt
+	 * bereits eingeplant, so wird es (ohne neue Speicheranforderung)
+	 * umgeplant.
+	 *
+	 * @param objekt
+	 *            das einzuplanende Objekt
+	 * @param zeitpunkt
+	 *            der Weckzeitpunkt in ms
+	 * @return der Beginn des Ticks, in dem das Objekt fällig wird (in ms)
+	 */
+	public final long setze(final T objekt, final long zeitpunkt) {
+		Eintrag<T> eintrag = eintraege.get(objekt);
+		if (eintrag == null) {
+			eintrag = new Eintrag<>(objekt);
+			eintraege.put(objekt, eintrag);
+		} else {
+			aushaengen(eintrag);
+		}
+
+		long tick = -Math.floorDiv(-zeitpunkt, tickDauer);
+		if ((aktuellerTick != ZeitRad.NICHT_GESTARTET) && (tick < aktuellerTick)) {
+			tick = aktuellerTick;
+		}
+		eintrag.zeitpunkt = zeitpunkt;
+		eintrag.tick = tick;
+		einhaengen(eintrag);
+
+		return tick * tickDauer;
+	}
+
+	/**
+	 * Plant ein Objekt aus.
+	 *
+	 * @param objekt
+	 *            das auszuplanende Objekt
+	 * @return ob das Objekt eingeplant war
+	 */
+	public final boolean entferne(final T objekt) {
+		final Eintrag<T> eintrag = eintraege.remove(objekt);
+		if (eintrag != null) {
+			aushaengen(eintrag);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Erfragt, ob ein Objekt eingeplant ist.
+	 *
+	 * @param objekt
+	 *            ein Objekt
+	 * @return ob das Objekt eingeplant ist
+	 */
+	public final boolean isEingeplant(final T objekt) {
+		return eintraege.containsKey(objekt);
+	}
+
+	/**
+	 * Erfragt den Weckzeitpunkt eines Objektes.
+	 *
+	 * @param objekt
+	 *            ein Objekt
+	 * @return der Weckzeitpunkt des Objektes in ms oder <code>-1</code>, wenn
+	 *         das Objekt nicht eingeplant ist
+	 */
+	public final long getZeitpunkt(final T objekt) {
+		final Eintrag<T> eintrag = eintraege.get(objekt);
+		return eintrag != null ? eintrag.zeitpunkt : -1;
+	}
+
+	/**
+	 * Erfragt die Anzahl der eingeplanten Objekte.
+	 *
+	 * @return die Anzahl der eingeplanten Objekte
+	 */
+	public final int size() {
+		return eintraege.size();
+	}
+
+	/**
+	 * Erfragt, ob keine Objekte eingeplant sind.
+	 *
+	 * @return ob keine Objekte eingeplant sind
+	 */
+	public final boolean isLeer() {
+		return eintraege.isEmpty();
+	}
+
+	/**
+	 * Entfernt alle eingeplanten Objekte und setzt das Rad zurück, d.h. der
+	 * nächste Aufruf von <code>ziehe(..)</code> startet es neu.
+	 */
+	public final void leere() {
+		Arrays.fill(faecher, null);
+		eintraege.clear();
+		aktuellerTick = ZeitRad.NICHT_GESTARTET;
+	}
+
+	/**
+	 * Erfragt den Beginn des nächsten Ticks, in dem mindestens ein Objekt
+	 * fällig wird. Der Aufwand ist proportional zur Anzahl der Fächer, wenn
+	 * innerhalb des nächsten Umlaufs ein Objekt fällig wird, und sonst
+	 * proportional zur Anzahl der eingeplanten Objekte.
+	 *
+	 * @return der Beginn des nächsten Ticks mit fälligen Objekten in ms oder
+	 *         <code>-1</code>, wenn keine Objekte eingeplant sind
+	 */
+	public final long getNaechsterBelegterTickZeitpunkt() {
+		if (eintraege.isEmpty()) {
+			return -1;
+		}
+		if (aktuellerTick != ZeitRad.NICHT_GESTARTET) {
+			for (long tick = aktuellerTick; tick <= (aktuellerTick + maske); tick++) {
+				for (Eintrag<T> e = faecher[(int) (tick & maske)]; e != null; e = e.nach) {
+					if (e.tick == tick) {
+						return tick * tickDauer;
+					}
+				}
+			}
+		}
+
+		/* innerhalb eines Umlaufs ist nichts fällig: frühesten Eintrag suchen */
+		long fruehesterTick = Long.MAX_VALUE;
+		for (final Eintrag<T> kopf : faecher) {
+			for (Eintrag<T> e = kopf; e != null; e = e.nach) {
+				fruehesterTick = Math.min(fruehesterTick, e.tick);
+			}
+		}
+		return fruehesterTick * tickDauer;
+	}
+
+	/**
+	 * Entnimmt alle Objekte, die bis zum übergebenen Zeitpunkt fällig geworden
+	 * sind, und setzt das Rad auf den Zeitpunkt vor.
+	 *
+	 * @param jetzt
+	 *            der aktuelle Zeitpunkt in ms
+	 * @param faellige
+	 *            Sammlung, in die alle fälligen Objekte eingefügt werden. Die
+	 *            Objekte sind danach nicht mehr eingeplant
+	 * @return die Anzahl der entnommenen Objekte
+	 */
+	public final int ziehe(final long jetzt, final Collection<? super T> faellige) {
+		final long jetztTick = Math.floorDiv(jetzt, tickDauer);
+		int anzahl = 0;
+
+		if ((aktuellerTick == ZeitRad.NICHT_GESTARTET) || ((jetztTick - aktuellerTick) > maske)) {
+			/* mindestens ein kompletter Umlauf: alle Fächer einmal leeren */
+			for (int fach = 0; fach < faecher.length; fach++) {
+				anzahl += leereFach(fach, jetztTick, faellige);
+			}
+			aktuellerTick = jetztTick + 1;
+		} else {
+			while (aktuellerTick <= jetztTick) {
+				anzahl += leereFach((int) (aktuellerTick & maske), aktuellerTick, faellige);
+				aktuellerTick++;
+			}
+		}
+
+		return anzahl;
+	}
+
+	/**
+	 * Entnimmt alle Objekte eines Faches, die spätestens im übergebenen Tick
+	 * fällig sind.
+	 *
+	 * @param fach
+	 *            das Fach
+	 * @param bisTick
+	 *            der letzte zu berücksichtigende Tick
+	 * @param faellige
+	 *            Sammlung für die entnommenen Objekte
+	 * @return die Anzahl der entnommenen Objekte
+	 */
+	private int leereFach(final int fach, final long bisTick, final Collection<? super T> faellige) {
+		int anzahl = 0;
+		Eintrag<T> eintrag = faecher[fach];
+		while (eintrag != null) {
+			final Eintrag<T> naechster = eintrag.nach;
+			if (eintrag.tick <= bisTick) {
+				aushaengen(eintrag);
+				eintraege.remove(eintrag.objekt);
+				faellige.add(eintrag.objekt);
+				anzahl++;
+			}
+			eintrag = naechster;
+		}
+		return anzahl;
+	}
+
+	/**
+	 * Hängt einen Eintrag in das Fach seines Ticks ein.
+	 *
+	 * @param eintrag
+	 *            der Eintrag
+	 */
+	private void einhaengen(final Eintrag<T> eintrag) {
+		final int fach = (int) (eintrag.tick & maske);
+		final Eintrag<T> kopf = faecher[fach];
+		eintrag.vor = null;
+		eintrag.nach = kopf;
+		if (kopf != null) {
+			kopf.vor = eintrag;
+		}
+		faecher[fach] = eintrag;
+	}
+
+	/**
+	 * Hängt einen Eintrag aus seinem Fach aus.
+	 *
+	 * @param eintrag
+	 *            der Eintrag
+	 */
+	private void aushaengen(final Eintrag<T> eintrag) {
+		if (eintrag.vor != null) {
+			eintrag.vor.nach = eintrag.nach;
+		} else {
+			faecher[(int) (eintrag.tick & maske)] = eintrag.nach;
+		}
+		if (eintrag.nach != null) {
+			eintrag.nach.vor = eintrag.vor;
+		}
+		eintrag.vor = null;
+		eintrag.nach = null;
+	}
+
+	/**
+	 * Ein eingeplantes Objekt innerhalb eines Faches.
+	 *
+	 * @param <T>
+	 *            Art des Objektes
+	 */
+	private static final class Eintrag<T> {
+
+		/**
+		 * das eingeplante Objekt.
+		 */
+		private final T objekt;
+
+		/**
+		 * der Weckzeitpunkt in ms.
+		 */
+		private long zeitpunkt;
+
+		/**
+		 * der Tick, in dem das Objekt fällig wird.
+		 */
+		private long tick;
+
+		/**
+		 * Vorgänger im Fach.
+		 */
+		private Eintrag<T> vor;
+
+		/**
+		 * Nachfolger im Fach.
+		 */
+		private Eintrag<T> nach;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param objekt
+		 *            das eingeplante Objekt
+		 */
+		private Eintrag(final T objekt) {
+			this.objekt = objekt;
+		}
+	}
+}
@@ -0,0 +1,493 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.adapter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.bsvrz.dav.daf.main.ResultData;
+import de.bsvrz.sys.funclib.bitctrl.dua.DUAInitialisierungsException;
+import de.bsvrz.sys.funclib.bitctrl.dua.LongLongHashMap;
+import de.bsvrz.sys.funclib.bitctrl.dua.dfs.schnittstellen.IDatenFlussSteuerung;
+import de.bsvrz.sys.funclib.bitctrl.dua.dfs.typen.ModulTyp;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IBearbeitungsKnoten;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IVerwaltung;
+import de.bsvrz.sys.funclib.debug.Debug;
+
+/**
+ * Bearbeitungsknoten, der die übergebenen Daten nach der ID ihres
+ * Systemobjekts (siehe <code>getSchluessel(..)</code>) auf mehrere Instanzen
+ * einer Stufe (Partitionen) verteilt und diese parallel bearbeiten lässt. Die
+ * Daten eines Systemobjekts werden immer von derselben Instanz und in der
+ * übergebenen Reihenfolge bearbeitet.<br>
+ * Die von den Instanzen weitergeleiteten Daten werden gesammelt und nach dem
+ * Ende der Bearbeitung aller Partitionen als ein Feld (in der Reihenfolge der
+ * Partitionen) an den nächsten Bearbeitungsknoten weitergeleitet. Der nächste
+ * Bearbeitungsknoten wird also wie bisher einmal pro übergebenem Feld und
+ * ohne Nebenläufigkeit aufgerufen, <code>aktualisiereDaten(..)</code> kehrt
+ * erst nach der Weiterleitung zurück. Leitet eine Instanz außerhalb von
+ * <code>aktualisiereDaten(..)</code> Daten weiter (z.B. aus einem Timer), so
+ * werden diese nur vorgemerkt und von einem eigenen Thread bzw. vor dem
+ * Ergebnis des nächsten Feldes weitergeleitet. Der Thread der Instanz wartet
+ * dabei nie auf eine Sperre dieses Knotens (die ggf. ein anderer Thread hält,
+ * während er auf dieselbe Instanz wartet). Der nächste Bearbeitungsknoten
+ * wird auch in diesem Fall nie parallel aufgerufen.<br>
+ * Die Verwendung setzt voraus, dass die Bearbeitung der Stufe pro Objekt
+ * unabhängig ist (z.B. Plausibilisierung pro Fahrstreifen).
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public class PartitionsKnoten implements IBearbeitungsKnoten, AutoCloseable {
+
+	/**
+	 * die Instanzen der Stufe (eine pro Partition).
+	 */
+	private final IBearbeitungsKnoten[] instanzen;
+
+	/**
+	 * die Sammler der von den Instanzen weitergeleiteten Daten.
+	 */
+	private final Sammler[] sammler;
+
+	/**
+	 * die Threads für die Partitionen (außer der letzten, die im Thread des
+	 * Aufrufers bearbeitet wird).
+	 */
+	private final ExecutorService ausfuehrung;
+
+	/**
+	 * nächster Bearbeitungsknoten.
+	 */
+	private volatile IBearbeitungsKnoten knoten;
+
+	/**
+	 * die außerhalb von <code>aktualisiereDaten(..)</code> weitergeleiteten,
+	 * noch nicht an den nächsten Bearbeitungsknoten übergebenen Daten.
+	 */
+	private final Queue<ResultData[]> ausstehend = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * der Thread für die Weiterleitung der ausstehenden Daten.
+	 */
+	private final ExecutorService weiterleitung;
+
+	/**
+	 * Sperre für die Aufrufe des nächsten Bearbeitungsknotens. Sie wird nie
+	 * gehalten, während auf die Bearbeitung einer Partition gewartet wird.
+	 */
+	private final Object weiterleitungsSperre = new Object();
+
+	/**
+	 * Konstruktor.
+	 *
+	 * @param name
+	 *            der Name der Threads
+	 * @param instanzen
+	 *            die Instanzen der Stufe (eine pro Partition)
+	 */
+	public PartitionsKnoten(final String name, final List<? extends IBearbeitungsKnoten> instanzen) {
+		if (instanzen.isEmpty()) {
+			throw new IllegalArgumentException("Es wird mindestens eine Instanz benötigt");
+		}
+		this.instanzen = instanzen.toArray(new IBearbeitungsKnoten[instanzen.size()]);
+		this.sammler = new Sammler[this.instanzen.length];
+		for (int i = 0; i < this.instanzen.length; i++) {
+			sammler[i] = new Sammler();
+			this.instanzen[i].setNaechstenBearbeitungsKnoten(sammler[i]);
+		}
+
+		weiterleitung = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, name + "-Weiterleitung");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		if (this.instanzen.length > 1) {
+			final AtomicInteger nummer = new AtomicInteger();
+			ausfuehrung = Executors.newFixedThreadPool(this.instanzen.length - 1, new ThreadFactory() {
+
+				@Override
+				public Thread newThread(final Runnable r) {
+					final Thread thread = new Thread(r, name + "-" + nummer.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		} else {
+			ausfuehrung = null;
+		}
+	}
+
+	/**
+	 * Erfragt die Anzahl der Partitionen.
+	 *
+	 * @return die Anzahl der Partitionen
+	 */
+	public final int getAnzahlPartitionen() {
+		return instanzen.length;
+	}
+
+	/**
+	 * Erfragt den Schlüssel, nach dem ein Datum einer Partition zugeordnet
+	 * wird. Daten mit gleichem Schlüssel werden von derselben Instanz in der
+	 * übergebenen Reihenfolge bearbeitet.
+	 *
+	 * @param resultat
+	 *            ein Datum (nicht <code>null</code>)
+	 * @return der Schlüssel, standardmäßig die ID des Systemobjekts
+	 */
+	protected long getSchluessel(final ResultData resultat) {
+		return resultat.getObject().getId();
+	}
+
+	/**
+	 * Bestimmt die Partition eines Schlüssels.
+	 *
+	 * @param schluessel
+	 *            der Schlüssel
+	 * @param anzahl
+	 *            die Anzahl der Partitionen
+	 * @return die Partition
+	 */
+	static int getPartition(final long schluessel, final int anzahl) {
+		final long h = LongLongHashMap.mische(schluessel);
+		return (int) (((h >>> 32) * anzahl) >>> 32);
+	}
+
+	@Override
+	public void initialisiere(final IVerwaltung verwaltung) throws DUAInitialisierungsException {
+		for (final IBearbeitungsKnoten instanz : instanzen) {
+			instanz.initialisiere(verwaltung);
+		}
+	}
+
+	@Override
+	public void setNaechstenBearbeitungsKnoten(final IBearbeitungsKnoten knoten1) {
+		knoten = knoten1;
+	}
+
+	@Override
+	public void setPublikation(final boolean publizieren) {
+		for (final IBearbeitungsKnoten instanz : instanzen) {
+			instanz.setPublikation(publizieren);
+		}
+	}
+
+	@Override
+	public void aktualisiereDaten(final ResultData[] resultate) {
+		if (resultate == null) {
+			return;
+		}
+
+		final List<List<ResultData>> partitionen = new ArrayList<>(instanzen.length);
+		for (int i = 0; i < instanzen.length; i++) {
+			partitionen.add(new ArrayList<ResultData>());
+		}
+		for (final ResultData resultat : resultate) {
+			final int partition = resultat == null ? 0
+					: PartitionsKnoten.getPartition(getSchluessel(resultat), instanzen.length);
+			partitionen.get(partition).add(resultat);
+		}
+
+		final List<ResultData> ergebnis = new ArrayList<>(resultate.length);
+		synchronized (this) {
+			final List<Future<?>> auftraege = new ArrayList<>();
+			int letzte = -1;
+			try {
+				for (int i = 0; i < instanzen.length; i++) {
+					if (!partitionen.get(i).isEmpty()) {
+						if (letzte >= 0) {
+							final Bearbeitung bearbeitung = new Bearbeitung(letzte, partitionen.get(letzte));
+							try {
+								auftraege.add(ausfuehrung.submit(bearbeitung));
+							} catch (final RejectedExecutionException e) {
+								/* nach close(): im Thread des Aufrufers bearbeiten */
+								bearbeitung.fuehreAus();
+							}
+						}
+						letzte = i;
+					}
+				}
+				if (letzte >= 0) {
+					new Bearbeitung(letzte, partitionen.get(letzte)).fuehreAus();
+				}
+			} finally {
+				/*
+				 * Es wird immer auf alle Partitionen gewartet, auch bei einem
+				 * Fehler oder einer Unterbrechung, damit keine Instanz mehr
+				 * arbeitet, wenn der Monitor freigegeben wird.
+				 */
+				boolean unterbrochen = false;
+				for (final Future<?> auftrag : auftraege) {
+					unterbrochen |= PartitionsKnoten.warteAuf(auftrag);
+				}
+				if (unterbrochen) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			for (final Sammler s : sammler) {
+				s.entnehme(ergebnis);
+			}
+
+			synchronized (weiterleitungsSperre) {
+				leiteAusstehendeWeiter();
+				final IBearbeitungsKnoten naechster = knoten;
+				if ((naechster != null) && !ergebnis.isEmpty()) {
+					naechster.aktualisiereDaten(ergebnis.toArray(new ResultData[ergebnis.size()]));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Wartet ohne Abbruch bei Unterbrechung auf das Ende der Bearbeitung einer
+	 * Partition.
+	 *
+	 * @param auftrag
+	 *            die Bearbeitung
+	 * @return ob der Thread beim Warten unterbrochen wurde
+	 */
+	private static boolean warteAuf(final Future<?> auftrag) {
+		boolean unterbrochen = false;
+		while (true) {
+			try {
+				auftrag.get();
+				break;
+			} catch (final InterruptedException e) {
+				unterbrochen = true;
+			} catch (final ExecutionException e) {
+				Debug.getLogger().error("Bearbeitung einer Partition fehlgeschlagen", e.getCause());
+				break;
+			}
+		}
+		return unterbrochen;
+	}
+
+	/**
+	 * Leitet die ausstehenden Daten (in der Reihenfolge ihrer Vormerkung) an
+	 * den nächsten Bearbeitungsknoten weiter.
+	 */
+	private void leiteAusstehendeWeiter() {
+		synchronized (weiterleitungsSperre) {
+			ResultData[] resultate;
+			while ((resultate = ausstehend.poll()) != null) {
+				final IBearbeitungsKnoten naechster = knoten;
+				if (naechster != null) {
+					naechster.aktualisiereDaten(resultate);
+				}
+			}
+		}
+	}
+
+	@Override
+	public ModulTyp getModulTyp() {
+		return instanzen[0].getModulTyp();
+	}
+
+	@Override
+	public void aktualisierePublikation(final IDatenFlussSteuerung dfs) {
+		for (final IBearbeitungsKnoten instanz : instanzen) {
+			instanz.aktualisierePublikation(dfs);
+		}
+	}
+
+	/**
+	 * Beendet die Threads der Partitionen und der Weiterleitung. Noch
+	 * ausstehende Daten werden vorher weitergeleitet. Danach übergebene Daten
+	 * werden weiterhin bearbeitet, die Partitionen jedoch nacheinander im
+	 * Thread des Aufrufers.
+	 */
+	@Override
+	public void close() {
+		if (ausfuehrung != null) {
+			ausfuehrung.shutdown();
+		}
+		weiterleitung.shutdown();
+		leiteAusstehendeWeiter();
+	}
+
+	@Override
+	public String toString() {
+		return "Partitionen: " + instanzen.length + " x " + instanzen[0];
+	}
+
+	/**
+	 * Bearbeitung der Daten einer Partition.
+	 */
+	private final class Bearbeitung implements Runnable {
+
+		/**
+		 * die Partition.
+		 */
+		private final int partition;
+
+		/**
+		 * die Daten der Partition.
+		 */
+		private final List<ResultData> daten;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param partition
+		 *            die Partition
+		 * @param daten
+		 *            die Daten der Partition
+		 */
+		private Bearbeitung(final int partition, final List<ResultData> daten) {
+			this.partition = partition;
+			this.daten = daten;
+		}
+
+		/**
+		 * Bearbeitet die Daten im aktuellen Thread. Ein Fehler der Instanz
+		 * wird (wie bei der Bearbeitung im Thread-Pool) protokolliert.
+		 */
+		private void fuehreAus() {
+			try {
+				run();
+			} catch (final RuntimeException e) {
+				Debug.getLogger().error("Bearbeitung einer Partition fehlgeschlagen", e);
+			}
+		}
+
+		@Override
+		public void run() {
+			sammler[partition].setSammeln(true);
+			try {
+				instanzen[partition].aktualisiereDaten(daten.toArray(new ResultData[daten.size()]));
+			} finally {
+				sammler[partition].setSammeln(false);
+			}
+		}
+	}
+
+	/**
+	 * Nächster Bearbeitungsknoten einer Instanz: sammelt die weitergeleiteten
+	 * Daten während der Bearbeitung einer Partition bzw. merkt sie sonst für
+	 * die Weiterleitung vor.
+	 */
+	private final class Sammler implements IBearbeitungsKnoten {
+
+		/**
+		 * die gesammelten Daten.
+		 */
+		private final List<ResultData> gesammelt = new ArrayList<>();
+
+		/**
+		 * ob gerade gesammelt wird.
+		 */
+		private boolean sammeln;
+
+		/**
+		 * Schaltet das Sammeln ein bzw. aus.
+		 *
+		 * @param sammeln1
+		 *            ob gesammelt werden soll
+		 */
+		private synchronized void setSammeln(final boolean sammeln1) {
+			sammeln = sammeln1;
+		}
+
+		/**
+		 * Entnimmt die gesammelten Daten.
+		 *
+		 * @param ziel
+		 *            die Liste, an die die gesammelten Daten angehängt werden
+		 */
+		private synchronized void entnehme(final List<ResultData> ziel) {
+			ziel.addAll(gesammelt);
+			gesammelt.clear();
+		}
+
+		@Override
+		public void aktualisiereDaten(final ResultData[] resultate) {
+			if (resultate == null) {
+				return;
+			}
+			synchronized (this) {
+				if (sammeln) {
+					for (final ResultData resultat : resultate) {
+						gesammelt.add(resultat);
+					}
+					return;
+				}
+			}
+			ausstehend.add(resultate);
+			try {
+				weiterleitung.execute(new Runnable() {
+
+					@Override
+					public void run() {
+						leiteAusstehendeWeiter();
+					}
+				});
+			} catch (final RejectedExecutionException e) {
+				/* nach close(): im Thread der Instanz weiterleiten */
+				leiteAusstehendeWeiter();
+			}
+		}
+
+		@Override
+		public void initialisiere(final IVerwaltung verwaltung) {
+			// wird über den PartitionsKnoten initialisiert
+		}
+
+		@Override
+		public void setNaechstenBearbeitungsKnoten(final IBearbeitungsKnoten knoten1) {
+			// der nächste Knoten ist der des PartitionsKnotens
+		}
+
+		@Override
+		public void setPublikation(final boolean publizieren) {
+			// keine Publikation
+		}
+
+		@Override
+		public ModulTyp getModulTyp() {
+			return null;
+		}
+
+		@Override
+		public void aktualisierePublikation(final IDatenFlussSteuerung dfs) {
+			// keine Publikation
+		}
+	}
+}
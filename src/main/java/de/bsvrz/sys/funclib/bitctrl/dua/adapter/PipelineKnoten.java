@@ -0,0 +1,189 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.adapter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.bsvrz.dav.daf.main.ResultData;
+import de.bsvrz.sys.funclib.bitctrl.dua.DUAInitialisierungsException;
+import de.bsvrz.sys.funclib.bitctrl.dua.WarteschlangenArbeiter;
+import de.bsvrz.sys.funclib.bitctrl.dua.dfs.schnittstellen.IDatenFlussSteuerung;
+import de.bsvrz.sys.funclib.bitctrl.dua.dfs.typen.ModulTyp;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IBearbeitungsKnoten;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IVerwaltung;
+import de.bsvrz.sys.funclib.debug.Debug;
+
+/**
+ * Bearbeitungsknoten, der einen anderen Bearbeitungsknoten (eine Stufe der
+ * Bearbeitungskette) in einem eigenen Thread ausführt. Die über
+ * <code>aktualisiereDaten(..)</code> übergebenen Daten werden in eine begrenzte
+ * Warteschlange eingereiht und vom Thread des Knotens in der Reihenfolge des
+ * Einreihens an die Stufe übergeben. Die Stufe leitet ihre Ergebnisse wie
+ * bisher (im Thread des Knotens) an ihren nächsten Bearbeitungsknoten weiter.
+ * <br>
+ * Werden mehrere Stufen einer Kette jeweils in einen solchen Knoten
+ * eingebettet, so überlappt die Bearbeitung aufeinanderfolgender Daten in den
+ * verschiedenen Stufen. Die Reihenfolge der Daten (und damit insbesondere die
+ * Reihenfolge pro Objekt) bleibt in jeder Stufe erhalten. Ist die
+ * Warteschlange voll, so blockiert <code>aktualisiereDaten(..)</code>, bis
+ * wieder Platz ist (Rückstau bis zum Empfang der Daten).<br>
+ * Die Verwendung ist optional, ohne diesen Knoten wird die gesamte Kette wie
+ * bisher im Thread des Aufrufers durchlaufen.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public class PipelineKnoten implements IBearbeitungsKnoten, AutoCloseable {
+
+	private static final Debug LOGGER = Debug.getLogger();
+
+	/**
+	 * die in einem eigenen Thread ausgeführte Stufe.
+	 */
+	private final IBearbeitungsKnoten stufe;
+
+	/**
+	 * der Thread, der die eingereihten Datenfelder an die Stufe übergibt.
+	 */
+	private final WarteschlangenArbeiter<ResultData[]> arbeiter;
+
+	/**
+	 * Anzahl der von der Stufe bearbeiteten Datenfelder.
+	 */
+	private final AtomicLong anzahlBearbeitet = new AtomicLong();
+
+	/**
+	 * Konstruktor. Der Thread der Stufe wird sofort gestartet.
+	 *
+	 * @param name
+	 *            der Name des Threads
+	 * @param stufe
+	 *            die in einem eigenen Thread auszuführende Stufe
+	 * @param kapazitaet
+	 *            die maximale Anzahl wartender Datenfelder
+	 */
+	public PipelineKnoten(final String name, final IBearbeitungsKnoten stufe, final int kapazitaet) {
+		this.stufe = stufe;
+		this.arbeiter = new WarteschlangenArbeiter<ResultData[]>(name, kapazitaet) {
+
+			@Override
+			protected void bearbeite(final ResultData[] resultate) {
+				try {
+					stufe.aktualisiereDaten(resultate);
+				} catch (final RuntimeException e) {
+					PipelineKnoten.LOGGER.error("Bearbeitung eines Datenfeldes fehlgeschlagen", e);
+				}
+				anzahlBearbeitet.incrementAndGet();
+			}
+		};
+		this.arbeiter.starte();
+	}
+
+	/**
+	 * Erfragt die in einem eigenen Thread ausgeführte Stufe.
+	 *
+	 * @return die Stufe
+	 */
+	public final IBearbeitungsKnoten getStufe() {
+		return stufe;
+	}
+
+	/**
+	 * Erfragt die Anzahl der momentan wartenden Datenfelder.
+	 *
+	 * @return die Anzahl der wartenden Datenfelder
+	 */
+	public final int getAnzahlWartend() {
+		return arbeiter.getAnzahlWartend();
+	}
+
+	/**
+	 * Erfragt die Anzahl der bisher von der Stufe bearbeiteten Datenfelder.
+	 *
+	 * @return die Anzahl der bearbeiteten Datenfelder
+	 */
+	public final long getAnzahlBearbeitet() {
+		return anzahlBearbeitet.get();
+	}
+
+	@Override
+	public void initialisiere(final IVerwaltung verwaltung) throws DUAInitialisierungsException {
+		stufe.initialisiere(verwaltung);
+	}
+
+	@Override
+	public void setNaechstenBearbeitungsKnoten(final IBearbeitungsKnoten knoten) {
+		stufe.setNaechstenBearbeitungsKnoten(knoten);
+	}
+
+	@Override
+	public void setPublikation(final boolean publizieren) {
+		stufe.setPublikation(publizieren);
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Die Daten werden eingereiht und im Thread dieses Knotens bearbeitet.
+	 * Eine Unterbrechung des aufrufenden Threads beim Warten auf Platz in der
+	 * Warteschlange wird erst nach dem Einreihen wiederhergestellt. Ist der
+	 * Knoten beendet, so wird gewartet, bis alle eingereihten Daten bearbeitet
+	 * sind, und die Daten werden danach direkt im Thread des Aufrufers
+	 * bearbeitet. Sie überholen damit keine zuvor eingereihten Daten.
+	 */
+	@Override
+	public void aktualisiereDaten(final ResultData[] resultate) {
+		if (!arbeiter.einreihen(resultate)) {
+			close();
+			stufe.aktualisiereDaten(resultate);
+		}
+	}
+
+	@Override
+	public ModulTyp getModulTyp() {
+		return stufe.getModulTyp();
+	}
+
+	@Override
+	public void aktualisierePublikation(final IDatenFlussSteuerung dfs) {
+		stufe.aktualisierePublikation(dfs);
+	}
+
+	/**
+	 * Beendet den Thread dieses Knotens. Bereits eingereihte Daten werden noch
+	 * bearbeitet, der Aufruf kehrt erst danach zurück (wird er im Thread des
+	 * Knotens aufgerufen, so kehrt er sofort zurück). Danach übergebene Daten
+	 * werden direkt im Thread des Aufrufers bearbeitet.
+	 */
+	@Override
+	public void close() {
+		arbeiter.close();
+	}
+
+	@Override
+	public String toString() {
+		return "Pipeline: " + stufe;
+	}
+}
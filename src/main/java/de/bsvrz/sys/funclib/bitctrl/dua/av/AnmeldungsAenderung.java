@@ -0,0 +1,181 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.av;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Eine Welle von An- bzw. Abmeldungen, die eine
+ * <code>DAVAnmeldungsVerwaltung</code> innerhalb von
+ * <code>modifiziereObjektAnmeldung(..)</code> durchgeführt hat. Anzahl und Dauer
+ * stehen direkt zur Verfügung, die Beschreibung der einzelnen Anmeldungen wird
+ * erst bei Aufruf von <code>getDetails()</code> erzeugt.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public class AnmeldungsAenderung {
+
+	/**
+	 * Art der Änderung.
+	 */
+	public enum Art {
+
+		/**
+		 * Anmeldungen wurden durchgeführt.
+		 */
+		ANMELDUNG,
+
+		/**
+		 * Abmeldungen wurden durchgeführt.
+		 */
+		ABMELDUNG
+	}
+
+	/**
+	 * die Verwaltung, die die Änderung durchgeführt hat.
+	 */
+	private final DAVAnmeldungsVerwaltung verwaltung;
+
+	/**
+	 * die Art der Änderung.
+	 */
+	private final Art art;
+
+	/**
+	 * die an- bzw. abgemeldeten Objekt-Anmeldungen.
+	 */
+	private final Collection<DAVObjektAnmeldung> anmeldungen;
+
+	/**
+	 * der Zeitpunkt des Beginns der Änderung in ms.
+	 */
+	private final long zeitpunkt;
+
+	/**
+	 * die Dauer der Änderung in ns.
+	 */
+	private final long dauer;
+
+	/**
+	 * Konstruktor.
+	 *
+	 * @param verwaltung
+	 *            die Verwaltung, die die Änderung durchgeführt hat
+	 * @param art
+	 *            die Art der Änderung
+	 * @param anmeldungen
+	 *            die an- bzw. abgemeldeten Objekt-Anmeldungen
+	 * @param zeitpunkt
+	 *            der Zeitpunkt des Beginns der Änderung in ms
+	 * @param dauer
+	 *            die Dauer der Änderung in ns
+	 */
+	AnmeldungsAenderung(final DAVAnmeldungsVerwaltung verwaltung, final Art art,
+			final Collection<DAVObjektAnmeldung> anmeldungen, final long zeitpunkt, final long dauer) {
+		this.verwaltung = verwaltung;
+		this.art = art;
+		this.anmeldungen = Collections.unmodifiableCollection(anmeldungen);
+		this.zeitpunkt = zeitpunkt;
+		this.dauer = dauer;
+	}
+
+	/**
+	 * Erfragt die Verwaltung, die die Änderung durchgeführt hat.
+	 *
+	 * @return die Verwaltung
+	 */
+	public final DAVAnmeldungsVerwaltung getVerwaltung() {
+		return verwaltung;
+	}
+
+	/**
+	 * Erfragt die Art der Änderung.
+	 *
+	 * @return die Art der Änderung
+	 */
+	public final Art getArt() {
+		return art;
+	}
+
+	/**
+	 * Erfragt die Anzahl der an- bzw. abgemeldeten Objekt-Anmeldungen.
+	 *
+	 * @return die Anzahl
+	 */
+	public final int getAnzahl() {
+		return anmeldungen.size();
+	}
+
+	/**
+	 * Erfragt die an- bzw. abgemeldeten Objekt-Anmeldungen.
+	 *
+	 * @return die Objekt-Anmeldungen (nicht veränderbar)
+	 */
+	public final Collection<DAVObjektAnmeldung> getAnmeldungen() {
+		return anmeldungen;
+	}
+
+	/**
+	 * Erfragt den Zeitpunkt des Beginns der Änderung.
+	 *
+	 * @return der Zeitpunkt in ms
+	 */
+	public final long getZeitpunkt() {
+		return zeitpunkt;
+	}
+
+	/**
+	 * Erfragt die Dauer der Änderung.
+	 *
+	 * @return die Dauer in ns
+	 */
+	public final long getDauer() {
+		return dauer;
+	}
+
+	/**
+	 * Erzeugt eine Beschreibung aller an- bzw. abgemeldeten
+	 * Objekt-Anmeldungen. Der Aufwand ist proportional zur Anzahl der
+	 * Anmeldungen.
+	 *
+	 * @return die Beschreibung
+	 */
+	public final String getDetails() {
+		final StringBuilder details = new StringBuilder();
+		for (final DAVObjektAnmeldung anmeldung : anmeldungen) {
+			details.append(anmeldung);
+		}
+		return details.toString();
+	}
+
+	@Override
+	public String toString() {
+		return art + " (" + verwaltung.getInfo() + "): " + getAnzahl() + " Objekt-Anmeldungen in "
+				+ (dauer / 1000000) + " ms";
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.av;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Differenz zwischen einer Menge aktueller und einer Menge neuer Anmeldungen.
+ * Die Bestimmung erfolgt über Hash-Mengen mit einem Aufwand, der linear in
+ * der Summe der Größen beider Mengen ist.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ * @param <T>
+ *            Art der Anmeldungen
+ */
+final class AnmeldungsDifferenz<T> {
+
+	/**
+	 * die neu durchzuführenden Anmeldungen.
+	 */
+	private final List<T> anmeldungen = new ArrayList<>();
+
+	/**
+	 * die durchzuführenden Abmeldungen.
+	 */
+	private final List<T> abmeldungen = new ArrayList<>();
+
+	/**
+	 * Konstruktor. Bestimmt die Differenz.
+	 *
+	 * @param aktuell
+	 *            die aktuellen Anmeldungen (idealerweise eine Hash-Menge)
+	 * @param neu
+	 *            die neuen Anmeldungen (ggf. mit Duplikaten)
+	 */
+	AnmeldungsDifferenz(final Set<? extends T> aktuell, final Collection<? extends T> neu) {
+		final Set<? extends T> neuMenge;
+		if (neu instanceof Set) {
+			neuMenge = (Set<? extends T>) neu;
+		} else {
+			neuMenge = new HashSet<>(neu);
+		}
+
+		for (final T anmeldung : neuMenge) {
+			if (!aktuell.contains(anmeldung)) {
+				anmeldungen.add(anmeldung);
+			}
+		}
+		for (final T anmeldung : aktuell) {
+			if (!neuMenge.contains(anmeldung)) {
+				abmeldungen.add(anmeldung);
+			}
+		}
+	}
+
+	/**
+	 * Erfragt die neu durchzuführenden Anmeldungen.
+	 *
+	 * @return die neuen Anmeldungen
+	 */
+	List<T> getAnmeldungen() {
+		return anmeldungen;
+	}
+
+	/**
+	 * Erfragt die durchzuführenden Abmeldungen.
+	 *
+	 * @return die Abmeldungen
+	 */
+	List<T> getAbmeldungen() {
+		return abmeldungen;
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.av;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistik über die An- und Abmeldungen einer Anmeldungsverwaltung (Anzahl
+ * der Wellen und Objekt-Anmeldungen sowie deren Dauer). Die Klasse ist
+ * threadsicher und kann ohne Sperren aktualisiert werden.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public class AnmeldungsStatistik {
+
+	/**
+	 * Anzahl der Anmelde-Wellen.
+	 */
+	private final LongAdder anmeldeWellen = new LongAdder();
+
+	/**
+	 * Anzahl der angemeldeten Objekt-Anmeldungen.
+	 */
+	private final LongAdder anmeldungen = new LongAdder();
+
+	/**
+	 * Gesamtdauer der Anmeldungen in ns.
+	 */
+	private final LongAdder anmeldeDauer = new LongAdder();
+
+	/**
+	 * Anzahl der Abmelde-Wellen.
+	 */
+	private final LongAdder abmeldeWellen = new LongAdder();
+
+	/**
+	 * Anzahl der abgemeldeten Objekt-Anmeldungen.
+	 */
+	private final LongAdder abmeldungen = new LongAdder();
+
+	/**
+	 * Gesamtdauer der Abmeldungen in ns.
+	 */
+	private final LongAdder abmeldeDauer = new LongAdder();
+
+	/**
+	 * die längste Dauer einer Welle in ns.
+	 */
+	private final AtomicLong maximaleDauer = new AtomicLong();
+
+	/**
+	 * Erfasst eine Welle von Anmeldungen.
+	 *
+	 * @param anzahl
+	 *            die Anzahl der angemeldeten Objekt-Anmeldungen
+	 * @param dauer
+	 *            die Dauer in ns
+	 */
+	public final void erfasseAnmeldungen(final int anzahl, final long dauer) {
+		anmeldeWellen.increment();
+		anmeldungen.add(anzahl);
+		anmeldeDauer.add(dauer);
+		erfasseDauer(dauer);
+	}
+
+	/**
+	 * Erfasst eine Welle von Abmeldungen.
+	 *
+	 * @param anzahl
+	 *            die Anzahl der abgemeldeten Objekt-Anmeldungen
+	 * @param dauer
+	 *            die Dauer in ns
+	 */
+	public final void erfasseAbmeldungen(final int anzahl, final long dauer) {
+		abmeldeWellen.increment();
+		abmeldungen.add(anzahl);
+		abmeldeDauer.add(dauer);
+		erfasseDauer(dauer);
+	}
+
+	/**
+	 * Aktualisiert die längste Dauer einer Welle.
+	 *
+	 * @param dauer
+	 *            die Dauer in ns
+	 */
+	private void erfasseDauer(final long dauer) {
+		long bisher = maximaleDauer.get();
+		while ((dauer > bisher) && !maximaleDauer.compareAndSet(bisher, dauer)) {
+			bisher = maximaleDauer.get();
+		}
+	}
+
+	/**
+	 * Erfragt die Anzahl der Anmelde-Wellen.
+	 *
+	 * @return die Anzahl der Anmelde-Wellen
+	 */
+	public final long getAnzahlAnmeldeWellen() {
+		return anmeldeWellen.sum();
+	}
+
+	/**
+	 * Erfragt die Anzahl der insgesamt angemeldeten Objekt-Anmeldungen.
+	 *
+	 * @return die Anzahl der Anmeldungen
+	 */
+	public final long getAnzahlAnmeldungen() {
+		return anmeldungen.sum();
+	}
+
+	/**
+	 * Erfragt die Gesamtdauer aller Anmeldungen.
+	 *
+	 * @return die Gesamtdauer in ns
+	 */
+	public final long getAnmeldeDauer() {
+		return anmeldeDauer.sum();
+	}
+
+	/**
+	 * Erfragt die Anzahl der Abmelde-Wellen.
+	 *
+	 * @return die Anzahl der Abmelde-Wellen
+	 */
+	public final long getAnzahlAbmeldeWellen() {
+		return abmeldeWellen.sum();
+	}
+
+	/**
+	 * Erfragt die Anzahl der insgesamt abgemeldeten Objekt-Anmeldungen.
+	 *
+	 * @return die Anzahl der Abmeldungen
+	 */
+	public final long getAnzahlAbmeldungen() {
+		return abmeldungen.sum();
+	}
+
+	/**
+	 * Erfragt die Gesamtdauer aller Abmeldungen.
+	 *
+	 * @return die Gesamtdauer in ns
+	 */
+	public final long getAbmeldeDauer() {
+		return abmeldeDauer.sum();
+	}
+
+	/**
+	 * Erfragt die längste Dauer einer Welle von An- bzw. Abmeldungen.
+	 *
+	 * @return die längste Dauer in ns
+	 */
+	public final long getMaximaleDauer() {
+		return maximaleDauer.get();
+	}
+
+	/**
+	 * Setzt die Statistik zurück.
+	 */
+	public final void reset() {
+		anmeldeWellen.reset();
+		anmeldungen.reset();
+		anmeldeDauer.reset();
+		abmeldeWellen.reset();
+		abmeldungen.reset();
+		abmeldeDauer.reset();
+		maximaleDauer.set(0);
+	}
+
+	@Override
+	public String toString() {
+		return "Anmeldungen: " + getAnzahlAnmeldungen() + " in " + getAnzahlAnmeldeWellen() + " Wellen ("
+				+ (getAnmeldeDauer() / 1000000) + " ms), Abmeldungen: " + getAnzahlAbmeldungen() + " in "
+				+ getAnzahlAbmeldeWellen() + " Wellen (" + (getAbmeldeDauer() / 1000000)
+				+ " ms), längste Welle: " + (getMaximaleDauer() / 1000000) + " ms";
+	}
+}
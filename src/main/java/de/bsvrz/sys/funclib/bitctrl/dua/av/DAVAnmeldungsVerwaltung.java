@@ -26,15 +26,21 @@
 
 package de.bsvrz.sys.funclib.bitctrl.dua.av;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
-import java.util.TreeSet;
-
-import com.bitctrl.Constants;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.logging.Level;
 
 import de.bsvrz.dav.daf.main.ClientDavInterface;
 import de.bsvrz.dav.daf.main.ClientSenderInterface;
+import de.bsvrz.dav.daf.main.DataDescription;
+import de.bsvrz.dav.daf.main.config.SystemObject;
 import de.bsvrz.sys.funclib.debug.Debug;
 
 /**
@@ -44,22 +50,46 @@ import de.bsvrz.sys.funclib.debug.Debug;
  */
 public abstract class DAVAnmeldungsVerwaltung {
 
+	private static final Debug LOGGER = Debug.getLogger();
+
 	/**
 	 * produziert ausfuehrlichere Log-Meldungen.
+	 *
+	 * @deprecated wird nicht mehr ausgewertet. Die durchgeführten An- und
+	 *             Abmeldungen werden auf dem Level FINE (Details auf FINEST)
+	 *             protokolliert und können über einen
+	 *             <code>IAnmeldungsListener</code> beobachtet werden
 	 */
+	@Deprecated
 	protected static final boolean DEBUG = false;
 
 	/**
-	 * Baum der Datenanmeldungen, die im Moment aktuell sind (ggf. mit ihrem
-	 * Status der Sendesteuerung).
+	 * Hash-Index der Datenanmeldungen, die im Moment aktuell sind (ggf. mit
+	 * ihrem Status der Sendesteuerung). Das Nachschlagen erfolgt ohne Sperre.
 	 */
-	private final Map<DAVObjektAnmeldung, SendeStatus> aktuelleObjektAnmeldungen = new TreeMap<>();
+	private final ConcurrentMap<DAVObjektAnmeldung, SendeStatus> aktuelleObjektAnmeldungen = new ConcurrentHashMap<>();
+
+	/**
+	 * Platzhalter für Anmeldungen ohne Status der Sendesteuerung (die
+	 * <code>ConcurrentHashMap</code> erlaubt keine <code>null</code>-Werte).
+	 */
+	private final SendeStatus keinStatus = new SendeStatus();
 
 	/**
 	 * Datenverteilerverbindung.
 	 */
 	private final ClientDavInterface dav;
 
+	/**
+	 * die Beobachter der An- und Abmeldungen.
+	 */
+	private final Set<IAnmeldungsListener> listener = new CopyOnWriteArraySet<>();
+
+	/**
+	 * Statistik über die An- und Abmeldungen.
+	 */
+	private final AnmeldungsStatistik statistik = new AnmeldungsStatistik();
+
 	/**
 	 * Standardkonstruktor.
 	 *
@@ -75,107 +105,199 @@ public abstract class DAVAnmeldungsVerwaltung {
 	 * die innerhalb der übergebenen Liste beschriebenen Anmeldungen bestehen
 	 * bleiben.<br>
 	 * D.h. insbesondere, dass eine übergebene leere Liste alle bereits
-	 * durchgeführten Anmeldungen wieder rückgängig macht.
+	 * durchgeführten Anmeldungen wieder rückgängig macht.<br>
+	 * Die Differenz zu den bisherigen Anmeldungen wird über Hash-Mengen in
+	 * linearer Zeit bestimmt, An- und Abmeldungen erfolgen gruppiert nach
+	 * Datenbeschreibung.
 	 *
 	 * @param neueObjektAnmeldungen
 	 *            die neue Liste mit Objektanmeldungen
 	 */
 	public final void modifiziereObjektAnmeldung(final Collection<DAVObjektAnmeldung> neueObjektAnmeldungen) {
+		final AnmeldungsAenderung abmeldung;
+		final AnmeldungsAenderung anmeldung;
 
-		// Debug Anfang
-		String info = Constants.EMPTY_STRING;
-		if (DAVAnmeldungsVerwaltung.DEBUG) {
-			info = "Verlangte Anmeldungen (" + getInfo() + "): ";
-			if (neueObjektAnmeldungen.size() == 0) {
-				info += "keine\n";
-			} else {
-				info += "\n";
-			}
-			for (final DAVObjektAnmeldung neueObjektAnmeldung : neueObjektAnmeldungen) {
-				info += neueObjektAnmeldung;
-			}
-			info += "Bisherige Anmeldungen (" + getInfo() + "): ";
-			if (aktuelleObjektAnmeldungen.size() == 0) {
-				info += "keine\n";
-			} else {
-				info += "\n";
-			}
-			for (final DAVObjektAnmeldung aktuelleObjektAnmeldung : aktuelleObjektAnmeldungen.keySet()) {
-				info += aktuelleObjektAnmeldung;
-			}
+		synchronized (this) {
+			final AnmeldungsDifferenz<DAVObjektAnmeldung> differenz = new AnmeldungsDifferenz<>(
+					aktuelleObjektAnmeldungen.keySet(), neueObjektAnmeldungen);
+			abmeldung = fuehreAus(AnmeldungsAenderung.Art.ABMELDUNG, differenz.getAbmeldungen());
+			anmeldung = fuehreAus(AnmeldungsAenderung.Art.ANMELDUNG, differenz.getAnmeldungen());
 		}
-		// Debug Ende
 
-		synchronized (this) {
-			final Collection<DAVObjektAnmeldung> diffObjekteAnmeldungen = new TreeSet<>();
-			for (final DAVObjektAnmeldung neueAnmeldung : neueObjektAnmeldungen) {
-				if (!aktuelleObjektAnmeldungen.containsKey(neueAnmeldung)) {
-					diffObjekteAnmeldungen.add(neueAnmeldung);
-				}
-			}
+		melde(abmeldung);
+		melde(anmeldung);
+	}
 
-			final Collection<DAVObjektAnmeldung> diffObjekteAbmeldungen = new TreeSet<>();
-			for (final DAVObjektAnmeldung aktuelleAnmeldung : aktuelleObjektAnmeldungen.keySet()) {
-				if (!neueObjektAnmeldungen.contains(aktuelleAnmeldung)) {
-					diffObjekteAbmeldungen.add(aktuelleAnmeldung);
-				}
-			}
+	/**
+	 * Führt eine Welle von An- bzw. Abmeldungen durch und erfasst ihre Dauer.
+	 *
+	 * @param art
+	 *            die Art der Änderung
+	 * @param anmeldungen
+	 *            die an- bzw. abzumeldenden Objekt-Anmeldungen
+	 * @return die durchgeführte Änderung oder <code>null</code>, wenn nichts
+	 *         zu tun war
+	 */
+	private AnmeldungsAenderung fuehreAus(final AnmeldungsAenderung.Art art,
+			final Collection<DAVObjektAnmeldung> anmeldungen) {
+		if (anmeldungen.isEmpty()) {
+			return null;
+		}
+
+		final long zeitpunkt = System.currentTimeMillis();
+		final long start = System.nanoTime();
+		final String info;
+		if (art == AnmeldungsAenderung.Art.ABMELDUNG) {
+			info = abmelden(anmeldungen);
+		} else {
+			info = anmelden(anmeldungen);
+		}
+		final long dauer = System.nanoTime() - start;
+
+		if ((info != null) && !info.isEmpty() && DAVAnmeldungsVerwaltung.LOGGER.isLoggable(Level.FINEST)) {
+			DAVAnmeldungsVerwaltung.LOGGER.finest(info);
+		}
+
+		if (art == AnmeldungsAenderung.Art.ABMELDUNG) {
+			statistik.erfasseAbmeldungen(anmeldungen.size(), dauer);
+		} else {
+			statistik.erfasseAnmeldungen(anmeldungen.size(), dauer);
+		}
+		return new AnmeldungsAenderung(this, art, anmeldungen, zeitpunkt, dauer);
+	}
+
+	/**
+	 * Protokolliert eine Änderung und informiert die Beobachter.
+	 *
+	 * @param aenderung
+	 *            die Änderung oder <code>null</code>
+	 */
+	private void melde(final AnmeldungsAenderung aenderung) {
+		if (aenderung == null) {
+			return;
+		}
+		if (DAVAnmeldungsVerwaltung.LOGGER.isLoggable(Level.FINEST)) {
+			DAVAnmeldungsVerwaltung.LOGGER.finest(aenderung + ":\n" + aenderung.getDetails());
+		} else if (DAVAnmeldungsVerwaltung.LOGGER.isLoggable(Level.FINE)) {
+			DAVAnmeldungsVerwaltung.LOGGER.fine(aenderung.toString());
+		}
+		for (final IAnmeldungsListener l : listener) {
+			l.anmeldungenGeaendert(aenderung);
+		}
+	}
+
+	/**
+	 * Fügt einen Beobachter der An- und Abmeldungen hinzu.
+	 *
+	 * @param l
+	 *            der Beobachter
+	 */
+	public final void addListener(final IAnmeldungsListener l) {
+		listener.add(l);
+	}
 
-			if (DAVAnmeldungsVerwaltung.DEBUG) {
-				info += "--------\nABmeldungen: ";
-				info += abmelden(diffObjekteAbmeldungen);
-				info += "ANmeldungen: ";
-				info += anmelden(diffObjekteAnmeldungen);
-				Debug.getLogger().config(info);
-			} else {
-				abmelden(diffObjekteAbmeldungen);
-				anmelden(diffObjekteAnmeldungen);
+	/**
+	 * Entfernt einen Beobachter der An- und Abmeldungen.
+	 *
+	 * @param l
+	 *            der Beobachter
+	 */
+	public final void removeListener(final IAnmeldungsListener l) {
+		listener.remove(l);
+	}
+
+	/**
+	 * Erfragt die Statistik über die bisher durchgeführten An- und
+	 * Abmeldungen.
+	 *
+	 * @return die Statistik
+	 */
+	public final AnmeldungsStatistik getAnmeldungsStatistik() {
+		return statistik;
+	}
+
+	/**
+	 * Gruppiert Anmeldungen nach ihrer Datenbeschreibung, damit alle Objekte
+	 * einer Datenbeschreibung mit einem Aufruf an- bzw. abgemeldet werden
+	 * können.
+	 *
+	 * @param anmeldungen
+	 *            die Anmeldungen
+	 * @return die Anmeldungen pro Datenbeschreibung (in der Reihenfolge des
+	 *         ersten Auftretens)
+	 */
+	protected static Map<DataDescription, List<DAVObjektAnmeldung>> gruppiereNachDatenBeschreibung(
+			final Collection<DAVObjektAnmeldung> anmeldungen) {
+		final Map<DataDescription, List<DAVObjektAnmeldung>> gruppen = new LinkedHashMap<>();
+		for (final DAVObjektAnmeldung anmeldung : anmeldungen) {
+			List<DAVObjektAnmeldung> gruppe = gruppen.get(anmeldung.getDatenBeschreibung());
+			if (gruppe == null) {
+				gruppe = new ArrayList<>();
+				gruppen.put(anmeldung.getDatenBeschreibung(), gruppe);
 			}
+			gruppe.add(anmeldung);
 		}
+		return gruppen;
 	}
 
-	protected void removeAnmeldung(final DAVObjektAnmeldung abmeldung) {
-		synchronized (aktuelleObjektAnmeldungen) {
-			aktuelleObjektAnmeldungen.remove(abmeldung);
+	/**
+	 * Erfragt die Systemobjekte einer Gruppe von Anmeldungen.
+	 *
+	 * @param gruppe
+	 *            die Anmeldungen
+	 * @return die Systemobjekte der Anmeldungen
+	 */
+	protected static SystemObject[] getObjekte(final List<DAVObjektAnmeldung> gruppe) {
+		final SystemObject[] objekte = new SystemObject[gruppe.size()];
+		for (int i = 0; i < objekte.length; i++) {
+			objekte[i] = gruppe.get(i).getObjekt();
 		}
+		return objekte;
+	}
+
+	protected void removeAnmeldung(final DAVObjektAnmeldung abmeldung) {
+		aktuelleObjektAnmeldungen.remove(abmeldung);
 	}
 
 	protected void setAnmeldung(final DAVObjektAnmeldung anmeldung, final SendeStatus object) {
-		synchronized (aktuelleObjektAnmeldungen) {
-			aktuelleObjektAnmeldungen.put(anmeldung, object);
-		}
+		aktuelleObjektAnmeldungen.put(anmeldung, object != null ? object : keinStatus);
 	}
 
 	protected SendeStatus getAnmeldeStatus(final DAVObjektAnmeldung anmeldung) {
-		synchronized (aktuelleObjektAnmeldungen) {
-			return aktuelleObjektAnmeldungen.get(anmeldung);
-		}
+		final SendeStatus status = aktuelleObjektAnmeldungen.get(anmeldung);
+		return status != keinStatus ? status : null;
 	}
 
 	protected boolean isAngemeldet(final DAVObjektAnmeldung anmeldung) {
-		synchronized (aktuelleObjektAnmeldungen) {
-			return aktuelleObjektAnmeldungen.containsKey(anmeldung);
-		}
+		return aktuelleObjektAnmeldungen.containsKey(anmeldung);
 	}
 
 
 	/**
-	 * Führt alle übergebenen Daten<b>ab</b>meldungen durch.
+	 * Führt alle übergebenen Daten<b>ab</b>meldungen durch.<br>
+	 * Die Signatur ist aus Kompatibilitätsgründen unverändert. Die
+	 * durchgeführten Abmeldungen werden unabhängig vom Rückgabewert als
+	 * <code>AnmeldungsAenderung</code> gemeldet, eine nicht leere Zeichenkette
+	 * wird zusätzlich auf dem Level FINEST protokolliert.
 	 *
 	 * @param abmeldungen
 	 *            durchzuführende Daten<b>ab</b>meldungen
 	 * @return eine Liste aller <b>ab</b>gemeldeten Einzel-Anmeldungen als
-	 *         Zeichenkette
+	 *         Zeichenkette oder eine leere Zeichenkette
 	 */
 	protected abstract String abmelden(final Collection<DAVObjektAnmeldung> abmeldungen);
 
 	/**
-	 * Führt alle übergebenen Daten<b>an</b>meldungen durch.
+	 * Führt alle übergebenen Daten<b>an</b>meldungen durch.<br>
+	 * Die Signatur ist aus Kompatibilitätsgründen unverändert. Die
+	 * durchgeführten Anmeldungen werden unabhängig vom Rückgabewert als
+	 * <code>AnmeldungsAenderung</code> gemeldet, eine nicht leere Zeichenkette
+	 * wird zusätzlich auf dem Level FINEST protokolliert.
 	 *
 	 * @param anmeldungen
 	 *            durchzuführende Daten<b>an</b>meldungen
 	 * @return eine Liste aller neu <b>an</b>gemeldeten Einzel-Anmeldungen als
-	 *         Zeichenkette
+	 *         Zeichenkette oder eine leere Zeichenkette
 	 */
 	protected abstract String anmelden(final Collection<DAVObjektAnmeldung> anmeldungen);
 
@@ -27,18 +27,29 @@
 package de.bsvrz.sys.funclib.bitctrl.dua.av;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.bitctrl.Constants;
 
 import de.bsvrz.dav.daf.main.ClientDavInterface;
 import de.bsvrz.dav.daf.main.ClientReceiverInterface;
+import de.bsvrz.dav.daf.main.DataDescription;
 import de.bsvrz.dav.daf.main.ReceiveOptions;
 import de.bsvrz.dav.daf.main.ReceiverRole;
+import de.bsvrz.sys.funclib.debug.Debug;
 
 /**
  * Verwaltungsklasse für Datenanmeldungen zum Empfangen von Daten. Über die
  * Methode <code>modifiziereDatenAnmeldung(..)</code> lassen sich Daten anmelden
- * bzw. abmelden.
+ * bzw. abmelden.<br>
+ * Die Anmeldungen erfolgen gesammelt pro Datenbeschreibung (die Optionen und
+ * die Rolle sind für alle Anmeldungen einer Verwaltung gleich). Schlägt eine
+ * Sammelanmeldung fehl, so werden die Objekte der Gruppe einzeln angemeldet
+ * und die dabei fehlgeschlagenen Anmeldungen pro Objekt festgehalten. Sie
+ * werden bei der nächsten Modifikation erneut versucht.
  *
  * @author BitCtrl Systems GmbH, Thierfelder
  */
@@ -59,6 +70,17 @@ public class DAVEmpfangsAnmeldungsVerwaltung extends DAVAnmeldungsVerwaltung {
 	 */
 	private final ClientReceiverInterface empfaenger;
 
+	/**
+	 * die bei der letzten Anmelde-Welle fehlgeschlagenen Anmeldungen mit der
+	 * jeweiligen Ursache.
+	 */
+	private final Map<DAVObjektAnmeldung, RuntimeException> fehlgeschlageneAnmeldungen = new ConcurrentHashMap<>();
+
+	/**
+	 * zeigt an, ob jedes Objekt einzeln angemeldet werden soll.
+	 */
+	private volatile boolean einzelAnmeldung;
+
 	/**
 	 * Standardkonstruktor.
 	 *
@@ -82,49 +104,85 @@ public class DAVEmpfangsAnmeldungsVerwaltung extends DAVAnmeldungsVerwaltung {
 
 	@Override
 	protected String abmelden(final Collection<DAVObjektAnmeldung> abmeldungen) {
-		String info = Constants.EMPTY_STRING;
-		if (DAVAnmeldungsVerwaltung.DEBUG) {
-			info = "keine\n";
-			if (abmeldungen.size() > 0) {
-				info = "\n";
-			}
-		}
-		for (final DAVObjektAnmeldung abmeldung : abmeldungen) {
-			getDav().unsubscribeReceiver(empfaenger, abmeldung.getObjekt(), abmeldung.getDatenBeschreibung());
-			removeAnmeldung(abmeldung);
-			if (DAVAnmeldungsVerwaltung.DEBUG) {
-				info += abmeldung;
+		for (final Map.Entry<DataDescription, List<DAVObjektAnmeldung>> gruppe : DAVAnmeldungsVerwaltung
+				.gruppiereNachDatenBeschreibung(abmeldungen).entrySet()) {
+			getDav().unsubscribeReceiver(empfaenger, DAVAnmeldungsVerwaltung.getObjekte(gruppe.getValue()),
+					gruppe.getKey());
+			for (final DAVObjektAnmeldung abmeldung : gruppe.getValue()) {
+				removeAnmeldung(abmeldung);
 			}
 		}
-		if (DAVAnmeldungsVerwaltung.DEBUG) {
-			info += "von [" + empfaenger + "]\n";
-		}
-		return info;
+		return Constants.EMPTY_STRING;
 	}
 
 
 	@Override
 	protected String anmelden(final Collection<DAVObjektAnmeldung> anmeldungen) {
-		String info = Constants.EMPTY_STRING;
-		if (DAVAnmeldungsVerwaltung.DEBUG) {
-			info = "keine\n";
-			if (anmeldungen.size() > 0) {
-				info = "\n";
+		fehlgeschlageneAnmeldungen.clear();
+		for (final Map.Entry<DataDescription, List<DAVObjektAnmeldung>> gruppe : DAVAnmeldungsVerwaltung
+				.gruppiereNachDatenBeschreibung(anmeldungen).entrySet()) {
+			if (!einzelAnmeldung) {
+				try {
+					getDav().subscribeReceiver(empfaenger, DAVAnmeldungsVerwaltung.getObjekte(gruppe.getValue()),
+							gruppe.getKey(), optionen, rolle);
+					for (final DAVObjektAnmeldung anmeldung : gruppe.getValue()) {
+						setAnmeldung(anmeldung, null);
+					}
+					continue;
+				} catch (final RuntimeException e) {
+					Debug.getLogger().warning("Sammelanmeldung von " + gruppe.getValue().size() + " Objekten fuer "
+							+ gruppe.getKey() + " fehlgeschlagen, die Objekte werden einzeln angemeldet", e);
+					/*
+					 * Eine teilweise erfolgte Sammelanmeldung wird vollständig
+					 * zurückgenommen, damit durch die Einzelanmeldungen keine
+					 * doppelten und für fehlschlagende Objekte keine verwaisten
+					 * Anmeldungen bestehen bleiben.
+					 */
+					try {
+						getDav().unsubscribeReceiver(empfaenger,
+								DAVAnmeldungsVerwaltung.getObjekte(gruppe.getValue()), gruppe.getKey());
+					} catch (final RuntimeException ignoriert) {
+						/* Objekte waren (teilweise) nicht angemeldet */
+					}
+				}
 			}
-		}
-		for (final DAVObjektAnmeldung anmeldung : anmeldungen) {
-			getDav().subscribeReceiver(empfaenger, anmeldung.getObjekt(), anmeldung.getDatenBeschreibung(), optionen, rolle);
-			setAnmeldung(anmeldung, null);
-			if (DAVAnmeldungsVerwaltung.DEBUG) {
-				info += anmeldung;
+			for (final DAVObjektAnmeldung anmeldung : gruppe.getValue()) {
+				try {
+					getDav().subscribeReceiver(empfaenger, anmeldung.getObjekt(), anmeldung.getDatenBeschreibung(),
+							optionen, rolle);
+					setAnmeldung(anmeldung, null);
+				} catch (final RuntimeException e) {
+					fehlgeschlageneAnmeldungen.put(anmeldung, e);
+					Debug.getLogger().error("Probleme beim Anmelden als Empfaenger/Senke:\n" + anmeldung, e);
+				}
 			}
 		}
-		if (DAVAnmeldungsVerwaltung.DEBUG) {
-			info += "fuer [" + empfaenger + "]\n";
-		}
-		return info;
+		return Constants.EMPTY_STRING;
+	}
+
+	/**
+	 * Erfragt die bei der letzten Anmelde-Welle fehlgeschlagenen Anmeldungen.
+	 *
+	 * @return die fehlgeschlagenen Anmeldungen mit der jeweiligen Ursache (nicht
+	 *         veränderbar)
+	 */
+	public final Map<DAVObjektAnmeldung, RuntimeException> getFehlgeschlageneAnmeldungen() {
+		return Collections.unmodifiableMap(fehlgeschlageneAnmeldungen);
 	}
 
+	/**
+	 * Legt fest, ob jedes Objekt einzeln (statt gesammelt pro
+	 * Datenbeschreibung) angemeldet werden soll. Über die
+	 * <code>AnmeldungsStatistik</code> lässt sich so die Dauer beider Wege
+	 * vergleichen.
+	 *
+	 * @param einzelAnmeldung
+	 *            <code>true</code>, wenn jedes Objekt einzeln angemeldet werden
+	 *            soll
+	 */
+	public final void setEinzelAnmeldung(final boolean einzelAnmeldung) {
+		this.einzelAnmeldung = einzelAnmeldung;
+	}
 
 	@Override
 	protected String getInfo() {
@@ -30,6 +30,7 @@ import de.bsvrz.dav.daf.main.DataDescription;
 import de.bsvrz.dav.daf.main.ResultData;
 import de.bsvrz.dav.daf.main.config.SystemObject;
 import de.bsvrz.sys.funclib.bitctrl.dua.DUAUtensilien;
+import de.bsvrz.sys.funclib.bitctrl.dua.LongLongHashMap;
 
 /**
  * Repräsentiert die Anmeldung eines <b>finalen</b> Systemobjekts (ein finales
@@ -49,6 +50,10 @@ import de.bsvrz.sys.funclib.bitctrl.dua.DUAUtensilien;
  * Mit konfliktfrei im Sinne des Datenverteilers ist gemeint, dass in einer
  * solchen Struktur keine Objekt- Attributgruppe-Aspekt-Kombinationen doppelt
  * auftreten.</li>
+ * <li>Gleichheit, Hash-Wert und Ordnung ergeben sich allein aus den IDs von
+ * Objekt, Attributgruppe und Aspekt. Diese werden bei der Konstruktion einmal
+ * bestimmt, so dass Anmeldungen effizient als Schlüssel in Hash-Strukturen
+ * verwendet werden können.</li>
  * </ul>
  *
  * @author BitCtrl Systems GmbH, Thierfelder
@@ -66,6 +71,26 @@ public class DAVObjektAnmeldung implements Comparable<DAVObjektAnmeldung> {
 	 */
 	private final DataDescription datenBeschreibung;
 
+	/**
+	 * die ID des Systemobjekts.
+	 */
+	private final long objektId;
+
+	/**
+	 * die ID der Attributgruppe.
+	 */
+	private final long atgId;
+
+	/**
+	 * die ID des Aspekts.
+	 */
+	private final long aspId;
+
+	/**
+	 * der Hash-Wert (aus den IDs).
+	 */
+	private final int hash;
+
 	/**
 	 * Standardkonstruktor.
 	 *
@@ -83,13 +108,39 @@ public class DAVObjektAnmeldung implements Comparable<DAVObjektAnmeldung> {
 	 *             Objekt ist.
 	 */
 	public DAVObjektAnmeldung(final SystemObject objekt, final DataDescription datenBeschreibung) {
-		final String fehler = DUAUtensilien.isKombinationOk(objekt, datenBeschreibung);
-		if (fehler != null) {
-			throw new IllegalArgumentException(fehler);
+		this(objekt, datenBeschreibung, true);
+	}
+
+	/**
+	 * Konstruktor, der die Prüfung der Objekt-Attributgruppen-Aspekt-
+	 * Kombination optional auslässt. Ungeprüfte Instanzen sind nur zum
+	 * Nachschlagen bereits (geprüft) angemeldeter Datenbeschreibungen gedacht,
+	 * z.B. für jedes zu sendende Datum.
+	 *
+	 * @param objekt
+	 *            das (finale) Systemobjekt
+	 * @param datenBeschreibung
+	 *            die Datenbeschreibung
+	 * @param pruefen
+	 *            ob die Kombination geprüft werden soll
+	 * @throws IllegalArgumentException
+	 *             wenn <code>pruefen</code> gesetzt und die Kombination
+	 *             ungültig ist (siehe Standardkonstruktor)
+	 */
+	DAVObjektAnmeldung(final SystemObject objekt, final DataDescription datenBeschreibung, final boolean pruefen) {
+		if (pruefen) {
+			final String fehler = DUAUtensilien.isKombinationOk(objekt, datenBeschreibung);
+			if (fehler != null) {
+				throw new IllegalArgumentException(fehler);
+			}
 		}
 
 		this.objekt = objekt;
 		this.datenBeschreibung = datenBeschreibung;
+		this.objektId = objekt.getId();
+		this.atgId = datenBeschreibung.getAttributeGroup().getId();
+		this.aspId = datenBeschreibung.getAspect().getId();
+		this.hash = DAVObjektAnmeldung.berechneHash(objektId, atgId, aspId);
 	}
 
 	/**
@@ -108,6 +159,22 @@ public class DAVObjektAnmeldung implements Comparable<DAVObjektAnmeldung> {
 		this(resultat.getObject(), resultat.getDataDescription());
 	}
 
+	/**
+	 * Berechnet den Hash-Wert einer Objekt-Attributgruppen-Aspekt-Kombination.
+	 *
+	 * @param objektId
+	 *            die ID des Systemobjekts
+	 * @param atgId
+	 *            die ID der Attributgruppe
+	 * @param aspId
+	 *            die ID des Aspekts
+	 * @return der Hash-Wert
+	 */
+	private static int berechneHash(final long objektId, final long atgId, final long aspId) {
+		final long h = LongLongHashMap.mische(LongLongHashMap.mische(objektId, atgId) ^ aspId);
+		return (int) (h ^ (h >>> 32));
+	}
+
 	/**
 	 * Erfragt die Datenbeschreibung unter der das Systemobjekt angemeldet
 	 * werden soll bzw. ist
@@ -129,13 +196,13 @@ public class DAVObjektAnmeldung implements Comparable<DAVObjektAnmeldung> {
 
 	@Override
 	public int compareTo(final DAVObjektAnmeldung that) {
-		int result = Long.compare(getObjekt().getId(), that.getObjekt().getId());
+		int result = Long.compare(objektId, that.objektId);
 
 		if (result == 0) {
-			result = Long.compare(getDatenBeschreibung().getAttributeGroup().getId(), that.getDatenBeschreibung().getAttributeGroup().getId());
+			result = Long.compare(atgId, that.atgId);
 		}
 		if (result == 0) {
-			result = Long.compare(getDatenBeschreibung().getAspect().getId(), that.getDatenBeschreibung().getAspect().getId());
+			result = Long.compare(aspId, that.aspId);
 		}
 
 		return result;
@@ -153,10 +220,7 @@ public class DAVObjektAnmeldung implements Comparable<DAVObjektAnmeldung> {
 
 		if (obj instanceof DAVObjektAnmeldung) {
 			final DAVObjektAnmeldung that = (DAVObjektAnmeldung) obj;
-			result = getObjekt().equals(that.getObjekt())
-					&& getDatenBeschreibung().getAttributeGroup()
-					.equals(that.getDatenBeschreibung().getAttributeGroup())
-					&& getDatenBeschreibung().getAspect().equals(that.getDatenBeschreibung().getAspect());
+			result = (objektId == that.objektId) && (atgId == that.atgId) && (aspId == that.aspId);
 		}
 
 		return result;
@@ -164,11 +228,7 @@ public class DAVObjektAnmeldung implements Comparable<DAVObjektAnmeldung> {
 
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = (prime * result) + ((datenBeschreibung == null) ? 0 : datenBeschreibung.hashCode());
-		result = (prime * result) + ((objekt == null) ? 0 : objekt.hashCode());
-		return result;
+		return hash;
 	}
 
 	@Override
@@ -26,7 +26,11 @@
 
 package de.bsvrz.sys.funclib.bitctrl.dua.av;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import com.bitctrl.Constants;
 
@@ -55,6 +59,12 @@ public class DAVSendeAnmeldungsVerwaltung extends DAVAnmeldungsVerwaltung implem
 	 */
 	private final SenderRole rolle;
 
+	/**
+	 * Puffer für das blockweise Senden oder <code>null</code>, wenn direkt im
+	 * Thread des Aufrufers gesendet wird.
+	 */
+	private volatile SendePuffer<ResultData> sendePuffer;
+
 	/**
 	 * Standardkonstruktor.
 	 *
@@ -68,6 +78,79 @@ public class DAVSendeAnmeldungsVerwaltung extends DAVAnmeldungsVerwaltung implem
 		this.rolle = rolle;
 	}
 
+	/**
+	 * Schaltet das blockweise Senden ein. Die über <code>sende(..)</code>
+	 * übergebenen Daten werden danach (nach Prüfung der Sendesteuerung) in
+	 * einen Puffer eingereiht und von einem eigenen Thread blockweise
+	 * übernommen und gesendet. Der Aufrufer wird damit vom Senden an den
+	 * Datenverteiler entkoppelt. Die Reihenfolge der Daten bleibt erhalten.
+	 * Ist der Puffer voll (z.B. weil der Sendepuffer der
+	 * Datenverteilerverbindung voll ist), so blockiert <code>sende(..)</code>,
+	 * bis wieder Platz ist. Ein bereits eingeschalteter Puffer wird vorher
+	 * geleert und beendet, erst danach wird der neue Puffer verwendet. Aufrufe
+	 * von <code>sende(..)</code> während des Umschaltens warten, bis der alte
+	 * Puffer geleert ist.
+	 *
+	 * @param kapazitaet
+	 *            die maximale Anzahl wartender Daten
+	 * @param maxBlockGroesse
+	 *            die maximale Anzahl von Daten pro Block
+	 * @param maxWartezeit
+	 *            die maximale Wartezeit auf weitere Daten eines Blocks in ms
+	 */
+	public final synchronized void setBlockweisesSenden(final int kapazitaet, final int maxBlockGroesse,
+			final long maxWartezeit) {
+		final SendePuffer<ResultData> neuerPuffer = new SendePuffer<>("Sender " + rolle, kapazitaet,
+				maxBlockGroesse, maxWartezeit, new Consumer<List<ResultData>>() {
+
+					@Override
+					public void accept(final List<ResultData> block) {
+						sendeBlock(block);
+					}
+				});
+		final SendePuffer<ResultData> alterPuffer = sendePuffer;
+		if (alterPuffer != null) {
+			alterPuffer.close();
+		}
+		sendePuffer = neuerPuffer;
+	}
+
+	/**
+	 * Schaltet das blockweise Senden aus. Noch gepufferte Daten werden vorher
+	 * gesendet. Danach wird wieder direkt im Thread des Aufrufers gesendet.
+	 */
+	public final synchronized void beendeBlockweisesSenden() {
+		final SendePuffer<ResultData> alterPuffer = sendePuffer;
+		if (alterPuffer != null) {
+			alterPuffer.close();
+		}
+		sendePuffer = null;
+	}
+
+	/**
+	 * Erfragt den Puffer für das blockweise Senden.
+	 *
+	 * @return der Puffer oder <code>null</code>, wenn direkt gesendet wird
+	 */
+	public final SendePuffer<ResultData> getSendePuffer() {
+		return sendePuffer;
+	}
+
+	/**
+	 * Wartet, bis alle vor dem Aufruf über <code>sende(..)</code> übergebenen
+	 * Daten tatsächlich gesendet wurden. Ohne blockweises Senden kehrt der
+	 * Aufruf sofort zurück, da dann im Thread des Aufrufers gesendet wird.
+	 *
+	 * @throws InterruptedException
+	 *             wenn der Thread beim Warten unterbrochen wurde
+	 */
+	public final void warteAufGesendet() throws InterruptedException {
+		final SendePuffer<ResultData> puffer = sendePuffer;
+		if (puffer != null) {
+			puffer.warteAufWeitergabe();
+		}
+	}
+
 	/**
 	 * Sendet ein Datum in den Datenverteiler unter der Vorraussetzung, dass die
 	 * Sendesteuerung für dieses Datum einen Empfänger bzw. eine Senke
@@ -77,30 +160,110 @@ public class DAVSendeAnmeldungsVerwaltung extends DAVAnmeldungsVerwaltung implem
 	 *            ein zu sendendes Datum
 	 */
 	public final void sende(final ResultData resultat) {
-		try {
-			final DAVObjektAnmeldung anmeldung = new DAVObjektAnmeldung(resultat);
-			final SendeStatus status = getAnmeldeStatus(anmeldung);
-
-			if ((status == null) || (status.getStatus() == ClientSenderInterface.START_SENDING)) {
-				final boolean imMomentKeineDaten;
-				final boolean alsNaechstestKeineDaten = resultat.getData() == null;
-
-				if (status != null) {
-					imMomentKeineDaten = status.isImMomentKeineDaten();
-					if (status.isImMomentKeineDaten() != alsNaechstestKeineDaten) {
-						setAnmeldung(anmeldung,
-								new SendeStatus(ClientSenderInterface.START_SENDING, alsNaechstestKeineDaten));
-					}
-				} else {
-					imMomentKeineDaten = true;
-					setAnmeldung(anmeldung,
-							new SendeStatus(ClientSenderInterface.START_SENDING, alsNaechstestKeineDaten));
+		if (isZuSenden(resultat)) {
+			reiheEinOderSende(resultat);
+		}
+	}
+
+	/**
+	 * Sendet mehrere Daten in den Datenverteiler. Für jedes Datum wird wie bei
+	 * <code>sende(ResultData)</code> die Sendesteuerung geprüft, die danach zu
+	 * sendenden Daten werden (in der übergebenen Reihenfolge) gesendet bzw. bei
+	 * eingeschaltetem blockweisen Senden in den Puffer eingereiht. Jedes Datum
+	 * wird einzeln gesendet: schlägt eines fehl (z.B. weil es zwischenzeitlich
+	 * abgemeldet wurde), so wird es protokolliert, die übrigen Daten werden
+	 * trotzdem genau einmal gesendet.
+	 *
+	 * @param resultate
+	 *            die zu sendenden Daten (<code>null</code>-Einträge werden
+	 *            ignoriert)
+	 */
+	public final void sende(final ResultData[] resultate) {
+		final List<ResultData> block = new ArrayList<>(resultate.length);
+		for (final ResultData resultat : resultate) {
+			if ((resultat != null) && isZuSenden(resultat)) {
+				block.add(resultat);
+			}
+		}
+
+		if (!block.isEmpty()) {
+			final SendePuffer<ResultData> puffer = sendePuffer;
+			if (puffer == null) {
+				sendeBlock(block);
+			} else {
+				for (final ResultData resultat : block) {
+					reiheEinOderSende(resultat);
 				}
+			}
+		}
+	}
 
-				if ((alsNaechstestKeineDaten && !imMomentKeineDaten) || !alsNaechstestKeineDaten) {
-					getDav().sendData(resultat);
+	/**
+	 * Reiht ein Datum in den Puffer für das blockweise Senden ein bzw. sendet
+	 * es direkt, wenn das blockweise Senden ausgeschaltet ist. Wird der Puffer
+	 * gerade beendet, so wird gewartet, bis er geleert ist, und danach der
+	 * aktuelle Puffer verwendet (bzw. direkt gesendet). Das Datum überholt
+	 * damit keine zuvor eingereihten Daten.
+	 *
+	 * @param resultat
+	 *            das zu sendende Datum
+	 */
+	private void reiheEinOderSende(final ResultData resultat) {
+		SendePuffer<ResultData> puffer = sendePuffer;
+		while (puffer != null) {
+			if (puffer.einreihen(resultat)) {
+				return;
+			}
+			puffer.close();
+			final SendePuffer<ResultData> aktuellerPuffer = sendePuffer;
+			puffer = aktuellerPuffer != puffer ? aktuellerPuffer : null;
+		}
+		sendeEinzeln(resultat);
+	}
+
+	/**
+	 * Prüft anhand der Sendesteuerung, ob ein Datum gesendet werden soll, und
+	 * merkt sich, ob zuletzt <code>keine Daten</code> gesendet wurden.
+	 *
+	 * @param resultat
+	 *            ein zu sendendes Datum
+	 * @return ob das Datum gesendet werden soll
+	 */
+	private boolean isZuSenden(final ResultData resultat) {
+		final DAVObjektAnmeldung anmeldung = new DAVObjektAnmeldung(resultat.getObject(),
+				resultat.getDataDescription(), false);
+		final SendeStatus status = getAnmeldeStatus(anmeldung);
+
+		if ((status == null) || (status.getStatus() == ClientSenderInterface.START_SENDING)) {
+			final boolean imMomentKeineDaten;
+			final boolean alsNaechstestKeineDaten = resultat.getData() == null;
+
+			if (status != null) {
+				imMomentKeineDaten = status.isImMomentKeineDaten();
+				if (status.isImMomentKeineDaten() != alsNaechstestKeineDaten) {
+					setAnmeldung(anmeldung,
+							new SendeStatus(ClientSenderInterface.START_SENDING, alsNaechstestKeineDaten));
 				}
+			} else {
+				imMomentKeineDaten = true;
+				setAnmeldung(anmeldung, new SendeStatus(ClientSenderInterface.START_SENDING, alsNaechstestKeineDaten));
 			}
+
+			return (alsNaechstestKeineDaten && !imMomentKeineDaten) || !alsNaechstestKeineDaten;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Sendet ein einzelnes Datum direkt im Thread des Aufrufers.
+	 *
+	 * @param resultat
+	 *            das zu sendende Datum
+	 */
+	private void sendeEinzeln(final ResultData resultat) {
+		try {
+			getDav().sendData(resultat);
 		} catch (final DataNotSubscribedException e) {
 			e.printStackTrace();
 			Debug.getLogger().error(Constants.EMPTY_STRING, e);
@@ -110,52 +273,58 @@ public class DAVSendeAnmeldungsVerwaltung extends DAVAnmeldungsVerwaltung implem
 		}
 	}
 
-	@Override
-	protected String abmelden(final Collection<DAVObjektAnmeldung> abmeldungen) {
-		String info = Constants.EMPTY_STRING;
-		if (DAVAnmeldungsVerwaltung.DEBUG) {
-			info = "keine\n";
-			if (abmeldungen.size() > 0) {
-				info = "\n";
+	/**
+	 * Sendet einen Block von Daten. Die Daten werden einzeln gesendet, damit
+	 * ein fehlschlagendes Datum (z.B. weil es zwischenzeitlich abgemeldet
+	 * wurde) weder die folgenden Daten verhindert noch zum erneuten Senden
+	 * bereits gesendeter Daten führt.
+	 *
+	 * @param block
+	 *            die zu sendenden Daten
+	 */
+	private void sendeBlock(final List<ResultData> block) {
+		for (final ResultData resultat : block) {
+			try {
+				getDav().sendData(resultat);
+			} catch (final DataNotSubscribedException | SendSubscriptionNotConfirmed e) {
+				Debug.getLogger().error(Constants.EMPTY_STRING, e);
 			}
 		}
-		for (final DAVObjektAnmeldung abmeldung : abmeldungen) {
-			getDav().unsubscribeSender(this, abmeldung.getObjekt(), abmeldung.getDatenBeschreibung());
-			removeAnmeldung(abmeldung);
-			if (DAVAnmeldungsVerwaltung.DEBUG) {
-				info += abmeldung;
+	}
+
+	@Override
+	protected String abmelden(final Collection<DAVObjektAnmeldung> abmeldungen) {
+		for (final Map.Entry<DataDescription, List<DAVObjektAnmeldung>> gruppe : DAVAnmeldungsVerwaltung
+				.gruppiereNachDatenBeschreibung(abmeldungen).entrySet()) {
+			getDav().unsubscribeSender(this, DAVAnmeldungsVerwaltung.getObjekte(gruppe.getValue()), gruppe.getKey());
+			for (final DAVObjektAnmeldung abmeldung : gruppe.getValue()) {
+				removeAnmeldung(abmeldung);
 			}
 		}
-		return info;
+		return Constants.EMPTY_STRING;
 	}
 
 	@Override
 	protected String anmelden(final Collection<DAVObjektAnmeldung> anmeldungen) {
-		String info = Constants.EMPTY_STRING;
-		if (DAVAnmeldungsVerwaltung.DEBUG) {
-			info = "keine\n";
-			if (anmeldungen.size() > 0) {
-				info = "\n";
-			}
-		}
-		for (final DAVObjektAnmeldung anmeldung : anmeldungen) {
+		for (final Map.Entry<DataDescription, List<DAVObjektAnmeldung>> gruppe : DAVAnmeldungsVerwaltung
+				.gruppiereNachDatenBeschreibung(anmeldungen).entrySet()) {
 			try {
-				getDav().subscribeSender(this, anmeldung.getObjekt(), anmeldung.getDatenBeschreibung(), rolle);
-				setAnmeldung(anmeldung, null);
-				if (DAVAnmeldungsVerwaltung.DEBUG) {
-					info += anmeldung;
-				}
+				getDav().subscribeSender(this, DAVAnmeldungsVerwaltung.getObjekte(gruppe.getValue()),
+						gruppe.getKey(), rolle);
 			} catch (final OneSubscriptionPerSendData e) {
-				Debug.getLogger().error("Probleme beim" + " Anmelden als Sender/Quelle:\n" + anmeldung, e);
+				Debug.getLogger().error("Probleme beim" + " Anmelden als Sender/Quelle:\n" + gruppe.getValue(), e);
 				throw new RuntimeException(e);
 			}
+			for (final DAVObjektAnmeldung anmeldung : gruppe.getValue()) {
+				setAnmeldung(anmeldung, null);
+			}
 		}
-		return info;
+		return Constants.EMPTY_STRING;
 	}
 
 	@Override
 	public void dataRequest(final SystemObject object, final DataDescription dataDescription, final byte state) {
-		final DAVObjektAnmeldung anmeldung = new DAVObjektAnmeldung(object, dataDescription);
+		final DAVObjektAnmeldung anmeldung = new DAVObjektAnmeldung(object, dataDescription, false);
 		final SendeStatus status = getAnmeldeStatus(anmeldung);
 
 		if ((status == null) || status.isImMomentKeineDaten()) {
@@ -167,7 +336,7 @@ public class DAVSendeAnmeldungsVerwaltung extends DAVAnmeldungsVerwaltung implem
 
 	@Override
 	public boolean isRequestSupported(final SystemObject object, final DataDescription dataDescription) {
-		final DAVObjektAnmeldung anmeldung = new DAVObjektAnmeldung(object, dataDescription);
+		final DAVObjektAnmeldung anmeldung = new DAVObjektAnmeldung(object, dataDescription, false);
 		return isAngemeldet(anmeldung);
 	}
 
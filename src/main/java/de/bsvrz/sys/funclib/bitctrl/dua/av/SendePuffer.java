@@ -0,0 +1,250 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.av;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import de.bsvrz.sys.funclib.bitctrl.dua.WarteschlangenArbeiter;
+import de.bsvrz.sys.funclib.debug.Debug;
+
+/**
+ * Puffer, der einzeln eingereihte Daten in einem eigenen Thread zu Blöcken
+ * zusammenfasst und blockweise weitergibt. Ein Block wird weitergegeben, sobald
+ * er <code>maxBlockGroesse</code> Daten enthält oder seit dem ersten Datum des
+ * Blocks <code>maxWartezeit</code> ms vergangen sind.<br>
+ * Die Reihenfolge der Daten bleibt erhalten. Ist die Warteschlange voll (weil
+ * die Weitergabe, z.B. das Senden an den Datenverteiler, nicht schnell genug
+ * erfolgt), so blockiert das Einreihen (Rückstau).
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ * @param <T>
+ *            Art der Daten
+ */
+public class SendePuffer<T> implements AutoCloseable {
+
+	private static final Debug LOGGER = Debug.getLogger();
+
+	/**
+	 * die maximale Anzahl von Daten pro Block.
+	 */
+	private final int maxBlockGroesse;
+
+	/**
+	 * die maximale Wartezeit auf weitere Daten eines Blocks in ns.
+	 */
+	private final long maxWartezeit;
+
+	/**
+	 * der Empfänger der Blöcke.
+	 */
+	private final Consumer<List<T>> empfaenger;
+
+	/**
+	 * der Thread, der die Blöcke bildet und weitergibt.
+	 */
+	private final WarteschlangenArbeiter<T> arbeiter;
+
+	/**
+	 * Anzahl der weitergegebenen Blöcke.
+	 */
+	private final AtomicLong anzahlBloecke = new AtomicLong();
+
+	/**
+	 * Anzahl der weitergegebenen Daten.
+	 */
+	private final AtomicLong anzahlDaten = new AtomicLong();
+
+	/**
+	 * Anzahl der eingereihten Daten.
+	 */
+	private final AtomicLong anzahlEingereiht = new AtomicLong();
+
+	/**
+	 * Monitor, über den das Warten auf die Weitergabe benachrichtigt wird.
+	 */
+	private final Object fortschritt = new Object();
+
+	/**
+	 * Konstruktor. Der Thread des Puffers wird sofort gestartet.
+	 *
+	 * @param name
+	 *            der Name des Threads
+	 * @param kapazitaet
+	 *            die Kapazität der Warteschlange
+	 * @param maxBlockGroesse
+	 *            die maximale Anzahl von Daten pro Block
+	 * @param maxWartezeit
+	 *            die maximale Wartezeit auf weitere Daten eines Blocks in ms
+	 *            (0 = es werden nur bereits eingereihte Daten
+	 *            zusammengefasst)
+	 * @param empfaenger
+	 *            der Empfänger der Blöcke. Die übergebene Liste darf nach der
+	 *            Rückkehr nicht weiter verwendet werden
+	 */
+	public SendePuffer(final String name, final int kapazitaet, final int maxBlockGroesse, final long maxWartezeit,
+			final Consumer<List<T>> empfaenger) {
+		if ((kapazitaet <= 0) || (maxBlockGroesse <= 0) || (maxWartezeit < 0)) {
+			throw new IllegalArgumentException("Ungültige Parameter: Kapazität " + kapazitaet + ", Blockgröße "
+					+ maxBlockGroesse + ", Wartezeit " + maxWartezeit);
+		}
+		this.maxBlockGroesse = maxBlockGroesse;
+		this.maxWartezeit = TimeUnit.MILLISECONDS.toNanos(maxWartezeit);
+		this.empfaenger = empfaenger;
+		this.arbeiter = new WarteschlangenArbeiter<T>(name, kapazitaet) {
+
+			/**
+			 * der aktuelle Block.
+			 */
+			private final List<T> block = new ArrayList<>(maxBlockGroesse);
+
+			@Override
+			protected void bearbeite(final T erstes) {
+				block.add(erstes);
+				final long frist = System.nanoTime() + SendePuffer.this.maxWartezeit;
+				try {
+					while (block.size() < maxBlockGroesse) {
+						entnimm(block, maxBlockGroesse - block.size());
+						final long rest = frist - System.nanoTime();
+						if ((block.size() >= maxBlockGroesse) || (rest <= 0)) {
+							break;
+						}
+						final T naechstes = entnimm(rest, TimeUnit.NANOSECONDS);
+						if (naechstes == null) {
+							break;
+						}
+						block.add(naechstes);
+					}
+				} catch (final InterruptedException e) {
+					/* der Block wird noch weitergegeben, danach endet der Puffer */
+					Thread.currentThread().interrupt();
+				}
+				gibWeiter(block);
+				block.clear();
+			}
+		};
+		this.arbeiter.starte();
+	}
+
+	/**
+	 * Reiht ein Datum ein. Ist die Warteschlange voll, so wird gewartet, bis
+	 * wieder Platz ist. Eine Unterbrechung des aufrufenden Threads beendet das
+	 * Warten nicht, sie wird nach dem Einreihen wiederhergestellt.
+	 *
+	 * @param datum
+	 *            das Datum
+	 * @return ob das Datum eingereiht wurde (<code>false</code>, wenn der
+	 *         Puffer beendet wurde). Ein eingereihtes Datum wird in jedem Fall
+	 *         weitergegeben
+	 */
+	public final boolean einreihen(final T datum) {
+		if (!arbeiter.einreihen(datum)) {
+			return false;
+		}
+		anzahlEingereiht.incrementAndGet();
+		return true;
+	}
+
+	/**
+	 * Erfragt die Anzahl der momentan eingereihten Daten.
+	 *
+	 * @return die Anzahl der eingereihten Daten
+	 */
+	public final int getAnzahlWartend() {
+		return arbeiter.getAnzahlWartend();
+	}
+
+	/**
+	 * Erfragt die Anzahl der bisher weitergegebenen Blöcke.
+	 *
+	 * @return die Anzahl der Blöcke
+	 */
+	public final long getAnzahlBloecke() {
+		return anzahlBloecke.get();
+	}
+
+	/**
+	 * Erfragt die Anzahl der bisher weitergegebenen Daten.
+	 *
+	 * @return die Anzahl der Daten
+	 */
+	public final long getAnzahlDaten() {
+		return anzahlDaten.get();
+	}
+
+	/**
+	 * Wartet, bis alle vor dem Aufruf eingereihten Daten weitergegeben wurden.
+	 * Der Puffer bleibt dabei in Betrieb.
+	 *
+	 * @throws InterruptedException
+	 *             wenn der Thread beim Warten unterbrochen wurde
+	 */
+	public final void warteAufWeitergabe() throws InterruptedException {
+		final long ziel = anzahlEingereiht.get();
+		synchronized (fortschritt) {
+			while ((anzahlDaten.get() < ziel) && arbeiter.isAktiv()) {
+				fortschritt.wait(100);
+			}
+		}
+	}
+
+	/**
+	 * Beendet den Puffer. Bereits eingereihte Daten werden noch weitergegeben,
+	 * danach eingereihte Daten werden abgewiesen. Der Aufruf kehrt erst zurück,
+	 * wenn alle eingereihten Daten weitergegeben wurden (auch wenn der Puffer
+	 * bereits von einem anderen Thread beendet wird). Wird er im Thread des
+	 * Puffers (z.B. vom Empfänger) aufgerufen, so kehrt er sofort zurück.
+	 */
+	@Override
+	public void close() {
+		arbeiter.close();
+	}
+
+	/**
+	 * Gibt einen Block an den Empfänger weiter.
+	 *
+	 * @param block
+	 *            der Block
+	 */
+	private void gibWeiter(final List<T> block) {
+		final int anzahl = block.size();
+		try {
+			empfaenger.accept(block);
+		} catch (final RuntimeException e) {
+			SendePuffer.LOGGER.error("Weitergabe von " + anzahl + " Daten fehlgeschlagen", e);
+		}
+		anzahlBloecke.incrementAndGet();
+		anzahlDaten.addAndGet(anzahl);
+		synchronized (fortschritt) {
+			fortschritt.notifyAll();
+		}
+	}
+}
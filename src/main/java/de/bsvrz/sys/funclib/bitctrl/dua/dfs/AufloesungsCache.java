@@ -0,0 +1,317 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.dfs;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+import com.bitctrl.Constants;
+
+import de.bsvrz.dav.daf.main.ClientDavInterface;
+import de.bsvrz.dav.daf.main.DataDescription;
+import de.bsvrz.dav.daf.main.config.Aspect;
+import de.bsvrz.dav.daf.main.config.AttributeGroup;
+import de.bsvrz.dav.daf.main.config.ConfigurationArea;
+import de.bsvrz.dav.daf.main.config.SystemObject;
+import de.bsvrz.dav.daf.main.config.SystemObjectType;
+import de.bsvrz.sys.funclib.bitctrl.dua.DUAUtensilien;
+import de.bsvrz.sys.funclib.bitctrl.dua.av.DAVObjektAnmeldung;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IVerwaltung;
+import de.bsvrz.sys.funclib.debug.Debug;
+
+/**
+ * Zwischenspeicher für die Auflösung der Publikationszuordnungen eines Standes
+ * der Datenflusssteuerung. Gespeichert werden die Basisinstanzen jedes
+ * referenzierten Objektes bzw. Typs sowie die für einen Objekttyp gültigen
+ * Datenbeschreibungen zu einer Attributgruppe und einem Aspekt. Damit wird
+ * ein Typ, der in mehreren Publikationszuordnungen vorkommt, nur einmal
+ * expandiert.<br>
+ * Für jeden Stand der Datenflusssteuerung wird ein neuer Zwischenspeicher
+ * angelegt, d.h. Änderungen der Konfiguration werden spätestens mit dem
+ * nächsten Stand berücksichtigt. Die Klasse ist threadsicher.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+class AufloesungsCache {
+
+	/**
+	 * Schlüssel für die Auflösung von <code>null</code> (alle Objekte).
+	 */
+	private static final Object ALLE_OBJEKTE = new Object();
+
+	/**
+	 * Anzahl von Publikationszuordnungen, ab der parallel aufgelöst wird.
+	 */
+	private static final int PARALLEL_AB = 2;
+
+	/**
+	 * Name der System-Property, über die die maximale Anzahl der Threads für
+	 * die parallele Auflösung festgelegt werden kann.
+	 */
+	static final String PROPERTY_ANZAHL_THREADS = "de.bsvrz.sys.funclib.bitctrl.dua.dfs.aufloesung.threads";
+
+	/**
+	 * Standardanzahl der Threads für die parallele Auflösung.
+	 */
+	static final int STANDARD_ANZAHL_THREADS = 4;
+
+	/**
+	 * Verbindung zum Datenverteiler.
+	 */
+	private final ClientDavInterface dav;
+
+	/**
+	 * die zu berücksichtigenden Konfigurationsbereiche.
+	 */
+	private final Collection<ConfigurationArea> konfigurationsBereiche;
+
+	/**
+	 * die Basisinstanzen pro Objekt bzw. Typ.
+	 */
+	private final ConcurrentMap<Object, Collection<SystemObject>> basisInstanzen = new ConcurrentHashMap<>();
+
+	/**
+	 * die gültigen Datenbeschreibungen pro Objekttyp, Attributgruppe und
+	 * Aspekt.
+	 */
+	private final ConcurrentMap<List<Object>, List<DataDescription>> datenBeschreibungen = new ConcurrentHashMap<>();
+
+	/**
+	 * Konstruktor.
+	 *
+	 * @param verwaltung
+	 *            Verbindung zum Verwaltungsmodul
+	 */
+	AufloesungsCache(final IVerwaltung verwaltung) {
+		this.dav = verwaltung.getVerbindung();
+		this.konfigurationsBereiche = verwaltung.getKonfigurationsBereiche();
+	}
+
+	/**
+	 * Erfragt die Basisinstanzen eines Objektes bzw. Typs innerhalb der
+	 * Konfigurationsbereiche (siehe
+	 * <code>DUAUtensilien.getBasisInstanzen(..)</code>).
+	 *
+	 * @param obj
+	 *            ein Systemobjekt (finales Objekt oder Typ) oder
+	 *            <code>null</code> für alle Objekte
+	 * @return die Basisinstanzen (nicht veränderbar)
+	 */
+	Collection<SystemObject> getBasisInstanzen(final SystemObject obj) {
+		final Object schluessel = obj != null ? obj : AufloesungsCache.ALLE_OBJEKTE;
+		Collection<SystemObject> instanzen = basisInstanzen.get(schluessel);
+		if (instanzen == null) {
+			instanzen = Collections
+					.unmodifiableCollection(DUAUtensilien.getBasisInstanzen(obj, dav, konfigurationsBereiche));
+			final Collection<SystemObject> vorhanden = basisInstanzen.putIfAbsent(schluessel, instanzen);
+			if (vorhanden != null) {
+				instanzen = vorhanden;
+			}
+		}
+		return instanzen;
+	}
+
+	/**
+	 * Erfragt alle Objektanmeldungen eines finalen Objektes unter einer
+	 * Attributgruppe und einem Aspekt, wobei <code>null</code> jeweils für alle
+	 * passenden Attributgruppen bzw. Aspekte steht (siehe
+	 * <code>DUAUtensilien.sammleObjektAnmeldungen(..)</code>). Ist nur der
+	 * Aspekt angegeben, so werden ungültige Kombinationen wie dort übergangen.
+	 *
+	 * @param finObj
+	 *            ein finales Objekt
+	 * @param atg
+	 *            die Attributgruppe oder <code>null</code>
+	 * @param asp
+	 *            der Aspekt oder <code>null</code>
+	 * @param anmeldungen
+	 *            Sammlung, in die die Objektanmeldungen eingefügt werden
+	 * @throws IllegalArgumentException
+	 *             wenn die Kombination aus Objekt und explizit angegebener
+	 *             Attributgruppe ungültig ist
+	 */
+	void sammleObjektAnmeldungen(final SystemObject finObj, final AttributeGroup atg, final Aspect asp,
+			final Collection<DAVObjektAnmeldung> anmeldungen) {
+		for (final DataDescription datenBeschreibung : getDatenBeschreibungen(finObj.getType(), atg, asp)) {
+			if ((atg == null) && (asp != null)) {
+				try {
+					anmeldungen.add(new DAVObjektAnmeldung(finObj, datenBeschreibung));
+				} catch (final IllegalArgumentException ex) {
+					Debug.getLogger().fine(Constants.EMPTY_STRING, ex);
+				}
+			} else {
+				anmeldungen.add(new DAVObjektAnmeldung(finObj, datenBeschreibung));
+			}
+		}
+	}
+
+	/**
+	 * Erfragt die für einen Objekttyp gültigen Datenbeschreibungen zu einer
+	 * Attributgruppe und einem Aspekt.
+	 *
+	 * @param typ
+	 *            der Objekttyp
+	 * @param atg
+	 *            die Attributgruppe oder <code>null</code> für alle
+	 * @param asp
+	 *            der Aspekt oder <code>null</code> für alle
+	 * @return die Datenbeschreibungen
+	 */
+	private List<DataDescription> getDatenBeschreibungen(final SystemObjectType typ, final AttributeGroup atg,
+			final Aspect asp) {
+		final List<Object> schluessel = new ArrayList<>(3);
+		schluessel.add(typ);
+		schluessel.add(atg);
+		schluessel.add(asp);
+
+		List<DataDescription> ergebnis = datenBeschreibungen.get(schluessel);
+		if (ergebnis == null) {
+			ergebnis = new ArrayList<>();
+			if (atg == null) {
+				for (final AttributeGroup typAtg : typ.getAttributeGroups()) {
+					if (asp == null) {
+						for (final Aspect atgAsp : typAtg.getAspects()) {
+							ergebnis.add(new DataDescription(typAtg, atgAsp));
+						}
+					} else if (typAtg.getAspects().contains(asp)) {
+						ergebnis.add(new DataDescription(typAtg, asp));
+					}
+				}
+			} else if (asp == null) {
+				for (final Aspect atgAsp : atg.getAspects()) {
+					ergebnis.add(new DataDescription(atg, atgAsp));
+				}
+			} else {
+				/* ungültige Kombinationen werden beim Anlegen der Anmeldung gemeldet */
+				ergebnis.add(new DataDescription(atg, asp));
+			}
+			final List<DataDescription> vorhanden = datenBeschreibungen.putIfAbsent(schluessel, ergebnis);
+			if (vorhanden != null) {
+				ergebnis = vorhanden;
+			}
+		}
+		return ergebnis;
+	}
+
+	/**
+	 * Löst die übergebenen Publikationszuordnungen auf. Voneinander
+	 * unabhängige Publikationszuordnungen werden dabei parallel (Fork/Join)
+	 * aufgelöst.<br>
+	 * Da die Auflösung mit Konfigurationsanfragen an den Datenverteiler
+	 * blockiert, erfolgt sie nicht im gemeinsamen
+	 * <code>ForkJoinPool.commonPool()</code>, sondern in einem eigenen, nur für
+	 * diese Auflösung angelegten Pool mit höchstens
+	 * <code>PROPERTY_ANZAHL_THREADS</code> (Standard
+	 * <code>STANDARD_ANZAHL_THREADS</code>) Threads.
+	 *
+	 * @param zuordnungen
+	 *            die aufzulösenden Publikationszuordnungen
+	 */
+	static void loeseAuf(final List<PublikationsZuordung> zuordnungen) {
+		final int anzahlThreads = Math.min(zuordnungen.size(), Integer.getInteger(
+				AufloesungsCache.PROPERTY_ANZAHL_THREADS, AufloesungsCache.STANDARD_ANZAHL_THREADS));
+		if ((zuordnungen.size() < AufloesungsCache.PARALLEL_AB) || (anzahlThreads < 2)) {
+			for (final PublikationsZuordung pz : zuordnungen) {
+				pz.loeseAuf();
+			}
+		} else {
+			final ForkJoinPool pool = new ForkJoinPool(anzahlThreads, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+
+				@Override
+				public ForkJoinWorkerThread newThread(final ForkJoinPool p) {
+					final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+					thread.setName("DFS-Aufloesung-" + thread.getPoolIndex());
+					return thread;
+				}
+			}, null, false);
+			try {
+				pool.invoke(new Aufloesung(zuordnungen, 0, zuordnungen.size()));
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Fork/Join-Aufgabe zur Auflösung eines Bereiches von
+	 * Publikationszuordnungen.
+	 */
+	private static final class Aufloesung extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * alle Publikationszuordnungen.
+		 */
+		private final transient List<PublikationsZuordung> zuordnungen;
+
+		/**
+		 * Beginn des Bereiches (inklusive).
+		 */
+		private final int von;
+
+		/**
+		 * Ende des Bereiches (exklusive).
+		 */
+		private final int bis;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param zuordnungen
+		 *            alle Publikationszuordnungen
+		 * @param von
+		 *            Beginn des Bereiches (inklusive)
+		 * @param bis
+		 *            Ende des Bereiches (exklusive)
+		 */
+		private Aufloesung(final List<PublikationsZuordung> zuordnungen, final int von, final int bis) {
+			this.zuordnungen = zuordnungen;
+			this.von = von;
+			this.bis = bis;
+		}
+
+		@Override
+		protected void compute() {
+			if ((bis - von) == 1) {
+				zuordnungen.get(von).loeseAuf();
+			} else {
+				final int mitte = (von + bis) >>> 1;
+				ForkJoinTask.invokeAll(new Aufloesung(zuordnungen, von, mitte),
+						new Aufloesung(zuordnungen, mitte, bis));
+			}
+		}
+	}
+}
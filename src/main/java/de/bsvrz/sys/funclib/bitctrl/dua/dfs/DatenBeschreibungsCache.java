@@ -0,0 +1,84 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.dfs;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.bsvrz.dav.daf.main.DataDescription;
+import de.bsvrz.dav.daf.main.config.Aspect;
+import de.bsvrz.dav.daf.main.config.AttributeGroup;
+import de.bsvrz.sys.funclib.bitctrl.dua.LongLongHashMap;
+
+/**
+ * Zwischenspeicher für Datenbeschreibungen, damit beim Publizieren nicht für
+ * jedes Datum eine neue <code>DataDescription</code> angelegt werden muss.
+ * Jede Kombination aus Attributgruppe und Aspekt wird über ihre IDs einem
+ * festen Platz zugeordnet (<i>direct mapped</i>). Bei einer Kollision wird der
+ * Platz überschrieben, d.h. der Speicherbedarf ist begrenzt. Die Klasse ist
+ * threadsicher.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ */
+public class DatenBeschreibungsCache {
+
+	/**
+	 * Anzahl der Plätze (Zweierpotenz).
+	 */
+	private static final int GROESSE = 256;
+
+	/**
+	 * die zwischengespeicherten Datenbeschreibungen.
+	 */
+	private final AtomicReferenceArray<DataDescription> eintraege = new AtomicReferenceArray<>(
+			DatenBeschreibungsCache.GROESSE);
+
+	/**
+	 * Erfragt die Datenbeschreibung zu einer Attributgruppe und einem Aspekt.
+	 *
+	 * @param atg
+	 *            die Attributgruppe
+	 * @param asp
+	 *            der Aspekt
+	 * @return die (ggf. zwischengespeicherte) Datenbeschreibung
+	 */
+	public final DataDescription get(final AttributeGroup atg, final Aspect asp) {
+		if ((atg == null) || (asp == null)) {
+			return new DataDescription(atg, asp);
+		}
+
+		final long h = LongLongHashMap.mische(atg.getId(), asp.getId());
+		final int index = (int) (h >>> 56) & (DatenBeschreibungsCache.GROESSE - 1);
+
+		DataDescription datenBeschreibung = eintraege.get(index);
+		if ((datenBeschreibung == null) || !atg.equals(datenBeschreibung.getAttributeGroup())
+				|| !asp.equals(datenBeschreibung.getAspect())) {
+			datenBeschreibung = new DataDescription(atg, asp);
+			eintraege.set(index, datenBeschreibung);
+		}
+		return datenBeschreibung;
+	}
+}
@@ -37,7 +37,9 @@ import de.bsvrz.sys.funclib.bitctrl.dua.dfs.typen.SWETyp;
 /**
  * Diese Klasse repräsentiert die Attributgruppe
  * <code>atg.datenFlussSteuerung</code> des Typs
- * <code>typ.datenFlussSteuerung</code>.
+ * <code>typ.datenFlussSteuerung</code>.<br>
+ * Ein vom <code>DatenFlussSteuerungsVersorger</code> veröffentlichter Stand
+ * wird nach der Veröffentlichung nicht mehr verändert.
  *
  * @author BitCtrl Systems GmbH, Thierfelder
  */
@@ -48,6 +50,39 @@ public class DatenFlussSteuerung implements IDatenFlussSteuerung {
 	 */
 	private final List<ParameterSatz> parameterSaetze = new ArrayList<>();
 
+	/**
+	 * die Version dieses Standes der Datenflusssteuerung.
+	 */
+	private final long version;
+
+	/**
+	 * Standardkonstruktor (Version <code>0</code>).
+	 */
+	public DatenFlussSteuerung() {
+		this(0);
+	}
+
+	/**
+	 * Konstruktor.
+	 *
+	 * @param version
+	 *            die Version dieses Standes der Datenflusssteuerung
+	 */
+	DatenFlussSteuerung(final long version) {
+		this.version = version;
+	}
+
+	/**
+	 * Erfragt die Version dieses Standes der Datenflusssteuerung. Jeder vom
+	 * <code>DatenFlussSteuerungsVersorger</code> empfangene Stand erhält eine
+	 * höhere Version als sein Vorgänger.
+	 *
+	 * @return die Version
+	 */
+	public final long getVersion() {
+		return version;
+	}
+
 	/**
 	 * Fügt diesem Objekt einen Parametersatz hinzu.
 	 *
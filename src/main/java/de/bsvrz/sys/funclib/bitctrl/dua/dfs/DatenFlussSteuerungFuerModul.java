@@ -28,17 +28,17 @@ package de.bsvrz.sys.funclib.bitctrl.dua.dfs;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.List;
+import java.util.Set;
 
 import de.bsvrz.dav.daf.main.Data;
-import de.bsvrz.dav.daf.main.DataDescription;
 import de.bsvrz.dav.daf.main.ResultData;
 import de.bsvrz.dav.daf.main.config.Aspect;
 import de.bsvrz.dav.daf.main.config.AttributeGroup;
 import de.bsvrz.dav.daf.main.config.SystemObject;
+import de.bsvrz.sys.funclib.bitctrl.dua.LongLongHashMap;
 import de.bsvrz.sys.funclib.bitctrl.dua.av.DAVObjektAnmeldung;
 import de.bsvrz.sys.funclib.bitctrl.dua.dfs.schnittstellen.IDatenFlussSteuerungFuerModul;
 
@@ -58,10 +58,17 @@ public class DatenFlussSteuerungFuerModul implements IDatenFlussSteuerungFuerMod
 	private final Collection<PublikationsZuordung> publikationsZuordnungen = new ArrayList<>();
 
 	/**
-	 * Eine Map von einer Objekt-Attributgruppe-Kombination auf die Information
-	 * ob, und unter welchem Aspekt publiziert werden soll.
+	 * Unveränderliche Tabelle von einer Objekt-Attributgruppe-Kombination (über
+	 * die IDs) auf die Information ob, und unter welchem Aspekt publiziert
+	 * werden soll. Wird nach dem Hinzufügen von Publikationszuordnungen beim
+	 * nächsten Zugriff neu gebildet (<code>null</code> = neu zu bilden).
 	 */
-	private final Map<PublikationObjAtg, PublikationFuerDatum> publikationsMap = new TreeMap<>();
+	private volatile PublikationsTabelle<PublikationFuerDatum> publikationsTabelle;
+
+	/**
+	 * Zwischenspeicher für die Datenbeschreibungen der Publikationsdaten.
+	 */
+	private final DatenBeschreibungsCache datenBeschreibungen = new DatenBeschreibungsCache();
 
 	/**
 	 * Fügt diesem Objekt eine Publikationszuordung hinzu.
@@ -69,43 +76,62 @@ public class DatenFlussSteuerungFuerModul implements IDatenFlussSteuerungFuerMod
 	 * @param pz
 	 *            die neue Publikationszuordung
 	 */
-	public final void add(final PublikationsZuordung pz) {
-		for (final DAVObjektAnmeldung anmeldung : pz.getObjektAnmeldungen()) {
-			final PublikationObjAtg pubObjAtg = new PublikationObjAtg(anmeldung.getObjekt(),
-					anmeldung.getDatenBeschreibung().getAttributeGroup());
-			final PublikationFuerDatum pub = new PublikationFuerDatum(pz.isPublizieren(), pz.getAspekt());
+	public final synchronized void add(final PublikationsZuordung pz) {
+		publikationsZuordnungen.add(pz);
+		publikationsTabelle = null;
+	}
 
-			publikationsMap.put(pubObjAtg, pub);
+	/**
+	 * Erfragt die Publikationstabelle und bildet sie ggf. aus den
+	 * Publikationszuordnungen.
+	 *
+	 * @return die Publikationstabelle
+	 */
+	private PublikationsTabelle<PublikationFuerDatum> getPublikationsTabelle() {
+		PublikationsTabelle<PublikationFuerDatum> tabelle = publikationsTabelle;
+		if (tabelle == null) {
+			synchronized (this) {
+				tabelle = publikationsTabelle;
+				if (tabelle == null) {
+					int anzahl = 0;
+					for (final PublikationsZuordung pz : publikationsZuordnungen) {
+						anzahl += pz.getObjektAnmeldungen().size();
+					}
+					tabelle = new PublikationsTabelle<>(anzahl);
+					for (final PublikationsZuordung pz : publikationsZuordnungen) {
+						final PublikationFuerDatum pub = new PublikationFuerDatum(pz.isPublizieren(), pz.getAspekt());
+						for (final DAVObjektAnmeldung anmeldung : pz.getObjektAnmeldungen()) {
+							tabelle.setze(anmeldung, pub);
+						}
+					}
+					publikationsTabelle = tabelle;
+				}
+			}
 		}
-		publikationsZuordnungen.add(pz);
+		return tabelle;
 	}
 
 	@Override
 	public Collection<DAVObjektAnmeldung> getDatenAnmeldungen(final SystemObject[] filterObjekte,
 			final Collection<DAVObjektAnmeldung> standardAnmeldungen) {
-		final Collection<DAVObjektAnmeldung> alleAnmeldungen = new TreeSet<>();
-		final Collection<DAVObjektAnmeldung> stdAnmeldungen = new TreeSet<>();
-		stdAnmeldungen.addAll(standardAnmeldungen);
+		/**
+		 * Der Filter wird einmal in eine Menge von Objekt-IDs überführt
+		 */
+		LongLongHashMap filter = null;
+		if ((filterObjekte != null) && (filterObjekte.length > 0)) {
+			filter = new LongLongHashMap(filterObjekte.length);
+			for (final SystemObject filterObj : filterObjekte) {
+				filter.put(filterObj.getId(), 0, 0);
+			}
+		}
+
+		final List<DAVObjektAnmeldung> alleAnmeldungen = new ArrayList<>();
+		final Set<DAVObjektAnmeldung> stdAnmeldungen = new HashSet<>(standardAnmeldungen);
 
 		for (final PublikationsZuordung pz : publikationsZuordnungen) {
 			if (pz.isPublizieren()) {
-				final Collection<SystemObject> pzAnzumeldendeObjekte = new HashSet<>();
-
-				if ((filterObjekte != null) && (filterObjekte.length > 0)) {
-					for (final SystemObject obj : pz.getObjekte()) {
-						for (final SystemObject filterObj : filterObjekte) {
-							if (obj.equals(filterObj)) {
-								pzAnzumeldendeObjekte.add(obj);
-								break;
-							}
-						}
-					}
-				} else {
-					pzAnzumeldendeObjekte.addAll(pz.getObjekte());
-				}
-
 				for (final DAVObjektAnmeldung pzAnmeldung : pz.getObjektAnmeldungen()) {
-					if (pzAnzumeldendeObjekte.contains(pzAnmeldung.getObjekt())) {
+					if ((filter == null) || filter.containsKey(pzAnmeldung.getObjekt().getId())) {
 						alleAnmeldungen.add(pzAnmeldung);
 					}
 				}
@@ -115,39 +141,52 @@ public class DatenFlussSteuerungFuerModul implements IDatenFlussSteuerungFuerMod
 		}
 		alleAnmeldungen.addAll(stdAnmeldungen);
 
-		return alleAnmeldungen;
+		return DatenFlussSteuerungFuerModul.sortiereEindeutig(alleAnmeldungen);
+	}
+
+	/**
+	 * Sortiert eine Liste von Objektanmeldungen (nach den IDs von Objekt,
+	 * Attributgruppe und Aspekt) und entfernt dabei doppelte Einträge.
+	 *
+	 * @param anmeldungen
+	 *            die Objektanmeldungen (wird verändert)
+	 * @return eine unveränderliche, sortierte Liste ohne doppelte Einträge
+	 */
+	static List<DAVObjektAnmeldung> sortiereEindeutig(final List<DAVObjektAnmeldung> anmeldungen) {
+		Collections.sort(anmeldungen);
+		int anzahl = 0;
+		for (int i = 0; i < anmeldungen.size(); i++) {
+			final DAVObjektAnmeldung anmeldung = anmeldungen.get(i);
+			if ((anzahl == 0) || (anmeldungen.get(anzahl - 1).compareTo(anmeldung) != 0)) {
+				anmeldungen.set(anzahl++, anmeldung);
+			}
+		}
+		return Collections.unmodifiableList(anmeldungen.subList(0, anzahl));
 	}
 
 	@Override
 	public final ResultData getPublikationsDatum(final ResultData originalDatum, final Data plausibilisiertesDatum,
 			final Aspect standardAspekt) {
-		ResultData ergebnis = null;
-		Aspect publikationsAspect = null;
-
-		final PublikationObjAtg pubObjAtg = new PublikationObjAtg(originalDatum.getObject(),
-				originalDatum.getDataDescription().getAttributeGroup());
-		final PublikationFuerDatum pubDatum = publikationsMap.get(pubObjAtg);
+		final SystemObject objekt = originalDatum.getObject();
+		final AttributeGroup atg = originalDatum.getDataDescription().getAttributeGroup();
+		final PublikationFuerDatum pubDatum = getPublikationsTabelle().get(objekt.getId(), atg.getId());
 
-		if (pubDatum != null) {
-			if (pubDatum.publizieren) {
-				publikationsAspect = pubDatum.asp;
-			} else {
-				if (pubDatum.asp != standardAspekt) {
-					publikationsAspect = standardAspekt;
-				}
-			}
-		} else {
+		final Aspect publikationsAspect;
+		if (pubDatum == null) {
+			publikationsAspect = standardAspekt;
+		} else if (pubDatum.publizieren) {
+			publikationsAspect = pubDatum.asp;
+		} else if (pubDatum.asp != standardAspekt) {
 			publikationsAspect = standardAspekt;
+		} else {
+			publikationsAspect = null;
 		}
 
-		if (publikationsAspect != null) {
-			final DataDescription dd = new DataDescription(originalDatum.getDataDescription().getAttributeGroup(),
-					publikationsAspect);
-			ergebnis = new ResultData(originalDatum.getObject(), dd, originalDatum.getDataTime(),
-					plausibilisiertesDatum);
+		if (publikationsAspect == null) {
+			return null;
 		}
-
-		return ergebnis;
+		return new ResultData(objekt, datenBeschreibungen.get(atg, publikationsAspect), originalDatum.getDataTime(),
+				plausibilisiertesDatum);
 	}
 
 	@Override
@@ -163,11 +202,12 @@ public class DatenFlussSteuerungFuerModul implements IDatenFlussSteuerungFuerMod
 	}
 
 	/**
-	 * Diese Klasse wird nur als Schlüssel-Objekt innerhalb der internen
-	 * Struktur <code>publikationsMap</code> benötigt. Sie speichert ein
-	 * (finales) Systemobjekt zusammen mit einer Attributgruppe. Die Klasse ist
-	 * so designed, dass sie effektiv als Schlüssel innerhalb von
-	 * <code>TreeMap</code>-Objekten eingesetzt werden kann.
+	 * Schlüssel-Objekt für eine Objekt-Attributgruppe-Kombination (wird intern
+	 * nicht mehr verwendet, die <code>publikationsTabelle</code> arbeitet
+	 * direkt mit den IDs). Sie speichert ein (finales) Systemobjekt zusammen
+	 * mit einer Attributgruppe. Die Klasse ist so designed, dass sie effektiv
+	 * als Schlüssel innerhalb von <code>TreeMap</code>-Objekten eingesetzt
+	 * werden kann.
 	 */
 	protected class PublikationObjAtg implements Comparable<PublikationObjAtg> {
 
@@ -231,7 +271,7 @@ public class DatenFlussSteuerungFuerModul implements IDatenFlussSteuerungFuerMod
 
 			if (obj1 instanceof PublikationObjAtg) {
 				final PublikationObjAtg that = (PublikationObjAtg) obj1;
-				result = obj.equals(that.obj) && that.atg.equals(that.atg);
+				result = obj.equals(that.obj) && atg.equals(that.atg);
 			}
 
 			return result;
@@ -240,10 +280,10 @@ public class DatenFlussSteuerungFuerModul implements IDatenFlussSteuerungFuerMod
 	}
 
 	/**
-	 * Diese Klasse wird nur als Wert-Objekt zu einem Schlüssel vom Typ
-	 * <code>PublikationObjAtg</code> innerhalb der internen Struktur
-	 * <code>publikationsMap</code> benötigt. Sie speichert die Information, ob
-	 * und unter welchem Aspekt publiziert werden soll.
+	 * Diese Klasse wird nur als Wert-Objekt zu einer
+	 * Objekt-Attributgruppe-Kombination innerhalb der internen
+	 * <code>publikationsTabelle</code> benötigt. Sie speichert die Information,
+	 * ob und unter welchem Aspekt publiziert werden soll.
 	 *
 	 * @author BitCtrl Systems GmbH, Thierfelder
 	 *
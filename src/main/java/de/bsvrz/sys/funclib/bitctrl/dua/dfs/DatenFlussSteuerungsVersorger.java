@@ -26,8 +26,15 @@
 
 package de.bsvrz.sys.funclib.bitctrl.dua.dfs;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import de.bsvrz.dav.daf.main.ClientReceiverInterface;
 import de.bsvrz.dav.daf.main.Data;
@@ -140,9 +147,28 @@ public class DatenFlussSteuerungsVersorger implements ClientReceiverInterface {
 	private final Collection<IDatenFlussSteuerungsListener> listenerListe = new HashSet<>();
 
 	/**
-	 * die aktuellen Parameter der Datenflusssteuerung.
+	 * die aktuellen Parameter der Datenflusssteuerung (unveränderlicher Stand,
+	 * wird bei jeder Änderung als Ganzes ausgetauscht).
 	 */
-	private DatenFlussSteuerung letzteDfs;
+	private final AtomicReference<DatenFlussSteuerung> letzteDfs = new AtomicReference<>();
+
+	/**
+	 * die Version des zuletzt empfangenen Standes.
+	 */
+	private final AtomicLong version = new AtomicLong();
+
+	/**
+	 * Thread, in dem die Beobachter über neue Stände informiert werden.
+	 */
+	private final ExecutorService benachrichtigung = Executors.newSingleThreadExecutor(new ThreadFactory() {
+
+		@Override
+		public Thread newThread(final Runnable r) {
+			final Thread thread = new Thread(r, "DFS-Aktualisierung");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
 
 	/**
 	 * Verbindung zum Verwaltungsmodul.
@@ -196,8 +222,9 @@ public class DatenFlussSteuerungsVersorger implements ClientReceiverInterface {
 	public final void addListener(final IDatenFlussSteuerungsListener listener) {
 		synchronized (listenerListe) {
 			listenerListe.add(listener);
-			if (letzteDfs != null) {
-				listener.aktualisierePublikation(letzteDfs);
+			final DatenFlussSteuerung dfs = letzteDfs.get();
+			if (dfs != null) {
+				listener.aktualisierePublikation(dfs);
 			}
 		}
 	}
@@ -216,9 +243,29 @@ public class DatenFlussSteuerungsVersorger implements ClientReceiverInterface {
 		}
 	}
 
+	/**
+	 * Erfragt den aktuellen Stand der Datenflusssteuerung.
+	 *
+	 * @return der aktuelle Stand oder <code>null</code>, wenn noch keiner
+	 *         empfangen wurde
+	 */
+	public final DatenFlussSteuerung getDatenFlussSteuerung() {
+		return letzteDfs.get();
+	}
+
+	/**
+	 * {@inheritDoc}<br>
+	 * Aus den empfangenen Parametern wird ein neuer, unveränderlicher Stand der
+	 * Datenflusssteuerung gebildet und atomar veröffentlicht. Die Beobachter
+	 * werden in einem eigenen Thread informiert, damit die Berechnung der
+	 * Datenanmeldungen den Empfang nicht blockiert. Folgen mehrere Stände
+	 * schnell aufeinander, so erhalten die Beobachter ggf. nur den jeweils
+	 * neuesten.
+	 */
 	@Override
 	public void update(final ResultData[] resultate) {
-		letzteDfs = new DatenFlussSteuerung();
+		final long start = System.nanoTime();
+		final DatenFlussSteuerung neueDfs = new DatenFlussSteuerung(version.incrementAndGet());
 
 		if ((resultate != null) && (resultate.length > 0)) {
 			/**
@@ -231,45 +278,88 @@ public class DatenFlussSteuerungsVersorger implements ClientReceiverInterface {
 					&& resultat.hasData() && (resultat.getData() != null)) {
 
 				final Data.Array ps = resultat.getData().getArray(DFSKonstanten.ATL_PARA_SATZ);
+				final AufloesungsCache cache = new AufloesungsCache(verwaltung);
+				final List<SWETyp> swes = new ArrayList<>();
+				final List<List<PublikationsZuordung>> zuordnungenProSatz = new ArrayList<>();
+				final List<PublikationsZuordung> alleZuordnungen = new ArrayList<>();
 
+				/* Übernahme der Daten */
 				for (int i = 0; i < ps.getLength(); i++) {
 					final Data satz = ps.getItem(i);
 					if (satz != null) {
-						final ParameterSatz dfParameterSatz = new ParameterSatz();
-
-						final SWETyp swe = SWETyp
-								.getZustand((int) satz.getUnscaledValue(DFSKonstanten.ATT_SWE).getState().getValue());
-						dfParameterSatz.setSwe(swe);
+						swes.add(SWETyp
+								.getZustand((int) satz.getUnscaledValue(DFSKonstanten.ATT_SWE).getState().getValue()));
 
 						/**
 						 * Iteriere über alle Publikationszuordnungen innerhalb
 						 * dieses Parametersatzes
 						 */
+						final List<PublikationsZuordung> zuordnungen = new ArrayList<>();
 						for (int j = 0; j < satz.getArray(DFSKonstanten.ATT_PUB_ZUORDNUNG).getLength(); j++) {
 							final Data paraZuordnung = satz.getArray(DFSKonstanten.ATT_PUB_ZUORDNUNG).getItem(j);
-							final PublikationsZuordung dfParaZuordnung;
-							dfParaZuordnung = new PublikationsZuordung(paraZuordnung, verwaltung);
-							dfParameterSatz.add(dfParaZuordnung);
+							zuordnungen.add(new PublikationsZuordung(paraZuordnung, cache));
 						}
+						zuordnungenProSatz.add(zuordnungen);
+						alleZuordnungen.addAll(zuordnungen);
+					}
+				}
+
+				/* Auflösung der Objekte (parallel) */
+				AufloesungsCache.loeseAuf(alleZuordnungen);
+
+				/* Zusammenfassung der Parametersätze pro SWE */
+				for (int i = 0; i < swes.size(); i++) {
+					final SWETyp swe = swes.get(i);
+					final ParameterSatz dfParameterSatz = new ParameterSatz();
+					dfParameterSatz.setSwe(swe);
+					for (final PublikationsZuordung dfParaZuordnung : zuordnungenProSatz.get(i)) {
+						dfParameterSatz.add(dfParaZuordnung);
+					}
 
-						final ParameterSatz dummy = letzteDfs.getParameterSatzFuerSWE(swe);
+					final ParameterSatz dummy = neueDfs.getParameterSatzFuerSWE(swe);
 
-						if (dummy != null) {
-							for (final PublikationsZuordung neuePz : dfParameterSatz.getPubZuordnung()) {
-								dummy.add(neuePz);
-							}
-						} else {
-							letzteDfs.add(dfParameterSatz);
+					if (dummy != null) {
+						for (final PublikationsZuordung neuePz : dfParameterSatz.getPubZuordnung()) {
+							dummy.add(neuePz);
 						}
+					} else {
+						neueDfs.add(dfParameterSatz);
 					}
 				}
 			}
 		}
 
-		if (letzteDfs != null) {
-			synchronized (listenerListe) {
-				for (final IDatenFlussSteuerungsListener listener : listenerListe) {
-					listener.aktualisierePublikation(letzteDfs);
+		Debug.getLogger().config("Datenflusssteuerung (Version " + neueDfs.getVersion() + ") in "
+				+ ((System.nanoTime() - start) / 1000000) + " ms übernommen");
+
+		letzteDfs.set(neueDfs);
+		benachrichtigung.execute(new Runnable() {
+
+			@Override
+			public void run() {
+				benachrichtige(neueDfs);
+			}
+		});
+	}
+
+	/**
+	 * Informiert alle Beobachter über einen Stand der Datenflusssteuerung,
+	 * sofern dieser noch aktuell ist.
+	 *
+	 * @param dfs
+	 *            der Stand
+	 */
+	private void benachrichtige(final DatenFlussSteuerung dfs) {
+		synchronized (listenerListe) {
+			if (letzteDfs.get() != dfs) {
+				/* inzwischen gibt es einen neueren Stand */
+				return;
+			}
+			for (final IDatenFlussSteuerungsListener listener : listenerListe) {
+				try {
+					listener.aktualisierePublikation(dfs);
+				} catch (final RuntimeException e) {
+					Debug.getLogger().error("Fehler beim Aktualisieren der Datenflusssteuerung in " + listener, e);
 				}
 			}
 		}
@@ -27,8 +27,12 @@
 package de.bsvrz.sys.funclib.bitctrl.dua.dfs;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import de.bsvrz.sys.funclib.bitctrl.dua.av.DAVObjektAnmeldung;
+import de.bsvrz.sys.funclib.bitctrl.dua.dfs.typen.ModulTyp;
 import de.bsvrz.sys.funclib.bitctrl.dua.dfs.typen.SWETyp;
 import de.bsvrz.sys.funclib.debug.Debug;
 
@@ -54,6 +58,13 @@ public class ParameterSatz {
 	 */
 	private final List<PublikationsZuordung> pubZuordnungen = new ArrayList<>();
 
+	/**
+	 * Index der eingeschalteten Publikationen aller Publikationszuordnungen
+	 * dieses Parametersatzes: pro Modul-Typ die erste Objektanmeldung jeder
+	 * Kombination aus Objekt und Attributgruppe.
+	 */
+	private final Map<ModulTyp, PublikationsTabelle<DAVObjektAnmeldung>> publikationen = new HashMap<>();
+
 	/**
 	 * Erfragt die SWE, für die Publikationsparameter in dieser Klasse stehen.
 	 *
@@ -88,28 +99,46 @@ public class ParameterSatz {
 	 * Fügt der Liste aller Publikationszuordnungen eine neue
 	 * Publikationszuordnung hinzu. Bevor dies geschieht, werden alle schon
 	 * vorhandenen Publikationszuordnungen auf Konsistenz mit der neuen
-	 * Publikationszuordnung getestet. Fällt dieser Test negativ aus, so wird
-	 * die neue Publikationszuordnung ignoriert und eine den Fehler
-	 * dokumentierende Warnung ausgegeben.
+	 * Publikationszuordnung getestet (siehe
+	 * <code>PublikationsZuordung.isKompatibelMit(..)</code>). Der Test erfolgt
+	 * über einen Index pro Modul-Typ in O(Anzahl der Objektanmeldungen der
+	 * neuen Publikationszuordnung). Fällt dieser Test negativ aus, so wird die
+	 * neue Publikationszuordnung ignoriert und eine den Fehler dokumentierende
+	 * Warnung ausgegeben.
 	 *
 	 * @param pubZuordnung
 	 *            neue Publikationszuordnung
 	 */
 	public final void add(final PublikationsZuordung pubZuordnung) {
-		boolean addErlaubt = true;
-
-		for (final PublikationsZuordung altePz : pubZuordnungen) {
-			final String fehler = altePz.isKompatibelMit(pubZuordnung);
-			if (fehler != null) {
-				Debug.getLogger().warning(fehler);
-				addErlaubt = false;
-				break;
+		if (pubZuordnung.isPublizieren()) {
+			PublikationsTabelle<DAVObjektAnmeldung> index = publikationen.get(pubZuordnung.getModulTyp());
+			if (index == null) {
+				index = new PublikationsTabelle<>(pubZuordnung.getObjektAnmeldungen().size());
+				publikationen.put(pubZuordnung.getModulTyp(), index);
 			}
-		}
 
-		if (addErlaubt) {
-			pubZuordnungen.add(pubZuordnung);
+			/**
+			 * Alle Einträge des Index zu einer Kombination aus Objekt und
+			 * Attributgruppe haben den gleichen Aspekt, da widersprüchliche
+			 * Publikationszuordnungen nicht aufgenommen werden
+			 */
+			for (final DAVObjektAnmeldung anmeldung : pubZuordnung.getObjektAnmeldungen()) {
+				final DAVObjektAnmeldung alteAnmeldung = index.get(anmeldung);
+				if ((alteAnmeldung != null)
+						&& !alteAnmeldung.getDatenBeschreibung().getAspect().equals(pubZuordnung.getAspekt())) {
+					Debug.getLogger().warning(PublikationsZuordung.getWiderspruch(alteAnmeldung, anmeldung));
+					return;
+				}
+			}
+
+			for (final DAVObjektAnmeldung anmeldung : pubZuordnung.getObjektAnmeldungen()) {
+				if (index.get(anmeldung) == null) {
+					index.setze(anmeldung, anmeldung);
+				}
+			}
 		}
+
+		pubZuordnungen.add(pubZuordnung);
 	}
 
 	@Override
@@ -0,0 +1,221 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.dfs;
+
+import de.bsvrz.sys.funclib.bitctrl.dua.LongLongHashMap;
+import de.bsvrz.sys.funclib.bitctrl.dua.av.DAVObjektAnmeldung;
+
+/**
+ * Tabelle, die einer Kombination aus Objekt-ID und Attributgruppen-ID einen
+ * Wert zuordnet. Die Schlüssel werden direkt (ohne Schlüsselobjekte) in einer
+ * Hash-Tabelle mit offener Adressierung abgelegt, d.h. das Nachschlagen
+ * erfolgt ohne Speicheranforderung. Die Tabelle ist die einheitliche
+ * Darstellung dieses Schlüssels im Paket, z.B. für das Nachschlagen der
+ * Publikation eines Datums und für das Auffinden widersprüchlicher
+ * Publikationszuordnungen.<br>
+ * Die Tabelle wird einmal gefüllt (die Kapazität wächst dabei bei Bedarf) und
+ * danach nicht mehr verändert. Nach der Veröffentlichung über ein
+ * <code>volatile</code>-Feld kann sie ohne Sperre aus beliebigen Threads
+ * gelesen werden.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ * @param <V>
+ *            Art der Werte
+ */
+final class PublikationsTabelle<V> {
+
+	/**
+	 * die Objekt-IDs der Einträge.
+	 */
+	private long[] objektIds;
+
+	/**
+	 * die Attributgruppen-IDs der Einträge.
+	 */
+	private long[] atgIds;
+
+	/**
+	 * die Werte der Einträge (<code>null</code> = freier Platz).
+	 */
+	private Object[] werte;
+
+	/**
+	 * Bitmaske zur Bestimmung des Platzes eines Schlüssels.
+	 */
+	private int maske;
+
+	/**
+	 * Anzahl der Einträge.
+	 */
+	private int anzahl;
+
+	/**
+	 * Konstruktor.
+	 *
+	 * @param erwarteteAnzahl
+	 *            die erwartete Anzahl von Einträgen
+	 */
+	PublikationsTabelle(final int erwarteteAnzahl) {
+		int kapazitaet = 2;
+		while (kapazitaet < (2L * erwarteteAnzahl)) {
+			kapazitaet <<= 1;
+		}
+		initialisiere(kapazitaet);
+	}
+
+	/**
+	 * Setzt den Wert zu einem Schlüssel. Ein bereits vorhandener Wert wird
+	 * ersetzt. Darf nur vor der Veröffentlichung der Tabelle aufgerufen werden.
+	 *
+	 * @param objektId
+	 *            die Objekt-ID
+	 * @param atgId
+	 *            die Attributgruppen-ID
+	 * @param wert
+	 *            der Wert (nicht <code>null</code>)
+	 */
+	void setze(final long objektId, final long atgId, final V wert) {
+		int index = PublikationsTabelle.hash(objektId, atgId) & maske;
+		while (werte[index] != null) {
+			if ((objektIds[index] == objektId) && (atgIds[index] == atgId)) {
+				werte[index] = wert;
+				return;
+			}
+			index = (index + 1) & maske;
+		}
+		if ((anzahl + 1) > (werte.length / 2)) {
+			vergroessere();
+			setze(objektId, atgId, wert);
+			return;
+		}
+		objektIds[index] = objektId;
+		atgIds[index] = atgId;
+		werte[index] = wert;
+		anzahl++;
+	}
+
+	/**
+	 * Setzt den Wert zum Objekt und zur Attributgruppe einer Objektanmeldung
+	 * (siehe <code>setze(long, long, V)</code>).
+	 *
+	 * @param anmeldung
+	 *            die Objektanmeldung
+	 * @param wert
+	 *            der Wert (nicht <code>null</code>)
+	 */
+	void setze(final DAVObjektAnmeldung anmeldung, final V wert) {
+		setze(anmeldung.getObjekt().getId(), anmeldung.getDatenBeschreibung().getAttributeGroup().getId(), wert);
+	}
+
+	/**
+	 * Erfragt den Wert zu einem Schlüssel.
+	 *
+	 * @param objektId
+	 *            die Objekt-ID
+	 * @param atgId
+	 *            die Attributgruppen-ID
+	 * @return der Wert oder <code>null</code>, wenn kein Wert gesetzt ist
+	 */
+	@SuppressWarnings("unchecked")
+	V get(final long objektId, final long atgId) {
+		int index = PublikationsTabelle.hash(objektId, atgId) & maske;
+		Object wert;
+		while ((wert = werte[index]) != null) {
+			if ((objektIds[index] == objektId) && (atgIds[index] == atgId)) {
+				return (V) wert;
+			}
+			index = (index + 1) & maske;
+		}
+		return null;
+	}
+
+	/**
+	 * Erfragt den Wert zum Objekt und zur Attributgruppe einer Objektanmeldung
+	 * (der Aspekt wird nicht berücksichtigt).
+	 *
+	 * @param anmeldung
+	 *            die Objektanmeldung
+	 * @return der Wert oder <code>null</code>, wenn kein Wert gesetzt ist
+	 */
+	V get(final DAVObjektAnmeldung anmeldung) {
+		return get(anmeldung.getObjekt().getId(), anmeldung.getDatenBeschreibung().getAttributeGroup().getId());
+	}
+
+	/**
+	 * Erfragt die Anzahl der Einträge.
+	 *
+	 * @return die Anzahl der Einträge
+	 */
+	int size() {
+		return anzahl;
+	}
+
+	/**
+	 * Legt die Felder für eine Kapazität an.
+	 *
+	 * @param kapazitaet
+	 *            die Kapazität (Zweierpotenz)
+	 */
+	private void initialisiere(final int kapazitaet) {
+		objektIds = new long[kapazitaet];
+		atgIds = new long[kapazitaet];
+		werte = new Object[kapazitaet];
+		maske = kapazitaet - 1;
+	}
+
+	/**
+	 * Verdoppelt die Kapazität und übernimmt alle Einträge.
+	 */
+	@SuppressWarnings("unchecked")
+	private void vergroessere() {
+		final long[] alteObjektIds = objektIds;
+		final long[] alteAtgIds = atgIds;
+		final Object[] alteWerte = werte;
+		initialisiere(alteWerte.length * 2);
+		anzahl = 0;
+		for (int i = 0; i < alteWerte.length; i++) {
+			if (alteWerte[i] != null) {
+				setze(alteObjektIds[i], alteAtgIds[i], (V) alteWerte[i]);
+			}
+		}
+	}
+
+	/**
+	 * Berechnet den Hash-Wert eines Schlüssels.
+	 *
+	 * @param objektId
+	 *            die Objekt-ID
+	 * @param atgId
+	 *            die Attributgruppen-ID
+	 * @return der Hash-Wert
+	 */
+	private static int hash(final long objektId, final long atgId) {
+		final long h = LongLongHashMap.mische(objektId, atgId);
+		return (int) (h ^ (h >>> 32));
+	}
+}
@@ -26,18 +26,18 @@
 
 package de.bsvrz.sys.funclib.bitctrl.dua.dfs;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.TreeSet;
 
 import de.bsvrz.dav.daf.main.Data;
 import de.bsvrz.dav.daf.main.Data.ReferenceArray;
 import de.bsvrz.dav.daf.main.Data.ReferenceValue;
-import de.bsvrz.dav.daf.main.DataDescription;
 import de.bsvrz.dav.daf.main.config.Aspect;
 import de.bsvrz.dav.daf.main.config.AttributeGroup;
 import de.bsvrz.dav.daf.main.config.SystemObject;
-import de.bsvrz.sys.funclib.bitctrl.dua.DUAUtensilien;
 import de.bsvrz.sys.funclib.bitctrl.dua.av.DAVObjektAnmeldung;
 import de.bsvrz.sys.funclib.bitctrl.dua.dfs.typen.ModulTyp;
 import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IVerwaltung;
@@ -84,6 +84,17 @@ public class PublikationsZuordung {
 	 */
 	private final Collection<DAVObjektAnmeldung> anmeldungen = new TreeSet<>();
 
+	/**
+	 * die referenzierten Objekte bzw. Typen (<code>null</code> = alle
+	 * Objekte).
+	 */
+	private final List<SystemObject> objektReferenzen = new ArrayList<>();
+
+	/**
+	 * der Zwischenspeicher für die Auflösung (bis zur Auflösung).
+	 */
+	private AufloesungsCache cache;
+
 	/**
 	 * Standardkonstruktor<br>
 	 * <b>Achtung:</b> Sollte die Menge der übergebenen Objekte bzw.
@@ -98,18 +109,34 @@ public class PublikationsZuordung {
 	 *            Verbindung zum Verwaltungsmodul
 	 */
 	protected PublikationsZuordung(final Data data, final IVerwaltung verwaltung) {
+		this(data, new AufloesungsCache(verwaltung));
+		loeseAuf();
+	}
+
+	/**
+	 * Konstruktor, der nur die Daten der Publikationszuordnung übernimmt. Die
+	 * Objekte und Objektanmeldungen werden erst mit <code>loeseAuf()</code>
+	 * (ggf. parallel zu anderen Publikationszuordnungen) bestimmt.
+	 *
+	 * @param data
+	 *            ein Datenverteiler-Datum mit den mit einer
+	 *            Publikationszuordnung assoziierten Daten
+	 * @param cache
+	 *            der Zwischenspeicher für die Auflösung des aktuellen Standes
+	 *            der Datenflusssteuerung
+	 */
+	PublikationsZuordung(final Data data, final AufloesungsCache cache) {
+		this.cache = cache;
 		aspekt = (Aspect) data.getReferenceValue(DFSKonstanten.ATT_ASP).getSystemObject();
 		modulTyp = ModulTyp.getZustand((int) data.getUnscaledValue(DFSKonstanten.ATT_MODUL_TYP).getState().getValue());
 		publizieren = data.getTextValue(DFSKonstanten.ATT_PUBLIZIEREN).getText().toLowerCase().equals("ja");
 
 		final ReferenceArray objArray = data.getReferenceArray(DFSKonstanten.ATT_OBJ);
 		if (objArray.getLength() == 0) {
-			objekte.addAll(DUAUtensilien.getBasisInstanzen(null, verwaltung.getVerbindung(),
-					verwaltung.getKonfigurationsBereiche()));
+			objektReferenzen.add(null);
 		} else {
 			for (final ReferenceValue refVal : objArray.getReferenceValues()) {
-				objekte.addAll(DUAUtensilien.getBasisInstanzen(refVal.getSystemObject(), verwaltung.getVerbindung(),
-						verwaltung.getKonfigurationsBereiche()));
+				objektReferenzen.add(refVal.getSystemObject());
 			}
 		}
 
@@ -121,15 +148,23 @@ public class PublikationsZuordung {
 				atgs.add((AttributeGroup) refVal.getSystemObject());
 			}
 		}
+	}
 
-		for (final AttributeGroup atg : atgs) {
-			final DataDescription datenBeschreibung = new DataDescription(atg, aspekt);
+	/**
+	 * Bestimmt die (finalen) Objekte und die Objektanmeldungen dieser
+	 * Publikationszuordnung. Darf nur einmal aufgerufen werden.
+	 */
+	final void loeseAuf() {
+		for (final SystemObject objektReferenz : objektReferenzen) {
+			objekte.addAll(cache.getBasisInstanzen(objektReferenz));
+		}
 
+		for (final AttributeGroup atg : atgs) {
 			for (final SystemObject finObj : objekte) {
-				anmeldungen.addAll(
-						DUAUtensilien.getAlleObjektAnmeldungen(finObj, datenBeschreibung, verwaltung.getVerbindung()));
+				cache.sammleObjektAnmeldungen(finObj, atg, aspekt, anmeldungen);
 			}
 		}
+		cache = null;
 	}
 
 	/**
@@ -209,16 +244,16 @@ public class PublikationsZuordung {
 				isPublizieren() && that.isPublizieren() && // 2.
 				!getAspekt().equals(that.getAspekt())) { // 3.
 
-			for (final DAVObjektAnmeldung thisAnmeldung : getObjektAnmeldungen()) { // 4.
-				// &
-				// 5.
-				for (final DAVObjektAnmeldung thatAnmeldung : that.getObjektAnmeldungen()) {
-					if (thisAnmeldung.getObjekt().equals(thatAnmeldung.getObjekt())
-							&& thisAnmeldung.getDatenBeschreibung().getAttributeGroup()
-									.equals(thatAnmeldung.getDatenBeschreibung().getAttributeGroup())) {
-						return "Die beiden Objektanmeldungen sind für" + " die Datenflusssteuerung widersprüchlich:\n"
-								+ thisAnmeldung + "\n" + thatAnmeldung;
-					}
+			final PublikationsTabelle<DAVObjektAnmeldung> thatAnmeldungen = new PublikationsTabelle<>(
+					that.getObjektAnmeldungen().size());
+			for (final DAVObjektAnmeldung thatAnmeldung : that.getObjektAnmeldungen()) {
+				thatAnmeldungen.setze(thatAnmeldung, thatAnmeldung);
+			}
+
+			for (final DAVObjektAnmeldung thisAnmeldung : getObjektAnmeldungen()) { // 4. & 5.
+				final DAVObjektAnmeldung thatAnmeldung = thatAnmeldungen.get(thisAnmeldung);
+				if (thatAnmeldung != null) {
+					return PublikationsZuordung.getWiderspruch(thisAnmeldung, thatAnmeldung);
 				}
 			}
 		}
@@ -226,6 +261,20 @@ public class PublikationsZuordung {
 		return null; // keine Widersprüche
 	}
 
+	/**
+	 * Erzeugt die Fehlermeldung für zwei widersprüchliche Objektanmeldungen.
+	 *
+	 * @param anmeldung1
+	 *            die erste Objektanmeldung
+	 * @param anmeldung2
+	 *            die zweite Objektanmeldung
+	 * @return die Fehlermeldung
+	 */
+	static String getWiderspruch(final DAVObjektAnmeldung anmeldung1, final DAVObjektAnmeldung anmeldung2) {
+		return "Die beiden Objektanmeldungen sind für" + " die Datenflusssteuerung widersprüchlich:\n" + anmeldung1
+				+ "\n" + anmeldung2;
+	}
+
 	@Override
 	public String toString() {
 		String s = "Modul-Typ: " + modulTyp + "\n";
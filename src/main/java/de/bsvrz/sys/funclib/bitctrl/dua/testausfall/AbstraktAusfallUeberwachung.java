@@ -28,61 +28,105 @@ package de.bsvrz.sys.funclib.bitctrl.dua.testausfall;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
 import de.bsvrz.dav.daf.main.ResultData;
 import de.bsvrz.dav.daf.main.config.SystemObject;
 import de.bsvrz.sys.funclib.bitctrl.dua.DUAInitialisierungsException;
 import de.bsvrz.sys.funclib.bitctrl.dua.DUAKonstanten;
 import de.bsvrz.sys.funclib.bitctrl.dua.KontrollProzess;
+import de.bsvrz.sys.funclib.bitctrl.dua.LongLongHashMap;
 import de.bsvrz.sys.funclib.bitctrl.dua.adapter.AbstraktBearbeitungsKnotenAdapter;
 import de.bsvrz.sys.funclib.bitctrl.dua.dfs.schnittstellen.IDatenFlussSteuerung;
 import de.bsvrz.sys.funclib.bitctrl.dua.dfs.typen.ModulTyp;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IBearbeitungsKnoten;
 import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IKontrollProzessListener;
 import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IVerwaltung;
 import de.bsvrz.sys.funclib.debug.Debug;
 
 /**
- * Abstrakte Ausfallüberwachung für zyklisch gesendete Daten.
+ * Abstrakte Ausfallüberwachung für zyklisch gesendete Daten.<br>
+ * Standardmäßig werden alle Daten unter einer gemeinsamen Sperre bearbeitet.
+ * Im parallelen Modus (Konstruktor <code>AbstraktAusfallUeberwachung(true)
+ * </code>) werden die Zustände der Systemobjekte (letzte Datenzeit und
+ * erwarteter Kontrollzeitpunkt) auf <code>ANZAHL_STREIFEN</code> nach
+ * Objekt-ID gebildete Streifen mit eigener Sperre verteilt, so dass Daten
+ * verschiedener Objekte parallel bearbeitet werden. Die Methoden
+ * <code>getTVon(..)</code> und <code>getAusfallDatumVon(..)</code> müssen in
+ * diesem Modus threadsicher sein. Die Weiterleitung an den nachfolgenden
+ * Bearbeitungsknoten erfolgt in beiden Modi unter einer eigenen Sperre, d.h.
+ * der nachfolgende Knoten wird nie gleichzeitig aus dem Empfangs- und dem
+ * Kontrollprozess-Thread aufgerufen.
  *
  * @author BitCtrl Systems GmbH, Thierfelder
  */
 public abstract class AbstraktAusfallUeberwachung extends AbstraktBearbeitungsKnotenAdapter
 implements IKontrollProzessListener<Long> {
 
+	/**
+	 * Anzahl der Streifen im parallelen Modus.
+	 */
+	public static final int ANZAHL_STREIFEN = 64;
+
 	private static final Debug LOGGER = Debug.getLogger();
 
 	/**
-	 * Mapt alle betrachteten Systemobjekte auf den aktuell für sie erlaubten
-	 * maximalen Zeitverzug.
+	 * zeigt an, ob Daten verschiedener Objekte parallel bearbeitet werden.
 	 */
-	private final Map<SystemObject, Long> objektWertErfassungVerzug = Collections
-			.synchronizedMap(new TreeMap<SystemObject, Long>());
+	private final boolean parallel;
 
 	/**
-	 * Eine Map mit allen aktuellen Kontrollzeitpunkten und den zu diesen
-	 * Kontrollzeitpunkten zu überprüfenden Systemobjekten.
+	 * interner Kontrollprozess.
 	 */
-	private final SortedMap<Long, Collection<ObjektResultat>> kontrollZeitpunkte = Collections
-			.synchronizedSortedMap(new TreeMap<Long, Collection<ObjektResultat>>());
+	private final KontrollProzess<Long> kontrollProzess = new KontrollProzess<>();
 
 	/**
-	 * interner Kontrollprozess.
+	 * pro Systemobjekt der aktuell erlaubte maximale Zeitverzug, die letzte
+	 * empfangene Datenzeit sowie der erwartete Kontrollzeitpunkt mit dem
+	 * zuletzt empfangenen Datum.
 	 */
-	private KontrollProzess<Long> kontrollProzess;
+	private final AusfallZustaende<SystemObject, ResultData> zustaende;
 
 	/**
-	 * speichert pro Systemobjekt die letzte empfangene Datenzeit.
+	 * Sperre, unter der ausschließlich an den nächsten Bearbeitungsknoten
+	 * weitergeleitet wird.
 	 */
-	private final Map<SystemObject, Long> letzteEmpfangeneDatenZeitProObj = new HashMap<>();
+	private final Object weiterleitungsSperre = new Object();
+
+	/**
+	 * im parallelen Modus pro Objekt-ID die Datenzeit des zuletzt
+	 * weitergeleiteten Datums (nur unter der Weiterleitungssperre).
+	 */
+	private final LongLongHashMap letzteWeiterleitung = new LongLongHashMap();
+
+	/**
+	 * Standardkonstruktor. Alle Daten werden unter einer gemeinsamen Sperre
+	 * bearbeitet.
+	 */
+	public AbstraktAusfallUeberwachung() {
+		this(false);
+	}
+
+	/**
+	 * Konstruktor.<br>
+	 * Im parallelen Modus werden Daten verschiedener Objekte und der
+	 * Kontrollprozess gleichzeitig bearbeitet. Die Weiterleitung an den
+	 * nächsten Bearbeitungsknoten ist dabei serialisiert, so dass dieser nicht
+	 * threadsicher sein muss. Die Datenzeiten pro Objekt bleiben dabei
+	 * monoton: ein Datum (z.B. ein Ausfalldatum), das erst nach einem
+	 * jüngeren Datum desselben Objektes die Weiterleitung erreicht, wird
+	 * verworfen.
+	 *
+	 * @param parallel
+	 *            ob Daten verschiedener Objekte parallel bearbeitet werden
+	 */
+	protected AbstraktAusfallUeberwachung(final boolean parallel) {
+		this.parallel = parallel;
+		this.zustaende = new AusfallZustaende<>(parallel ? AbstraktAusfallUeberwachung.ANZAHL_STREIFEN : 1,
+				kontrollProzess);
+	}
 
 	/**
 	 * Erfragt die Intervalllänge T eines Datums.
@@ -107,89 +151,90 @@ implements IKontrollProzessListener<Long> {
 	@Override
 	public void initialisiere(final IVerwaltung dieVerwaltung) throws DUAInitialisierungsException {
 		super.initialisiere(dieVerwaltung);
-		kontrollProzess = new KontrollProzess<>();
 		kontrollProzess.addListener(this);
-
-		for (final SystemObject objekt : getVerwaltung().getSystemObjekte()) {
-			letzteEmpfangeneDatenZeitProObj.put(objekt, new Long(-1));
-		}
 	}
 
 	protected void setObjectWertErfassungVerzug(final SystemObject object, final Long zeitVerzug) {
-		objektWertErfassungVerzug.put(object, zeitVerzug);
+		zustaende.setzeMaxZeitVerzug(object.getId(), zeitVerzug != null ? zeitVerzug : -1);
 	}
 
+	/**
+	 * Erfragt, ob Daten verschiedener Objekte parallel bearbeitet werden.
+	 *
+	 * @return ob Daten verschiedener Objekte parallel bearbeitet werden
+	 */
+	public final boolean isParallel() {
+		return parallel;
+	}
 
 	@Override
-	public synchronized void aktualisiereDaten(final ResultData[] resultate) {
+	public void aktualisiereDaten(final ResultData[] resultate) {
+		if (parallel) {
+			bearbeiteDaten(resultate);
+		} else {
+			synchronized (this) {
+				bearbeiteDaten(resultate);
+			}
+		}
+	}
+
+	/**
+	 * Bearbeitet empfangene Daten, d.h. aktualisiert die Kontrollzeitpunkte
+	 * und leitet alle neuen Daten an den nächsten Bearbeitungsknoten weiter.
+	 * Werden alle Daten weitergeleitet, so wird das übergebene Feld selbst
+	 * weitergereicht, d.h. es erfolgt keine Speicheranforderung.
+	 *
+	 * @param resultate
+	 *            die empfangenen Daten
+	 */
+	private void bearbeiteDaten(final ResultData[] resultate) {
 		if (resultate != null) {
-			final List<ResultData> weiterzuleitendeResultate = new ArrayList<>();
+			ResultData[] weiterzuleitendeResultate = resultate;
+			int anzahlWeiterzuleiten = 0;
 
-			for (final ResultData resultat : resultate) {
+			for (int i = 0; i < resultate.length; i++) {
+				final ResultData resultat = resultate[i];
+				boolean weiterleiten = false;
 				if (resultat != null) {
+					final SystemObject objekt = resultat.getObject();
+					final long maxZeitVerzug = getMaxZeitVerzug(objekt);
 
-					if (getMaxZeitVerzug(resultat.getObject()) < 0) {
+					if (maxZeitVerzug < 0) {
 						/**
 						 * Datum wird nicht ueberwacht
 						 */
-						weiterzuleitendeResultate.add(resultat);
+						weiterleiten = true;
 					} else {
+						final boolean mitDaten = resultat.getData() != null;
+						final long kontrollZeitpunkt = mitDaten ? getKontrollZeitpunktVon(resultat, maxZeitVerzug) : -1;
+
 						/**
 						 * Hier werden die Daten herausgefiltert, die von der
 						 * Ausfallkontrolle quasi zu unrecht generiert wurden,
 						 * da das Datum nur minimal zu spät kam.
 						 */
-						if (letzteEmpfangeneDatenZeitProObj.get(resultat.getObject()) < resultat.getDataTime()) {
+						if (zustaende.aktualisiere(objekt.getId(), objekt, resultat.getDataTime(),
+								mitDaten ? resultat : null, kontrollZeitpunkt)) {
 
 							/**
 							 * Zeitstempel ist echt neu!
 							 */
-							weiterzuleitendeResultate.add(resultat);
-						}
-						letzteEmpfangeneDatenZeitProObj.put(resultat.getObject(), resultat.getDataTime());
-
-						if (resultat.getData() != null) {
-
-							bereinigeKontrollZeitpunkte(resultat);
-
-							final long kontrollZeitpunkt = getKontrollZeitpunktVon(resultat);
-							if (kontrollZeitpunkt > 0) {
-								Collection<ObjektResultat> kontrollObjekte = kontrollZeitpunkte.get(kontrollZeitpunkt);
-
-								/**
-								 * Kontrolldatum bestimmten
-								 */
-								final ObjektResultat neuesKontrollObjekt = new ObjektResultat(resultat);
-								if (kontrollObjekte != null) {
-									kontrollObjekte.add(neuesKontrollObjekt);
-								} else {
-									kontrollObjekte = new TreeSet<>();
-									kontrollObjekte.add(neuesKontrollObjekt);
-									kontrollZeitpunkte.put(new Long(kontrollZeitpunkt), kontrollObjekte);
-								}
-							}
-
-							long fruehesterKontrollZeitpunkt = -1;
-
-							if (!kontrollZeitpunkte.isEmpty()) {
-								fruehesterKontrollZeitpunkt = kontrollZeitpunkte.firstKey().longValue();
-
-								if (fruehesterKontrollZeitpunkt > 0) {
-									kontrollProzess.setNaechstenAufrufZeitpunkt(fruehesterKontrollZeitpunkt,
-											new Long(fruehesterKontrollZeitpunkt));
-								} else {
-									AbstraktAusfallUeberwachung.LOGGER.warning("Der momentan aktuellste Kontrollzeitpunkt ist <= 0");
-								}
-							} else {
-								AbstraktAusfallUeberwachung.LOGGER.warning("Die Menge der Kontrollzeitpunkte ist leer");
-							}
+							weiterleiten = true;
 						}
 					}
 				}
+
+				if (weiterleiten) {
+					weiterzuleitendeResultate[anzahlWeiterzuleiten++] = resultat;
+				} else if (weiterzuleitendeResultate == resultate) {
+					/* erstes nicht weiterzuleitendes Datum: ab hier in eine Kopie */
+					weiterzuleitendeResultate = Arrays.copyOf(resultate, resultate.length);
+				}
 			}
 
-			if ((getKnoten() != null) && !weiterzuleitendeResultate.isEmpty()) {
-				getKnoten().aktualisiereDaten(weiterzuleitendeResultate.toArray(new ResultData[0]));
+			if (anzahlWeiterzuleiten > 0) {
+				leiteWeiter(anzahlWeiterzuleiten == resultate.length ? resultate
+						: Arrays.copyOf(weiterzuleitendeResultate, anzahlWeiterzuleiten));
 			}
 		}
 	}
@@ -206,95 +251,154 @@ implements IKontrollProzessListener<Long> {
 		long maxZeitVerzug = -1;
 
 		if (obj != null) {
-			synchronized (objektWertErfassungVerzug) {
-				final Long dummy = objektWertErfassungVerzug.get(obj);
-				if ((dummy != null) && (dummy > 0)) {
-					maxZeitVerzug = dummy;
-				}
+			final long dummy = zustaende.getMaxZeitVerzug(obj.getId());
+			if (dummy > 0) {
+				maxZeitVerzug = dummy;
 			}
 		}
 
 		return maxZeitVerzug;
 	}
 
+	@Override
+	public void trigger(final Long kontrollZeitpunkt) {
+		/*
+		 * Der Kontrollprozess wird ohne Information eingeplant und erst
+		 * ausgelöst, wenn der früheste Kontrollzeitpunkt erreicht ist: Alle bis
+		 * jetzt fälligen Kontrollzeitpunkte werden bearbeitet.
+		 */
+		final long jetzt = System.currentTimeMillis();
+		final long bisZeitpunkt = kontrollZeitpunkt != null ? Math.max(kontrollZeitpunkt, jetzt) : jetzt;
+		if (parallel) {
+			bearbeiteKontrollZeitpunkt(bisZeitpunkt);
+		} else {
+			synchronized (this) {
+				bearbeiteKontrollZeitpunkt(bisZeitpunkt);
+			}
+		}
+	}
+
 	/**
-	 * Bereinigt die Liste der Kontrollzeitpunkte anhand des gerade
-	 * eingetroffenen Datums. Dabei wird zunächst der momentan noch erwartete
-	 * Kontrollzeitpunkt dieses Datums berechnet und dieser dann aus der Liste
-	 * der Kontrollzeitpunkte entfernt
+	 * Erzeugt für alle Objekte, deren Kontrollzeitpunkt erreicht ist, ein
+	 * Ausfalldatum und bearbeitet dieses wie ein empfangenes Datum.
 	 *
-	 * @param resultat
-	 *            ein Roh-Datum eines Systemobjekts
+	 * @param kontrollZeitpunkt
+	 *            der erreichte Kontrollzeitpunkt
 	 */
-	private synchronized void bereinigeKontrollZeitpunkte(final ResultData resultat) {
-
-		/**
-		 * Berechne den wahrscheinlichsten Zeitpunkt, für den hier noch auf ein
-		 * Datum dieses Objektes gewartet wird
-		 */
-		final Long letzterErwarteterZeitpunkt = resultat.getDataTime() + getTVon(resultat)
-		+ getMaxZeitVerzug(resultat.getObject());
-
-		Collection<ObjektResultat> kontrollObjekte = kontrollZeitpunkte.get(letzterErwarteterZeitpunkt);
-
-		final ObjektResultat datum = new ObjektResultat(resultat);
+	private void bearbeiteKontrollZeitpunkt(final long kontrollZeitpunkt) {
+		final List<ResultData> faelligeDaten = new ArrayList<>();
+		if (zustaende.entnehmeFaellige(kontrollZeitpunkt, faelligeDaten) == 0) {
+			AbstraktAusfallUeberwachung.LOGGER.warning(
+					"Der Kontrollzeitpunkt " + new SimpleDateFormat(DUAKonstanten.ZEIT_FORMAT_GENAU_STR).format(new Date(kontrollZeitpunkt))
+					+ " wurde inzwischen entfernt");
+			return;
+		}
 
 		/**
-		 * Gibt es einen Kontrollzeitpunkt, für den das Objekt, des empfangenen
-		 * Datums eingeplant sein müsste
+		 * Alle Ausfalldaten werden in einem Durchgang erzeugt, die
+		 * Kontrollzeitpunkte der überwachten Objekte gesammelt neu gesetzt und
+		 * alle neuen Ausfalldaten als ein Feld weitergeleitet
 		 */
-		if (kontrollObjekte != null) {
-			if (kontrollObjekte.remove(datum)) {
-				if (kontrollObjekte.isEmpty()) {
-					kontrollZeitpunkte.remove(letzterErwarteterZeitpunkt);
-				}
-			} else {
-				kontrollObjekte = null;
+		final int anzahl = faelligeDaten.size();
+		final ResultData[] ausfallDaten = new ResultData[anzahl];
+		final long[] ids = new long[anzahl];
+		final SystemObject[] objekte = new SystemObject[anzahl];
+		final long[] datenZeiten = new long[anzahl];
+		final ResultData[] werte = new ResultData[anzahl];
+		final long[] kontrollZeitpunkte = new long[anzahl];
+		final boolean[] neu = new boolean[anzahl];
+		final List<ResultData> nichtUeberwachteDaten = new ArrayList<>();
+
+		int ueberwacht = 0;
+		for (final ResultData faelligesDatum : faelligeDaten) {
+			final ResultData ausfallDatum = getAusfallDatumVon(faelligesDatum);
+			if (ausfallDatum == null) {
+				continue;
+			}
+			final long maxZeitVerzug = getMaxZeitVerzug(ausfallDatum.getObject());
+			if (maxZeitVerzug < 0) {
+				nichtUeberwachteDaten.add(ausfallDatum);
+				continue;
 			}
+			ausfallDaten[ueberwacht] = ausfallDatum;
+			ids[ueberwacht] = ausfallDatum.getObject().getId();
+			objekte[ueberwacht] = ausfallDatum.getObject();
+			datenZeiten[ueberwacht] = ausfallDatum.getDataTime();
+			if (ausfallDatum.getData() != null) {
+				werte[ueberwacht] = ausfallDatum;
+				kontrollZeitpunkte[ueberwacht] = ausfallDatum.getDataTime() + getTVon(ausfallDatum) + maxZeitVerzug;
+			}
+			ueberwacht++;
 		}
 
-		if (kontrollObjekte == null) {
-			Long gefundenInKontrollZeitpunkt = new Long(-1);
-			for (final Long kontrollZeitpunkt : kontrollZeitpunkte.keySet()) {
-				kontrollObjekte = kontrollZeitpunkte.get(kontrollZeitpunkt);
-				if (kontrollObjekte.remove(datum)) {
-					gefundenInKontrollZeitpunkt = kontrollZeitpunkt;
-					break;
-				}
-			}
+		final int anzahlNeu = zustaende.aktualisiereAlle(ueberwacht, ids, objekte, datenZeiten, werte,
+				kontrollZeitpunkte, neu);
 
-			if ((kontrollObjekte != null) && (gefundenInKontrollZeitpunkt >= 0)) {
-				if (kontrollObjekte.isEmpty()) {
-					kontrollZeitpunkte.remove(gefundenInKontrollZeitpunkt);
+		if ((anzahlNeu + nichtUeberwachteDaten.size()) > 0) {
+			final ResultData[] weiterzuleitendeResultate = new ResultData[anzahlNeu + nichtUeberwachteDaten.size()];
+			int j = 0;
+			for (int i = 0; i < ueberwacht; i++) {
+				if (neu[i]) {
+					weiterzuleitendeResultate[j++] = ausfallDaten[i];
 				}
-			} else {
-				AbstraktAusfallUeberwachung.LOGGER.info("Datum " + datum + " konnte nicht aus" + " Kontrollwarteschlange gelöscht werden");
 			}
+			for (final ResultData resultat : nichtUeberwachteDaten) {
+				weiterzuleitendeResultate[j++] = resultat;
+			}
+			leiteWeiter(weiterzuleitendeResultate);
 		}
 	}
 
-	@Override
-	public synchronized void trigger(final Long kontrollZeitpunkt) {
-		final List<ResultData> zuSendendeAusfallDatenMenge = new ArrayList<>();
-
-		final Collection<ObjektResultat> ausfallDaten = kontrollZeitpunkte.get(kontrollZeitpunkt);
-		if (ausfallDaten != null) {
-			for (final ObjektResultat ausfallDatum : ausfallDaten) {
-				zuSendendeAusfallDatenMenge.add(getAusfallDatumVon(ausfallDatum.getDatum()));
+	/**
+	 * Leitet Daten unter der Weiterleitungssperre an den nächsten
+	 * Bearbeitungsknoten weiter.
+	 *
+	 * @param resultate
+	 *            die weiterzuleitenden Daten
+	 */
+	private void leiteWeiter(final ResultData[] resultate) {
+		final IBearbeitungsKnoten knoten = getKnoten();
+		if (knoten != null) {
+			synchronized (weiterleitungsSperre) {
+				final ResultData[] weiterzuleitendeResultate = parallel ? entferneVeraltete(resultate) : resultate;
+				if (weiterzuleitendeResultate.length > 0) {
+					knoten.aktualisiereDaten(weiterzuleitendeResultate);
+				}
 			}
-		} else {
-			AbstraktAusfallUeberwachung.LOGGER.warning(
-					"Der Kontrollzeitpunkt " + new SimpleDateFormat(DUAKonstanten.ZEIT_FORMAT_GENAU_STR).format(new Date(kontrollZeitpunkt))
-					+ " wurde inzwischen entfernt");
 		}
+	}
 
-		/**
-		 * Sende die ausgefallenen Daten an mich selbst, um die Liste der
-		 * Ausfallzeitpunkte zu aktualisieren
-		 */
-		if (zuSendendeAusfallDatenMenge.size() > 0) {
-			aktualisiereDaten(zuSendendeAusfallDatenMenge.toArray(new ResultData[0]));
+	/**
+	 * Entfernt im parallelen Modus die Daten, deren Datenzeit vor der des
+	 * zuletzt weitergeleiteten Datums desselben Objektes liegt. Diese wurden
+	 * unter der Sperre ihres Streifens angenommen, haben die Weiterleitung
+	 * aber erst nach einem jüngeren Datum (aus einem anderen Thread)
+	 * erreicht. Muss unter der Weiterleitungssperre aufgerufen werden.
+	 *
+	 * @param resultate
+	 *            die weiterzuleitenden Daten (werden nicht verändert)
+	 * @return die Daten in monotoner Reihenfolge pro Objekt (ggf. das
+	 *         übergebene Feld selbst)
+	 */
+	private ResultData[] entferneVeraltete(final ResultData[] resultate) {
+		ResultData[] ergebnis = resultate;
+		int anzahl = 0;
+		for (int i = 0; i < resultate.length; i++) {
+			final ResultData resultat = resultate[i];
+			final long id = resultat.getObject().getId();
+			final long datenZeit = resultat.getDataTime();
+			if (datenZeit < letzteWeiterleitung.get(id, Long.MIN_VALUE)) {
+				AbstraktAusfallUeberwachung.LOGGER.fine("Veraltetes Datum wird nicht weitergeleitet: " + resultat);
+				if (ergebnis == resultate) {
+					/* erstes veraltetes Datum: ab hier in eine Kopie */
+					ergebnis = Arrays.copyOf(resultate, resultate.length);
+				}
+			} else {
+				letzteWeiterleitung.put(id, datenZeit, Long.MIN_VALUE);
+				ergebnis[anzahl++] = resultat;
+			}
 		}
+		return anzahl == resultate.length ? resultate : Arrays.copyOf(ergebnis, anzahl);
 	}
 
 	/**
@@ -303,15 +407,15 @@ implements IKontrollProzessListener<Long> {
 	 *
 	 * @param empfangenesResultat
 	 *            ein empfangener Datensatz
+	 * @param maxZeitVerzug
+	 *            der maximale Zeitverzug für das Objekt des Datensatzes
 	 * @return der späteste Zeitpunkt des nächsten Datensatzes oder -1, wenn
 	 *         dieser nicht sinnvoll bestimmt werden konnte (wenn z.B. keine
 	 *         Parameter vorliegen)
 	 */
-	private long getKontrollZeitpunktVon(final ResultData empfangenesResultat) {
+	private long getKontrollZeitpunktVon(final ResultData empfangenesResultat, final long maxZeitVerzug) {
 		long kontrollZeitpunkt = -1;
 
-		final long maxZeitVerzug = getMaxZeitVerzug(empfangenesResultat.getObject());
-
 		if (maxZeitVerzug >= 0) {
 			kontrollZeitpunkt = empfangenesResultat.getDataTime() + getTVon(empfangenesResultat) + maxZeitVerzug;
 		} else {
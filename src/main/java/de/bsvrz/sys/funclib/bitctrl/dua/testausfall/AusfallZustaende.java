@@ -0,0 +1,428 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.testausfall;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.bsvrz.sys.funclib.bitctrl.dua.KontrollProzess;
+import de.bsvrz.sys.funclib.bitctrl.dua.LongLongHashMap;
+
+/**
+ * Zustände aller von einer Ausfallüberwachung betrachteten Objekte (maximaler
+ * Zeitverzug, letzte empfangene Datenzeit und erwarteter Kontrollzeitpunkt).
+ * Die Zustände sind
+ * anhand der Objekt-ID auf Streifen verteilt, die jeweils eine eigene Sperre
+ * besitzen, so dass Aktualisierungen verschiedener Objekte parallel erfolgen
+ * können. Gemeinsam ist allen Streifen nur der früheste Kontrollzeitpunkt, auf
+ * den der übergebene Kontrollprozess eingeplant wird. Wird der früheste
+ * Kontrollzeitpunkt entfernt, so wird er (außerhalb der Streifensperre) über
+ * alle Streifen neu bestimmt.<br>
+ * Die Aktualisierung eines bereits bekannten Objektes erfolgt ohne
+ * Speicheranforderung.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ * @param <K>
+ *            Art der Objekte
+ * @param <V>
+ *            Art der zu einem Kontrollzeitpunkt gespeicherten Werte
+ */
+class AusfallZustaende<K, V> {
+
+	/**
+	 * Kennzeichnet, dass kein Kontrollzeitpunkt eingeplant ist.
+	 */
+	private static final long KEIN_ZEITPUNKT = Long.MAX_VALUE;
+
+	/**
+	 * die Streifen.
+	 */
+	private final Streifen<K, V>[] streifen;
+
+	/**
+	 * Bitmaske zur Bestimmung des Streifens einer Objekt-ID.
+	 */
+	private final int maske;
+
+	/**
+	 * der Kontrollprozess, der auf den frühesten Kontrollzeitpunkt eingeplant
+	 * wird.
+	 */
+	private final KontrollProzess<Long> kontrollProzess;
+
+	/**
+	 * der früheste bekannte Kontrollzeitpunkt aller Streifen bzw.
+	 * <code>KEIN_ZEITPUNKT</code>.
+	 */
+	private final AtomicLong fruehesterZeitpunkt = new AtomicLong(AusfallZustaende.KEIN_ZEITPUNKT);
+
+	/**
+	 * Konstruktor.
+	 *
+	 * @param anzahlStreifen
+	 *            die gewünschte Anzahl der Streifen (&gt; 0). Der Wert wird
+	 *            auf die nächste Zweierpotenz aufgerundet
+	 * @param kontrollProzess
+	 *            der Kontrollprozess, der auf den frühesten Kontrollzeitpunkt
+	 *            eingeplant wird
+	 */
+	@SuppressWarnings("unchecked")
+	AusfallZustaende(final int anzahlStreifen, final KontrollProzess<Long> kontrollProzess) {
+		if ((anzahlStreifen <= 0) || (anzahlStreifen > (1 << 16))) {
+			throw new IllegalArgumentException("Ungültige Anzahl von Streifen: " + anzahlStreifen);
+		}
+		int anzahl = 1;
+		while (anzahl < anzahlStreifen) {
+			anzahl <<= 1;
+		}
+		this.streifen = new Streifen[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			this.streifen[i] = new Streifen<>();
+		}
+		this.maske = anzahl - 1;
+		this.kontrollProzess = kontrollProzess;
+	}
+
+	/**
+	 * Aktualisiert den Zustand eines Objektes anhand eines empfangenen
+	 * Datums.
+	 *
+	 * @param id
+	 *            die ID des Objektes
+	 * @param objekt
+	 *            das Objekt
+	 * @param datenZeit
+	 *            die Datenzeit des empfangenen Datums
+	 * @param wert
+	 *            der zum neuen Kontrollzeitpunkt zu speichernde Wert oder
+	 *            <code>null</code>, wenn das Datum keine Daten enthält. In
+	 *            diesem Fall bleibt der Kontrollzeitpunkt unverändert
+	 * @param kontrollZeitpunkt
+	 *            der neue Kontrollzeitpunkt des Objektes oder ein Wert
+	 *            &lt;= 0, wenn dieser nicht bestimmt werden konnte
+	 * @return ob die Datenzeit neuer als die bisher letzte empfangene
+	 *         Datenzeit des Objektes ist
+	 */
+	boolean aktualisiere(final long id, final K objekt, final long datenZeit, final V wert,
+			final long kontrollZeitpunkt) {
+		final Streifen<K, V> s = streifen[getStreifenIndex(id)];
+		final boolean neu;
+		final long alterKontrollZeitpunkt;
+		synchronized (s) {
+			neu = s.setzeDatenZeit(id, datenZeit);
+			alterKontrollZeitpunkt = s.setzeKontrollZeitpunkt(objekt, wert, kontrollZeitpunkt);
+			if ((wert != null) && (kontrollZeitpunkt > 0)) {
+				senke(kontrollZeitpunkt);
+			}
+		}
+
+		if ((alterKontrollZeitpunkt >= 0) && (alterKontrollZeitpunkt == fruehesterZeitpunkt.get())) {
+			bestimmeFruehestenZeitpunkt();
+		}
+		return neu;
+	}
+
+	/**
+	 * Setzt den maximalen Zeitverzug eines Objektes.
+	 *
+	 * @param id
+	 *            die ID des Objektes
+	 * @param maxZeitVerzug
+	 *            der maximale Zeitverzug oder ein Wert &lt; 0, wenn dieser
+	 *            entfernt werden soll
+	 */
+	void setzeMaxZeitVerzug(final long id, final long maxZeitVerzug) {
+		final Streifen<K, V> s = streifen[getStreifenIndex(id)];
+		synchronized (s) {
+			if (maxZeitVerzug >= 0) {
+				s.maxZeitVerzug.put(id, maxZeitVerzug, -1);
+			} else {
+				s.maxZeitVerzug.remove(id);
+			}
+		}
+	}
+
+	/**
+	 * Erfragt den maximalen Zeitverzug eines Objektes.
+	 *
+	 * @param id
+	 *            die ID des Objektes
+	 * @return der maximale Zeitverzug oder <code>-1</code>, wenn dieser nicht
+	 *         gesetzt ist
+	 */
+	long getMaxZeitVerzug(final long id) {
+		final Streifen<K, V> s = streifen[getStreifenIndex(id)];
+		synchronized (s) {
+			return s.maxZeitVerzug.get(id, -1);
+		}
+	}
+
+	/**
+	 * Aktualisiert die Zustände mehrerer Objekte in einem Durchgang (wie
+	 * <code>aktualisiere(..)</code> für jedes Objekt). Die Sperre jedes
+	 * Streifens wird dabei nur einmal angefordert und der früheste
+	 * Kontrollzeitpunkt nur einmal angepasst.
+	 *
+	 * @param anzahl
+	 *            die Anzahl der zu aktualisierenden Objekte
+	 * @param ids
+	 *            die IDs der Objekte
+	 * @param objekte
+	 *            die Objekte
+	 * @param datenZeiten
+	 *            die Datenzeiten der empfangenen Daten
+	 * @param werte
+	 *            die zu den neuen Kontrollzeitpunkten zu speichernden Werte
+	 *            (Einträge ggf. <code>null</code>)
+	 * @param kontrollZeitpunkte
+	 *            die neuen Kontrollzeitpunkte der Objekte
+	 * @param neu
+	 *            Feld, in das für jedes Objekt eingetragen wird, ob die
+	 *            Datenzeit neuer als die bisher letzte empfangene Datenzeit
+	 *            ist
+	 * @return die Anzahl der Objekte mit neuer Datenzeit
+	 */
+	int aktualisiereAlle(final int anzahl, final long[] ids, final K[] objekte, final long[] datenZeiten,
+			final V[] werte, final long[] kontrollZeitpunkte, final boolean[] neu) {
+
+		/* Sortierung nach Streifen (Counting Sort) */
+		final int[] streifenIndex = new int[anzahl];
+		final int[] beginn = new int[streifen.length + 1];
+		for (int i = 0; i < anzahl; i++) {
+			streifenIndex[i] = getStreifenIndex(ids[i]);
+			beginn[streifenIndex[i] + 1]++;
+		}
+		for (int i = 0; i < streifen.length; i++) {
+			beginn[i + 1] += beginn[i];
+		}
+		final int[] position = beginn.clone();
+		final int[] reihenfolge = new int[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			reihenfolge[position[streifenIndex[i]]++] = i;
+		}
+
+		int anzahlNeu = 0;
+		long fruehesterNeuer = AusfallZustaende.KEIN_ZEITPUNKT;
+		boolean fruehesterEntfernt = false;
+		for (int si = 0; si < streifen.length; si++) {
+			if (beginn[si] == beginn[si + 1]) {
+				continue;
+			}
+			final Streifen<K, V> s = streifen[si];
+			synchronized (s) {
+				for (int j = beginn[si]; j < beginn[si + 1]; j++) {
+					final int i = reihenfolge[j];
+					neu[i] = s.setzeDatenZeit(ids[i], datenZeiten[i]);
+					if (neu[i]) {
+						anzahlNeu++;
+					}
+					final long alterKontrollZeitpunkt = s.setzeKontrollZeitpunkt(objekte[i], werte[i],
+							kontrollZeitpunkte[i]);
+					if ((werte[i] != null) && (kontrollZeitpunkte[i] > 0)) {
+						fruehesterNeuer = Math.min(fruehesterNeuer, kontrollZeitpunkte[i]);
+					}
+					if ((alterKontrollZeitpunkt >= 0) && (alterKontrollZeitpunkt == fruehesterZeitpunkt.get())) {
+						fruehesterEntfernt = true;
+					}
+				}
+			}
+		}
+
+		if (fruehesterEntfernt) {
+			bestimmeFruehestenZeitpunkt();
+		} else if (fruehesterNeuer != AusfallZustaende.KEIN_ZEITPUNKT) {
+			senke(fruehesterNeuer);
+		}
+		return anzahlNeu;
+	}
+
+	/**
+	 * Entnimmt die Werte aller Kontrollzeitpunkte, die nicht nach dem
+	 * übergebenen Zeitpunkt liegen, und plant den Kontrollprozess auf den
+	 * danach frühesten Kontrollzeitpunkt ein.
+	 *
+	 * @param bisZeitpunkt
+	 *            der Zeitpunkt
+	 * @param werte
+	 *            Sammlung, in die die Werte eingefügt werden
+	 * @return die Anzahl der entnommenen Werte
+	 */
+	int entnehmeFaellige(final long bisZeitpunkt, final Collection<? super V> werte) {
+		int anzahl = 0;
+		for (final Streifen<K, V> s : streifen) {
+			synchronized (s) {
+				anzahl += s.kontrollZeitpunkte.entnehme(bisZeitpunkt, werte);
+			}
+		}
+		bestimmeFruehestenZeitpunkt();
+		return anzahl;
+	}
+
+	/**
+	 * Erfragt die Anzahl der momentan gesetzten Kontrollzeitpunkte.
+	 *
+	 * @return die Anzahl der gesetzten Kontrollzeitpunkte
+	 */
+	int getAnzahlKontrollZeitpunkte() {
+		int anzahl = 0;
+		for (final Streifen<K, V> s : streifen) {
+			synchronized (s) {
+				anzahl += s.kontrollZeitpunkte.size();
+			}
+		}
+		return anzahl;
+	}
+
+	/**
+	 * Erfragt den Index des Streifens einer Objekt-ID.
+	 *
+	 * @param id
+	 *            die Objekt-ID
+	 * @return der Index des Streifens
+	 */
+	private int getStreifenIndex(final long id) {
+		final long h = LongLongHashMap.mische(id);
+		return (int) (h >>> 32) & maske;
+	}
+
+	/**
+	 * Bestimmt den frühesten Kontrollzeitpunkt über alle Streifen neu. Darf
+	 * nicht innerhalb einer Streifensperre aufgerufen werden.
+	 */
+	private void bestimmeFruehestenZeitpunkt() {
+		fruehesterZeitpunkt.set(AusfallZustaende.KEIN_ZEITPUNKT);
+		for (final Streifen<K, V> s : streifen) {
+			synchronized (s) {
+				if (!s.kontrollZeitpunkte.isLeer()) {
+					senke(s.kontrollZeitpunkte.getFruehesterZeitpunkt());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Senkt den frühesten Kontrollzeitpunkt ggf. auf den übergebenen Wert und
+	 * plant in diesem Fall den Kontrollprozess neu ein.
+	 *
+	 * @param zeitpunkt
+	 *            ein Kontrollzeitpunkt
+	 */
+	private void senke(final long zeitpunkt) {
+		long aktuell = fruehesterZeitpunkt.get();
+		while (zeitpunkt < aktuell) {
+			if (fruehesterZeitpunkt.compareAndSet(aktuell, zeitpunkt)) {
+				plane();
+				return;
+			}
+			aktuell = fruehesterZeitpunkt.get();
+		}
+	}
+
+	/**
+	 * Plant den Kontrollprozess auf den frühesten Kontrollzeitpunkt ein. Der
+	 * Zeitpunkt wird erst innerhalb der Sperre gelesen, so dass bei
+	 * konkurrierenden Aufrufen immer der zuletzt gültige Wert eingeplant wird.
+	 * Dem Kontrollprozess wird keine Information übergeben, damit kein Boxing
+	 * erfolgt.
+	 */
+	private void plane() {
+		synchronized (kontrollProzess) {
+			final long zeitpunkt = fruehesterZeitpunkt.get();
+			if ((zeitpunkt != AusfallZustaende.KEIN_ZEITPUNKT)
+					&& (kontrollProzess.getNaechstenAufrufZeitpunkt() != zeitpunkt)) {
+				kontrollProzess.setNaechstenAufrufZeitpunkt(zeitpunkt);
+			}
+		}
+	}
+
+	/**
+	 * Ein Streifen mit den Zuständen eines Teils der Objekte.
+	 *
+	 * @param <K>
+	 *            Art der Objekte
+	 * @param <V>
+	 *            Art der gespeicherten Werte
+	 */
+	private static final class Streifen<K, V> {
+
+		/**
+		 * pro Objekt-ID der maximale Zeitverzug.
+		 */
+		private final LongLongHashMap maxZeitVerzug = new LongLongHashMap();
+
+		/**
+		 * pro Objekt-ID die letzte empfangene Datenzeit.
+		 */
+		private final LongLongHashMap letzteDatenZeit = new LongLongHashMap();
+
+		/**
+		 * pro Objekt der erwartete Kontrollzeitpunkt.
+		 */
+		private final KontrollZeitpunktIndex<K, V> kontrollZeitpunkte = new KontrollZeitpunktIndex<>();
+
+		/**
+		 * Setzt die letzte empfangene Datenzeit eines Objektes.
+		 *
+		 * @param id
+		 *            die ID des Objektes
+		 * @param datenZeit
+		 *            die Datenzeit
+		 * @return ob die Datenzeit neuer als die bisher letzte ist
+		 */
+		private boolean setzeDatenZeit(final long id, final long datenZeit) {
+			return letzteDatenZeit.put(id, datenZeit, Long.MIN_VALUE) < datenZeit;
+		}
+
+		/**
+		 * Setzt den Kontrollzeitpunkt eines Objektes neu.
+		 *
+		 * @param objekt
+		 *            das Objekt
+		 * @param wert
+		 *            der zu speichernde Wert oder <code>null</code>, wenn der
+		 *            Kontrollzeitpunkt unverändert bleiben soll
+		 * @param kontrollZeitpunkt
+		 *            der neue Kontrollzeitpunkt oder ein Wert &lt;= 0, wenn der
+		 *            Kontrollzeitpunkt entfernt werden soll
+		 * @return der bisherige Kontrollzeitpunkt oder <code>-1</code>, wenn
+		 *         keiner gesetzt war oder dieser unverändert bleibt
+		 */
+		private long setzeKontrollZeitpunkt(final K objekt, final V wert, final long kontrollZeitpunkt) {
+			if (wert == null) {
+				return -1;
+			}
+			final long alterKontrollZeitpunkt = kontrollZeitpunkte.getZeitpunkt(objekt);
+			if (kontrollZeitpunkt > 0) {
+				kontrollZeitpunkte.setze(objekt, kontrollZeitpunkt, wert);
+			} else if (alterKontrollZeitpunkt >= 0) {
+				kontrollZeitpunkte.entferne(objekt);
+			}
+			return alterKontrollZeitpunkt;
+		}
+	}
+}
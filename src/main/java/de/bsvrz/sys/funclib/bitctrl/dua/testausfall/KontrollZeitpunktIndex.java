@@ -0,0 +1,316 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.testausfall;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Doppelter Index der Kontrollzeitpunkte einer Ausfallüberwachung: Jedem
+ * Schlüssel (Systemobjekt) ist höchstens ein Kontrollzeitpunkt zugeordnet, und
+ * die Kontrollzeitpunkte sind in einem binären Min-Heap über primitiven
+ * <code>long</code>-Werten angeordnet. Das Setzen und Entfernen des
+ * Kontrollzeitpunktes eines Schlüssels erfolgt in O(log n), der früheste
+ * Kontrollzeitpunkt ist in O(1) verfügbar.<br>
+ * <b>Achtung:</b> Die Klasse ist nicht threadsicher. Die Synchronisation muss
+ * durch den Aufrufer erfolgen.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ * @param <K>
+ *            Art der Schlüssel
+ * @param <V>
+ *            Art der zu einem Kontrollzeitpunkt gespeicherten Werte
+ */
+class KontrollZeitpunktIndex<K, V> {
+
+	/**
+	 * Anfangsgröße des Heaps.
+	 */
+	private static final int ANFANGS_KAPAZITAET = 64;
+
+	/**
+	 * alle Schlüssel mit ihrem jeweiligen Eintrag.
+	 */
+	private final Map<K, Eintrag<K, V>> eintraege = new HashMap<>();
+
+	/**
+	 * der Heap (nach Kontrollzeitpunkt geordnet).
+	 */
+	private Eintrag<K, V>[] heap;
+
+	/**
+	 * die Anzahl der Einträge im Heap.
+	 */
+	private int anzahl;
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	@SuppressWarnings("unchecked")
+	KontrollZeitpunktIndex() {
+		heap = new Eintrag[KontrollZeitpunktIndex.ANFANGS_KAPAZITAET];
+	}
+
+	/**
+	 * Setzt den Kontrollzeitpunkt eines Schlüssels. Ein bisher gesetzter
+	 * Kontrollzeitpunkt des Schlüssels wird ersetzt.
+	 *
+	 * @param schluessel
+	 *            der Schlüssel
+	 * @param zeitpunkt
+	 *            der Kontrollzeitpunkt
+	 * @param wert
+	 *            der zum Kontrollzeitpunkt gespeicherte Wert
+	 */
+	void setze(final K schluessel, final long zeitpunkt, final V wert) {
+		Eintrag<K, V> eintrag = eintraege.get(schluessel);
+		if (eintrag == null) {
+			eintrag = new Eintrag<>(schluessel);
+			eintraege.put(schluessel, eintrag);
+			if (anzahl == heap.length) {
+				heap = Arrays.copyOf(heap, anzahl * 2);
+			}
+			eintrag.position = anzahl;
+			heap[anzahl++] = eintrag;
+			eintrag.zeitpunkt = zeitpunkt;
+			eintrag.wert = wert;
+			nachOben(eintrag.position);
+		} else {
+			final long alterZeitpunkt = eintrag.zeitpunkt;
+			eintrag.zeitpunkt = zeitpunkt;
+			eintrag.wert = wert;
+			if (zeitpunkt < alterZeitpunkt) {
+				nachOben(eintrag.position);
+			} else if (zeitpunkt > alterZeitpunkt) {
+				nachUnten(eintrag.position);
+			}
+		}
+	}
+
+	/**
+	 * Entfernt den Kontrollzeitpunkt eines Schlüssels.
+	 *
+	 * @param schluessel
+	 *            der Schlüssel
+	 * @return der zum Kontrollzeitpunkt gespeicherte Wert oder
+	 *         <code>null</code>, wenn für den Schlüssel kein
+	 *         Kontrollzeitpunkt gesetzt war
+	 */
+	V entferne(final K schluessel) {
+		final Eintrag<K, V> eintrag = eintraege.remove(schluessel);
+		if (eintrag == null) {
+			return null;
+		}
+		entferneAusHeap(eintrag.position);
+		return eintrag.wert;
+	}
+
+	/**
+	 * Erfragt den Kontrollzeitpunkt eines Schlüssels.
+	 *
+	 * @param schluessel
+	 *            der Schlüssel
+	 * @return der Kontrollzeitpunkt oder <code>-1</code>, wenn für den
+	 *         Schlüssel kein Kontrollzeitpunkt gesetzt ist
+	 */
+	long getZeitpunkt(final K schluessel) {
+		final Eintrag<K, V> eintrag = eintraege.get(schluessel);
+		return eintrag != null ? eintrag.zeitpunkt : -1;
+	}
+
+	/**
+	 * Erfragt den frühesten Kontrollzeitpunkt.
+	 *
+	 * @return der früheste Kontrollzeitpunkt oder <code>-1</code>, wenn keine
+	 *         Kontrollzeitpunkte gesetzt sind
+	 */
+	long getFruehesterZeitpunkt() {
+		return anzahl > 0 ? heap[0].zeitpunkt : -1;
+	}
+
+	/**
+	 * Entnimmt die Werte aller Kontrollzeitpunkte, die nicht nach dem
+	 * übergebenen Zeitpunkt liegen, in aufsteigender Reihenfolge. Die
+	 * Kontrollzeitpunkte werden dabei entfernt.
+	 *
+	 * @param bisZeitpunkt
+	 *            der Zeitpunkt
+	 * @param werte
+	 *            Sammlung, in die die Werte eingefügt werden
+	 * @return die Anzahl der entnommenen Werte
+	 */
+	int entnehme(final long bisZeitpunkt, final Collection<? super V> werte) {
+		int entnommen = 0;
+		while ((anzahl > 0) && (heap[0].zeitpunkt <= bisZeitpunkt)) {
+			final Eintrag<K, V> eintrag = heap[0];
+			eintraege.remove(eintrag.schluessel);
+			entferneAusHeap(0);
+			werte.add(eintrag.wert);
+			entnommen++;
+		}
+		return entnommen;
+	}
+
+	/**
+	 * Erfragt die Anzahl der gesetzten Kontrollzeitpunkte.
+	 *
+	 * @return die Anzahl der gesetzten Kontrollzeitpunkte
+	 */
+	int size() {
+		return anzahl;
+	}
+
+	/**
+	 * Erfragt, ob keine Kontrollzeitpunkte gesetzt sind.
+	 *
+	 * @return ob keine Kontrollzeitpunkte gesetzt sind
+	 */
+	boolean isLeer() {
+		return anzahl == 0;
+	}
+
+	/**
+	 * Entfernt den Eintrag an einer Heap-Position aus dem Heap.
+	 *
+	 * @param position
+	 *            die Heap-Position
+	 */
+	private void entferneAusHeap(final int position) {
+		anzahl--;
+		final Eintrag<K, V> letzter = heap[anzahl];
+		heap[anzahl] = null;
+		if (position < anzahl) {
+			final long entfernterZeitpunkt = heap[position].zeitpunkt;
+			heap[position] = letzter;
+			letzter.position = position;
+			if (letzter.zeitpunkt < entfernterZeitpunkt) {
+				nachOben(position);
+			} else {
+				nachUnten(position);
+			}
+		}
+	}
+
+	/**
+	 * Lässt einen Eintrag im Heap nach oben steigen.
+	 *
+	 * @param position
+	 *            die Heap-Position des Eintrags
+	 */
+	private void nachOben(final int position) {
+		final Eintrag<K, V> eintrag = heap[position];
+		int aktuell = position;
+		while (aktuell > 0) {
+			final int eltern = (aktuell - 1) >>> 1;
+			if (heap[eltern].zeitpunkt <= eintrag.zeitpunkt) {
+				break;
+			}
+			heap[aktuell] = heap[eltern];
+			heap[aktuell].position = aktuell;
+			aktuell = eltern;
+		}
+		heap[aktuell] = eintrag;
+		eintrag.position = aktuell;
+	}
+
+	/**
+	 * Lässt einen Eintrag im Heap nach unten sinken.
+	 *
+	 * @param position
+	 *            die Heap-Position des Eintrags
+	 */
+	private void nachUnten(final int position) {
+		final Eintrag<K, V> eintrag = heap[position];
+		int aktuell = position;
+		while (true) {
+			int kind = (2 * aktuell) + 1;
+			if (kind >= anzahl) {
+				break;
+			}
+			if (((kind + 1) < anzahl) && (heap[kind + 1].zeitpunkt < heap[kind].zeitpunkt)) {
+				kind++;
+			}
+			if (eintrag.zeitpunkt <= heap[kind].zeitpunkt) {
+				break;
+			}
+			heap[aktuell] = heap[kind];
+			heap[aktuell].position = aktuell;
+			aktuell = kind;
+		}
+		heap[aktuell] = eintrag;
+		eintrag.position = aktuell;
+	}
+
+	/**
+	 * Ein Kontrollzeitpunkt eines Schlüssels.
+	 *
+	 * @param <K>
+	 *            Art des Schlüssels
+	 * @param <V>
+	 *            Art des Wertes
+	 */
+	private static final class Eintrag<K, V> {
+
+		/**
+		 * der Schlüssel.
+		 */
+		private final K schluessel;
+
+		/**
+		 * der Kontrollzeitpunkt.
+		 */
+		private long zeitpunkt;
+
+		/**
+		 * der zum Kontrollzeitpunkt gespeicherte Wert.
+		 */
+		private V wert;
+
+		/**
+		 * die Position im Heap.
+		 */
+		private int position;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param schluessel
+		 *            der Schlüssel
+		 */
+		private Eintrag(final K schluessel) {
+			this.schluessel = schluessel;
+		}
+
+		@Override
+		public String toString() {
+			return schluessel + ": " + zeitpunkt;
+		}
+	}
+}
@@ -155,11 +155,17 @@ public class UmfeldDatenSensorDatum {
 	 * @return der Gueteindex
 	 */
 	public final GanzZahl getGueteIndex() {
-		final GanzZahl gueteIndex = GanzZahl.getGueteIndex();
-
-		gueteIndex.setWert(datum.getItem(datenArt.getName()).getItem("Güte").getUnscaledValue("Index").longValue());
+		return GanzZahl.getGueteIndex(getGueteIndexWert());
+	}
 
-		return gueteIndex;
+	/**
+	 * Erfragt den unskalierten Wert des Gueteindex, ohne ein
+	 * <code>GanzZahl</code>-Objekt anzulegen.
+	 *
+	 * @return der unskalierte Wert des Gueteindex
+	 */
+	public final long getGueteIndexWert() {
+		return datum.getItem(datenArt.getName()).getItem("Güte").getUnscaledValue("Index").longValue();
 	}
 
 	/**
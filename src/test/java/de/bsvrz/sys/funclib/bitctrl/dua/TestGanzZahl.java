@@ -0,0 +1,95 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.bsvrz.sys.funclib.bitctrl.daf.AbstractDavZustand;
+
+/**
+ * Testet die Klasse <code>GanzZahl</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestGanzZahl {
+
+	/**
+	 * Prüft die Zuordnung der Zustaende über die gemeinsame Zustandstabelle.
+	 */
+	@Test
+	public void testZustaende() {
+		final GanzZahl zahl = GanzZahl.getMWZahl();
+		Assert.assertNull(zahl.getZustand());
+
+		zahl.setWert(-1);
+		Assert.assertSame(MesswertZustand.NICHT_ERMITTELBAR, zahl.getZustand());
+		zahl.setWert(-2);
+		Assert.assertSame(MesswertZustand.FEHLERHAFT, zahl.getZustand());
+		zahl.setWert(-3);
+		Assert.assertSame(MesswertZustand.FEHLERHAFT_BZW_NICHT_ERMITTELBAR, zahl.getZustand());
+		zahl.setWert(-4);
+		Assert.assertNull(zahl.getZustand());
+		zahl.setWert(Long.MIN_VALUE);
+		Assert.assertNull(zahl.getZustand());
+
+		Assert.assertSame(MesswertZustand.FEHLERHAFT, GanzZahl.getMesswertZustand(-2));
+		Assert.assertNull(GanzZahl.getMesswertZustand(0));
+	}
+
+	/**
+	 * Prüft eigene Zustandsmengen und den Kopierkonstruktor, der die
+	 * Zustandstabelle mit der Vorlage teilt.
+	 */
+	@Test
+	public void testKopie() {
+		final GanzZahl zahl = new GanzZahl(new AbstractDavZustand[] { MesswertZustand.FEHLERHAFT,
+				MesswertZustand.NICHT_ERMITTELBAR, MesswertZustand.FEHLERHAFT_BZW_NICHT_ERMITTELBAR });
+		zahl.setWert(-3);
+		Assert.assertSame(MesswertZustand.FEHLERHAFT_BZW_NICHT_ERMITTELBAR, zahl.getZustand());
+
+		final GanzZahl kopie = new GanzZahl(zahl);
+		kopie.setWert(-1);
+		Assert.assertSame(MesswertZustand.NICHT_ERMITTELBAR, kopie.getZustand());
+		Assert.assertSame(MesswertZustand.FEHLERHAFT_BZW_NICHT_ERMITTELBAR, zahl.getZustand());
+	}
+
+	/**
+	 * Prüft die Erzeugung eines Gueteindizes.
+	 */
+	@Test
+	public void testGueteIndex() {
+		final GanzZahl guete = GanzZahl.getGueteIndex();
+		Assert.assertEquals(GanzZahl.GUETE_EINS, guete.getWert());
+		Assert.assertEquals(1.0, guete.getSkaliertenWert(), 0.000001);
+
+		final GanzZahl halb = GanzZahl.getGueteIndex(5000);
+		Assert.assertEquals(0.5, halb.getSkaliertenWert(), 0.000001);
+		Assert.assertEquals(0.5, GanzZahl.getSkaliertenGueteIndex(5000), 0.000001);
+		Assert.assertFalse(guete == GanzZahl.getGueteIndex());
+	}
+}
@@ -0,0 +1,149 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testet die Klasse <code>GnadenFrist</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestGnadenFrist {
+
+	/**
+	 * Anzahl der Objekte pro Datenpaket.
+	 */
+	private static final int ANZAHL_OBJEKTE = 100;
+
+	/**
+	 * die aktuelle Konfiguration: Verschiebung der Datenbeschreibung
+	 * gegenüber dem Objekt.
+	 */
+	private volatile int konfiguration;
+
+	/**
+	 * zeigt an, ob die lesenden Threads beendet werden sollen.
+	 */
+	private volatile boolean beendet;
+
+	/**
+	 * Stresstest: Die Konfiguration wird mit 10 Hz umgeschaltet, während
+	 * mehrere Threads ununterbrochen Daten gemäß der jeweils aktuellen
+	 * Konfiguration "senden". Dabei darf weder ein Datum verloren gehen noch
+	 * an eine nicht (mehr) angemeldete Datenbeschreibung gesendet werden.
+	 *
+	 * @throws Exception
+	 *             wird weitergereicht
+	 */
+	@Test
+	public void testUmschaltenUnterLast() throws Exception {
+		final GnadenFrist gnadenFrist = new GnadenFrist();
+		final Set<Integer> angemeldet = ConcurrentHashMap.newKeySet();
+		angemeldet.addAll(TestGnadenFrist.beschreibungen(0));
+
+		final AtomicLong gesendet = new AtomicLong();
+		final AtomicLong erzeugt = new AtomicLong();
+		final AtomicLong fehler = new AtomicLong();
+
+		final Thread[] leser = new Thread[3];
+		for (int t = 0; t < leser.length; t++) {
+			leser[t] = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					while (!beendet) {
+						final int epoche = gnadenFrist.betrete();
+						try {
+							final int verschiebung = konfiguration;
+							for (int objekt = 0; objekt < TestGnadenFrist.ANZAHL_OBJEKTE; objekt++) {
+								erzeugt.incrementAndGet();
+								if (angemeldet.contains(objekt + verschiebung)) {
+									gesendet.incrementAndGet();
+								} else {
+									fehler.incrementAndGet();
+								}
+							}
+						} finally {
+							gnadenFrist.verlasse(epoche);
+						}
+					}
+				}
+			});
+			leser[t].start();
+		}
+
+		int alteVerschiebung = 0;
+		for (int umschaltung = 1; umschaltung <= 20; umschaltung++) {
+			Thread.sleep(100);
+			final int neueVerschiebung = (umschaltung % 3) * 50;
+			final Set<Integer> neu = TestGnadenFrist.beschreibungen(neueVerschiebung);
+
+			/* anmelden, umschalten, abwarten, abmelden */
+			angemeldet.addAll(neu);
+			konfiguration = neueVerschiebung;
+			gnadenFrist.abwarten();
+			final Set<Integer> alt = TestGnadenFrist.beschreibungen(alteVerschiebung);
+			alt.removeAll(neu);
+			angemeldet.removeAll(alt);
+
+			alteVerschiebung = neueVerschiebung;
+		}
+
+		beendet = true;
+		for (final Thread thread : leser) {
+			thread.join();
+		}
+
+		System.out.println("Gesendet: " + gesendet.get() + ", Fehler: " + fehler.get());
+		Assert.assertEquals(0, fehler.get());
+		Assert.assertEquals(erzeugt.get(), gesendet.get());
+		Assert.assertTrue(gesendet.get() > 0);
+	}
+
+	/**
+	 * Erfragt die Datenbeschreibungen einer Konfiguration.
+	 *
+	 * @param verschiebung
+	 *            die Verschiebung der Konfiguration
+	 * @return die Datenbeschreibungen
+	 */
+	private static Set<Integer> beschreibungen(final int verschiebung) {
+		final Set<Integer> beschreibungen = new HashSet<>();
+		for (int objekt = 0; objekt < TestGnadenFrist.ANZAHL_OBJEKTE; objekt++) {
+			beschreibungen.add(objekt + verschiebung);
+		}
+		return beschreibungen;
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IKontrollProzessListener;
+
+/**
+ * Testet die Klasse <code>KontrollProzess</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestKontrollProzess {
+
+	/**
+	 * Testet, dass ein nach hinten verschobener Aufrufzeitpunkt genau einmal
+	 * und nicht vor dem zuletzt gesetzten Zeitpunkt ausgeführt wird.
+	 *
+	 * @throws InterruptedException
+	 *             wenn der Test unterbrochen wird
+	 */
+	@Test
+	public void testVerschiebenNachHinten() throws InterruptedException {
+		final KontrollProzess<Long> prozess = new KontrollProzess<>();
+		final AtomicInteger anzahlAufrufe = new AtomicInteger();
+		final AtomicLong aufrufZeit = new AtomicLong();
+		final CountDownLatch aufgerufen = new CountDownLatch(1);
+
+		prozess.addListener(new IKontrollProzessListener<Long>() {
+
+			@Override
+			public void trigger(final Long information) {
+				aufrufZeit.set(System.currentTimeMillis());
+				anzahlAufrufe.incrementAndGet();
+				aufgerufen.countDown();
+			}
+		});
+
+		final long jetzt = System.currentTimeMillis();
+		prozess.setNaechstenAufrufZeitpunkt(jetzt + 200);
+		prozess.setNaechstenAufrufZeitpunkt(jetzt + 300);
+		prozess.setNaechstenAufrufZeitpunkt(jetzt + 500, jetzt + 500);
+
+		Assert.assertTrue(aufgerufen.await(2, TimeUnit.SECONDS));
+		TimeUnit.MILLISECONDS.sleep(300);
+
+		Assert.assertEquals(1, anzahlAufrufe.get());
+		Assert.assertTrue("Aufruf zu früh: " + (aufrufZeit.get() - jetzt), aufrufZeit.get() >= (jetzt + 500));
+		prozess.close();
+	}
+
+	/**
+	 * Testet die Ausführung der Beobachteraufrufe über eine separate
+	 * Ausführung und die Erfassung des Verzugs.
+	 *
+	 * @throws InterruptedException
+	 *             wenn der Test unterbrochen wird
+	 */
+	@Test
+	public void testAlarmAusfuehrung() throws InterruptedException {
+		final ExecutorService ausfuehrung = AlarmAusfuehrung.begrenzt(1, 16);
+		final KontrollProzess<Long> prozess = new KontrollProzess<>();
+		final AtomicReference<String> threadName = new AtomicReference<>();
+		final CountDownLatch aufgerufen = new CountDownLatch(1);
+
+		prozess.setAlarmAusfuehrung(ausfuehrung);
+		prozess.addListener(new IKontrollProzessListener<Long>() {
+
+			@Override
+			public void trigger(final Long information) {
+				threadName.set(Thread.currentThread().getName());
+				aufgerufen.countDown();
+			}
+		});
+
+		prozess.setNaechstenAufrufZeitpunkt(System.currentTimeMillis() + 50);
+		Assert.assertTrue(aufgerufen.await(2, TimeUnit.SECONDS));
+
+		Assert.assertTrue(threadName.get(), threadName.get().startsWith("Alarm-"));
+		Assert.assertEquals(1, prozess.getVerzugsStatistik().getAnzahl());
+		Assert.assertTrue(prozess.getVerzugsStatistik().toString(),
+				prozess.getVerzugsStatistik().getMaximalerVerzug() < 200);
+		prozess.close();
+		ausfuehrung.shutdown();
+	}
+
+	/**
+	 * Testet, dass ein Beobachter, der den Kontrollprozess während seines
+	 * Aufrufs erneut fällig werden lässt, nicht parallel zu sich selbst
+	 * aufgerufen wird.
+	 *
+	 * @throws InterruptedException
+	 *             wenn der Test unterbrochen wird
+	 */
+	@Test
+	public void testKeineParalleleAusfuehrung() throws InterruptedException {
+		final int anzahl = 5;
+		final KontrollProzess<Long> prozess = new KontrollProzess<>();
+		final AtomicInteger aktiv = new AtomicInteger();
+		final AtomicInteger maxAktiv = new AtomicInteger();
+		final CountDownLatch aufgerufen = new CountDownLatch(anzahl);
+
+		prozess.addListener(new IKontrollProzessListener<Long>() {
+
+			@Override
+			public void trigger(final Long information) {
+				final int jetztAktiv = aktiv.incrementAndGet();
+				if (jetztAktiv > maxAktiv.get()) {
+					maxAktiv.set(jetztAktiv);
+				}
+				if (aufgerufen.getCount() > 1) {
+					/* ein unveränderter Zeitpunkt würde ignoriert */
+					prozess.setNaechstenAufrufZeitpunkt(prozess.getNaechstenAufrufZeitpunkt() + 1);
+				}
+				try {
+					TimeUnit.MILLISECONDS.sleep(50);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				aktiv.decrementAndGet();
+				aufgerufen.countDown();
+			}
+		});
+
+		prozess.setNaechstenAufrufZeitpunkt(System.currentTimeMillis());
+		Assert.assertTrue(aufgerufen.await(5, TimeUnit.SECONDS));
+		Assert.assertEquals(1, maxAktiv.get());
+		prozess.close();
+	}
+
+	/**
+	 * Testet, dass wiederholtes Verschieben des Aufrufzeitpunktes nach hinten
+	 * (wie in der Ausfallüberwachung für jedes empfangene Datum) jeweils den
+	 * zuletzt gesetzten Zeitpunkt übernimmt und keinen Aufruf auslöst.
+	 */
+	@Test
+	public void testUmplanen() {
+		final int anzahl = 1000;
+		final KontrollProzess<Long> prozess = new KontrollProzess<>();
+		final AtomicInteger anzahlAufrufe = new AtomicInteger();
+		prozess.addListener(new IKontrollProzessListener<Long>() {
+
+			@Override
+			public void trigger(final Long information) {
+				anzahlAufrufe.incrementAndGet();
+			}
+		});
+		final long start = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+
+		prozess.setNaechstenAufrufZeitpunkt(start);
+		for (int i = 1; i <= anzahl; i++) {
+			prozess.setNaechstenAufrufZeitpunkt(start + i);
+			Assert.assertEquals(start + i, prozess.getNaechstenAufrufZeitpunkt());
+		}
+		prozess.close();
+
+		Assert.assertEquals(0, anzahlAufrufe.get());
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testet die Klasse <code>LongLongHashMap</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestLongLongHashMap {
+
+	/**
+	 * Vergleicht die Map bei zufälligem Setzen und Entfernen mit einer
+	 * <code>HashMap</code>.
+	 */
+	@Test
+	public void testVergleichMitHashMap() {
+		final Random zufall = new Random(4711);
+		final LongLongHashMap map = new LongLongHashMap();
+		final Map<Long, Long> referenz = new HashMap<>();
+
+		for (int i = 0; i < 500000; i++) {
+			/* auch negative Schlüssel und die 0 */
+			final long schluessel = zufall.nextInt(2000) - 100;
+			switch (zufall.nextInt(3)) {
+			case 0:
+				Assert.assertEquals(referenz.remove(schluessel) != null, map.remove(schluessel));
+				break;
+			default:
+				final long wert = zufall.nextLong();
+				final Long alterWert = referenz.put(schluessel, wert);
+				Assert.assertEquals(alterWert != null ? alterWert : -1, map.put(schluessel, wert, -1));
+				break;
+			}
+			Assert.assertEquals(referenz.size(), map.size());
+		}
+
+		for (long schluessel = -100; schluessel < 1900; schluessel++) {
+			Assert.assertEquals(referenz.containsKey(schluessel), map.containsKey(schluessel));
+			Assert.assertEquals(referenz.containsKey(schluessel) ? referenz.get(schluessel) : 42,
+					map.get(schluessel, 42));
+		}
+
+		map.clear();
+		Assert.assertTrue(map.isEmpty());
+		Assert.assertFalse(map.containsKey(0));
+	}
+}
@@ -0,0 +1,418 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.bsvrz.dav.daf.main.Data;
+import de.bsvrz.dav.daf.main.ResultData;
+
+/**
+ * Testet die Klasse <code>MesswertBlock</code>. Die Daten werden durch
+ * Platzhalter ersetzt, die nur die von <code>MesswertZugriff</code>
+ * verwendeten Zugriffe auf Unterattribute und unskalierte Werte nachbilden,
+ * so dass keine Datenverteilerverbindung benötigt wird.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestMesswertBlock {
+
+	/**
+	 * der Attributname der Messwerte.
+	 */
+	private static final String ATT = "qKfz";
+
+	/**
+	 * Platzhalter für ein Datum bzw. ein Unterattribut. Die unskalierten Werte
+	 * werden unter ihrem Pfad (z.B. <code>qKfz.Güte.Index</code>) in einer
+	 * gemeinsamen Tabelle abgelegt, nicht belegte Werte sind 0.
+	 */
+	private static final class DatenPlatzhalter implements InvocationHandler {
+
+		/**
+		 * die Werte des gesamten Datums.
+		 */
+		private final Map<String, Long> werte;
+
+		/**
+		 * der Pfad dieses Attributs (leer für das Datum selbst).
+		 */
+		private final String pfad;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param werte
+		 *            die Werte des gesamten Datums
+		 * @param pfad
+		 *            der Pfad dieses Attributs
+		 */
+		private DatenPlatzhalter(final Map<String, Long> werte, final String pfad) {
+			this.werte = werte;
+			this.pfad = pfad;
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) {
+			final String name = method.getName();
+			if ("getItem".equals(name)) {
+				return TestMesswertBlock.erzeugeDatum(werte, pfad + args[0] + ".");
+			}
+			if ("getUnscaledValue".equals(name) || "getScaledValue".equals(name)) {
+				return TestMesswertBlock.erzeugeWert(werte, pfad + args[0]);
+			}
+			if ("createModifiableCopy".equals(name)) {
+				return TestMesswertBlock.erzeugeDatum(new HashMap<>(werte), pfad);
+			}
+			if ("getAttributeType".equals(name)) {
+				return null;
+			}
+			if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			if ("equals".equals(name)) {
+				return proxy == args[0];
+			}
+			if ("toString".equals(name)) {
+				return pfad + werte;
+			}
+			throw new UnsupportedOperationException(name);
+		}
+	}
+
+	/**
+	 * Erzeugt ein Datum (bzw. ein Unterattribut) über den übergebenen Werten.
+	 *
+	 * @param werte
+	 *            die Werte des gesamten Datums
+	 * @param pfad
+	 *            der Pfad des Attributs
+	 * @return das Datum
+	 */
+	private static Data erzeugeDatum(final Map<String, Long> werte, final String pfad) {
+		return (Data) Proxy.newProxyInstance(Data.class.getClassLoader(), new Class<?>[] { Data.class },
+				new DatenPlatzhalter(werte, pfad));
+	}
+
+	/**
+	 * Erzeugt einen Zahlenwert, der unter dem übergebenen Pfad gelesen und
+	 * geschrieben wird.
+	 *
+	 * @param werte
+	 *            die Werte des gesamten Datums
+	 * @param pfad
+	 *            der Pfad des Wertes
+	 * @return der Zahlenwert
+	 */
+	private static Data.NumberValue erzeugeWert(final Map<String, Long> werte, final String pfad) {
+		return (Data.NumberValue) Proxy.newProxyInstance(Data.class.getClassLoader(),
+				new Class<?>[] { Data.NumberValue.class }, new InvocationHandler() {
+
+					@Override
+					public Object invoke(final Object proxy, final Method method, final Object[] args) {
+						final Long wert = werte.get(pfad);
+						final long aktuell = wert != null ? wert : 0;
+						final String name = method.getName();
+						if ("set".equals(name)) {
+							werte.put(pfad, ((Number) args[0]).longValue());
+							return null;
+						}
+						if ("longValue".equals(name)) {
+							return aktuell;
+						}
+						if ("intValue".equals(name)) {
+							return (int) aktuell;
+						}
+						if ("doubleValue".equals(name)) {
+							return (double) aktuell;
+						}
+						if ("toString".equals(name)) {
+							return pfad + "=" + aktuell;
+						}
+						throw new UnsupportedOperationException(name);
+					}
+				});
+	}
+
+	/**
+	 * Erzeugt einen Datensatz mit einem Datum für das Attribut
+	 * <code>qKfz</code>.
+	 *
+	 * @param wert
+	 *            der unskalierte Wert
+	 * @param guete
+	 *            der unskalierte Güte-Index
+	 * @param implausibel
+	 *            ob der Wert als implausibel markiert ist
+	 * @param interpoliert
+	 *            ob der Wert als interpoliert markiert ist
+	 * @return der Datensatz
+	 */
+	private static ResultData erzeugeResultat(final long wert, final long guete, final boolean implausibel,
+			final boolean interpoliert) {
+		final Map<String, Long> werte = new HashMap<>();
+		werte.put(TestMesswertBlock.ATT + ".Wert", wert);
+		werte.put(TestMesswertBlock.ATT + ".Güte.Index", guete);
+		werte.put(TestMesswertBlock.ATT + ".Güte.Verfahren", 1L);
+		werte.put(TestMesswertBlock.ATT + ".Status.MessWertErsetzung.Implausibel",
+				(long) (implausibel ? DUAKonstanten.JA : DUAKonstanten.NEIN));
+		werte.put(TestMesswertBlock.ATT + ".Status.MessWertErsetzung.Interpoliert",
+				(long) (interpoliert ? DUAKonstanten.JA : DUAKonstanten.NEIN));
+		final Data datum = TestMesswertBlock.erzeugeDatum(werte, "");
+		return new ResultData(null, null, 0, datum);
+	}
+
+	/**
+	 * Liest einen unskalierten Wert eines Datums über seinen Pfad.
+	 *
+	 * @param datum
+	 *            das Datum
+	 * @param pfad
+	 *            der Pfad unterhalb des Attributs <code>qKfz</code>
+	 * @return der Wert
+	 */
+	private static long lese(final Data datum, final String... pfad) {
+		Data item = datum.getItem(TestMesswertBlock.ATT);
+		for (int i = 0; i < (pfad.length - 1); i++) {
+			item = item.getItem(pfad[i]);
+		}
+		return item.getUnscaledValue(pfad[pfad.length - 1]).longValue();
+	}
+
+	/**
+	 * Prüft, dass beim Füllen Wert, Markierungen und Güte aller Datensätze
+	 * gelesen, Datensätze ohne Daten übergangen und die Felder bei Bedarf
+	 * vergrößert werden.
+	 */
+	@Test
+	public void testFuelle() {
+		final MesswertBlock block = new MesswertBlock(TestMesswertBlock.ATT, 1);
+		final ResultData erster = TestMesswertBlock.erzeugeResultat(100, 9000, false, false);
+		final ResultData zweiter = TestMesswertBlock.erzeugeResultat(200, 8000, true, true);
+
+		Assert.assertEquals(2, block.fuelle(new ResultData[] { erster, null, new ResultData(null, null, 0, null),
+				zweiter }));
+		Assert.assertEquals(2, block.getAnzahl());
+		Assert.assertTrue(block.getWerte().length >= 2);
+
+		Assert.assertSame(erster, block.getResultat(0));
+		Assert.assertEquals(100, block.getWert(0));
+		Assert.assertEquals(0, block.getMarkierungen(0));
+		Assert.assertEquals(9000, block.getGueteIndex(0));
+		Assert.assertEquals(1, block.getVerfahren(0));
+
+		Assert.assertSame(zweiter, block.getResultat(1));
+		Assert.assertEquals(200, block.getWert(1));
+		Assert.assertEquals(MesswertMarkierung.IMPLAUSIBEL | MesswertMarkierung.INTERPOLIERT,
+				block.getMarkierungen(1));
+		Assert.assertEquals(8000, block.getGueteIndex(1));
+		Assert.assertTrue(block.isFehlerhaftBzwImplausibel(1));
+		Assert.assertEquals(MesswertMarkierung.IMPLAUSIBEL | MesswertMarkierung.INTERPOLIERT,
+				block.getMarkierungenVereinigt());
+
+		final long[] werte = block.getWerte();
+		Assert.assertEquals(1, block.fuelle(new ResultData[] { zweiter }));
+		Assert.assertSame(werte, block.getWerte());
+		Assert.assertSame(zweiter, block.getResultat(0));
+
+		Assert.assertEquals(0, block.fuelle(null));
+	}
+
+	/**
+	 * Prüft das Hinzufügen einzelner Datensätze und das Leeren des Blocks.
+	 */
+	@Test
+	public void testFuegeHinzuUndLeere() {
+		final MesswertBlock block = new MesswertBlock(TestMesswertBlock.ATT, 0);
+		for (int i = 0; i < 5; i++) {
+			Assert.assertEquals(i, block.fuegeHinzu(TestMesswertBlock.erzeugeResultat(100 + i, 10000 - i, false,
+					false)));
+		}
+		Assert.assertEquals(5, block.getAnzahl());
+		for (int i = 0; i < 5; i++) {
+			Assert.assertEquals(100 + i, block.getWert(i));
+			Assert.assertEquals(10000 - i, block.getGueteIndex(i));
+		}
+
+		final long[] werte = block.getWerte();
+		block.leere();
+		Assert.assertEquals(0, block.getAnzahl());
+		Assert.assertEquals(0, block.getMarkierungenVereinigt());
+		Assert.assertSame(werte, block.getWerte());
+		try {
+			block.getResultat(0);
+			Assert.fail("Platz 0 ist nach dem Leeren nicht belegt");
+		} catch (final IndexOutOfBoundsException e) {
+			/* erwartet */
+		}
+	}
+
+	/**
+	 * Prüft, dass auf nicht belegte Plätze nicht zugegriffen werden kann.
+	 */
+	@Test
+	public void testPruefePlatz() {
+		final MesswertBlock block = new MesswertBlock(TestMesswertBlock.ATT, 4);
+		block.fuegeHinzu(TestMesswertBlock.erzeugeResultat(1, 1, false, false));
+		block.getWert(0);
+
+		for (final int platz : new int[] { -1, 1, 3 }) {
+			try {
+				block.getWert(platz);
+				Assert.fail("Platz " + platz + " ist nicht belegt");
+			} catch (final IndexOutOfBoundsException e) {
+				/* erwartet */
+			}
+			try {
+				block.setMarkierungen(platz, MesswertMarkierung.ALLE);
+				Assert.fail("Platz " + platz + " ist nicht belegt");
+			} catch (final IndexOutOfBoundsException e) {
+				/* erwartet */
+			}
+		}
+	}
+
+	/**
+	 * Prüft, dass beim Setzen der Markierungen nur die Bits aus
+	 * <code>MesswertMarkierung.ALLE</code> übernommen werden.
+	 */
+	@Test
+	public void testMarkierungen() {
+		final MesswertBlock block = new MesswertBlock(TestMesswertBlock.ATT, 2);
+		block.fuegeHinzu(TestMesswertBlock.erzeugeResultat(1, 1, false, false));
+		block.fuegeHinzu(TestMesswertBlock.erzeugeResultat(1, 1, false, false));
+
+		block.setMarkierungen(0, -1);
+		Assert.assertEquals(MesswertMarkierung.ALLE, block.getMarkierungen(0));
+
+		block.setMarkierungen(0, MesswertMarkierung.FORMAL_MAX | (1 << 20));
+		block.setMarkierungen(1, MesswertMarkierung.INTERPOLIERT);
+		Assert.assertEquals(MesswertMarkierung.FORMAL_MAX, block.getMarkierungen(0));
+		Assert.assertEquals(MesswertMarkierung.FORMAL_MAX | MesswertMarkierung.INTERPOLIERT,
+				block.getMarkierungenVereinigt());
+	}
+
+	/**
+	 * Prüft, dass die geänderten Messwerte in Kopien der Daten geschrieben
+	 * werden, die Originaldaten aber unverändert bleiben.
+	 */
+	@Test
+	public void testSchreibeKopien() {
+		final MesswertBlock block = new MesswertBlock(TestMesswertBlock.ATT, 2);
+		final ResultData erster = TestMesswertBlock.erzeugeResultat(100, 9000, true, false);
+		final ResultData zweiter = TestMesswertBlock.erzeugeResultat(200, 8000, false, false);
+		block.fuelle(new ResultData[] { erster, zweiter });
+
+		block.setWert(0, 150);
+		block.setMarkierungen(0, MesswertMarkierung.INTERPOLIERT);
+		block.setGueteIndex(0, 7500);
+		block.setWert(1, DUAKonstanten.FEHLERHAFT);
+
+		Data[] kopien = block.schreibeKopien(false);
+		Assert.assertEquals(2, kopien.length);
+		Assert.assertEquals(150, TestMesswertBlock.lese(kopien[0], "Wert"));
+		Assert.assertEquals(DUAKonstanten.NEIN,
+				TestMesswertBlock.lese(kopien[0], "Status", "MessWertErsetzung", "Implausibel"));
+		Assert.assertEquals(DUAKonstanten.JA,
+				TestMesswertBlock.lese(kopien[0], "Status", "MessWertErsetzung", "Interpoliert"));
+		Assert.assertEquals(7500, TestMesswertBlock.lese(kopien[0], "Güte", "Index"));
+		Assert.assertEquals(1, TestMesswertBlock.lese(kopien[0], "Güte", "Verfahren"));
+		Assert.assertEquals(DUAKonstanten.FEHLERHAFT, TestMesswertBlock.lese(kopien[1], "Wert"));
+		Assert.assertEquals(8000, TestMesswertBlock.lese(kopien[1], "Güte", "Index"));
+
+		Assert.assertEquals(100, TestMesswertBlock.lese(erster.getData(), "Wert"));
+		Assert.assertEquals(DUAKonstanten.JA,
+				TestMesswertBlock.lese(erster.getData(), "Status", "MessWertErsetzung", "Implausibel"));
+		Assert.assertEquals(9000, TestMesswertBlock.lese(erster.getData(), "Güte", "Index"));
+
+		kopien = block.schreibeKopien(true);
+		Assert.assertEquals(7500, TestMesswertBlock.lese(kopien[0], "Güte", "Index"));
+		Assert.assertEquals(0, TestMesswertBlock.lese(kopien[1], "Güte", "Index"));
+	}
+
+	/**
+	 * Prüft, dass Wert, Markierungen und Güte über einen Messwert unverändert
+	 * in einen anderen Platz übertragen werden.
+	 */
+	@Test
+	public void testKopiereNachUndUebernimm() {
+		final MesswertBlock block = new MesswertBlock(TestMesswertBlock.ATT, 2);
+		block.fuegeHinzu(TestMesswertBlock.erzeugeResultat(1234, 9500, false, true));
+		block.fuegeHinzu(TestMesswertBlock.erzeugeResultat(0, 0, false, false));
+
+		final MesswertUnskaliert messwert = new MesswertUnskaliert(TestMesswertBlock.ATT);
+		block.kopiereNach(0, messwert);
+		Assert.assertEquals(1234, messwert.getWertUnskaliert());
+		Assert.assertEquals(MesswertMarkierung.INTERPOLIERT, messwert.getMarkierungen());
+		Assert.assertEquals(9500, messwert.getGueteIndexWert());
+		Assert.assertEquals(1, messwert.getVerfahren());
+
+		block.uebernimm(1, messwert);
+		Assert.assertEquals(block.getWert(0), block.getWert(1));
+		Assert.assertEquals(block.getMarkierungen(0), block.getMarkierungen(1));
+		Assert.assertEquals(block.getGueteIndex(0), block.getGueteIndex(1));
+		Assert.assertEquals(block.getVerfahren(0), block.getVerfahren(1));
+	}
+
+	/**
+	 * Prüft, dass skalierte Messwerte weder gefüllt noch übernommen werden.
+	 */
+	@Test
+	public void testSkalierterMesswert() {
+		final MesswertBlock block = new MesswertBlock(TestMesswertBlock.ATT, 1);
+		block.fuegeHinzu(TestMesswertBlock.erzeugeResultat(1234, 9500, false, false));
+
+		final AbstraktMesswert skaliert = new AbstraktMesswert(TestMesswertBlock.ATT) {
+
+			@Override
+			public boolean isSkaliert() {
+				return true;
+			}
+		};
+		try {
+			block.kopiereNach(0, skaliert);
+			Assert.fail("Skalierte Messwerte werden nicht unterstützt");
+		} catch (final IllegalArgumentException e) {
+			/* erwartet */
+		}
+		try {
+			block.uebernimm(0, skaliert);
+			Assert.fail("Skalierte Messwerte werden nicht unterstützt");
+		} catch (final IllegalArgumentException e) {
+			/* erwartet */
+		}
+		Assert.assertEquals(1234, block.getWert(0));
+	}
+}
@@ -0,0 +1,174 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testet die Klasse <code>MesswertMarkierung</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestMesswertMarkierung {
+
+	/**
+	 * Prüft, dass die einzelnen Setter genau ihr Bit setzen bzw. löschen.
+	 */
+	@Test
+	public void testEinzelneMarkierungen() {
+		final MesswertMarkierung m = new MesswertMarkierung();
+		Assert.assertEquals(0, m.getMarkierungen());
+		Assert.assertFalse(m.isVeraendert());
+
+		m.setNichtErfasst(true);
+		m.setFormalMax(true);
+		m.setFormalMin(true);
+		m.setLogischMax(true);
+		m.setLogischMin(true);
+		m.setImplausibel(true);
+		m.setInterpoliert(true);
+		Assert.assertEquals(MesswertMarkierung.ALLE, m.getMarkierungen());
+		Assert.assertTrue(m.isVeraendert());
+
+		m.setFormalMin(false);
+		m.setImplausibel(false);
+		Assert.assertFalse(m.isFormalMin());
+		Assert.assertFalse(m.isImplausibel());
+		Assert.assertTrue(m.isNichtErfasst() && m.isFormalMax() && m.isLogischMax() && m.isLogischMin()
+				&& m.isInterpoliert());
+		Assert.assertEquals(MesswertMarkierung.ALLE & ~(MesswertMarkierung.FORMAL_MIN | MesswertMarkierung.IMPLAUSIBEL),
+				m.getMarkierungen());
+	}
+
+	/**
+	 * Prüft Vereinigung, Schnitt und Test auf gesetzte Markierungen.
+	 */
+	@Test
+	public void testBitoperationen() {
+		final MesswertMarkierung a = new MesswertMarkierung();
+		a.setFormalMax(true);
+		final MesswertMarkierung b = new MesswertMarkierung();
+		b.setImplausibel(true);
+		b.setInterpoliert(true);
+
+		a.vereinige(b);
+		Assert.assertTrue(a.isFormalMax() && a.isImplausibel() && a.isInterpoliert());
+		Assert.assertTrue(a.isEineGesetzt(MesswertMarkierung.IMPLAUSIBEL | MesswertMarkierung.NICHT_ERFASST));
+		Assert.assertFalse(a.isEineGesetzt(MesswertMarkierung.NICHT_ERFASST | MesswertMarkierung.LOGISCH_MIN));
+
+		a.maskiere(MesswertMarkierung.FORMAL_MAX | MesswertMarkierung.FORMAL_MIN);
+		Assert.assertEquals(MesswertMarkierung.FORMAL_MAX, a.getMarkierungen());
+
+		a.setMarkierungen(-1);
+		Assert.assertEquals(MesswertMarkierung.ALLE, a.getMarkierungen());
+	}
+
+	/**
+	 * Prüft Gleichheit und Hash-Wert.
+	 */
+	@Test
+	public void testGleichheit() {
+		final MesswertMarkierung a = new MesswertMarkierung();
+		final MesswertMarkierung b = new MesswertMarkierung();
+		Assert.assertEquals(a, b);
+
+		a.setLogischMin(true);
+		Assert.assertFalse(a.equals(b));
+
+		b.vereinige(MesswertMarkierung.LOGISCH_MIN);
+		b.setVeraendert(false);
+		Assert.assertEquals(a, b);
+		Assert.assertEquals(a.hashCode(), b.hashCode());
+		Assert.assertFalse(a.equals(null));
+	}
+
+	/**
+	 * Skalierter Messwert ohne Attribut für die Tests.
+	 */
+	private static final class SkalierterMesswert extends AbstraktMesswert {
+
+		/**
+		 * Konstruktor.
+		 */
+		private SkalierterMesswert() {
+			super(null);
+		}
+
+		@Override
+		public boolean isSkaliert() {
+			return true;
+		}
+	}
+
+	/**
+	 * Prüft, dass Markierung und Messwert mit gleichen Markierungen in beiden
+	 * Richtungen ungleich sind.
+	 */
+	@Test
+	public void testSymmetrie() {
+		final MesswertMarkierung markierung = new MesswertMarkierung();
+		final MesswertUnskaliert messwert = new MesswertUnskaliert("Wert");
+		markierung.setImplausibel(true);
+		messwert.setImplausibel(true);
+
+		Assert.assertFalse(markierung.equals(messwert));
+		Assert.assertFalse(messwert.equals(markierung));
+		Assert.assertFalse(new SkalierterMesswert().equals(new MesswertUnskaliert(null)));
+		Assert.assertFalse(new MesswertUnskaliert(null).equals(new SkalierterMesswert()));
+	}
+
+	/**
+	 * Prüft, dass skalierte Messwerte über den skalierten Wert und unskalierte
+	 * über den unskalierten Wert verglichen werden.
+	 */
+	@Test
+	public void testGleichheitMesswerte() {
+		final SkalierterMesswert a = new SkalierterMesswert();
+		final SkalierterMesswert b = new SkalierterMesswert();
+		a.setWertSkaliert(1.5);
+		b.setWertSkaliert(2.5);
+		Assert.assertFalse(a.equals(b));
+		Assert.assertFalse(b.equals(a));
+
+		b.setWertSkaliert(1.5);
+		Assert.assertEquals(a, b);
+		Assert.assertEquals(a.hashCode(), b.hashCode());
+
+		b.setGueteIndexWert(5000);
+		Assert.assertFalse(a.equals(b));
+
+		final MesswertUnskaliert c = new MesswertUnskaliert("Wert");
+		final MesswertUnskaliert d = new MesswertUnskaliert("Wert");
+		c.setWertUnskaliert(10);
+		d.setWertUnskaliert(10);
+		Assert.assertEquals(c, d);
+		d.setWertUnskaliert(11);
+		Assert.assertFalse(c.equals(d));
+	}
+}
@@ -148,6 +148,33 @@ public class TestObjektWecker {
 		}
 	}
 
+	/**
+	 * Testet, dass ein beendeter Wecker alle Weckzeitpunkte verwirft und neue
+	 * Weckzeitpunkte ohne Fehler ignoriert.
+	 */
+	@Test
+	public void testClose() {
+		final IObjektWeckerListener objekt = new IObjektWeckerListener() {
+
+			@Override
+			public void alarm() {
+				Assert.fail("Ein beendeter Wecker darf nicht alarmieren");
+			}
+		};
+		final long jetzt = System.currentTimeMillis();
+
+		wecker.setWecker(objekt, jetzt + TimeUnit.HOURS.toMillis(1));
+		Assert.assertTrue(wecker.isWeckerGestelltFuer(objekt));
+
+		wecker.close();
+		Assert.assertFalse(wecker.isWeckerGestelltFuer(objekt));
+
+		wecker.setWecker(objekt, jetzt + TimeUnit.SECONDS.toMillis(1));
+		Assert.assertFalse(wecker.isWeckerGestelltFuer(objekt));
+		wecker.setWecker(objekt, ObjektWecker.AUS);
+		Assert.assertFalse(wecker.isWeckerGestelltFuer(objekt));
+	}
+
 	/**
 	 * Instanzen dieser Klasse werden geweckt.
 	 */
@@ -0,0 +1,178 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+package de.bsvrz.sys.funclib.bitctrl.dua;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testet die Klasse <code>ZeitRad</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestZeitRad {
+
+	/**
+	 * Testet Ein-, Um- und Ausplanen sowie die Fälligkeit innerhalb eines
+	 * Ticks.
+	 */
+	@Test
+	public void testEinplanen() {
+		final ZeitRad<String> rad = new ZeitRad<>(10, 8);
+		final List<String> faellige = new ArrayList<>();
+
+		rad.ziehe(1000, faellige);
+		Assert.assertTrue(faellige.isEmpty());
+
+		Assert.assertEquals(1050, rad.setze("a", 1050));
+		Assert.assertEquals(1060, rad.setze("b", 1055));
+		Assert.assertEquals(1500, rad.setze("c", 1500));
+		Assert.assertEquals(3, rad.size());
+		Assert.assertEquals(1050, rad.getNaechsterBelegterTickZeitpunkt());
+
+		/* umplanen und ausplanen */
+		rad.setze("a", 1200);
+		Assert.assertEquals(1200, rad.getZeitpunkt("a"));
+		Assert.assertTrue(rad.entferne("c"));
+		Assert.assertFalse(rad.entferne("c"));
+		Assert.assertFalse(rad.isEingeplant("c"));
+
+		rad.ziehe(1059, faellige);
+		Assert.assertTrue(faellige.isEmpty());
+		rad.ziehe(1060, faellige);
+		Assert.assertEquals(1, faellige.size());
+		Assert.assertEquals("b", faellige.get(0));
+		Assert.assertFalse(rad.isEingeplant("b"));
+
+		/* "a" liegt mehr als einen Umlauf (80ms) in der Zukunft */
+		faellige.clear();
+		rad.ziehe(1199, faellige);
+		Assert.assertTrue(faellige.isEmpty());
+		rad.ziehe(1200, faellige);
+		Assert.assertEquals(1, faellige.size());
+		Assert.assertTrue(rad.isLeer());
+		Assert.assertEquals(-1, rad.getNaechsterBelegterTickZeitpunkt());
+
+		/* Weckzeitpunkte in der Vergangenheit werden im nächsten Tick fällig */
+		faellige.clear();
+		rad.setze("d", 500);
+		rad.ziehe(1210, faellige);
+		Assert.assertEquals(1, faellige.size());
+	}
+
+	/**
+	 * Testet, dass nach einem großen Zeitsprung alle fälligen Objekte
+	 * gemeinsam entnommen werden.
+	 */
+	@Test
+	public void testZeitSprung() {
+		final ZeitRad<Integer> rad = new ZeitRad<>(10, 16);
+		final List<Integer> faellige = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			rad.setze(i, 10000 + (i * 7));
+		}
+
+		rad.ziehe(10000 + (500 * 7), faellige);
+		Assert.assertEquals(501, faellige.size());
+		Assert.assertEquals(499, rad.size());
+
+		rad.ziehe(Long.MAX_VALUE / 2, faellige);
+		Assert.assertEquals(1000, faellige.size());
+		Assert.assertTrue(rad.isLeer());
+	}
+
+	/**
+	 * Testet, dass nach dem Leeren keine Objekte mehr eingeplant sind und das
+	 * Rad neu gestartet werden kann.
+	 */
+	@Test
+	public void testLeere() {
+		final ZeitRad<String> rad = new ZeitRad<>(10, 8);
+		final List<String> faellige = new ArrayList<>();
+		rad.ziehe(1000, faellige);
+		rad.setze("a", 1050);
+		rad.setze("b", 5000);
+
+		rad.leere();
+		Assert.assertTrue(rad.isLeer());
+		Assert.assertFalse(rad.isEingeplant("a"));
+		Assert.assertEquals(-1, rad.getNaechsterBelegterTickZeitpunkt());
+
+		/* Weckzeitpunkte vor dem letzten Ziehen sind nach dem Leeren zulässig */
+		rad.setze("c", 500);
+		rad.ziehe(500, faellige);
+		Assert.assertEquals(1, faellige.size());
+		Assert.assertEquals("c", faellige.get(0));
+
+		rad.ziehe(6000, faellige);
+		Assert.assertEquals(1, faellige.size());
+	}
+
+	/**
+	 * Misst den Durchsatz beim Umplanen von Weckzeitpunkten (wie in der
+	 * Ausfallüberwachung für jedes empfangene Datum) und gibt ihn aus. Der
+	 * Wert hängt von der Maschine ab und wird daher nicht geprüft.
+	 */
+	@Test
+	public void testDurchsatzUmplanen() {
+		final int anzahlObjekte = 50000;
+		final int anzahlUmplanungen = 5000000;
+		final ZeitRad<Integer> rad = new ZeitRad<>();
+		final Integer[] objekte = new Integer[anzahlObjekte];
+		final Random random = new Random(4711);
+		final long start = 1000000000L;
+		final long[] zeitpunkte = new long[4096];
+
+		for (int i = 0; i < zeitpunkte.length; i++) {
+			zeitpunkte[i] = start + random.nextInt(120000);
+		}
+		for (int i = 0; i < anzahlObjekte; i++) {
+			objekte[i] = i;
+			rad.setze(objekte[i], zeitpunkte[i % zeitpunkte.length]);
+		}
+		rad.ziehe(start - 1, new ArrayList<Integer>());
+
+		/* Aufwärmen */
+		for (int i = 0; i < anzahlUmplanungen; i++) {
+			rad.setze(objekte[i % anzahlObjekte], zeitpunkte[i & 4095]);
+		}
+
+		final long t0 = System.nanoTime();
+		for (int i = 0; i < anzahlUmplanungen; i++) {
+			rad.setze(objekte[i % anzahlObjekte], zeitpunkte[(i * 31) & 4095]);
+		}
+		final long dauer = Math.max(1, System.nanoTime() - t0);
+
+		final double proSekunde = (anzahlUmplanungen * 1.0e9) / dauer;
+		System.out.println("ZeitRad: " + Math.round(proSekunde) + " Umplanungen/s");
+		Assert.assertEquals(anzahlObjekte, rad.size());
+	}
+}
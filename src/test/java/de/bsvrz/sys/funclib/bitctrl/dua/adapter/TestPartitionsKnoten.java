@@ -0,0 +1,483 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.adapter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.bsvrz.dav.daf.main.ResultData;
+import de.bsvrz.sys.funclib.bitctrl.dua.dfs.schnittstellen.IDatenFlussSteuerung;
+import de.bsvrz.sys.funclib.bitctrl.dua.dfs.typen.ModulTyp;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IBearbeitungsKnoten;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IVerwaltung;
+
+/**
+ * Testet die Klasse <code>PartitionsKnoten</code>. Die Daten tragen die
+ * Objektnummer und eine laufende Nummer im Datenzeitstempel.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestPartitionsKnoten {
+
+	/**
+	 * Anzahl der Objekte.
+	 */
+	private static final int OBJEKTE = 1000;
+
+	/**
+	 * Anzahl der Felder pro Durchlauf.
+	 */
+	private static final int FELDER = 100;
+
+	/**
+	 * Partitionierung nach der Objektnummer im Datenzeitstempel.
+	 */
+	private static final class TestPartitionsKnotenMitZeit extends PartitionsKnoten {
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param instanzen
+		 *            die Instanzen der Stufe
+		 */
+		private TestPartitionsKnotenMitZeit(final List<? extends IBearbeitungsKnoten> instanzen) {
+			super("Test", instanzen);
+		}
+
+		@Override
+		protected long getSchluessel(final ResultData resultat) {
+			return resultat.getDataTime() % TestPartitionsKnoten.OBJEKTE;
+		}
+	}
+
+	/**
+	 * Synthetische Stufe: wartet pro Feld (z.B. auf eine Sperre oder den
+	 * Datenverteiler), rechnet pro Datum und prüft die Reihenfolge pro Objekt.
+	 */
+	private static class Stufe implements IBearbeitungsKnoten {
+
+		/**
+		 * die zuletzt bearbeitete laufende Nummer pro Objekt.
+		 */
+		protected final Map<Long, Long> letzte = new HashMap<>();
+
+		/**
+		 * nächster Bearbeitungsknoten.
+		 */
+		private IBearbeitungsKnoten knoten;
+
+		/**
+		 * Anzahl der Fehler in der Reihenfolge.
+		 */
+		protected int fehler;
+
+		@Override
+		public void aktualisiereDaten(final ResultData[] resultate) {
+			LockSupport.parkNanos(1000000);
+			for (final ResultData resultat : resultate) {
+				final long ende = System.nanoTime() + 1000;
+				while (System.nanoTime() < ende) {
+					// rechnen
+				}
+				final Long objekt = resultat.getDataTime() % TestPartitionsKnoten.OBJEKTE;
+				final Long nummer = resultat.getDataTime() / TestPartitionsKnoten.OBJEKTE;
+				final Long vorher = letzte.put(objekt, nummer);
+				if ((vorher != null) && (vorher >= nummer)) {
+					fehler++;
+				}
+			}
+			if (knoten != null) {
+				knoten.aktualisiereDaten(resultate);
+			}
+		}
+
+		@Override
+		public void initialisiere(final IVerwaltung verwaltung) {
+			// nichts zu tun
+		}
+
+		@Override
+		public void setNaechstenBearbeitungsKnoten(final IBearbeitungsKnoten knoten1) {
+			knoten = knoten1;
+		}
+
+		@Override
+		public void setPublikation(final boolean publizieren) {
+			// nichts zu tun
+		}
+
+		@Override
+		public ModulTyp getModulTyp() {
+			return null;
+		}
+
+		@Override
+		public void aktualisierePublikation(final IDatenFlussSteuerung dfs) {
+			// nichts zu tun
+		}
+	}
+
+	/**
+	 * Ende der Kette: zählt und prüft die Reihenfolge ohne Wartezeit.
+	 */
+	private static final class Senke extends Stufe {
+
+		/**
+		 * Anzahl der empfangenen Daten.
+		 */
+		private int anzahl;
+
+		/**
+		 * Anzahl der Aufrufe.
+		 */
+		private int aufrufe;
+
+		@Override
+		public void aktualisiereDaten(final ResultData[] resultate) {
+			aufrufe++;
+			for (final ResultData resultat : resultate) {
+				final Long objekt = resultat.getDataTime() % TestPartitionsKnoten.OBJEKTE;
+				final Long nummer = resultat.getDataTime() / TestPartitionsKnoten.OBJEKTE;
+				final Long vorher = letzte.put(objekt, nummer);
+				if ((vorher != null) && (vorher >= nummer)) {
+					fehler++;
+				}
+				anzahl++;
+			}
+		}
+	}
+
+	/**
+	 * Stufe, die (wie eine Ausfallüberwachung ohne parallelen Modus) ihre
+	 * Daten unter ihrem Monitor bearbeitet und aus einem Timer unter demselben
+	 * Monitor Daten weiterleitet.
+	 */
+	private static final class TimerStufe extends Stufe {
+
+		/**
+		 * nächster Bearbeitungsknoten.
+		 */
+		private IBearbeitungsKnoten naechster;
+
+		@Override
+		public synchronized void aktualisiereDaten(final ResultData[] resultate) {
+			super.aktualisiereDaten(resultate);
+		}
+
+		@Override
+		public void setNaechstenBearbeitungsKnoten(final IBearbeitungsKnoten knoten1) {
+			super.setNaechstenBearbeitungsKnoten(knoten1);
+			naechster = knoten1;
+		}
+
+		/**
+		 * Leitet (wie aus einem Timer) ein Datum unter dem Monitor weiter.
+		 *
+		 * @param resultat
+		 *            das weiterzuleitende Datum
+		 */
+		private synchronized void feuere(final ResultData resultat) {
+			naechster.aktualisiereDaten(new ResultData[] { resultat });
+		}
+	}
+
+	/**
+	 * Stufe, die jedes Feld lange bearbeitet bzw. mit einem Fehler abbricht
+	 * und anzeigt, ob sie gerade arbeitet.
+	 */
+	private static final class LangsameStufe extends Stufe {
+
+		/**
+		 * die Dauer der Bearbeitung eines Feldes in ms.
+		 */
+		private final long dauer;
+
+		/**
+		 * ob die Bearbeitung mit einem Fehler abbricht.
+		 */
+		private final boolean fehlerhaft;
+
+		/**
+		 * ob die Stufe gerade arbeitet.
+		 */
+		private volatile boolean aktiv;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param dauer
+		 *            die Dauer der Bearbeitung eines Feldes in ms
+		 * @param fehlerhaft
+		 *            ob die Bearbeitung mit einem Fehler abbricht
+		 */
+		private LangsameStufe(final long dauer, final boolean fehlerhaft) {
+			this.dauer = dauer;
+			this.fehlerhaft = fehlerhaft;
+		}
+
+		@Override
+		public void aktualisiereDaten(final ResultData[] resultate) {
+			aktiv = true;
+			try {
+				if (fehlerhaft) {
+					throw new IllegalStateException("Fehler in der Stufe");
+				}
+				final long ende = System.nanoTime() + (dauer * 1000000);
+				while (System.nanoTime() < ende) {
+					LockSupport.parkNanos(1000000);
+				}
+				super.aktualisiereDaten(resultate);
+			} finally {
+				aktiv = false;
+			}
+		}
+	}
+
+	/**
+	 * Erzeugt ein Feld mit einem Datum pro Objekt.
+	 *
+	 * @return das Feld
+	 */
+	private static ResultData[] erzeugeFeld() {
+		final ResultData[] feld = new ResultData[TestPartitionsKnoten.OBJEKTE];
+		for (int o = 0; o < TestPartitionsKnoten.OBJEKTE; o++) {
+			feld[o] = new ResultData(null, null, o, null);
+		}
+		return feld;
+	}
+
+	/**
+	 * Zählt die Daten eines Feldes, die auf eine Partition entfallen.
+	 *
+	 * @param feld
+	 *            das Feld
+	 * @param partition
+	 *            die Partition
+	 * @param anzahl
+	 *            die Anzahl der Partitionen
+	 * @return die Anzahl der Daten der Partition
+	 */
+	private static int zaehle(final ResultData[] feld, final int partition, final int anzahl) {
+		int n = 0;
+		for (final ResultData resultat : feld) {
+			if (PartitionsKnoten.getPartition(resultat.getDataTime() % TestPartitionsKnoten.OBJEKTE,
+					anzahl) == partition) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Prüft, dass bei einem Fehler der im Thread des Aufrufers bearbeiteten
+	 * Partition trotzdem auf die übrigen Partitionen gewartet und deren
+	 * Ergebnis weitergeleitet wird.
+	 */
+	@Test
+	public void testFehlerInStufe() {
+		final List<LangsameStufe> instanzen = new ArrayList<>();
+		instanzen.add(new LangsameStufe(200, false));
+		instanzen.add(new LangsameStufe(0, true));
+		final ResultData[] feld = TestPartitionsKnoten.erzeugeFeld();
+		final Senke senke = new Senke();
+
+		try (PartitionsKnoten knoten = new TestPartitionsKnotenMitZeit(instanzen)) {
+			knoten.setNaechstenBearbeitungsKnoten(senke);
+			knoten.aktualisiereDaten(feld);
+			Assert.assertFalse("Partition arbeitet noch", instanzen.get(0).aktiv);
+			Assert.assertEquals(TestPartitionsKnoten.zaehle(feld, 0, 2), senke.anzahl);
+			Assert.assertEquals(1, senke.aufrufe);
+		}
+	}
+
+	/**
+	 * Prüft, dass bei einer Unterbrechung des Aufrufers trotzdem auf alle
+	 * Partitionen gewartet und die Unterbrechung danach wieder angezeigt wird.
+	 */
+	@Test
+	public void testUnterbrechung() {
+		final List<LangsameStufe> instanzen = new ArrayList<>();
+		instanzen.add(new LangsameStufe(200, false));
+		instanzen.add(new LangsameStufe(0, false));
+		final ResultData[] feld = TestPartitionsKnoten.erzeugeFeld();
+		final Senke senke = new Senke();
+
+		try (PartitionsKnoten knoten = new TestPartitionsKnotenMitZeit(instanzen)) {
+			knoten.setNaechstenBearbeitungsKnoten(senke);
+			Thread.currentThread().interrupt();
+			knoten.aktualisiereDaten(feld);
+			Assert.assertTrue(Thread.interrupted());
+			Assert.assertFalse("Partition arbeitet noch", instanzen.get(0).aktiv);
+			Assert.assertEquals(TestPartitionsKnoten.OBJEKTE, senke.anzahl);
+		} finally {
+			Thread.interrupted();
+		}
+	}
+
+	/**
+	 * Prüft, dass nach <code>close()</code> übergebene Daten im Thread des
+	 * Aufrufers vollständig bearbeitet werden.
+	 */
+	@Test
+	public void testNachClose() {
+		final List<Stufe> instanzen = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			instanzen.add(new Stufe());
+		}
+		final Senke senke = new Senke();
+		final PartitionsKnoten knoten = new TestPartitionsKnotenMitZeit(instanzen);
+		knoten.setNaechstenBearbeitungsKnoten(senke);
+		knoten.close();
+
+		knoten.aktualisiereDaten(TestPartitionsKnoten.erzeugeFeld());
+		Assert.assertEquals(TestPartitionsKnoten.OBJEKTE, senke.anzahl);
+		Assert.assertEquals(1, senke.aufrufe);
+	}
+
+	/**
+	 * Prüft, dass eine Instanz, die unter ihrem Monitor aus einem Timer Daten
+	 * weiterleitet, während ein anderer Thread den Knoten belegt und ein Feld
+	 * bearbeiten lässt, nicht zu einer Verklemmung führt und alle Daten
+	 * weitergeleitet werden.
+	 *
+	 * @throws InterruptedException
+	 *             wenn der Test unterbrochen wird
+	 */
+	@Test
+	public void testWeiterleitungAusTimer() throws InterruptedException {
+		final List<TimerStufe> instanzen = new ArrayList<>();
+		instanzen.add(new TimerStufe());
+		instanzen.add(new TimerStufe());
+		final ResultData[] feld = new ResultData[TestPartitionsKnoten.OBJEKTE];
+		for (int o = 0; o < TestPartitionsKnoten.OBJEKTE; o++) {
+			feld[o] = new ResultData(null, null, o, null);
+		}
+		final Senke senke = new Senke();
+
+		try (PartitionsKnoten knoten = new TestPartitionsKnotenMitZeit(instanzen)) {
+			knoten.setNaechstenBearbeitungsKnoten(senke);
+
+			final Thread timer = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					instanzen.get(0).feuere(new ResultData(null, null, TestPartitionsKnoten.OBJEKTE * 1000L, null));
+				}
+			});
+			timer.setDaemon(true);
+
+			final Thread dav = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					/* der Knoten ist belegt, während der Timer weiterleitet */
+					synchronized (knoten) {
+						timer.start();
+						while ((timer.getState() != Thread.State.BLOCKED)
+								&& (timer.getState() != Thread.State.TERMINATED)) {
+							LockSupport.parkNanos(1000000);
+						}
+						knoten.aktualisiereDaten(feld);
+					}
+				}
+			});
+			dav.setDaemon(true);
+			dav.start();
+
+			dav.join(5000);
+			Assert.assertFalse("Verklemmung", dav.isAlive());
+			timer.join(5000);
+			Assert.assertFalse("Verklemmung", timer.isAlive());
+		}
+
+		Assert.assertEquals(TestPartitionsKnoten.OBJEKTE + 1, senke.anzahl);
+	}
+
+	/**
+	 * Prüft die Verteilung der Schlüssel auf die Partitionen.
+	 */
+	@Test
+	public void testPartition() {
+		final int[] anzahl = new int[8];
+		for (long id = 0; id < 80000; id++) {
+			final int partition = PartitionsKnoten.getPartition(id, anzahl.length);
+			Assert.assertEquals(partition, PartitionsKnoten.getPartition(id, anzahl.length));
+			anzahl[partition]++;
+		}
+		for (final int n : anzahl) {
+			Assert.assertTrue("Partition mit " + n + " Schlüsseln", (n > 9000) && (n < 11000));
+		}
+	}
+
+	/**
+	 * Prüft Vollständigkeit und Reihenfolge pro Objekt und misst die Dauer für
+	 * 1 bis 16 Partitionen.
+	 */
+	@Test
+	public void testSkalierung() {
+		final List<ResultData[]> daten = new ArrayList<>();
+		for (int f = 0; f < TestPartitionsKnoten.FELDER; f++) {
+			final ResultData[] feld = new ResultData[TestPartitionsKnoten.OBJEKTE];
+			for (int o = 0; o < TestPartitionsKnoten.OBJEKTE; o++) {
+				feld[o] = new ResultData(null, null, ((long) f * TestPartitionsKnoten.OBJEKTE) + o, null);
+			}
+			daten.add(feld);
+		}
+
+		for (int n = 1; n <= 16; n *= 2) {
+			final List<Stufe> instanzen = new ArrayList<>();
+			for (int i = 0; i < n; i++) {
+				instanzen.add(new Stufe());
+			}
+			final Senke senke = new Senke();
+			final long dauer;
+			try (PartitionsKnoten knoten = new TestPartitionsKnotenMitZeit(instanzen)) {
+				knoten.setNaechstenBearbeitungsKnoten(senke);
+				final long start = System.nanoTime();
+				for (final ResultData[] feld : daten) {
+					knoten.aktualisiereDaten(feld);
+				}
+				dauer = System.nanoTime() - start;
+			}
+
+			Assert.assertEquals(TestPartitionsKnoten.FELDER * TestPartitionsKnoten.OBJEKTE, senke.anzahl);
+			Assert.assertEquals(TestPartitionsKnoten.FELDER, senke.aufrufe);
+			Assert.assertEquals(0, senke.fehler);
+			for (final Stufe instanz : instanzen) {
+				Assert.assertEquals(0, instanz.fehler);
+			}
+			System.out.println(n + " Partitionen: " + (dauer / 1000000) + " ms");
+		}
+	}
+}
@@ -0,0 +1,290 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.adapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.bsvrz.dav.daf.main.ResultData;
+import de.bsvrz.sys.funclib.bitctrl.dua.dfs.schnittstellen.IDatenFlussSteuerung;
+import de.bsvrz.sys.funclib.bitctrl.dua.dfs.typen.ModulTyp;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IBearbeitungsKnoten;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IVerwaltung;
+
+/**
+ * Testet die Klasse <code>PipelineKnoten</code> mit synthetischen Stufen
+ * unterschiedlicher Kosten.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestPipelineKnoten {
+
+	/**
+	 * Anzahl der Datenfelder pro Durchlauf.
+	 */
+	private static final int ANZAHL = 2000;
+
+	/**
+	 * Kosten der Stufen in µs (wartend, rechnend, wartend).
+	 */
+	private static final long[] KOSTEN = { 100, 50, 200 };
+
+	/**
+	 * Synthetische Stufe: wartet bzw. rechnet eine vorgegebene Zeit pro
+	 * Datenfeld und leitet es danach weiter.
+	 */
+	private static class Stufe implements IBearbeitungsKnoten {
+
+		/**
+		 * Kosten pro Datenfeld in ns.
+		 */
+		private final long kosten;
+
+		/**
+		 * ob die Stufe rechnet (sonst wartet sie).
+		 */
+		private final boolean rechnend;
+
+		/**
+		 * nächster Bearbeitungsknoten.
+		 */
+		private IBearbeitungsKnoten knoten;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param kosten
+		 *            Kosten pro Datenfeld in µs
+		 * @param rechnend
+		 *            ob die Stufe rechnet (sonst wartet sie)
+		 */
+		private Stufe(final long kosten, final boolean rechnend) {
+			this.kosten = kosten * 1000;
+			this.rechnend = rechnend;
+		}
+
+		@Override
+		public void initialisiere(final IVerwaltung verwaltung) {
+			// nichts zu tun
+		}
+
+		@Override
+		public void setNaechstenBearbeitungsKnoten(final IBearbeitungsKnoten knoten1) {
+			knoten = knoten1;
+		}
+
+		@Override
+		public void setPublikation(final boolean publizieren) {
+			// nichts zu tun
+		}
+
+		@Override
+		public void aktualisiereDaten(final ResultData[] resultate) {
+			final long ende = System.nanoTime() + kosten;
+			if (rechnend) {
+				while (System.nanoTime() < ende) {
+					// rechnen
+				}
+			} else {
+				LockSupport.parkNanos(kosten);
+			}
+			if (knoten != null) {
+				knoten.aktualisiereDaten(resultate);
+			}
+		}
+
+		@Override
+		public ModulTyp getModulTyp() {
+			return null;
+		}
+
+		@Override
+		public void aktualisierePublikation(final IDatenFlussSteuerung dfs) {
+			// nichts zu tun
+		}
+	}
+
+	/**
+	 * Ende der Kette: merkt sich die empfangenen Datenfelder und die Latenz.
+	 */
+	private static final class Senke extends Stufe {
+
+		/**
+		 * die empfangenen Datenfelder.
+		 */
+		private final List<ResultData[]> empfangen = Collections.synchronizedList(new ArrayList<ResultData[]>());
+
+		/**
+		 * Summe der Latenzen in ns.
+		 */
+		private volatile long latenz;
+
+		/**
+		 * Zeitpunkte des Einreihens der Datenfelder in ns.
+		 */
+		private final long[] start = new long[TestPipelineKnoten.ANZAHL];
+
+		/**
+		 * Konstruktor.
+		 */
+		private Senke() {
+			super(0, true);
+		}
+
+		@Override
+		public void aktualisiereDaten(final ResultData[] resultate) {
+			latenz += System.nanoTime() - start[empfangen.size()];
+			empfangen.add(resultate);
+		}
+	}
+
+	/**
+	 * Prüft, dass alle Datenfelder in der Reihenfolge des Einreihens durch eine
+	 * Kette von Pipeline-Knoten laufen, und vergleicht Durchsatz und Latenz mit
+	 * der sequentiellen Kette.
+	 */
+	@Test
+	public void testReihenfolgeUndDurchsatz() {
+		final List<ResultData[]> daten = new ArrayList<>();
+		for (int i = 0; i < TestPipelineKnoten.ANZAHL; i++) {
+			daten.add(new ResultData[1]);
+		}
+
+		final Senke sequentiell = new Senke();
+		final long dauerSequentiell = durchlaufe(daten, sequentiell, false);
+		final Senke pipeline = new Senke();
+		final long dauerPipeline = durchlaufe(daten, pipeline, true);
+
+		Assert.assertEquals(TestPipelineKnoten.ANZAHL, pipeline.empfangen.size());
+		for (int i = 0; i < TestPipelineKnoten.ANZAHL; i++) {
+			Assert.assertSame(daten.get(i), pipeline.empfangen.get(i));
+		}
+
+		System.out.println("Sequentiell: " + (dauerSequentiell / 1000000) + " ms, mittlere Latenz "
+				+ (sequentiell.latenz / TestPipelineKnoten.ANZAHL / 1000) + " µs");
+		System.out.println("Pipeline:    " + (dauerPipeline / 1000000) + " ms, mittlere Latenz "
+				+ (pipeline.latenz / TestPipelineKnoten.ANZAHL / 1000) + " µs");
+	}
+
+	/**
+	 * Prüft, dass beim Beenden des Knotens während des Einreihens kein
+	 * Datenfeld verloren geht, die Reihenfolge erhalten bleibt und die Stufe
+	 * nie parallel aufgerufen wird.
+	 *
+	 * @throws InterruptedException
+	 *             wenn der Test unterbrochen wird
+	 */
+	@Test
+	public void testBeendenWaehrendEinreihen() throws InterruptedException {
+		final List<ResultData[]> daten = new ArrayList<>();
+		for (int i = 0; i < 500; i++) {
+			daten.add(new ResultData[1]);
+		}
+		final Senke senke = new Senke();
+		final int[] parallel = new int[2];
+		final Stufe stufe = new Stufe(20, false) {
+
+			@Override
+			public void aktualisiereDaten(final ResultData[] resultate) {
+				synchronized (parallel) {
+					parallel[0]++;
+					parallel[1] = Math.max(parallel[1], parallel[0]);
+				}
+				super.aktualisiereDaten(resultate);
+				synchronized (parallel) {
+					parallel[0]--;
+				}
+			}
+		};
+		stufe.setNaechstenBearbeitungsKnoten(senke);
+		final PipelineKnoten knoten = new PipelineKnoten("Test", stufe, 16);
+
+		final Thread erzeuger = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				for (final ResultData[] resultate : daten) {
+					knoten.aktualisiereDaten(resultate);
+				}
+			}
+		});
+		erzeuger.start();
+		LockSupport.parkNanos(2000000);
+		knoten.close();
+		erzeuger.join();
+
+		Assert.assertEquals(daten.size(), senke.empfangen.size());
+		for (int i = 0; i < daten.size(); i++) {
+			Assert.assertSame(daten.get(i), senke.empfangen.get(i));
+		}
+		synchronized (parallel) {
+			Assert.assertEquals(1, parallel[1]);
+		}
+	}
+
+	/**
+	 * Schickt die Daten durch eine Kette aus den Stufen.
+	 *
+	 * @param daten
+	 *            die Datenfelder
+	 * @param senke
+	 *            das Ende der Kette
+	 * @param parallel
+	 *            ob die Stufen in Pipeline-Knoten ausgeführt werden sollen
+	 * @return die Dauer in ns
+	 */
+	private static long durchlaufe(final List<ResultData[]> daten, final Senke senke, final boolean parallel) {
+		final List<PipelineKnoten> pipelineKnoten = new ArrayList<>();
+		IBearbeitungsKnoten naechster = senke;
+		for (int i = TestPipelineKnoten.KOSTEN.length - 1; i >= 0; i--) {
+			IBearbeitungsKnoten stufe = new Stufe(TestPipelineKnoten.KOSTEN[i], (i % 2) == 1);
+			stufe.setNaechstenBearbeitungsKnoten(naechster);
+			if (parallel) {
+				final PipelineKnoten knoten = new PipelineKnoten("Stufe " + i, stufe, 64);
+				pipelineKnoten.add(0, knoten);
+				stufe = knoten;
+			}
+			naechster = stufe;
+		}
+
+		final long start = System.nanoTime();
+		for (int i = 0; i < daten.size(); i++) {
+			senke.start[i] = System.nanoTime();
+			naechster.aktualisiereDaten(daten.get(i));
+		}
+		for (final PipelineKnoten knoten : pipelineKnoten) {
+			knoten.close();
+		}
+		return System.nanoTime() - start;
+	}
+}
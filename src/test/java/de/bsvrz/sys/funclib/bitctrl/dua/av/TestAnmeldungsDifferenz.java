@@ -0,0 +1,113 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.av;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testet die Klasse <code>AnmeldungsDifferenz</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestAnmeldungsDifferenz {
+
+	/**
+	 * Vergleicht die Differenz mit einer naiven Berechnung.
+	 */
+	@Test
+	public void testDifferenz() {
+		final Random zufall = new Random(4711);
+		for (int lauf = 0; lauf < 100; lauf++) {
+			final Set<Long> aktuell = new HashSet<>();
+			final List<Long> neu = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				aktuell.add((long) zufall.nextInt(300));
+				neu.add((long) zufall.nextInt(300));
+			}
+
+			final Set<Long> erwarteteAnmeldungen = new TreeSet<>(neu);
+			erwarteteAnmeldungen.removeAll(aktuell);
+			final Set<Long> erwarteteAbmeldungen = new TreeSet<>(aktuell);
+			erwarteteAbmeldungen.removeAll(neu);
+
+			final AnmeldungsDifferenz<Long> differenz = new AnmeldungsDifferenz<>(aktuell, neu);
+			Assert.assertEquals(erwarteteAnmeldungen.size(), differenz.getAnmeldungen().size());
+			Assert.assertEquals(erwarteteAnmeldungen, new TreeSet<>(differenz.getAnmeldungen()));
+			Assert.assertEquals(erwarteteAbmeldungen.size(), differenz.getAbmeldungen().size());
+			Assert.assertEquals(erwarteteAbmeldungen, new TreeSet<>(differenz.getAbmeldungen()));
+		}
+	}
+
+	/**
+	 * Misst die Dauer der Differenzbildung, wenn sich 10% der Anmeldungen
+	 * ändern und die neuen Anmeldungen als Liste übergeben werden. Zum
+	 * Vergleich wird bei 10.000 Anmeldungen auch die bisherige Berechnung
+	 * (<code>contains</code> auf der Liste) gemessen.
+	 */
+	@Test
+	public void testLaufzeit() {
+		for (final int anzahl : new int[] { 10000, 100000, 500000 }) {
+			final Set<Long> aktuell = new HashSet<>();
+			final List<Long> neu = new ArrayList<>();
+			for (long i = 0; i < anzahl; i++) {
+				aktuell.add(i);
+				neu.add(i + (anzahl / 10));
+			}
+			Collections.shuffle(neu, new Random(anzahl));
+
+			final long start = System.nanoTime();
+			final AnmeldungsDifferenz<Long> differenz = new AnmeldungsDifferenz<>(aktuell, neu);
+			final long dauer = System.nanoTime() - start;
+			Assert.assertEquals(anzahl / 10, differenz.getAnmeldungen().size());
+			Assert.assertEquals(anzahl / 10, differenz.getAbmeldungen().size());
+
+			String info = anzahl + " Anmeldungen: " + (dauer / 1000000) + " ms";
+			if (anzahl <= 10000) {
+				final long startNaiv = System.nanoTime();
+				int abmeldungen = 0;
+				for (final Long anmeldung : aktuell) {
+					if (!neu.contains(anmeldung)) {
+						abmeldungen++;
+					}
+				}
+				Assert.assertEquals(anzahl / 10, abmeldungen);
+				info += ", bisher " + ((System.nanoTime() - startNaiv) / 1000000) + " ms";
+			}
+			System.out.println(info);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.av;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testet die Klasse <code>AnmeldungsStatistik</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestAnmeldungsStatistik {
+
+	/**
+	 * Prüft das Erfassen und Zurücksetzen der Statistik.
+	 *
+	 * @throws Exception
+	 *             wird weitergereicht
+	 */
+	@Test
+	public void testErfassen() throws Exception {
+		final AnmeldungsStatistik statistik = new AnmeldungsStatistik();
+
+		final Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(new Runnable() {
+
+				@Override
+				public void run() {
+					for (int i = 1; i <= 1000; i++) {
+						statistik.erfasseAnmeldungen(10, i);
+						statistik.erfasseAbmeldungen(2, 2 * i);
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+
+		Assert.assertEquals(4000, statistik.getAnzahlAnmeldeWellen());
+		Assert.assertEquals(40000, statistik.getAnzahlAnmeldungen());
+		Assert.assertEquals(4 * 500500, statistik.getAnmeldeDauer());
+		Assert.assertEquals(4000, statistik.getAnzahlAbmeldeWellen());
+		Assert.assertEquals(8000, statistik.getAnzahlAbmeldungen());
+		Assert.assertEquals(8 * 500500, statistik.getAbmeldeDauer());
+		Assert.assertEquals(2000, statistik.getMaximaleDauer());
+
+		statistik.reset();
+		Assert.assertEquals(0, statistik.getAnzahlAnmeldungen());
+		Assert.assertEquals(0, statistik.getMaximaleDauer());
+	}
+}
@@ -0,0 +1,299 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.av;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testet die Klasse <code>SendePuffer</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestSendePuffer {
+
+	/**
+	 * Anzahl der Daten im Durchsatzvergleich.
+	 */
+	private static final int ANZAHL = 200000;
+
+	/**
+	 * Prüft, dass alle Daten in der Reihenfolge des Einreihens weitergegeben
+	 * werden und die Blockgröße eingehalten wird.
+	 */
+	@Test
+	public void testReihenfolge() {
+		final List<Integer> empfangen = new ArrayList<>();
+		final int[] maxBlock = new int[1];
+		final SendePuffer<Integer> puffer = new SendePuffer<>("Test", 100, 16, 5, new Consumer<List<Integer>>() {
+
+			@Override
+			public void accept(final List<Integer> block) {
+				maxBlock[0] = Math.max(maxBlock[0], block.size());
+				empfangen.addAll(block);
+			}
+		});
+
+		for (int i = 0; i < 10000; i++) {
+			Assert.assertTrue(puffer.einreihen(i));
+		}
+		puffer.close();
+
+		Assert.assertFalse(puffer.einreihen(-1));
+		Assert.assertEquals(10000, empfangen.size());
+		for (int i = 0; i < 10000; i++) {
+			Assert.assertEquals(i, empfangen.get(i).intValue());
+		}
+		Assert.assertTrue(maxBlock[0] <= 16);
+		Assert.assertEquals(10000, puffer.getAnzahlDaten());
+	}
+
+	/**
+	 * Prüft, dass das Einreihen blockiert, solange die Warteschlange voll ist.
+	 *
+	 * @throws Exception
+	 *             wird weitergereicht
+	 */
+	@Test
+	public void testRueckstau() throws Exception {
+		final CountDownLatch freigabe = new CountDownLatch(1);
+		final SendePuffer<Integer> puffer = new SendePuffer<>("Test", 4, 1, 0, new Consumer<List<Integer>>() {
+
+			@Override
+			public void accept(final List<Integer> block) {
+				try {
+					freigabe.await();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+
+		final CountDownLatch fertig = new CountDownLatch(1);
+		final Thread erzeuger = new Thread(new Runnable() {
+
+			@Override
+			public void run() {
+				for (int i = 0; i < 20; i++) {
+					puffer.einreihen(i);
+				}
+				fertig.countDown();
+			}
+		});
+		erzeuger.start();
+
+		Assert.assertFalse(fertig.await(200, TimeUnit.MILLISECONDS));
+		Assert.assertEquals(4, puffer.getAnzahlWartend());
+
+		freigabe.countDown();
+		Assert.assertTrue(fertig.await(5, TimeUnit.SECONDS));
+		puffer.close();
+		Assert.assertEquals(20, puffer.getAnzahlDaten());
+	}
+
+	/**
+	 * Prüft, dass <code>warteAufWeitergabe()</code> erst nach der Weitergabe
+	 * aller zuvor eingereihten Daten zurückkehrt und der Puffer danach weiter
+	 * verwendbar ist.
+	 *
+	 * @throws Exception
+	 *             wird weitergereicht
+	 */
+	@Test
+	public void testWarteAufWeitergabe() throws Exception {
+		final AtomicInteger weitergegeben = new AtomicInteger();
+		final SendePuffer<Integer> puffer = new SendePuffer<>("Test", 100, 2, 0, new Consumer<List<Integer>>() {
+
+			@Override
+			public void accept(final List<Integer> block) {
+				try {
+					TimeUnit.MILLISECONDS.sleep(20);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				weitergegeben.addAndGet(block.size());
+			}
+		});
+
+		for (int i = 0; i < 10; i++) {
+			Assert.assertTrue(puffer.einreihen(i));
+		}
+		puffer.warteAufWeitergabe();
+		Assert.assertEquals(10, weitergegeben.get());
+
+		Assert.assertTrue(puffer.einreihen(10));
+		puffer.warteAufWeitergabe();
+		Assert.assertEquals(11, weitergegeben.get());
+		puffer.close();
+	}
+
+	/**
+	 * Prüft, dass jedes erfolgreich eingereihte Datum auch dann weitergegeben
+	 * wird, wenn der Puffer während des Einreihens beendet wird, und dass
+	 * <code>close()</code> erst nach der Weitergabe zurückkehrt.
+	 *
+	 * @throws Exception
+	 *             wird weitergereicht
+	 */
+	@Test
+	public void testBeendenWaehrendEinreihen() throws Exception {
+		for (int runde = 0; runde < 50; runde++) {
+			final AtomicInteger weitergegeben = new AtomicInteger();
+			final AtomicInteger eingereiht = new AtomicInteger();
+			final SendePuffer<Integer> puffer = new SendePuffer<>("Test", 8, 4, 0, new Consumer<List<Integer>>() {
+
+				@Override
+				public void accept(final List<Integer> block) {
+					weitergegeben.addAndGet(block.size());
+				}
+			});
+
+			final Thread[] erzeuger = new Thread[4];
+			for (int i = 0; i < erzeuger.length; i++) {
+				erzeuger[i] = new Thread(new Runnable() {
+
+					@Override
+					public void run() {
+						for (int j = 0; j < 1000; j++) {
+							if (puffer.einreihen(j)) {
+								eingereiht.incrementAndGet();
+							}
+						}
+					}
+				});
+				erzeuger[i].start();
+			}
+
+			puffer.close();
+			final int nachClose = weitergegeben.get();
+			for (final Thread thread : erzeuger) {
+				thread.join();
+			}
+			puffer.close();
+
+			Assert.assertEquals(eingereiht.get(), weitergegeben.get());
+			Assert.assertEquals(nachClose, weitergegeben.get());
+		}
+	}
+
+	/**
+	 * Vergleicht den Durchsatz des direkten Sendens jedes einzelnen Datums mit
+	 * dem blockweisen Senden über den Puffer. Als Ersatz für die
+	 * Datenverteilerverbindung dient ein Empfänger mit festen Kosten pro Aufruf
+	 * (Synchronisation, Telegrammkopf) und pro Datum.
+	 */
+	@Test
+	public void testDurchsatz() {
+		final Verbindung direkt = new Verbindung();
+		long start = System.nanoTime();
+		for (int i = 0; i < TestSendePuffer.ANZAHL; i++) {
+			direkt.sende(1);
+		}
+		final long dauerDirekt = System.nanoTime() - start;
+
+		final Verbindung gepuffert = new Verbindung();
+		final SendePuffer<Integer> puffer = new SendePuffer<>("Test", 10000, 500, 0,
+				new Consumer<List<Integer>>() {
+
+					@Override
+					public void accept(final List<Integer> block) {
+						gepuffert.sende(block.size());
+					}
+				});
+		start = System.nanoTime();
+		for (int i = 0; i < TestSendePuffer.ANZAHL; i++) {
+			puffer.einreihen(i);
+		}
+		puffer.close();
+		final long dauerGepuffert = System.nanoTime() - start;
+
+		Assert.assertEquals(TestSendePuffer.ANZAHL, direkt.daten);
+		Assert.assertEquals(TestSendePuffer.ANZAHL, gepuffert.daten);
+		System.out.println("Direkt: " + (dauerDirekt / 1000000) + " ms, " + direkt.aufrufe + " Aufrufe");
+		System.out.println("Gepuffert: " + (dauerGepuffert / 1000000) + " ms, " + gepuffert.aufrufe
+				+ " Aufrufe, " + puffer.getAnzahlBloecke() + " Blöcke");
+	}
+
+	/**
+	 * Ersatz für eine Datenverteilerverbindung mit festen Kosten pro Aufruf
+	 * und pro Datum.
+	 */
+	private static final class Verbindung {
+
+		/**
+		 * Anzahl der Aufrufe.
+		 */
+		private long aufrufe;
+
+		/**
+		 * Anzahl der gesendeten Daten.
+		 */
+		private long daten;
+
+		/**
+		 * Prüfsumme, damit die Arbeit nicht wegoptimiert wird.
+		 */
+		private long summe;
+
+		/**
+		 * Sendet eine Anzahl von Daten.
+		 *
+		 * @param anzahl
+		 *            die Anzahl der Daten
+		 */
+		private synchronized void sende(final int anzahl) {
+			aufrufe++;
+			arbeite(2000);
+			for (int i = 0; i < anzahl; i++) {
+				arbeite(100);
+			}
+			daten += anzahl;
+		}
+
+		/**
+		 * Simuliert Arbeit.
+		 *
+		 * @param schritte
+		 *            die Anzahl der Rechenschritte
+		 */
+		private void arbeite(final int schritte) {
+			long x = summe;
+			for (int i = 0; i < schritte; i++) {
+				x = (x * 6364136223846793005L) + 1442695040888963407L;
+			}
+			summe = x;
+		}
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.dfs;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.bsvrz.dav.daf.main.DataDescription;
+import de.bsvrz.dav.daf.main.config.Aspect;
+import de.bsvrz.dav.daf.main.config.AttributeGroup;
+import de.bsvrz.dav.daf.main.config.SystemObject;
+import de.bsvrz.dav.daf.main.config.SystemObjectType;
+import de.bsvrz.sys.funclib.bitctrl.dua.DUAUtensilien;
+import de.bsvrz.sys.funclib.bitctrl.dua.av.DAVObjektAnmeldung;
+import de.bsvrz.sys.funclib.bitctrl.dua.schnittstellen.IVerwaltung;
+
+/**
+ * Testet die Klasse <code>AufloesungsCache</code>. Die Objektanmeldungen des
+ * Zwischenspeichers werden für alle Kombinationen aus Attributgruppe und
+ * Aspekt (jeweils auch <code>null</code>) mit denen der Auflösung je Objekt
+ * von <code>DUAUtensilien.getAlleObjektAnmeldungen(..)</code> verglichen.
+ * Konfigurationsobjekte werden durch Platzhalter ersetzt, so dass keine
+ * Datenverteilerverbindung benötigt wird.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestAufloesungsCache {
+
+	/**
+	 * Platzhalter für ein Konfigurationsobjekt, der die Eigenschaften aus einer
+	 * Tabelle liefert.
+	 */
+	private static final class ObjektPlatzhalter implements InvocationHandler {
+
+		/**
+		 * die Eigenschaften (Methodenname - Rückgabewert).
+		 */
+		private final Map<String, Object> eigenschaften = new HashMap<>();
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) {
+			final String name = method.getName();
+			if (eigenschaften.containsKey(name)) {
+				return eigenschaften.get(name);
+			}
+			if ("hashCode".equals(name)) {
+				return System.identityHashCode(proxy);
+			}
+			if ("equals".equals(name)) {
+				return proxy == args[0];
+			}
+			if ("toString".equals(name)) {
+				return String.valueOf(eigenschaften.get("getPid"));
+			}
+			throw new UnsupportedOperationException(name);
+		}
+	}
+
+	/**
+	 * Erzeugt einen Platzhalter für ein Konfigurationsobjekt.
+	 *
+	 * @param typ
+	 *            die Schnittstelle des Objektes
+	 * @param id
+	 *            die ID
+	 * @param eigenschaften
+	 *            weitere Eigenschaften als Paare aus Methodenname und
+	 *            Rückgabewert
+	 * @return der Platzhalter
+	 */
+	private static <T extends SystemObject> T erzeuge(final Class<T> typ, final long id,
+			final Object... eigenschaften) {
+		final ObjektPlatzhalter platzhalter = new ObjektPlatzhalter();
+		platzhalter.eigenschaften.put("getId", id);
+		platzhalter.eigenschaften.put("getPid", typ.getSimpleName() + id);
+		for (int i = 0; i < eigenschaften.length; i += 2) {
+			platzhalter.eigenschaften.put((String) eigenschaften[i], eigenschaften[i + 1]);
+		}
+		return typ.cast(Proxy.newProxyInstance(typ.getClassLoader(), new Class<?>[] { typ }, platzhalter));
+	}
+
+	/**
+	 * Ermittelt das Ergebnis einer Auflösung: die Objektanmeldungen oder die
+	 * Klasse der dabei aufgetretenen Ausnahme.
+	 *
+	 * @param cache
+	 *            der Zwischenspeicher oder <code>null</code> für die
+	 *            Auflösung über <code>DUAUtensilien</code>
+	 * @param obj
+	 *            das finale Objekt
+	 * @param atg
+	 *            die Attributgruppe oder <code>null</code>
+	 * @param asp
+	 *            der Aspekt oder <code>null</code>
+	 * @return das Ergebnis
+	 */
+	private static Object loeseAuf(final AufloesungsCache cache, final SystemObject obj, final AttributeGroup atg,
+			final Aspect asp) {
+		final Collection<DAVObjektAnmeldung> anmeldungen = new TreeSet<>();
+		try {
+			if (cache != null) {
+				cache.sammleObjektAnmeldungen(obj, atg, asp, anmeldungen);
+			} else {
+				DUAUtensilien.sammleObjektAnmeldungen(obj, new DataDescription(atg, asp), anmeldungen);
+			}
+		} catch (final RuntimeException e) {
+			return e.getClass();
+		}
+		return anmeldungen;
+	}
+
+	/**
+	 * Vergleicht die Auflösung des Zwischenspeichers für alle Kombinationen
+	 * aus Attributgruppe und Aspekt mit der von <code>DUAUtensilien</code>.
+	 * Die Platzhalter sind keine Konfigurationsobjekte im Sinne von
+	 * <code>DUAUtensilien.isKombinationOk(..)</code>, jede Anmeldung ist also
+	 * ungültig: Ist nur der Aspekt angegeben, müssen beide Auflösungen die
+	 * Attributgruppen übergehen, sonst müssen beide die Anmeldung abweisen.
+	 */
+	@Test
+	public void testVergleichMitDUAUtensilien() {
+		final Aspect asp1 = TestAufloesungsCache.erzeuge(Aspect.class, 1);
+		final Aspect asp2 = TestAufloesungsCache.erzeuge(Aspect.class, 2);
+		final AttributeGroup atg1 = TestAufloesungsCache.erzeuge(AttributeGroup.class, 11, "getAspects",
+				Arrays.asList(asp1, asp2));
+		final AttributeGroup atg2 = TestAufloesungsCache.erzeuge(AttributeGroup.class, 12, "getAspects",
+				Arrays.asList(asp2));
+		final AttributeGroup fremdeAtg = TestAufloesungsCache.erzeuge(AttributeGroup.class, 13, "getAspects",
+				Arrays.asList(asp1));
+		final SystemObjectType typ = TestAufloesungsCache.erzeuge(SystemObjectType.class, 21, "getAttributeGroups",
+				Arrays.asList(atg1, atg2));
+		final SystemObject obj = TestAufloesungsCache.erzeuge(SystemObject.class, 31, "getType", typ);
+
+		final ObjektPlatzhalter verwaltung = new ObjektPlatzhalter();
+		verwaltung.eigenschaften.put("getVerbindung", null);
+		verwaltung.eigenschaften.put("getKonfigurationsBereiche", null);
+		final AufloesungsCache cache = new AufloesungsCache((IVerwaltung) Proxy
+				.newProxyInstance(IVerwaltung.class.getClassLoader(), new Class<?>[] { IVerwaltung.class }, verwaltung));
+
+		for (final AttributeGroup atg : Arrays.asList(null, atg1, atg2, fremdeAtg)) {
+			for (final Aspect asp : Arrays.asList(null, asp1, asp2)) {
+				final Object erwartet = TestAufloesungsCache.loeseAuf(null, obj, atg, asp);
+				Assert.assertEquals(atg + "/" + asp, erwartet, TestAufloesungsCache.loeseAuf(cache, obj, atg, asp));
+				/* zweiter Aufruf aus dem Zwischenspeicher */
+				Assert.assertEquals(atg + "/" + asp, erwartet, TestAufloesungsCache.loeseAuf(cache, obj, atg, asp));
+				if ((atg == null) && (asp != null)) {
+					Assert.assertEquals(new TreeSet<DAVObjektAnmeldung>(), erwartet);
+				} else {
+					Assert.assertEquals(IllegalArgumentException.class, erwartet);
+				}
+			}
+		}
+	}
+}
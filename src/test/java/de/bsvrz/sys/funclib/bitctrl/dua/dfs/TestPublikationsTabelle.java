@@ -0,0 +1,161 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.dfs;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testet die Klasse <code>PublikationsTabelle</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestPublikationsTabelle {
+
+	/**
+	 * Vergleicht die Tabelle mit einer <code>HashMap</code> (auch beim
+	 * Ersetzen von Werten).
+	 */
+	@Test
+	public void testVergleichMitHashMap() {
+		final Random zufall = new Random(4711);
+		final PublikationsTabelle<String> tabelle = new PublikationsTabelle<>(5000);
+		final Map<String, String> referenz = new HashMap<>();
+
+		for (int i = 0; i < 5000; i++) {
+			final long objektId = zufall.nextInt(1000);
+			final long atgId = zufall.nextInt(5);
+			final String wert = "Wert " + i;
+			tabelle.setze(objektId, atgId, wert);
+			referenz.put(objektId + "/" + atgId, wert);
+		}
+
+		Assert.assertEquals(referenz.size(), tabelle.size());
+		for (long objektId = -10; objektId < 1010; objektId++) {
+			for (long atgId = 0; atgId < 6; atgId++) {
+				Assert.assertEquals(referenz.get(objektId + "/" + atgId), tabelle.get(objektId, atgId));
+			}
+		}
+	}
+
+	/**
+	 * Prüft, dass die Tabelle über die erwartete Anzahl hinaus wächst.
+	 */
+	@Test
+	public void testWachstum() {
+		final PublikationsTabelle<Long> tabelle = new PublikationsTabelle<>(1);
+		for (long i = 0; i < 10000; i++) {
+			tabelle.setze(i, i % 3, i);
+		}
+
+		Assert.assertEquals(10000, tabelle.size());
+		for (long i = 0; i < 10000; i++) {
+			Assert.assertEquals(Long.valueOf(i), tabelle.get(i, i % 3));
+			Assert.assertNull(tabelle.get(i, (i % 3) + 1));
+		}
+	}
+
+	/**
+	 * Vergleicht die Dauer des Nachschlagens mit einer <code>TreeMap</code>
+	 * und Schlüsselobjekten (wie bisher in
+	 * <code>DatenFlussSteuerungFuerModul</code>).
+	 */
+	@Test
+	public void testLaufzeit() {
+		final int anzahl = 100000;
+		final PublikationsTabelle<Boolean> tabelle = new PublikationsTabelle<>(anzahl);
+		final TreeMap<Schluessel, Boolean> baum = new TreeMap<>();
+		for (int i = 0; i < anzahl; i++) {
+			tabelle.setze(i, i % 7, Boolean.TRUE);
+			baum.put(new Schluessel(i, i % 7), Boolean.TRUE);
+		}
+
+		for (int lauf = 0; lauf < 3; lauf++) {
+			long start = System.nanoTime();
+			int treffer = 0;
+			for (int i = 0; i < anzahl; i++) {
+				if (baum.get(new Schluessel(i, i % 7)) != null) {
+					treffer++;
+				}
+			}
+			final long dauerBaum = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int i = 0; i < anzahl; i++) {
+				if (tabelle.get(i, i % 7) != null) {
+					treffer++;
+				}
+			}
+			final long dauerTabelle = System.nanoTime() - start;
+
+			Assert.assertEquals(2 * anzahl, treffer);
+			System.out.println("TreeMap: " + (dauerBaum / anzahl) + " ns, PublikationsTabelle: "
+					+ (dauerTabelle / anzahl) + " ns pro Datum");
+		}
+	}
+
+	/**
+	 * Schlüssel aus Objekt- und Attributgruppen-ID.
+	 */
+	private static final class Schluessel implements Comparable<Schluessel> {
+
+		/**
+		 * die Objekt-ID.
+		 */
+		private final long objektId;
+
+		/**
+		 * die Attributgruppen-ID.
+		 */
+		private final long atgId;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param objektId
+		 *            die Objekt-ID
+		 * @param atgId
+		 *            die Attributgruppen-ID
+		 */
+		private Schluessel(final long objektId, final long atgId) {
+			this.objektId = objektId;
+			this.atgId = atgId;
+		}
+
+		@Override
+		public int compareTo(final Schluessel that) {
+			final int result = Long.compare(objektId, that.objektId);
+			return result != 0 ? result : Long.compare(atgId, that.atgId);
+		}
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.testausfall;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.bsvrz.sys.funclib.bitctrl.dua.KontrollProzess;
+
+/**
+ * Testet die Klasse <code>AusfallZustaende</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestAusfallZustaende {
+
+	/**
+	 * Testet die Filterung veralteter Daten und die Einplanung des
+	 * Kontrollprozesses auf den frühesten Kontrollzeitpunkt.
+	 */
+	@Test
+	public void testKontrollZeitpunkte() {
+		final KontrollProzess<Long> prozess = new KontrollProzess<>();
+		final AusfallZustaende<Long, String> zustaende = new AusfallZustaende<>(4, prozess);
+		final long basis = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+
+		Assert.assertTrue(zustaende.aktualisiere(1, 1L, 1000, "A", basis + 300));
+		Assert.assertTrue(zustaende.aktualisiere(2, 2L, 1000, "B", basis + 200));
+		Assert.assertEquals(basis + 200, prozess.getNaechstenAufrufZeitpunkt());
+
+		/* veraltetes Datum */
+		Assert.assertFalse(zustaende.aktualisiere(2, 2L, 1000, "B", basis + 400));
+		Assert.assertEquals(2, zustaende.getAnzahlKontrollZeitpunkte());
+
+		final List<String> faellige = new ArrayList<>();
+		Assert.assertEquals(1, zustaende.entnehmeFaellige(basis + 300, faellige));
+		Assert.assertEquals("A", faellige.get(0));
+		Assert.assertEquals(basis + 400, prozess.getNaechstenAufrufZeitpunkt());
+
+		/* Datum ohne Daten lässt den Kontrollzeitpunkt unverändert */
+		Assert.assertTrue(zustaende.aktualisiere(2, 2L, 2000, null, -1));
+		Assert.assertEquals(1, zustaende.getAnzahlKontrollZeitpunkte());
+		prozess.close();
+	}
+
+	/**
+	 * Misst den bei der Aktualisierung bereits bekannter Objekte (der
+	 * Normalfall in der Ausfallüberwachung) angeforderten Speicher und gibt
+	 * ihn aus. Der Wert hängt von JVM und JIT ab und wird daher nicht geprüft.
+	 */
+	@Test
+	public void testAktualisierenSpeicheranforderung() {
+		final int anzahlObjekte = 50000;
+		final long intervall = TimeUnit.MINUTES.toMillis(1);
+		final KontrollProzess<Long> prozess = new KontrollProzess<>();
+		final AusfallZustaende<Long, Long> zustaende = new AusfallZustaende<>(64, prozess);
+		final long basis = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+		final Long[] objekte = new Long[anzahlObjekte];
+		for (int i = 0; i < anzahlObjekte; i++) {
+			objekte[i] = (long) i;
+			zustaende.setzeMaxZeitVerzug(i, 5000);
+		}
+
+		/* Einschwingen (inkl. JIT) */
+		int runde = 0;
+		for (; runde < 20; runde++) {
+			aktualisiereAlle(zustaende, objekte, basis, intervall, runde);
+		}
+
+		final long speicherVorher = getAllokierteBytes();
+		for (; runde < 40; runde++) {
+			aktualisiereAlle(zustaende, objekte, basis, intervall, runde);
+		}
+		final long speicher = getAllokierteBytes() - speicherVorher;
+		prozess.close();
+
+		System.out.println("AusfallZustaende: " + speicher + " Bytes für " + (20 * anzahlObjekte) + " Aktualisierungen");
+		Assert.assertEquals(anzahlObjekte, zustaende.getAnzahlKontrollZeitpunkte());
+	}
+
+	/**
+	 * Aktualisiert alle Objekte für eine Runde.
+	 *
+	 * @param zustaende
+	 *            die Zustände
+	 * @param objekte
+	 *            die Objekte (Index = ID)
+	 * @param basis
+	 *            der Basiszeitpunkt
+	 * @param intervall
+	 *            das Intervall
+	 * @param runde
+	 *            die Runde
+	 */
+	private static void aktualisiereAlle(final AusfallZustaende<Long, Long> zustaende, final Long[] objekte,
+			final long basis, final long intervall, final int runde) {
+		for (int id = 0; id < objekte.length; id++) {
+			final long datenZeit = (runde * intervall) + (id % 1000);
+			final long kontrollZeitpunkt = basis + datenZeit + intervall + zustaende.getMaxZeitVerzug(id);
+			Assert.assertTrue(zustaende.aktualisiere(id, objekte[id], datenZeit, objekte[id], kontrollZeitpunkt));
+		}
+	}
+
+	/**
+	 * Erfragt die bisher vom aktuellen Thread angeforderte Speichermenge.
+	 *
+	 * @return die angeforderte Speichermenge in Bytes oder <code>-1</code>,
+	 *         wenn die JVM diese Messung nicht unterstützt
+	 */
+	private static long getAllokierteBytes() {
+		final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	/**
+	 * Misst die Dauer für das Entnehmen und gesammelte Neueinplanen von 20000
+	 * gleichzeitig ausgefallenen Objekten (z.B. nach einem zentralen Ausfall)
+	 * im Vergleich zum Neueinplanen jedes einzelnen Objektes.
+	 */
+	@Test
+	public void testGesammelterAusfall() {
+		final int anzahl = 20000;
+		final long intervall = TimeUnit.MINUTES.toMillis(1);
+
+		for (int durchlauf = 0; durchlauf < 5; durchlauf++) {
+			final long einzeln = messeAusfall(anzahl, intervall, false);
+			final long gesammelt = messeAusfall(anzahl, intervall, true);
+			System.out.println("AusfallZustaende: " + anzahl + " Ausfälle einzeln " + (einzeln / 1000) + " µs, gesammelt "
+					+ (gesammelt / 1000) + " µs");
+		}
+	}
+
+	/**
+	 * Entnimmt die gleichzeitig fälligen Kontrollzeitpunkte vieler Objekte und
+	 * plant sie für das nächste Intervall neu ein.
+	 *
+	 * @param anzahl
+	 *            die Anzahl der Objekte
+	 * @param intervall
+	 *            das Intervall
+	 * @param gesammelt
+	 *            ob die Objekte gesammelt neu eingeplant werden
+	 * @return die Dauer in ns
+	 */
+	private static long messeAusfall(final int anzahl, final long intervall, final boolean gesammelt) {
+		final KontrollProzess<Long> prozess = new KontrollProzess<>();
+		final AusfallZustaende<Long, Long> zustaende = new AusfallZustaende<>(64, prozess);
+		final long basis = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+		for (long id = 0; id < anzahl; id++) {
+			zustaende.aktualisiere(id, id, 0, id, basis);
+		}
+
+		final long t0 = System.nanoTime();
+		final List<Long> faellige = new ArrayList<>(anzahl);
+		Assert.assertEquals(anzahl, zustaende.entnehmeFaellige(basis, faellige));
+		int anzahlNeu = 0;
+		if (gesammelt) {
+			final long[] ids = new long[anzahl];
+			final Long[] objekte = new Long[anzahl];
+			final long[] datenZeiten = new long[anzahl];
+			final long[] kontrollZeitpunkte = new long[anzahl];
+			for (int i = 0; i < anzahl; i++) {
+				ids[i] = faellige.get(i);
+				objekte[i] = faellige.get(i);
+				datenZeiten[i] = intervall;
+				kontrollZeitpunkte[i] = basis + intervall;
+			}
+			anzahlNeu = zustaende.aktualisiereAlle(anzahl, ids, objekte, datenZeiten, objekte, kontrollZeitpunkte,
+					new boolean[anzahl]);
+		} else {
+			for (final Long objekt : faellige) {
+				if (zustaende.aktualisiere(objekt, objekt, intervall, objekt, basis + intervall)) {
+					anzahlNeu++;
+				}
+			}
+		}
+		final long dauer = System.nanoTime() - t0;
+
+		Assert.assertEquals(anzahl, anzahlNeu);
+		Assert.assertEquals(anzahl, zustaende.getAnzahlKontrollZeitpunkte());
+		Assert.assertEquals(basis + intervall, prozess.getNaechstenAufrufZeitpunkt());
+		prozess.close();
+		return dauer;
+	}
+
+	/**
+	 * Misst den Durchsatz bei paralleler Aktualisierung disjunkter Objekte
+	 * durch 1, 2, 4 und 8 Threads und prüft, dass alle Kontrollzeitpunkte
+	 * erhalten bleiben.
+	 *
+	 * @throws InterruptedException
+	 *             wenn der Test unterbrochen wird
+	 */
+	@Test
+	public void testParallelerDurchsatz() throws InterruptedException {
+		final int objekteProThread = 5000;
+		final int runden = 20;
+
+		for (int anzahlThreads = 1; anzahlThreads <= 8; anzahlThreads *= 2) {
+			final KontrollProzess<Long> prozess = new KontrollProzess<>();
+			final AusfallZustaende<Long, Long> zustaende = new AusfallZustaende<>(64, prozess);
+			final long basis = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+			final CountDownLatch start = new CountDownLatch(1);
+			final CountDownLatch fertig = new CountDownLatch(anzahlThreads);
+			final AtomicLong neueDaten = new AtomicLong();
+
+			for (int t = 0; t < anzahlThreads; t++) {
+				final long ersteId = (long) t * objekteProThread;
+				new Thread(new Runnable() {
+
+					@Override
+					public void run() {
+						try {
+							start.await();
+							for (int runde = 1; runde <= runden; runde++) {
+								for (long id = ersteId; id < (ersteId + objekteProThread); id++) {
+									final long datenZeit = runde * 60000L;
+									if (zustaende.aktualisiere(id, id, datenZeit, id, basis + datenZeit + (id % 1000))) {
+										neueDaten.incrementAndGet();
+									}
+								}
+							}
+						} catch (final InterruptedException e) {
+							Thread.currentThread().interrupt();
+						} finally {
+							fertig.countDown();
+						}
+					}
+				}).start();
+			}
+
+			final long t0 = System.nanoTime();
+			start.countDown();
+			Assert.assertTrue(fertig.await(60, TimeUnit.SECONDS));
+			final long dauer = System.nanoTime() - t0;
+			final long operationen = (long) anzahlThreads * objekteProThread * runden;
+
+			System.out.println("AusfallZustaende: " + anzahlThreads + " Thread(s), "
+					+ ((operationen * 1000000000L) / dauer) + " Aktualisierungen/s");
+			Assert.assertEquals(operationen, neueDaten.get());
+			Assert.assertEquals(anzahlThreads * objekteProThread, zustaende.getAnzahlKontrollZeitpunkte());
+			Assert.assertEquals(basis + (runden * 60000L), prozess.getNaechstenAufrufZeitpunkt());
+			prozess.close();
+		}
+	}
+}
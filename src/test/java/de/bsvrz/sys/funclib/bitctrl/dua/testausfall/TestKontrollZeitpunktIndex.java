@@ -0,0 +1,127 @@
+/*
+ * Allgemeine Funktionen für das Segment DuA
+ * Copyright (C) 2007-2015 BitCtrl Systems GmbH
+ *
+ * This library is free software; you can redistribute it and/or modify it under
+ * the terms of the GNU Lesser General Public License as published by the Free
+ * Software Foundation; either version 2.1 of the License, or (at your option)
+ * any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE.  See the GNU Lesser General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this library; if not, write to the Free Software Foundation, Inc.,
+ * 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA.
+ *
+ * Contact Information:
+ * BitCtrl Systems GmbH
+ * Weißenfelser Straße 67
+ * 04229 Leipzig
+ * Phone: +49 341-490670
+ * mailto: info@bitctrl.de
+ */
+
+package de.bsvrz.sys.funclib.bitctrl.dua.testausfall;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Testet die Klasse <code>KontrollZeitpunktIndex</code>.
+ *
+ * @author BitCtrl Systems GmbH, Gieseler
+ *
+ */
+public class TestKontrollZeitpunktIndex {
+
+	/**
+	 * Vergleicht den Index bei zufälligem Setzen und Entfernen mit einer
+	 * einfachen Map.
+	 */
+	@Test
+	public void testVergleichMitMap() {
+		final Random zufall = new Random(4711);
+		final KontrollZeitpunktIndex<Integer, String> index = new KontrollZeitpunktIndex<>();
+		final Map<Integer, Long> referenz = new HashMap<>();
+
+		for (int i = 0; i < 200000; i++) {
+			final Integer objekt = zufall.nextInt(500);
+			if (zufall.nextInt(4) == 0) {
+				Assert.assertEquals(referenz.remove(objekt) != null, index.entferne(objekt) != null);
+			} else {
+				final long zeitpunkt = zufall.nextInt(10000);
+				referenz.put(objekt, zeitpunkt);
+				index.setze(objekt, zeitpunkt, "O" + objekt);
+			}
+
+			Assert.assertEquals(referenz.size(), index.size());
+			long minimum = -1;
+			for (final Long zeitpunkt : referenz.values()) {
+				if ((minimum < 0) || (zeitpunkt < minimum)) {
+					minimum = zeitpunkt;
+				}
+			}
+			Assert.assertEquals(minimum, index.getFruehesterZeitpunkt());
+			Assert.assertEquals(referenz.containsKey(objekt) ? referenz.get(objekt).longValue() : -1,
+					index.getZeitpunkt(objekt));
+		}
+
+		final long grenze = 5000;
+		int erwartet = 0;
+		for (final Long zeitpunkt : referenz.values()) {
+			if (zeitpunkt <= grenze) {
+				erwartet++;
+			}
+		}
+		final List<String> entnommen = new ArrayList<>();
+		Assert.assertEquals(erwartet, index.entnehme(grenze, entnommen));
+		Assert.assertEquals(erwartet, entnommen.size());
+		Assert.assertEquals(referenz.size() - erwartet, index.size());
+		Assert.assertTrue(index.isLeer() || (index.getFruehesterZeitpunkt() > grenze));
+	}
+
+	/**
+	 * Misst das Umplanen von 50000 Objekten mit einem Intervall von einer
+	 * Minute und zufälligem Zeitstempel-Jitter (wie in der Ausfallüberwachung
+	 * für jedes empfangene Datum). Die Dauer hängt von der Maschine ab und
+	 * wird nur ausgegeben.
+	 */
+	@Test
+	public void testDurchsatz() {
+		final int anzahlObjekte = 50000;
+		final int runden = 20;
+		final long intervall = TimeUnit.MINUTES.toMillis(1);
+		final Random zufall = new Random(42);
+		final KontrollZeitpunktIndex<Integer, Integer> index = new KontrollZeitpunktIndex<>();
+		final Integer[] objekte = new Integer[anzahlObjekte];
+		for (int i = 0; i < anzahlObjekte; i++) {
+			objekte[i] = i;
+			index.setze(objekte[i], intervall + zufall.nextInt(1000), objekte[i]);
+		}
+
+		final long t0 = System.nanoTime();
+		for (int runde = 1; runde <= runden; runde++) {
+			for (final Integer objekt : objekte) {
+				index.entferne(objekt);
+				index.setze(objekt, ((runde + 1) * intervall) + zufall.nextInt(1000), objekt);
+			}
+		}
+		final long dauer = System.nanoTime() - t0;
+		final long operationen = (long) anzahlObjekte * runden;
+
+		System.out.println("KontrollZeitpunktIndex: " + (dauer / operationen) + " ns/Umplanung bei " + anzahlObjekte
+				+ " Objekten");
+		Assert.assertEquals(anzahlObjekte, index.size());
+		Assert.assertTrue(index.getFruehesterZeitpunkt() >= ((runden + 1) * intervall));
+	}
+}